@@ -170,7 +170,7 @@ public class BufferedResponse implements WrappingWebScriptResponse
     {
         if (outputStream != null)
         {
-            outputStream = null;
+            destroyOutputStream();
         }
         else if (outputWriter != null)
         {
@@ -186,7 +186,7 @@ public class BufferedResponse implements WrappingWebScriptResponse
     {
         if (outputStream != null)
         {
-            outputStream = null;
+            destroyOutputStream();
         }
         else if (outputWriter != null)
         {
@@ -240,6 +240,32 @@ public class BufferedResponse implements WrappingWebScriptResponse
         res.setStatus(status);
     }
 
+    /**
+     * Discard the buffered response, removing any temp file and releasing the buffered memory
+     */
+    public void close()
+    {
+        if (outputStream != null)
+        {
+            destroyOutputStream();
+        }
+        outputWriter = null;
+    }
+
+    private void destroyOutputStream()
+    {
+        try
+        {
+            outputStream.destroy();
+        }
+        catch (IOException e)
+        {
+            if (logger.isDebugEnabled())
+                logger.debug("Failed to destroy buffered output stream", e);
+        }
+        outputStream = null;
+    }
+
     /**
      * Write buffered response to underlying response
      */
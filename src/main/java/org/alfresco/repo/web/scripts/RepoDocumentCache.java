@@ -0,0 +1,247 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.web.scripts;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.alfresco.model.ContentModel;
+import org.alfresco.repo.node.NodeServicePolicies.OnCreateChildAssociationPolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnDeleteChildAssociationPolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnDeleteNodePolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnMoveNodePolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnUpdateNodePolicy;
+import org.alfresco.repo.policy.Behaviour.NotificationFrequency;
+import org.alfresco.repo.policy.JavaBehaviour;
+import org.alfresco.repo.policy.PolicyComponent;
+import org.alfresco.repo.web.util.AbstractLocalCache;
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.util.Pair;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Index of the documents of a {@link RepoStore} by tenant and document path: the node, last modified time and
+ * (for small documents) the content, so that repeated lookups of scripts and templates need no transaction.
+ * Paths that do not resolve to a document are kept too.
+ * <p>
+ * The nodes traversed to resolve each path are watched: the whole index is cleared as soon as one of them, or a
+ * child association from one of them, changes, and again when the changing transaction commits. The changing
+ * transaction itself does not use the index.
+ * <p>
+ * The index is local to the cluster node. A script or template that is added, changed or deleted on another node
+ * is served here as it was (or still reported as missing or present) until its entry expires after the time to
+ * live. This is acceptable because these documents are edited rarely, by administrators, and new or changed web
+ * script descriptions are only picked up once the web script registry of each node is refreshed anyway.
+ */
+public class RepoDocumentCache extends AbstractLocalCache implements OnCreateChildAssociationPolicy,
+            OnDeleteChildAssociationPolicy, OnUpdateNodePolicy, OnDeleteNodePolicy, OnMoveNodePolicy
+{
+    private static final Log logger = LogFactory.getLog(RepoDocumentCache.class);
+
+    private final Region<Pair<String, String>, Document> documents = new Region<>(64);
+    private final Set<NodeRef> watchedNodes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param maxItems the maximum number of document paths kept
+     * @param timeToLive the time in milliseconds after which a document is looked up again, 0 to keep it until it
+     *            is invalidated or evicted
+     */
+    public RepoDocumentCache(int maxItems, long timeToLive)
+    {
+        super(maxItems, timeToLive);
+    }
+
+    /**
+     * Clear the index when the content (or folders) of the store change.
+     * 
+     * @param policyComponent PolicyComponent
+     */
+    public void bind(PolicyComponent policyComponent)
+    {
+        policyComponent.bindClassBehaviour(OnCreateChildAssociationPolicy.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onCreateChildAssociation", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnDeleteChildAssociationPolicy.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onDeleteChildAssociation", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnUpdateNodePolicy.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onUpdateNode", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnDeleteNodePolicy.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onDeleteNode", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnMoveNodePolicy.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onMoveNode", NotificationFrequency.EVERY_EVENT));
+    }
+
+    /**
+     * Get an indexed document.
+     * 
+     * @param tenantDomain the tenant domain
+     * @param documentPath the document path
+     * @return the document, or <tt>null</tt> if the path is not indexed (or may not be used by this transaction)
+     */
+    public Document get(String tenantDomain, String documentPath)
+    {
+        if (isChangedInTransaction())
+        {
+            return null;
+        }
+        return documents.get(new Pair<>(tenantDomain, documentPath));
+    }
+
+    /**
+     * Index a document.
+     * 
+     * @param tenantDomain the tenant domain
+     * @param documentPath the document path
+     * @param document the document
+     * @param traversedNodes the nodes traversed to resolve the path, including the document
+     * @param readGeneration the generation read before the document was looked up, the document is not kept if
+     *            the store changed since
+     */
+    public void put(String tenantDomain, String documentPath, Document document, Collection<NodeRef> traversedNodes, long readGeneration)
+    {
+        if (isChangedInTransaction())
+        {
+            return;
+        }
+        watchedNodes.addAll(traversedNodes);
+        documents.put(new Pair<>(tenantDomain, documentPath), document, readGeneration);
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        super.clear();
+        watchedNodes.clear();
+    }
+
+    @Override
+    public void onCreateChildAssociation(ChildAssociationRef childAssocRef, boolean isNewNode)
+    {
+        nodeChanged(childAssocRef.getParentRef());
+    }
+
+    @Override
+    public void onDeleteChildAssociation(ChildAssociationRef childAssocRef)
+    {
+        nodeChanged(childAssocRef.getParentRef());
+        nodeChanged(childAssocRef.getChildRef());
+    }
+
+    @Override
+    public void onUpdateNode(NodeRef nodeRef)
+    {
+        nodeChanged(nodeRef);
+    }
+
+    @Override
+    public void onDeleteNode(ChildAssociationRef childAssocRef, boolean isNodeArchived)
+    {
+        nodeChanged(childAssocRef.getParentRef());
+        nodeChanged(childAssocRef.getChildRef());
+    }
+
+    @Override
+    public void onMoveNode(ChildAssociationRef oldChildAssocRef, ChildAssociationRef newChildAssocRef)
+    {
+        nodeChanged(oldChildAssocRef.getParentRef());
+        nodeChanged(newChildAssocRef.getParentRef());
+        nodeChanged(newChildAssocRef.getChildRef());
+    }
+
+    private void nodeChanged(NodeRef nodeRef)
+    {
+        if (nodeRef == null || !watchedNodes.contains(nodeRef))
+        {
+            return;
+        }
+        changedInTransaction();
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("Cleared the document index after a change to " + nodeRef);
+        }
+    }
+
+    /**
+     * An indexed document path.
+     */
+    public static class Document
+    {
+        private final NodeRef nodeRef;
+        private final boolean contentExists;
+        private final long lastModified;
+        private final String encoding;
+        private volatile byte[] content;
+
+        /**
+         * @param nodeRef the document, <tt>null</tt> if the path does not resolve to a node
+         * @param contentExists whether the content of the document exists
+         * @param lastModified the last modified time of the content
+         * @param encoding the encoding of the content
+         */
+        public Document(NodeRef nodeRef, boolean contentExists, long lastModified, String encoding)
+        {
+            this.nodeRef = nodeRef;
+            this.contentExists = contentExists;
+            this.lastModified = lastModified;
+            this.encoding = encoding;
+        }
+
+        public NodeRef getNodeRef()
+        {
+            return nodeRef;
+        }
+
+        public boolean isContentExists()
+        {
+            return contentExists;
+        }
+
+        public long getLastModified()
+        {
+            return lastModified;
+        }
+
+        public String getEncoding()
+        {
+            return encoding;
+        }
+
+        /**
+         * @return the content, or <tt>null</tt> if it has not been kept
+         */
+        public byte[] getContent()
+        {
+            return content;
+        }
+
+        public void setContent(byte[] content)
+        {
+            this.content = content;
+        }
+    }
+}
@@ -25,6 +25,7 @@
  */
 package org.alfresco.repo.web.scripts;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -32,6 +33,7 @@ import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +43,7 @@ import java.util.regex.Pattern;
 import org.alfresco.error.AlfrescoRuntimeException;
 import org.alfresco.model.ContentModel;
 import org.alfresco.repo.model.filefolder.FileFolderServiceImpl;
+import org.alfresco.repo.policy.PolicyComponent;
 import org.alfresco.repo.security.authentication.AuthenticationUtil;
 import org.alfresco.repo.tenant.TenantAdminService;
 import org.alfresco.repo.tenant.TenantDeployer;
@@ -61,6 +64,9 @@ import org.alfresco.service.cmr.security.PermissionService;
 import org.alfresco.service.namespace.NamespaceService;
 import org.alfresco.util.ISO9075;
 import org.alfresco.util.SearchLanguageConversion;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.FileCopyUtils;
 import org.springframework.extensions.webscripts.AbstractStore;
 import org.springframework.extensions.webscripts.ScriptContent;
 import org.springframework.extensions.webscripts.ScriptLoader;
@@ -77,6 +83,8 @@ import freemarker.cache.TemplateLoader;
  */
 public class RepoStore extends AbstractStore implements TenantDeployer
 {
+    private static final Log logger = LogFactory.getLog(RepoStore.class);
+
     protected boolean mustExist = false;
     protected StoreRef repoStore;
     protected String repoPath;
@@ -91,6 +99,15 @@ public class RepoStore extends AbstractStore implements TenantDeployer
     protected NamespaceService namespaceService;
     protected PermissionService permissionService;
     protected TenantAdminService tenantAdminService;
+    protected PolicyComponent policyComponent;
+
+    // document index
+    private boolean cacheEnabled = false;
+    private boolean cacheWarm = true;
+    private int cacheMaxItems = 1000;
+    private int cacheMaxContentSize = 32768;
+    private long cacheTimeToLive = 60000L;
+    private RepoDocumentCache documentCache;
 
     
     /**
@@ -157,6 +174,54 @@ public class RepoStore extends AbstractStore implements TenantDeployer
         this.tenantAdminService = tenantAdminService;
     }
 
+    /**
+     * Sets the policy component, used to invalidate the document index
+     */
+    public void setPolicyComponent(PolicyComponent policyComponent)
+    {
+        this.policyComponent = policyComponent;
+    }
+
+    /**
+     * Sets whether the documents of the store are indexed in memory
+     */
+    public void setCacheEnabled(boolean cacheEnabled)
+    {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    /**
+     * Sets whether all the documents of the store are indexed by {@link #init()}
+     */
+    public void setCacheWarm(boolean cacheWarm)
+    {
+        this.cacheWarm = cacheWarm;
+    }
+
+    /**
+     * Sets the maximum number of indexed document paths
+     */
+    public void setCacheMaxItems(int cacheMaxItems)
+    {
+        this.cacheMaxItems = cacheMaxItems;
+    }
+
+    /**
+     * Sets the size (in bytes) of the largest document whose content is kept in the index
+     */
+    public void setCacheMaxContentSize(int cacheMaxContentSize)
+    {
+        this.cacheMaxContentSize = cacheMaxContentSize;
+    }
+
+    /**
+     * Sets the time (in ms) after which an indexed document is looked up again, 0 to keep it until it changes
+     */
+    public void setCacheTimeToLive(long cacheTimeToLive)
+    {
+        this.cacheTimeToLive = cacheTimeToLive;
+    }
+
     /**
      * Sets whether the repo store must exist
      * 
@@ -195,6 +260,18 @@ public class RepoStore extends AbstractStore implements TenantDeployer
         {
     		baseNodeRefs = new HashMap<String, NodeRef>(1);
     	}
+        if (cacheEnabled)
+        {
+            if (documentCache == null)
+            {
+                documentCache = new RepoDocumentCache(cacheMaxItems, cacheTimeToLive);
+                documentCache.bind(policyComponent);
+            }
+            if (cacheWarm)
+            {
+                warmDocumentCache();
+            }
+        }
     }
     
     /* (non-Javadoc)
@@ -203,6 +280,98 @@ public class RepoStore extends AbstractStore implements TenantDeployer
     public void destroy()
     {
         baseNodeRefs.remove(tenantAdminService.getCurrentUserDomain());
+        if (documentCache != null)
+        {
+            documentCache.clear();
+        }
+    }
+
+    /**
+     * Index all the documents of the store (of the current tenant), up to the maximum number of indexed paths.
+     */
+    private void warmDocumentCache()
+    {
+        try
+        {
+            String[] documentPaths = getAllDocumentPaths();
+            for (int i = 0; i < documentPaths.length && i < cacheMaxItems; i++)
+            {
+                getIndexedDocument(documentPaths[i]);
+            }
+        }
+        catch (RuntimeException e)
+        {
+            // eg. the repository is not bootstrapped yet - documents are indexed as they are looked up
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Unable to index the documents of web script store " + getBasePath() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gets the indexed document at the specified path, looking it up if it is not indexed yet
+     * 
+     * @param documentPath String
+     * @return  the document, with a <tt>null</tt> node ref if the path does not exist
+     */
+    private RepoDocumentCache.Document getIndexedDocument(final String documentPath)
+    {
+        final String tenantDomain = tenantAdminService.getCurrentUserDomain();
+        RepoDocumentCache.Document document = documentCache.get(tenantDomain, documentPath);
+        if (document == null)
+        {
+            final long readGeneration = documentCache.getGeneration();
+            final List<NodeRef> traversedNodes = new ArrayList<NodeRef>();
+            document = AuthenticationUtil.runAs(new AuthenticationUtil.RunAsWork<RepoDocumentCache.Document>()
+            {
+                public RepoDocumentCache.Document doWork() throws Exception
+                {
+                    return retryingTransactionHelper.doInTransaction(new RetryingTransactionCallback<RepoDocumentCache.Document>()
+                    {
+                        public RepoDocumentCache.Document execute() throws Exception
+                        {
+                            traversedNodes.clear();
+                            NodeRef nodeRef = findNodeRef(documentPath, traversedNodes);
+                            if (nodeRef == null)
+                            {
+                                return new RepoDocumentCache.Document(null, false, 0L, null);
+                            }
+                            ContentReader reader = contentService.getReader(nodeRef, ContentModel.PROP_CONTENT);
+                            if (reader == null || !reader.exists())
+                            {
+                                return new RepoDocumentCache.Document(nodeRef, false, 0L, null);
+                            }
+                            RepoDocumentCache.Document result = new RepoDocumentCache.Document(nodeRef, true, reader.getLastModified(), reader.getEncoding());
+                            if (reader.getSize() <= cacheMaxContentSize)
+                            {
+                                result.setContent(FileCopyUtils.copyToByteArray(reader.getContentInputStream()));
+                            }
+                            return result;
+                        }
+                    }, true, false);
+                }
+            }, AuthenticationUtil.getSystemUserName());
+            documentCache.put(tenantDomain, documentPath, document, traversedNodes, readGeneration);
+        }
+        return document;
+    }
+
+    /**
+     * Gets the content of a document from the index, if it is kept and the path still resolves to the node
+     * 
+     * @param documentPath String
+     * @param nodeRef NodeRef
+     * @return  the indexed document, or <tt>null</tt>
+     */
+    private RepoDocumentCache.Document getIndexedContent(String documentPath, NodeRef nodeRef)
+    {
+        if (documentCache == null || documentPath == null)
+        {
+            return null;
+        }
+        RepoDocumentCache.Document document = getIndexedDocument(documentPath);
+        return (nodeRef.equals(document.getNodeRef()) && document.getContent() != null) ? document : null;
     }
     
     private NodeRef getBaseNodeRef()
@@ -317,6 +486,11 @@ public class RepoStore extends AbstractStore implements TenantDeployer
      */
     protected NodeRef findNodeRef(String documentPath)
     {
+        if (documentCache != null)
+        {
+            return findNodeRef(documentPath, new ArrayList<NodeRef>());
+        }
+
         NodeRef node = null;
         try
         {
@@ -332,6 +506,29 @@ public class RepoStore extends AbstractStore implements TenantDeployer
         return node;
     }
 
+    /**
+     * Gets the node ref for the specified path within this repo store, recording the nodes traversed
+     * 
+     * @param documentPath String
+     * @param traversedNodes  the base node and the nodes resolved along the path are added to it
+     * @return  node ref, or <tt>null</tt> if the path does not exist
+     */
+    private NodeRef findNodeRef(String documentPath, Collection<NodeRef> traversedNodes)
+    {
+        NodeRef node = getBaseNodeRef();
+        traversedNodes.add(node);
+        for (String pathElement : documentPath.split("/"))
+        {
+            node = nodeService.getChildByName(node, ContentModel.ASSOC_CONTAINS, pathElement);
+            if (node == null)
+            {
+                return null;
+            }
+            traversedNodes.add(node);
+        }
+        return node;
+    }
+
     /* (non-Javadoc)
      * @see org.alfresco.web.scripts.Store#getScriptDocumentPaths(org.alfresco.web.scripts.WebScript)
      */
@@ -642,6 +839,15 @@ public class RepoStore extends AbstractStore implements TenantDeployer
      */
     public long lastModified(final String documentPath) throws IOException
     {
+        if (documentCache != null)
+        {
+            RepoDocumentCache.Document document = getIndexedDocument(documentPath);
+            if (document.isContentExists())
+            {
+                return document.getLastModified();
+            }
+        }
+
         return AuthenticationUtil.runAs(new AuthenticationUtil.RunAsWork<Long>()
         {
             public Long doWork() throws Exception
@@ -664,6 +870,11 @@ public class RepoStore extends AbstractStore implements TenantDeployer
      */
     public boolean hasDocument(final String documentPath)
     {
+        if (documentCache != null)
+        {
+            return (getIndexedDocument(documentPath).getNodeRef() != null);
+        }
+
         return AuthenticationUtil.runAs(new AuthenticationUtil.RunAsWork<Boolean>()
         {
             public Boolean doWork() throws Exception
@@ -686,6 +897,24 @@ public class RepoStore extends AbstractStore implements TenantDeployer
     public InputStream getDocument(final String documentPath)      
         throws IOException
     {
+        if (documentCache != null)
+        {
+            RepoDocumentCache.Document document = getIndexedDocument(documentPath);
+            if (document.getNodeRef() == null)
+            {
+                throw new IOException("Document " + documentPath + " does not exist.");
+            }
+            if (!document.isContentExists())
+            {
+                throw new IOException("Failed to read content at " + documentPath + " (content reader does not exist)");
+            }
+            byte[] content = document.getContent();
+            if (content != null)
+            {
+                return new ByteArrayInputStream(content);
+            }
+        }
+
         return AuthenticationUtil.runAs(new AuthenticationUtil.RunAsWork<InputStream>()
         {
             public InputStream doWork() throws Exception
@@ -838,6 +1067,12 @@ public class RepoStore extends AbstractStore implements TenantDeployer
         public Object findTemplateSource(final String name)
             throws IOException
         {
+            if (documentCache != null)
+            {
+                NodeRef nodeRef = getIndexedDocument(name).getNodeRef();
+                return (nodeRef != null) ? new RepoTemplateSource(nodeRef, name) : null;
+            }
+
             return AuthenticationUtil.runAs(new AuthenticationUtil.RunAsWork<Object>()
             {
                 public Object doWork() throws Exception
@@ -891,6 +1126,7 @@ public class RepoStore extends AbstractStore implements TenantDeployer
     private class RepoTemplateSource
     {
         protected final NodeRef nodeRef;
+        protected final String path;
 
         /**
          * Construct
@@ -898,8 +1134,20 @@ public class RepoStore extends AbstractStore implements TenantDeployer
          * @param ref NodeRef
          */
         private RepoTemplateSource(NodeRef ref)
+        {
+            this(ref, null);
+        }
+
+        /**
+         * Construct
+         * 
+         * @param ref NodeRef
+         * @param path the document path the template was found at, to read it from the document index
+         */
+        private RepoTemplateSource(NodeRef ref, String path)
         {
             this.nodeRef = ref;
+            this.path = path;
         }
         
         /* (non-Javadoc)
@@ -940,6 +1188,12 @@ public class RepoStore extends AbstractStore implements TenantDeployer
          */
         public long lastModified()
         {
+            RepoDocumentCache.Document document = getIndexedContent(path, nodeRef);
+            if (document != null)
+            {
+                return document.getLastModified();
+            }
+
             return AuthenticationUtil.runAs(new AuthenticationUtil.RunAsWork<Long>()
             {
                 public Long doWork() throws Exception
@@ -964,6 +1218,12 @@ public class RepoStore extends AbstractStore implements TenantDeployer
          */
         public Reader getReader() throws IOException
         {
+            RepoDocumentCache.Document document = getIndexedContent(path, nodeRef);
+            if (document != null)
+            {
+                return new InputStreamReader(new ByteArrayInputStream(document.getContent()), document.getEncoding());
+            }
+
             return AuthenticationUtil.runAs(new AuthenticationUtil.RunAsWork<Reader>()
             {
                 public Reader doWork() throws Exception
@@ -993,6 +1253,12 @@ public class RepoStore extends AbstractStore implements TenantDeployer
          */
         public ScriptContent getScript(final String path)
         {
+            if (documentCache != null)
+            {
+                NodeRef nodeRef = getIndexedDocument(path).getNodeRef();
+                return (nodeRef != null) ? new RepoScriptContent(path, nodeRef) : null;
+            }
+
             return AuthenticationUtil.runAs(new AuthenticationUtil.RunAsWork<ScriptContent>()
             {
                 public ScriptContent doWork() throws Exception
@@ -1042,6 +1308,12 @@ public class RepoStore extends AbstractStore implements TenantDeployer
          */
         public InputStream getInputStream()
         {
+            RepoDocumentCache.Document document = getIndexedContent(path, nodeRef);
+            if (document != null)
+            {
+                return new ByteArrayInputStream(document.getContent());
+            }
+
             return AuthenticationUtil.runAs(new AuthenticationUtil.RunAsWork<InputStream>()
             {
                 public InputStream doWork() throws Exception
@@ -1063,10 +1335,11 @@ public class RepoStore extends AbstractStore implements TenantDeployer
          */
         public Reader getReader()
         {
-            ContentReader reader = contentService.getReader(nodeRef, ContentModel.PROP_CONTENT);
+            RepoDocumentCache.Document document = getIndexedContent(path, nodeRef);
+            String encoding = (document != null) ? document.getEncoding() : contentService.getReader(nodeRef, ContentModel.PROP_CONTENT).getEncoding();
             try
             {
-                return new InputStreamReader(getInputStream(), reader.getEncoding());
+                return new InputStreamReader(getInputStream(), encoding);
             }
             catch (UnsupportedEncodingException e)
             {
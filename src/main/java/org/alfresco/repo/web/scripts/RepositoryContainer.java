@@ -97,6 +97,7 @@ public class RepositoryContainer extends AbstractRuntimeContainer
     private long maxContentSize = (long) 4 * 1024 * 1024 * 1024; // 4gb
     private TempOutputStreamFactory streamFactory = null;
     private TempOutputStreamFactory responseStreamFactory = null;
+    private TempBufferPool bufferPool = null;
     private String preserveHeadersPattern = null;
 
     private Class<?>[] notPublicExceptions = new Class<?>[] {};
@@ -108,8 +109,16 @@ public class RepositoryContainer extends AbstractRuntimeContainer
     public void setup()
     {
         File tempDirectory = TempFileProvider.getTempDir(tempDirectoryName);
-        this.streamFactory = new TempOutputStreamFactory(tempDirectory, memoryThreshold, maxContentSize, encryptTempFiles, false);
-        this.responseStreamFactory = new TempOutputStreamFactory(tempDirectory, memoryThreshold, maxContentSize, encryptTempFiles, true);
+        this.streamFactory = new TempOutputStreamFactory(tempDirectory, memoryThreshold, maxContentSize, encryptTempFiles, false, bufferPool);
+        this.responseStreamFactory = new TempOutputStreamFactory(tempDirectory, memoryThreshold, maxContentSize, encryptTempFiles, true, bufferPool);
+    }
+
+    /**
+     * @param bufferPool the memory pool (and global memory budget) shared by the buffered requests and responses
+     */
+    public void setBufferPool(TempBufferPool bufferPool)
+    {
+        this.bufferPool = bufferPool;
     }
 
     public void setEncryptTempFiles(Boolean encryptTempFiles)
@@ -584,6 +593,7 @@ public class RepositoryContainer extends AbstractRuntimeContainer
                                "' is a GET request but it's descriptor has declared a readwrite transaction is required");
                 }
             
+                boolean executed = false;
                 try
                 {
                     RetryingTransactionHelper transactionHelper = transactionService.getRetryingTransactionHelper();
@@ -593,6 +603,7 @@ public class RepositoryContainer extends AbstractRuntimeContainer
                         transactionHelper.setForceWritable(true);
                     }
                     transactionHelper.doInTransaction(work, readonly, requiresNew);
+                    executed = true;
                 }
                 catch (TooBusyException e)
                 {
@@ -606,6 +617,11 @@ public class RepositoryContainer extends AbstractRuntimeContainer
                     {
                         bufferedReq.close();
                     }
+                    // Discard the buffered response (and return its memory) if the script failed
+                    if (!executed && bufferedRes != null)
+                    {
+                        bufferedRes.close();
+                    }
                 }
 
                 // Ensure a response is always flushed after successful execution
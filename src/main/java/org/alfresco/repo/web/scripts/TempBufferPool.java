@@ -0,0 +1,207 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.web.scripts;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of fixed size memory chunks shared by the {@link TempOutputStream}s of all in-flight requests.
+ * <p/>
+ * 
+ * The pool enforces a global memory budget: once the chunks handed out reach the budget no more chunks
+ * are given out and the requesting stream spills its content to a temp file, regardless of its own
+ * memory threshold. Released chunks are kept for reuse (up to <b>maxPooledBytes</b>) to avoid
+ * allocating and copying large buffers for every request.
+ * <p/>
+ * 
+ * The pool also records how much content is currently buffered in memory and how much has been spilled,
+ * exposed over JMX through {@link TempBufferPoolMBean}.
+ */
+public class TempBufferPool implements TempBufferPoolMBean
+{
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024; // 16kb
+    private static final long DEFAULT_MEMORY_BUDGET = 256L * 1024 * 1024; // 256mb
+    private static final long DEFAULT_MAX_POOLED_BYTES = 16L * 1024 * 1024; // 16mb
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+    private long maxPooledBytes = DEFAULT_MAX_POOLED_BYTES;
+
+    private final Queue<byte[]> pooledChunks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledChunkCount = new AtomicInteger();
+    private final AtomicLong bytesBuffered = new AtomicLong();
+    private final AtomicLong bytesSpilled = new AtomicLong();
+    private final AtomicLong spillCount = new AtomicLong();
+
+    /**
+     * Creates a pool with the default chunk size, memory budget and pool size.
+     */
+    public TempBufferPool()
+    {
+    }
+
+    /**
+     * Creates a pool.
+     * 
+     * @param chunkSize
+     *            the size of each memory chunk in B
+     * @param memoryBudget
+     *            the maximum memory in B held by all streams using the pool, -1 for no limit
+     * @param maxPooledBytes
+     *            the maximum memory in B kept for reuse once released
+     */
+    public TempBufferPool(int chunkSize, long memoryBudget, long maxPooledBytes)
+    {
+        setChunkSize(chunkSize);
+        setMemoryBudget(memoryBudget);
+        setMaxPooledBytes(maxPooledBytes);
+    }
+
+    /**
+     * Note: the chunk size must not be changed once the pool is in use.
+     */
+    public void setChunkSize(int chunkSize)
+    {
+        if (chunkSize <= 0)
+        {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public void setMemoryBudget(long memoryBudget)
+    {
+        this.memoryBudget = memoryBudget;
+    }
+
+    public void setMaxPooledBytes(long maxPooledBytes)
+    {
+        this.maxPooledBytes = maxPooledBytes;
+    }
+
+    public int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    public long getMemoryBudget()
+    {
+        return memoryBudget;
+    }
+
+    /**
+     * Acquire a chunk within the memory budget.
+     * 
+     * @return the chunk or <tt>null</tt> if the memory budget has been used up
+     */
+    public byte[] acquire()
+    {
+        long buffered = bytesBuffered.addAndGet(chunkSize);
+        if (memoryBudget > -1 && buffered > memoryBudget)
+        {
+            bytesBuffered.addAndGet(-chunkSize);
+            return null;
+        }
+
+        byte[] chunk = pooledChunks.poll();
+        if (chunk != null)
+        {
+            pooledChunkCount.decrementAndGet();
+            return chunk;
+        }
+        return new byte[chunkSize];
+    }
+
+    /**
+     * Release a chunk previously acquired from this pool.
+     */
+    public void release(byte[] chunk)
+    {
+        bytesBuffered.addAndGet(-chunkSize);
+        if ((long) pooledChunkCount.incrementAndGet() * chunkSize <= maxPooledBytes)
+        {
+            pooledChunks.offer(chunk);
+        }
+        else
+        {
+            pooledChunkCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Record that content has been spilled from memory to a temp file.
+     * 
+     * @param bytes the number of bytes moved from memory to the temp file
+     */
+    public void recordSpill(long bytes)
+    {
+        spillCount.incrementAndGet();
+        bytesSpilled.addAndGet(bytes);
+    }
+
+    /**
+     * Record that content has been written to a temp file.
+     */
+    public void recordSpilledBytes(long bytes)
+    {
+        bytesSpilled.addAndGet(bytes);
+    }
+
+    /**
+     * @return the memory in B currently held by streams using this pool
+     */
+    public long getBytesBuffered()
+    {
+        return bytesBuffered.get();
+    }
+
+    /**
+     * @return the total number of bytes written to temp files
+     */
+    public long getBytesSpilled()
+    {
+        return bytesSpilled.get();
+    }
+
+    /**
+     * @return the number of streams that have spilled to a temp file
+     */
+    public long getSpillCount()
+    {
+        return spillCount.get();
+    }
+
+    /**
+     * @return the memory in B held for reuse
+     */
+    public long getBytesPooled()
+    {
+        return (long) pooledChunkCount.get() * chunkSize;
+    }
+}
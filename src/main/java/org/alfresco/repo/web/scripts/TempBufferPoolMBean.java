@@ -0,0 +1,62 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.web.scripts;
+
+/**
+ * Management interface of the {@link TempBufferPool}.
+ */
+public interface TempBufferPoolMBean
+{
+    /**
+     * @return the size of each memory chunk in B
+     */
+    int getChunkSize();
+
+    /**
+     * @return the maximum memory in B held by all streams using the pool, -1 for no limit
+     */
+    long getMemoryBudget();
+
+    /**
+     * @return the memory in B currently held by streams using the pool
+     */
+    long getBytesBuffered();
+
+    /**
+     * @return the memory in B held for reuse
+     */
+    long getBytesPooled();
+
+    /**
+     * @return the total number of bytes written to temp files
+     */
+    long getBytesSpilled();
+
+    /**
+     * @return the number of streams that have spilled to a temp file
+     */
+    long getSpillCount();
+}
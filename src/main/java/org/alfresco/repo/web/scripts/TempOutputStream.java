@@ -28,14 +28,17 @@ package org.alfresco.repo.web.scripts;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import javax.crypto.Cipher;
 import javax.crypto.CipherInputStream;
@@ -53,6 +56,11 @@ import org.apache.commons.logging.LogFactory;
  * the specified <b>memoryThreshold</b> otherwise it writes it to a temp file.
  * <p/>
  *
+ * The data is kept in fixed size chunks. If a {@link TempBufferPool} is given the
+ * chunks are taken from (and returned to) the pool, and the data is also written to
+ * a temp file when the pool's global memory budget has been used up.
+ * <p/>
+ *
  * Close the stream before any call to
  * {@link TempOutputStream}.getInputStream().
  * <p/>
@@ -91,10 +99,14 @@ public class TempOutputStream extends OutputStream
     private boolean encrypt;
     private boolean deleteTempFileOnClose;
 
+    private final TempBufferPool bufferPool;
+    private final int chunkSize;
+
     private long length = 0;
     private OutputStream outputStream;
     private File tempFile;
-    private TempByteArrayOutputStream tempStream;
+    private List<byte[]> chunks = new ArrayList<>();
+    private int count = 0;
 
     private Key symKey;
     private byte[] iv;
@@ -119,15 +131,39 @@ public class TempOutputStream extends OutputStream
      *            {@link TempOutputStream}.destroy to clean up properly.
      */
     public TempOutputStream(File tempDir, int memoryThreshold, long maxContentSize, boolean encrypt, boolean deleteTempFileOnClose)
+    {
+        this(tempDir, memoryThreshold, maxContentSize, encrypt, deleteTempFileOnClose, null);
+    }
+
+    /**
+     * Creates a TempOutputStream that keeps its in-memory data in chunks taken from the given pool.
+     * 
+     * @param tempDir
+     *            the temporary directory, i.e. <code>isDir == true</code>, that
+     *            will be used as * parent directory for creating temp file backed
+     *            streams
+     * @param memoryThreshold
+     *            the memory threshold in B
+     * @param maxContentSize
+     *            the max content size in B
+     * @param encrypt
+     *            true if temp files should be encrypted
+     * @param deleteTempFileOnClose
+     *            true if temp files should be deleted on output stream close
+     * @param bufferPool
+     *            the pool that provides the memory chunks and enforces the global memory budget,
+     *            or null to allocate the chunks directly
+     */
+    public TempOutputStream(File tempDir, int memoryThreshold, long maxContentSize, boolean encrypt, boolean deleteTempFileOnClose,
+                TempBufferPool bufferPool)
     {
         this.tempDir = tempDir;
         this.memoryThreshold = (memoryThreshold < 0) ? DEFAULT_MEMORY_THRESHOLD : memoryThreshold;
         this.maxContentSize = maxContentSize;
         this.encrypt = encrypt;
         this.deleteTempFileOnClose = deleteTempFileOnClose;
-
-        this.tempStream = new TempByteArrayOutputStream();
-        this.outputStream = this.tempStream;
+        this.bufferPool = bufferPool;
+        this.chunkSize = (bufferPool != null) ? bufferPool.getChunkSize() : TempBufferPool.DEFAULT_CHUNK_SIZE;
     }
 
     /**
@@ -161,9 +197,20 @@ public class TempOutputStream extends OutputStream
             }
             return new BufferedInputStream(new FileInputStream(tempFile));
         }
+        else if (chunks.size() <= 1)
+        {
+            return new ByteArrayInputStream(chunks.isEmpty() ? new byte[0] : chunks.get(0), 0, count);
+        }
         else
         {
-            return new ByteArrayInputStream(tempStream.getBuffer(), 0, tempStream.getCount());
+            List<InputStream> chunkStreams = new ArrayList<>(chunks.size());
+            int remaining = count;
+            for (byte[] chunk : chunks)
+            {
+                chunkStreams.add(new ByteArrayInputStream(chunk, 0, Math.min(remaining, chunkSize)));
+                remaining -= chunkSize;
+            }
+            return new SequenceInputStream(Collections.enumeration(chunkStreams));
         }
     }
 
@@ -171,20 +218,46 @@ public class TempOutputStream extends OutputStream
     public void write(int b) throws IOException
     {
         update(1);
-        outputStream.write(b);
+        if (tempFile != null)
+        {
+            outputStream.write(b);
+        }
+        else
+        {
+            chunks.get(count / chunkSize)[count % chunkSize] = (byte) b;
+            count++;
+        }
     }
 
     @Override
     public void write(byte[] b, int off, int len) throws IOException
     {
         update(len);
-        outputStream.write(b, off, len);
+        if (tempFile != null)
+        {
+            outputStream.write(b, off, len);
+        }
+        else
+        {
+            while (len > 0)
+            {
+                int pos = count % chunkSize;
+                int n = Math.min(len, chunkSize - pos);
+                System.arraycopy(b, off, chunks.get(count / chunkSize), pos, n);
+                off += n;
+                len -= n;
+                count += n;
+            }
+        }
     }
 
     @Override
     public void flush() throws IOException
     {
-        outputStream.flush();
+        if (outputStream != null)
+        {
+            outputStream.flush();
+        }
     }
 
     @Override
@@ -216,6 +289,7 @@ public class TempOutputStream extends OutputStream
     public void destroy() throws IOException
     {
         close(true);
+        releaseChunks();
     }
 
     public long getLength()
@@ -337,47 +411,83 @@ public class TempOutputStream extends OutputStream
             throw new ContentLimitViolationException("Content size violation, limit = " + maxContentSize);
         }
 
-        if (tempFile == null && (tempStream.getCount() + len) > memoryThreshold)
+        if (tempFile == null && ((count + len) > memoryThreshold || !reserveChunks(len)))
+        {
+            spill();
+        }
+        if (tempFile != null && bufferPool != null)
         {
-            File file = TempFileProvider.createTempFile(TEMP_FILE_PREFIX, ".bin", tempDir);
+            bufferPool.recordSpilledBytes(len);
+        }
 
-            BufferedOutputStream fileOutputStream = createOutputStream(file);
-            fileOutputStream.write(this.tempStream.getBuffer(), 0, this.tempStream.getCount());
-            fileOutputStream.flush();
+        length += len;
+    }
 
-            try
+    /**
+     * Ensure there are enough chunks to hold another <b>len</b> bytes in memory.
+     * 
+     * @return false if the global memory budget does not allow the chunks to be acquired
+     */
+    private boolean reserveChunks(int len)
+    {
+        long required = (long) count + len;
+        while ((long) chunks.size() * chunkSize < required)
+        {
+            byte[] chunk = (bufferPool != null) ? bufferPool.acquire() : new byte[chunkSize];
+            if (chunk == null)
             {
-                tempStream.close();
+                return false;
             }
-            catch (IOException e)
+            chunks.add(chunk);
+        }
+        return true;
+    }
+
+    /**
+     * Move the data held in memory to a temp file and continue writing to the file.
+     */
+    private void spill() throws IOException
+    {
+        File file = TempFileProvider.createTempFile(TEMP_FILE_PREFIX, ".bin", tempDir);
+
+        BufferedOutputStream fileOutputStream = createOutputStream(file);
+        int remaining = count;
+        for (byte[] chunk : chunks)
+        {
+            if (remaining <= 0)
             {
-                // Ignore exception
+                break;
             }
-            tempStream = null;
+            fileOutputStream.write(chunk, 0, Math.min(remaining, chunkSize));
+            remaining -= chunkSize;
+        }
+        fileOutputStream.flush();
 
-            tempFile = file;
-            outputStream = fileOutputStream;
+        if (bufferPool != null)
+        {
+            bufferPool.recordSpill(count);
         }
+        releaseChunks();
 
-        length += len;
-    }
+        tempFile = file;
+        outputStream = fileOutputStream;
 
-    private static class TempByteArrayOutputStream extends ByteArrayOutputStream
-    {
-        /**
-         * @return The internal buffer where data is stored
-         */
-        public byte[] getBuffer()
+        if (logger.isDebugEnabled())
         {
-            return buf;
+            logger.debug("Spilled buffered content to temp file: " + file.getAbsolutePath());
         }
+    }
 
-        /**
-         * @return The number of valid bytes in the buffer.
-         */
-        public int getCount()
+    private void releaseChunks()
+    {
+        if (bufferPool != null)
         {
-            return count;
+            for (byte[] chunk : chunks)
+            {
+                bufferPool.release(chunk);
+            }
         }
+        chunks.clear();
+        count = 0;
     }
 }
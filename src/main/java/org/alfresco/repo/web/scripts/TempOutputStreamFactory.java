@@ -41,6 +41,7 @@ public class TempOutputStreamFactory
     private long maxContentSize;
     private boolean encrypt;
     private boolean deleteTempFileOnClose;
+    private TempBufferPool bufferPool;
 
     /**
      * Creates a {@link TempOutputStream} factory.
@@ -70,12 +71,38 @@ public class TempOutputStreamFactory
         this.deleteTempFileOnClose = deleteTempFileOnClose;
     }
 
+    /**
+     * Creates a {@link TempOutputStream} factory whose streams share the given memory pool.
+     * 
+     * @param tempDir
+     *            the temporary directory, i.e. <code>isDir == true</code>, that
+     *            will be used as * parent directory for creating temp file backed
+     *            streams
+     * @param memoryThreshold
+     *            the memory threshold in B
+     * @param maxContentSize
+     *            the max content size in B
+     * @param encrypt
+     *            true if temp files should be encrypted
+     * @param deleteTempFileOnClose
+     *            true if temp files should be deleted on output stream close
+     * @param bufferPool
+     *            the pool shared by the streams (which also enforces the global memory budget),
+     *            or null to allocate memory for each stream separately
+     */
+    public TempOutputStreamFactory(File tempDir, int memoryThreshold, long maxContentSize, boolean encrypt, boolean deleteTempFileOnClose,
+                TempBufferPool bufferPool)
+    {
+        this(tempDir, memoryThreshold, maxContentSize, encrypt, deleteTempFileOnClose);
+        this.bufferPool = bufferPool;
+    }
+
     /**
      * Creates a new {@link TempOutputStream} object
      */
     public TempOutputStream createOutputStream()
     {
-        return new TempOutputStream(tempDir, memoryThreshold, maxContentSize, encrypt, deleteTempFileOnClose);
+        return new TempOutputStream(tempDir, memoryThreshold, maxContentSize, encrypt, deleteTempFileOnClose, bufferPool);
     }
 
     public File getTempDir()
@@ -102,4 +129,9 @@ public class TempOutputStreamFactory
     {
         return deleteTempFileOnClose;
     }
+
+    public TempBufferPool getBufferPool()
+    {
+        return bufferPool;
+    }
 }
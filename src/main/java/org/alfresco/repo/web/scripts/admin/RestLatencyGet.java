@@ -0,0 +1,97 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.web.scripts.admin;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.alfresco.rest.framework.tools.LatencyHistogram;
+import org.alfresco.rest.framework.tools.RestLatencyMetrics;
+import org.alfresco.rest.framework.tools.RestOperationLatency;
+import org.springframework.extensions.webscripts.Cache;
+import org.springframework.extensions.webscripts.DeclarativeWebScript;
+import org.springframework.extensions.webscripts.Status;
+import org.springframework.extensions.webscripts.WebScriptRequest;
+
+/**
+ * GET the latency histograms of the REST API operations, see {@link RestLatencyMetrics}.
+ * <p>
+ * All latencies are reported in microseconds.
+ */
+public class RestLatencyGet extends DeclarativeWebScript
+{
+    private RestLatencyMetrics restLatencyMetrics;
+
+    public void setRestLatencyMetrics(RestLatencyMetrics restLatencyMetrics)
+    {
+        this.restLatencyMetrics = restLatencyMetrics;
+    }
+
+    @Override
+    protected Map<String, Object> executeImpl(WebScriptRequest req, Status status, Cache cache)
+    {
+        List<RestOperationLatency> latencies = new ArrayList<>(restLatencyMetrics.getOperationLatencies());
+        latencies.sort(Comparator.comparing(RestOperationLatency::getName));
+
+        List<Map<String, Object>> operations = new ArrayList<>(latencies.size());
+        for (RestOperationLatency latency : latencies)
+        {
+            Map<String, Object> phases = new LinkedHashMap<>(7);
+            phases.put("transaction", toModel(latency.getTransaction()));
+            phases.put("action", toModel(latency.getAction()));
+            phases.put("additions", toModel(latency.getAdditions()));
+            phases.put("serialization", toModel(latency.getSerialization()));
+
+            Map<String, Object> operation = new HashMap<>(3);
+            operation.put("name", latency.getName());
+            operation.put("phases", phases);
+            operations.add(operation);
+        }
+
+        Map<String, Object> model = new HashMap<>(3);
+        model.put("enabled", restLatencyMetrics.isEnabled());
+        model.put("operations", operations);
+        return model;
+    }
+
+    private static Map<String, Object> toModel(LatencyHistogram histogram)
+    {
+        Map<String, Object> model = new LinkedHashMap<>(11);
+        model.put("count", histogram.getCount());
+        model.put("mean", histogram.getMean() / 1000);
+        for (double percentile : RestLatencyMetrics.getPercentiles())
+        {
+            String name = "p" + (percentile % 1 == 0 ? String.valueOf((long) percentile) : String.valueOf(percentile).replace(".", ""));
+            model.put(name, histogram.getPercentile(percentile) / 1000);
+        }
+        model.put("max", histogram.getMax() / 1000);
+        return model;
+    }
+}
@@ -25,9 +25,14 @@
  */
 package org.alfresco.repo.web.scripts.audit;
 
+import java.io.Serializable;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.alfresco.service.cmr.audit.AuditService;
+import org.alfresco.service.cmr.repository.MLText;
+import org.alfresco.service.cmr.repository.datatype.DefaultTypeConverter;
+import org.alfresco.service.cmr.repository.datatype.TypeConversionException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.extensions.surf.util.I18NUtil;
@@ -253,6 +258,74 @@ public abstract class AbstractAuditWebScript extends DeclarativeWebScript
         return getBooleanParam(req.getParameter(PARAM_VERBOSE), DEFAULT_VERBOSE);
     }
 
+    /**
+     * Transform a search value to the type given by the <b>valueType</b> parameter.
+     * 
+     * @param value             the value, may be <tt>null</tt>
+     * @param valueType         the class name to convert the value to, may be <tt>null</tt>
+     * @return                  Returns the converted value, or the value itself if there is no type
+     */
+    protected Serializable convertParamValue(Serializable value, String valueType)
+    {
+        if (value != null && valueType != null)
+        {
+            try
+            {
+                @SuppressWarnings("unchecked")
+                Class<? extends Serializable> clazz = (Class<? extends Serializable>) Class.forName(valueType);
+                value = DefaultTypeConverter.INSTANCE.convert(clazz, value);
+            }
+            catch (ClassNotFoundException e)
+            {
+                throw new WebScriptException(Status.STATUS_BAD_REQUEST, "audit.err.value.classNotFound", valueType);
+            }
+            catch (Throwable e)
+            {
+                throw new WebScriptException(Status.STATUS_BAD_REQUEST, "audit.err.value.convertFailed", value, valueType);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Convert the values of an audit entry to Strings.
+     * 
+     * @param values            the audit entry values
+     * @return                  Returns the values as Strings
+     */
+    protected static Map<String, String> convertValuesToStrings(Map<String, Serializable> values)
+    {
+        Map<String, String> valueStrings = new HashMap<String, String>(values.size() * 2);
+        for (Map.Entry<String, Serializable> mapEntry : values.entrySet())
+        {
+            String key = mapEntry.getKey();
+            Serializable value = mapEntry.getValue();
+            try
+            {
+                String valueString = DefaultTypeConverter.INSTANCE.convert(String.class, value);
+                valueStrings.put(key, valueString);
+            }
+            catch (ClassCastException e)
+            {
+                // Fix for symptoms of MNT-20992. It is possible to have MLText values whose underlying
+                // map's keys are not Locale, as MLText map keys should be. In this case we can expect
+                // a ClassCastException.
+                if (!(value instanceof MLText))
+                {
+                    // Rethrow if the exception was not caused by the expected MLText conversion.
+                    throw e;
+                }
+                valueStrings.put(key, value.toString());
+            }
+            catch (TypeConversionException e)
+            {
+                // Use the toString()
+                valueStrings.put(key, value.toString());
+            }
+        }
+        return valueStrings;
+    }
+
     private Long getLongParam(String paramStr, Long defaultVal)
     {
         if (paramStr == null)
@@ -0,0 +1,277 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.web.scripts.audit;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Map;
+
+import org.alfresco.error.AlfrescoRuntimeException;
+import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
+import org.alfresco.service.cmr.audit.AuditQueryParameters;
+import org.alfresco.service.cmr.audit.AuditService.AuditQueryCallback;
+import org.alfresco.service.transaction.TransactionService;
+import org.alfresco.util.ISO8601DateFormat;
+import org.springframework.extensions.webscripts.Status;
+import org.springframework.extensions.webscripts.WebScriptException;
+import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Streams audit entries as newline delimited JSON, one entry per line, with the same fields as the
+ * audit query. The entries are read in chunks, each in its own read-only transaction, and written
+ * to the response as they are found, so there is no limit on the number of entries exported.
+ * <p>
+ * An interrupted export can be resumed by passing the id following the last entry received as
+ * <b>fromId</b> (or the last entry id as <b>toId</b> when <b>forward</b> is false).
+ */
+public class AuditExportGet extends AbstractAuditWebScript
+{
+    public static final String MIMETYPE_NDJSON = "application/x-ndjson";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private TransactionService transactionService;
+    private int chunkSize = 1000;
+
+    public void setTransactionService(TransactionService transactionService)
+    {
+        this.transactionService = transactionService;
+    }
+
+    /**
+     * @param chunkSize         the number of entries read per transaction
+     */
+    public void setChunkSize(int chunkSize)
+    {
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void execute(WebScriptRequest req, WebScriptResponse res) throws IOException
+    {
+        final String appName = getParamAppName(req);
+        if (appName == null || !auditService.getAuditApplications().containsKey(appName))
+        {
+            throw new WebScriptException(Status.STATUS_NOT_FOUND, "audit.err.app.notFound", appName);
+        }
+
+        final String path = getParamPath(req);
+        final Serializable value = convertParamValue(getParamValue(req), getParamValueType(req));
+        final Long fromTime = getParamFromTime(req);
+        final Long toTime = getParamToTime(req);
+        final String user = getParamUser(req);
+        final boolean forward = getParamForward(req);
+        final boolean verbose = getParamVerbose(req);
+        // there is no default limit for an export
+        final long limit = (req.getParameter(PARAM_LIMIT) == null) ? Long.MAX_VALUE : getParamLimit(req);
+
+        res.setContentType(MIMETYPE_NDJSON);
+        res.setContentEncoding("UTF-8");
+        res.setStatus(Status.STATUS_OK);
+
+        final JsonGenerator generator = jsonFactory.createGenerator(res.getWriter());
+        // entries are separated by new lines only
+        generator.setRootValueSeparator(null);
+        final ExportPosition position = new ExportPosition(getParamFromId(req), getParamToId(req));
+        try
+        {
+            while (position.written < limit)
+            {
+                final int chunkLimit = (int) Math.min(chunkSize, limit - position.written);
+                final AuditQueryParameters params = new AuditQueryParameters();
+                params.setApplicationName(appName);
+                params.setFromTime(fromTime);
+                params.setToTime(toTime);
+                params.setFromId(position.fromId);
+                params.setToId(position.toId);
+                params.setUser(user);
+                params.setForward(forward);
+                if (path != null || value != null)
+                {
+                    params.addSearchKey(path, value);
+                }
+
+                int found = transactionService.getRetryingTransactionHelper().doInTransaction(new RetryingTransactionCallback<Integer>()
+                {
+                    @Override
+                    public Integer execute() throws Throwable
+                    {
+                        ExportCallback callback = new ExportCallback(generator, position, forward, verbose);
+                        auditService.auditQuery(callback, params, chunkLimit);
+                        return callback.found;
+                    }
+                }, true, true);
+
+                generator.flush();
+                if (found < chunkLimit)
+                {
+                    break;
+                }
+            }
+            generator.close();
+        }
+        catch (ExportWriteException e)
+        {
+            // the client has gone away, nothing more can be sent
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Audit export of " + appName + " stopped after " + position.written + " entries", e.getCause());
+            }
+        }
+
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("Exported " + position.written + " audit entries of " + appName);
+        }
+    }
+
+    /**
+     * The id range still to export. Entries are only written once, even if the transaction of a chunk is retried.
+     */
+    private static class ExportPosition
+    {
+        private Long fromId;
+        private Long toId;
+        private long written;
+
+        private ExportPosition(Long fromId, Long toId)
+        {
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+    }
+
+    private static class ExportCallback implements AuditQueryCallback
+    {
+        private final JsonGenerator generator;
+        private final ExportPosition position;
+        private final boolean forward;
+        private final boolean verbose;
+        private int found;
+
+        private ExportCallback(JsonGenerator generator, ExportPosition position, boolean forward, boolean verbose)
+        {
+            this.generator = generator;
+            this.position = position;
+            this.forward = forward;
+            this.verbose = verbose;
+        }
+
+        @Override
+        public boolean valuesRequired()
+        {
+            return verbose;
+        }
+
+        /**
+         * Entries that cannot be read are skipped, but still count towards the chunk, so that a chunk
+         * containing them does not end the export.
+         */
+        @Override
+        public boolean handleAuditEntryError(Long entryId, String errorMsg, Throwable error)
+        {
+            found++;
+            if (entryId != null && !isWritten(entryId))
+            {
+                advance(entryId);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean handleAuditEntry(Long entryId, String applicationName, String user, long time, Map<String, Serializable> values)
+        {
+            found++;
+            if (isWritten(entryId))
+            {
+                // already written by a previous attempt of this transaction
+                return true;
+            }
+
+            try
+            {
+                generator.writeStartObject();
+                generator.writeNumberField(JSON_KEY_ENTRY_ID, entryId);
+                generator.writeStringField(JSON_KEY_ENTRY_APPLICATION, applicationName);
+                if (user != null)
+                {
+                    generator.writeStringField(JSON_KEY_ENTRY_USER, user);
+                }
+                generator.writeStringField(JSON_KEY_ENTRY_TIME, ISO8601DateFormat.format(new Date(time)));
+                if (values != null)
+                {
+                    generator.writeObjectFieldStart(JSON_KEY_ENTRY_VALUES);
+                    for (Map.Entry<String, String> value : convertValuesToStrings(values).entrySet())
+                    {
+                        generator.writeStringField(value.getKey(), value.getValue());
+                    }
+                    generator.writeEndObject();
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+            catch (IOException e)
+            {
+                throw new ExportWriteException(e);
+            }
+
+            advance(entryId);
+            position.written++;
+            return true;
+        }
+
+        private boolean isWritten(long entryId)
+        {
+            return forward ? (position.fromId != null && entryId < position.fromId) : (position.toId != null && entryId >= position.toId);
+        }
+
+        private void advance(long entryId)
+        {
+            if (forward)
+            {
+                position.fromId = entryId + 1;
+            }
+            else
+            {
+                position.toId = entryId;
+            }
+        }
+    }
+
+    private static class ExportWriteException extends AlfrescoRuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        private ExportWriteException(IOException cause)
+        {
+            super("Failed to write audit entry", cause);
+        }
+    }
+}
@@ -35,9 +35,6 @@ import java.util.Map;
 import org.alfresco.service.cmr.audit.AuditQueryParameters;
 import org.alfresco.service.cmr.audit.AuditService.AuditApplication;
 import org.alfresco.service.cmr.audit.AuditService.AuditQueryCallback;
-import org.alfresco.service.cmr.repository.MLText;
-import org.alfresco.service.cmr.repository.datatype.DefaultTypeConverter;
-import org.alfresco.service.cmr.repository.datatype.TypeConversionException;
 import org.springframework.extensions.webscripts.Cache;
 import org.springframework.extensions.webscripts.Status;
 import org.springframework.extensions.webscripts.WebScriptException;
@@ -79,23 +76,7 @@ public class AuditQueryGet extends AbstractAuditWebScript
         }
         
         // Transform the value to the correct type
-        if (value != null && valueType != null)
-        {
-            try
-            {
-                @SuppressWarnings("unchecked")
-                Class<? extends Serializable> clazz = (Class<? extends Serializable>) Class.forName(valueType);
-                value = DefaultTypeConverter.INSTANCE.convert(clazz, value);
-            }
-            catch (ClassNotFoundException e)
-            {
-                throw new WebScriptException(Status.STATUS_BAD_REQUEST, "audit.err.value.classNotFound", valueType);
-            }
-            catch (Throwable e)
-            {
-                throw new WebScriptException(Status.STATUS_BAD_REQUEST, "audit.err.value.convertFailed", value, valueType);
-            }
-        }
+        value = convertParamValue(value, valueType);
         
         // Execute the query
         AuditQueryParameters params = new AuditQueryParameters();
@@ -144,37 +125,7 @@ public class AuditQueryGet extends AbstractAuditWebScript
                 entry.put(JSON_KEY_ENTRY_TIME, new Date(time));
                 if (values != null)
                 {
-                    // Convert values to Strings
-                    Map<String, String> valueStrings = new HashMap<String, String>(values.size() * 2);
-                    for (Map.Entry<String, Serializable> mapEntry : values.entrySet())
-                    {
-                        String key = mapEntry.getKey();
-                        Serializable value = mapEntry.getValue();
-                        try
-                        {
-                            String valueString = DefaultTypeConverter.INSTANCE.convert(String.class, value);
-                            valueStrings.put(key, valueString);
-                        }
-                        catch (ClassCastException e)
-                        {
-                            // Fix for symptoms of MNT-20992. It is possible to have MLText values whose underlying
-                            // map's keys are not Locale, as MLText map keys should be. In this case we can expect
-                            // a ClassCastException.
-                            if (!(value instanceof MLText))
-                            {
-                                // Rethrow if the exception was not caused by the expected MLText conversion.
-                                throw e;
-                            }
-                            valueStrings.put(key, value.toString());
-                        }
-                        catch (TypeConversionException e)
-                        {
-                            // Use the toString()
-                            valueStrings.put(key, value.toString());
-                        }
-                        
-                    }
-                    entry.put(JSON_KEY_ENTRY_VALUES, valueStrings);
+                    entry.put(JSON_KEY_ENTRY_VALUES, convertValuesToStrings(values));
                 }
                 entries.add(entry);
                 
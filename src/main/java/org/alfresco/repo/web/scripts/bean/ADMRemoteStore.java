@@ -38,6 +38,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
@@ -66,6 +67,7 @@ import org.alfresco.repo.security.authentication.AuthenticationUtil;
 import org.alfresco.repo.security.authentication.AuthenticationUtil.RunAsWork;
 import org.alfresco.repo.security.permissions.AccessDeniedException;
 import org.alfresco.repo.site.SiteModel;
+import org.alfresco.repo.tenant.TenantUtil;
 import org.alfresco.service.cmr.model.FileExistsException;
 import org.alfresco.service.cmr.model.FileFolderService;
 import org.alfresco.service.cmr.model.FileFolderUtil;
@@ -84,6 +86,7 @@ import org.alfresco.service.cmr.site.SiteInfo;
 import org.alfresco.service.cmr.site.SiteService;
 import org.alfresco.service.namespace.NamespaceService;
 import org.alfresco.service.namespace.QName;
+import org.alfresco.util.Pair;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.extensions.surf.util.URLDecoder;
@@ -139,6 +142,7 @@ public class ADMRemoteStore extends BaseRemoteStore
     protected PermissionService permissionService;
     protected OwnableService ownableService;
     private BehaviourFilter behaviourFilter;
+    private SurfConfigCache surfConfigCache;
     
     /**
      * Date format pattern used to parse HTTP date headers in RFC 1123 format.
@@ -215,6 +219,14 @@ public class ADMRemoteStore extends BaseRemoteStore
         this.ownableService = ownableService;
     }
 
+    /**
+     * @param surfConfigCache   the cache of resolved Surf config paths and listings, optional
+     */
+    public void setSurfConfigCache(SurfConfigCache surfConfigCache)
+    {
+        this.surfConfigCache = surfConfigCache;
+    }
+
     /**
      * Gets the last modified timestamp for the document.
      * <p>
@@ -271,6 +283,26 @@ public class ADMRemoteStore extends BaseRemoteStore
                     return null;
                 }
                 
+                // small config documents are served from the cache once read
+                final SurfConfigCache.Path cachedPath = getCachedPath(encpath);
+                final SurfConfigCache.Content cachedContent = cachedPath != null ? cachedPath.getContent() : null;
+                if (cachedContent != null)
+                {
+                    setDocumentHeaders(res, fileInfo, cachedContent.getMimetype(), cachedContent.getEncoding(), cachedContent.getBytes().length);
+                    if (logger.isDebugEnabled())
+                        logger.debug("getDocument (cached): " + fileInfo.toString());
+                    try
+                    {
+                        res.getOutputStream().write(cachedContent.getBytes());
+                    }
+                    catch (SocketException e1)
+                    {
+                        if (logger.isDebugEnabled())
+                            logger.debug("Client aborted stream read:\n\tnode: " + encpath);
+                    }
+                    return null;
+                }
+                
                 final ContentReader reader;
                 try
                 {
@@ -298,12 +330,7 @@ public class ADMRemoteStore extends BaseRemoteStore
                     }
                     
                     // set mimetype for the content and the character encoding + length for the stream
-                    res.setContentType(mimetype);
-                    res.setContentEncoding(reader.getEncoding());
-                    SimpleDateFormat formatter = new SimpleDateFormat(PATTERN_RFC1123, Locale.US);
-                    formatter.setTimeZone(GMT);
-                    res.setHeader("Last-Modified", formatter.format(fileInfo.getModifiedDate()));
-                    res.setHeader("Content-Length", Long.toString(reader.getSize()));
+                    setDocumentHeaders(res, fileInfo, mimetype, reader.getEncoding(), reader.getSize());
                     
                     if (logger.isDebugEnabled())
                         logger.debug("getDocument: " + fileInfo.toString());
@@ -313,7 +340,18 @@ public class ADMRemoteStore extends BaseRemoteStore
                     // to be streamed directly to the browser response stream.
                     try
                     {
-                        reader.getContent(res.getOutputStream());
+                        if (cachedPath != null && reader.getSize() <= surfConfigCache.getMaxContentSize())
+                        {
+                            ByteArrayOutputStream buf = new ByteArrayOutputStream((int) reader.getSize());
+                            reader.getContent(buf);
+                            byte[] bytes = buf.toByteArray();
+                            cachedPath.setContent(new SurfConfigCache.Content(bytes, mimetype, reader.getEncoding()));
+                            res.getOutputStream().write(bytes);
+                        }
+                        else
+                        {
+                            reader.getContent(res.getOutputStream());
+                        }
                     }
                     catch (SocketException e1)
                     {
@@ -350,6 +388,19 @@ public class ADMRemoteStore extends BaseRemoteStore
         }, AuthenticationUtil.getSystemUserName());
     }
 
+    /**
+     * Set the mimetype, encoding, last modified and length headers of a document response.
+     */
+    private void setDocumentHeaders(WebScriptResponse res, FileInfo fileInfo, String mimetype, String encoding, long length)
+    {
+        res.setContentType(mimetype);
+        res.setContentEncoding(encoding);
+        SimpleDateFormat formatter = new SimpleDateFormat(PATTERN_RFC1123, Locale.US);
+        formatter.setTimeZone(GMT);
+        res.setHeader("Last-Modified", formatter.format(fileInfo.getModifiedDate()));
+        res.setHeader("Content-Length", Long.toString(length));
+    }
+
     /**
      * Determines if the document exists.
      * 
@@ -423,6 +474,7 @@ public class ADMRemoteStore extends BaseRemoteStore
             document = documentBuilder.parse(in);
             Element docEl = document.getDocumentElement();
             Transformer transformer = ADMRemoteStore.this.transformer.get();
+            List<Pair<String, InputStream>> documents = new ArrayList<Pair<String, InputStream>>();
             for (Node n = docEl.getFirstChild(); n != null; n = n.getNextSibling())
             {
                 if (!(n instanceof Element))
@@ -446,8 +498,10 @@ public class ADMRemoteStore extends BaseRemoteStore
                 transformer.transform(new DOMSource(doc), new StreamResult(out));
                 out.close();
                 
-                writeDocument(path, new ByteArrayInputStream(out.toByteArray()));
+                documents.add(new Pair<String, InputStream>(path, new ByteArrayInputStream(out.toByteArray())));
             }
+            
+            writeDocuments(documents);
         }
         catch (AccessDeniedException ae)
         {
@@ -471,70 +525,131 @@ public class ADMRemoteStore extends BaseRemoteStore
     
     protected void writeDocument(final String path, final InputStream content)
     {
-        final String encpath = encodePath(path);
-        final int off = encpath.lastIndexOf('/');
-        if (off != -1)
+        writeDocuments(Collections.singletonList(new Pair<String, InputStream>(path, content)));
+    }
+    
+    /**
+     * Writes (creates or updates) a batch of documents.
+     * <p>
+     * The documents are grouped by the user they are written as and by their parent folder - each parent folder
+     * is resolved (and created if required) once and its documents are written in a single pass.
+     * 
+     * @param documents     document paths and the content to write to each
+     */
+    protected void writeDocuments(final List<Pair<String, InputStream>> documents)
+    {
+        final Map<List<String>, List<Pair<String, InputStream>>> batches = new LinkedHashMap<List<String>, List<Pair<String, InputStream>>>();
+        for (Pair<String, InputStream> document : documents)
+        {
+            final String path = document.getFirst();
+            final String encpath = encodePath(path);
+            final int off = encpath.lastIndexOf('/');
+            if (off != -1)
+            {
+                // the site name selects the "surf-config" folder the parent folder is created in
+                final List<String> key = Arrays.asList(getPathRunAsUser(path), getPathSiteName(encpath), encpath.substring(0, off));
+                List<Pair<String, InputStream>> batch = batches.get(key);
+                if (batch == null)
+                {
+                    batch = new ArrayList<Pair<String, InputStream>>();
+                    batches.put(key, batch);
+                }
+                batch.add(document);
+            }
+        }
+        
+        for (Map.Entry<List<String>, List<Pair<String, InputStream>>> batch : batches.entrySet())
         {
             // check we actually are the user we are creating a user specific path for
-            final String runAsUser = getPathRunAsUser(path);
-            AuthenticationUtil.runAs(new RunAsWork<Void>()
+            writeDocumentBatch(batch.getKey().get(0), batch.getValue());
+        }
+    }
+    
+    /**
+     * Writes documents that share a parent folder.
+     * 
+     * @param runAsUser     user to write the documents as
+     * @param documents     document paths and the content to write to each
+     */
+    private void writeDocumentBatch(final String runAsUser, final List<Pair<String, InputStream>> documents)
+    {
+        AuthenticationUtil.runAs(new RunAsWork<Void>()
+        {
+            @SuppressWarnings("synthetic-access")
+            public Void doWork() throws Exception
             {
-                @SuppressWarnings("synthetic-access")
-                public Void doWork() throws Exception
+                invalidateCache();
+                final String path = documents.get(0).getFirst();
+                final FileInfo parentFolder = resolveNodePath(encodePath(path), true, false);
+                if (parentFolder == null)
                 {
-                    final FileInfo parentFolder = resolveNodePath(encpath, true, false);
-                    if (parentFolder == null)
+                    throw new IllegalStateException("Unable to aquire parent folder reference for path: " + path);
+                }
+                
+                // ALF-17729 / ALF-17796 - disable auditable on parent folder
+                NodeRef parentFolderRef = parentFolder.getNodeRef();
+                behaviourFilter.disableBehaviour(parentFolderRef, ContentModel.ASPECT_AUDITABLE);
+                
+                try
+                {
+                    final List<String> names = new ArrayList<String>(documents.size());
+                    for (Pair<String, InputStream> document : documents)
                     {
-                        throw new IllegalStateException("Unable to aquire parent folder reference for path: " + path);
+                        final String encpath = encodePath(document.getFirst());
+                        names.add(encpath.substring(encpath.lastIndexOf('/') + 1));
                     }
                     
-                    // ALF-17729 / ALF-17796 - disable auditable on parent folder
-                    NodeRef parentFolderRef = parentFolder.getNodeRef();
-                    behaviourFilter.disableBehaviour(parentFolderRef, ContentModel.ASPECT_AUDITABLE);
+                    // existence check - convert to an UPDATE - could occur if multiple threads request
+                    // a write to the same document - a valid possibility but rare
+                    // cm:name is unique ignoring case within a folder
+                    final Map<String, NodeRef> existing = new HashMap<String, NodeRef>();
+                    for (ChildAssociationRef assocRef : nodeService.getChildrenByName(parentFolderRef, ContentModel.ASSOC_CONTAINS, names))
+                    {
+                        final NodeRef childRef = assocRef.getChildRef();
+                        existing.put(((String) nodeService.getProperty(childRef, ContentModel.PROP_NAME)).toLowerCase(), childRef);
+                    }
                     
-                    try
+                    for (int i = 0; i < documents.size(); i++)
                     {
-                        final String name = encpath.substring(off + 1);
-                        // existence check - convert to an UPDATE - could occur if multiple threads request
-                        // a write to the same document - a valid possibility but rare
-                        if (nodeService.getChildByName(parentFolderRef, ContentModel.ASSOC_CONTAINS, name) == null)
+                        final String name = names.get(i);
+                        final InputStream content = documents.get(i).getSecond();
+                        final NodeRef existingRef = existing.get(name.toLowerCase());
+                        if (existingRef == null)
                         {
                             FileInfo fileInfo = fileFolderService.create(
                                     parentFolderRef, name, ContentModel.TYPE_CONTENT);
                             final NodeRef nodeRef = fileInfo.getNodeRef();
                             // MNT-16371: Revoke ownership privileges for surf-config folder contents, to tighten access for former SiteManagers.
                             ownableService.setOwner(nodeRef, AuthenticationUtil.getAdminUserName());
-
+                            
                             Map<QName, Serializable> aspectProperties = new HashMap<QName, Serializable>(1, 1.0f);
                             aspectProperties.put(ContentModel.PROP_IS_INDEXED, false);
                             unprotNodeService.addAspect(nodeRef, ContentModel.ASPECT_INDEX_CONTROL, aspectProperties);
                             ContentWriter writer = contentService.getWriter(nodeRef, ContentModel.PROP_CONTENT, true);
                             writer.guessMimetype(fileInfo.getName());
                             writer.putContent(content);
+                            existing.put(name.toLowerCase(), nodeRef);
                             if (logger.isDebugEnabled())
                                 logger.debug("createDocument: " + fileInfo.toString());
                         }
                         else
                         {
-                            ContentWriter writer = contentService.getWriter(
-                                    nodeService.getChildByName(parentFolderRef, ContentModel.ASSOC_CONTAINS, name),
-                                    ContentModel.PROP_CONTENT,
-                                    true);
+                            ContentWriter writer = contentService.getWriter(existingRef, ContentModel.PROP_CONTENT, true);
                             writer.guessMimetype(name);
                             writer.putContent(content);
                             if (logger.isDebugEnabled())
                                 logger.debug("createDocument (updated): " + name);
                         }
                     }
-                    finally
-                    {
-                        behaviourFilter.enableBehaviour(parentFolderRef, ContentModel.ASPECT_AUDITABLE);
-                    }
-                    
-                    return null;
                 }
-            }, runAsUser);
-        }
+                finally
+                {
+                    behaviourFilter.enableBehaviour(parentFolderRef, ContentModel.ASPECT_AUDITABLE);
+                }
+                
+                return null;
+            }
+        }, runAsUser);
     }
     
     /**
@@ -582,6 +697,7 @@ public class ADMRemoteStore extends BaseRemoteStore
             @SuppressWarnings("synthetic-access")
             public Void doWork() throws Exception
             {
+                invalidateCache();
                 final String encpath = encodePath(path);
                 final FileInfo fileInfo = resolveFilePath(encpath);
                 if (fileInfo == null || fileInfo.isFolder())
@@ -618,6 +734,7 @@ public class ADMRemoteStore extends BaseRemoteStore
     @Override
     protected void deleteDocument(final WebScriptResponse res, final String store, final String path)
     {
+        invalidateCache();
         final String encpath = encodePath(path);
         final FileInfo fileInfo = resolveFilePath(encpath);
         if (fileInfo == null || fileInfo.isFolder())
@@ -831,6 +948,33 @@ public class ADMRemoteStore extends BaseRemoteStore
      *         parameter above) or null if the supplied path does not exist in the store.
      */
     private FileInfo resolveNodePath(final String path, final String pattern, final boolean create, final boolean isFolder)
+    {
+        if (create || path == null || !isCacheEnabled())
+        {
+            return resolveNodePath(path, pattern, create, isFolder, null);
+        }
+        
+        final String tenantDomain = TenantUtil.getCurrentDomain();
+        final String key = (pattern != null ? path + "|" + pattern : path);
+        SurfConfigCache.Path cached = surfConfigCache.getPath(tenantDomain, key);
+        if (cached == null)
+        {
+            final long readGeneration = surfConfigCache.getGeneration();
+            final List<NodeRef> traversedNodes = new ArrayList<NodeRef>(8);
+            cached = new SurfConfigCache.Path(resolveNodePath(path, pattern, false, isFolder, traversedNodes));
+            surfConfigCache.putPath(tenantDomain, key, cached, traversedNodes, readGeneration);
+        }
+        return cached.getFileInfo();
+    }
+    
+    /**
+     * @param traversedNodes    if not null, the path is resolved one cm:name at a time and the nodes
+     *                          traversed are collected - only used when not creating
+     * 
+     * @see #resolveNodePath(String, String, boolean, boolean)
+     */
+    private FileInfo resolveNodePath(final String path, final String pattern, final boolean create, final boolean isFolder,
+            final List<NodeRef> traversedNodes)
     {
         if (logger.isDebugEnabled())
             logger.debug("Resolving path: " + path);
@@ -887,6 +1031,25 @@ public class ADMRemoteStore extends BaseRemoteStore
                             for(NodeRef nodeRef : allCreatedFolders)
                             {
                                 ownableService.setOwner(nodeRef, adminUserName);
+                            }
+                        }
+                        else if (traversedNodes != null)
+                        {
+                            // walk the cm:name path from our config root node, recording the nodes for the cache
+                            NodeRef nodeRef = surfConfigRef;
+                            traversedNodes.add(nodeRef);
+                            for (String element : pathElements)
+                            {
+                                nodeRef = this.unprotNodeService.getChildByName(nodeRef, ContentModel.ASSOC_CONTAINS, element);
+                                if (nodeRef == null)
+                                {
+                                    break;
+                                }
+                                traversedNodes.add(nodeRef);
+                            }
+                            if (nodeRef != null)
+                            {
+                                result = this.fileFolderService.getFileInfo(nodeRef);
                             }
                         }
                         else
@@ -946,39 +1109,104 @@ public class ADMRemoteStore extends BaseRemoteStore
                 siteName = matcher.group(1);
             }
         }
-        else if ((matcher = SITE_PATTERN_1.matcher(path)).matches())
+        else
         {
-            siteName = matcher.group(1);
+            siteName = getPathSiteName(path);
         }
-        else if ((matcher = SITE_PATTERN_2.matcher(path)).matches())
+        
+        if (debug)
+        {
+            if (siteName != null)
+            {
+                logger.debug("...resolved site path id: " + siteName);
+            }
+            else if (userId != null)
+            {
+                logger.debug("...resolved user path id: " + userId);
+            }
+            else
+            {
+                logger.debug("...resolved to generic path.");
+            }
+        }
+        
+        if (create || !isCacheEnabled())
         {
-            siteName = matcher.group(1);
+            return resolveSurfConfigRef(siteName, create, null);
         }
         
+        final String tenantDomain = TenantUtil.getCurrentDomain();
+        SurfConfigCache.SurfConfig cached = surfConfigCache.getSurfConfig(tenantDomain, siteName);
+        if (cached == null)
+        {
+            final long readGeneration = surfConfigCache.getGeneration();
+            final List<NodeRef> traversedNodes = new ArrayList<NodeRef>(3);
+            cached = new SurfConfigCache.SurfConfig(resolveSurfConfigRef(siteName, false, traversedNodes));
+            surfConfigCache.putSurfConfig(tenantDomain, siteName, cached, traversedNodes, readGeneration);
+        }
+        return cached.getNodeRef();
+    }
+    
+    /**
+     * @param path  document path
+     * 
+     * @return the short name of the site the path is specific to, null for user and generic paths
+     */
+    private static String getPathSiteName(final String path)
+    {
+        Matcher matcher;
+        if ((matcher = SITE_PATTERN_1.matcher(path)).matches())
+        {
+            return matcher.group(1);
+        }
+        else if ((matcher = SITE_PATTERN_2.matcher(path)).matches())
+        {
+            return matcher.group(1);
+        }
+        return null;
+    }
+    
+    /**
+     * Resolve (optionally create) the "surf-config" folder of a site or of the Sites folder.
+     * 
+     * @param siteName          site short name, null for the Sites folder
+     * @param create            True to create the folder if missing, false otherwise
+     * @param traversedNodes    optional list to add the nodes traversed to
+     * 
+     * @return NodeRef to the "surf-config" folder, or null if it does not exist yet.
+     */
+    private NodeRef resolveSurfConfigRef(final String siteName, final boolean create, final List<NodeRef> traversedNodes)
+    {
         NodeRef surfConfigRef = null;
         if (siteName != null)
         {
-            if (debug) logger.debug("...resolved site path id: " + siteName);
             NodeRef siteRef = getSiteNodeRef(siteName);
+            if (traversedNodes != null)
+            {
+                // the Sites folder is watched for the site being created or deleted
+                traversedNodes.add(getRootNodeRef());
+            }
             if (siteRef != null)
             {
+                if (traversedNodes != null)
+                {
+                    traversedNodes.add(siteRef);
+                }
                 surfConfigRef = getSurfConfigNodeRef(siteRef, create);
             }
         }
         else
         {
-            if (debug)
+            NodeRef rootRef = getRootNodeRef();
+            if (traversedNodes != null)
             {
-                if (userId != null)
-                {
-                    logger.debug("...resolved user path id: " + userId);
-                }
-                else
-                {
-                    logger.debug("...resolved to generic path.");
-                }
+                traversedNodes.add(rootRef);
             }
-            surfConfigRef = getSurfConfigNodeRef(getRootNodeRef(), create);
+            surfConfigRef = getSurfConfigNodeRef(rootRef, create);
+        }
+        if (surfConfigRef != null && traversedNodes != null)
+        {
+            traversedNodes.add(surfConfigRef);
         }
         return surfConfigRef;
     }
@@ -1121,6 +1349,17 @@ public class ADMRemoteStore extends BaseRemoteStore
         if (surfConfigRef != null)
         {
             final boolean debug = logger.isDebugEnabled();
+            if (!recurse && isCacheEnabled())
+            {
+                for (final String documentPath : getIndexedDocumentPaths(fileInfo, surfConfigRef, pattern))
+                {
+                    out.write(documentPath);
+                    out.write('\n');
+                    if (debug) logger.debug("   " + documentPath);
+                }
+                return;
+            }
+            
             PagingResults<FileInfo> files = getFileNodes(fileInfo, pattern, recurse);
             
             final Map<NodeRef, String> nameCache = new HashMap<NodeRef, String>();
@@ -1152,6 +1391,120 @@ public class ADMRemoteStore extends BaseRemoteStore
         }
     }
     
+    /**
+     * Get the decoded paths of the documents of a folder matching a pattern from the cache. The names of the
+     * documents of each folder are indexed in memory, up to the configured folder size - the listings of larger
+     * folders are cached per pattern.
+     * 
+     * @param fileInfo The FileInfo of the folder
+     * @param surfConfigRef Surf-Config folder
+     * @param pattern Optional pattern to match filenames against ("*" is match all)
+     * 
+     * @return the document paths in listing order
+     */
+    private List<String> getIndexedDocumentPaths(FileInfo fileInfo, NodeRef surfConfigRef, String pattern)
+    {
+        final NodeRef folderRef = fileInfo.getNodeRef();
+        SurfConfigCache.Listing index = surfConfigCache.getListing(folderRef, null);
+        if (index == null)
+        {
+            final long readGeneration = surfConfigCache.getGeneration();
+            final List<NodeRef> traversedNodes = new ArrayList<NodeRef>();
+            index = listFileNodes(fileInfo, surfConfigRef, "*", surfConfigCache.getMaxFolderSize(), traversedNodes);
+            surfConfigCache.putListing(folderRef, null, index, traversedNodes, readGeneration);
+        }
+        if (index.isComplete())
+        {
+            return index.getDocumentPaths(pattern);
+        }
+        
+        String filePattern = (pattern != null ? pattern : "*");
+        SurfConfigCache.Listing listing = surfConfigCache.getListing(folderRef, filePattern);
+        if (listing == null)
+        {
+            final long readGeneration = surfConfigCache.getGeneration();
+            final List<NodeRef> traversedNodes = new ArrayList<NodeRef>();
+            listing = listFileNodes(fileInfo, surfConfigRef, filePattern, Integer.MAX_VALUE, traversedNodes);
+            surfConfigCache.putListing(folderRef, filePattern, listing, traversedNodes, readGeneration);
+        }
+        return listing.getDocumentPaths(null);
+    }
+    
+    /**
+     * List the documents of a folder for the cache.
+     * 
+     * @param fileInfo The FileInfo of the folder
+     * @param surfConfigRef Surf-Config folder
+     * @param pattern Pattern to match filenames against ("*" is match all)
+     * @param maxSize Maximum number of documents, an empty incomplete listing is returned for larger folders
+     * @param traversedNodes List to add the folders up to the "surf-config" folder and the documents to
+     * 
+     * @return the listing
+     */
+    private SurfConfigCache.Listing listFileNodes(FileInfo fileInfo, NodeRef surfConfigRef, String pattern, int maxSize,
+            List<NodeRef> traversedNodes)
+    {
+        // the display path is the same for all the documents - walk up to the "surf-config" parent once
+        final StringBuilder displayPath = new StringBuilder(64);
+        NodeRef ref = fileInfo.getNodeRef();
+        while (!ref.equals(surfConfigRef))
+        {
+            traversedNodes.add(ref);
+            displayPath.insert(0, '/');
+            displayPath.insert(0, (String) unprotNodeService.getProperty(ref, ContentModel.PROP_NAME));
+            ref = unprotNodeService.getPrimaryParent(ref).getParentRef();
+        }
+        traversedNodes.add(surfConfigRef);
+        
+        // read at most one document more than the listing may hold, so a large folder is not loaded to be rejected
+        final int maxItems = (maxSize < Integer.MAX_VALUE ? maxSize + 1 : CannedQueryPageDetails.DEFAULT_PAGE_SIZE);
+        final List<FileInfo> files = fileFolderService.list(
+                fileInfo.getNodeRef(), true, false,
+                pattern, null, null,
+                new PagingRequest(maxItems)).getPage();
+        if (files.size() > maxSize)
+        {
+            return new SurfConfigCache.Listing(false, Collections.<String>emptyList(), Collections.<String>emptyList());
+        }
+        final String prefix = "/alfresco/site-data/" + URLDecoder.decode(displayPath.toString());
+        final List<String> names = new ArrayList<String>(files.size());
+        final List<String> documentPaths = new ArrayList<String>(files.size());
+        for (final FileInfo file : files)
+        {
+            names.add(file.getName());
+            documentPaths.add(prefix + URLDecoder.decode(file.getName()));
+            traversedNodes.add(file.getNodeRef());
+        }
+        return new SurfConfigCache.Listing("*".equals(pattern), names, documentPaths);
+    }
+    
+    /**
+     * @return the cached resolution of a document path, null if it is not cached
+     */
+    private SurfConfigCache.Path getCachedPath(final String encpath)
+    {
+        return isCacheEnabled() ? surfConfigCache.getPath(TenantUtil.getCurrentDomain(), encpath) : null;
+    }
+    
+    /**
+     * @return true if the Surf config cache may be used by the current transaction
+     */
+    private boolean isCacheEnabled()
+    {
+        return surfConfigCache != null && surfConfigCache.isEnabled();
+    }
+    
+    /**
+     * Discard the Surf config cache before the current transaction changes the Surf config.
+     */
+    private void invalidateCache()
+    {
+        if (surfConfigCache != null)
+        {
+            surfConfigCache.invalidate();
+        }
+    }
+    
     protected PagingResults<FileInfo> getFileNodes(FileInfo fileInfo, String pattern, boolean recurse)
     {
         return fileFolderService.list(
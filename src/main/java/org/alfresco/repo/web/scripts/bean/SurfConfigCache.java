@@ -0,0 +1,469 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.web.scripts.bean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.alfresco.model.ContentModel;
+import org.alfresco.repo.node.NodeServicePolicies.OnCreateChildAssociationPolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnDeleteChildAssociationPolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnDeleteNodePolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnMoveNodePolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnUpdateNodePolicy;
+import org.alfresco.repo.policy.Behaviour.NotificationFrequency;
+import org.alfresco.repo.policy.JavaBehaviour;
+import org.alfresco.repo.policy.PolicyComponent;
+import org.alfresco.repo.web.util.AbstractLocalCache;
+import org.alfresco.service.cmr.model.FileInfo;
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.util.Pair;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Cache of the Surf configuration resolved by the {@link ADMRemoteStore}: the "surf-config" folder of each site
+ * (and of the Sites folder), the document paths resolved below them with the content of small documents, and an
+ * index of the document names of each listed folder, so that page renders need not query the repository.
+ * <p>
+ * The nodes traversed to resolve each entry are watched: the whole cache is cleared as soon as one of them, or a
+ * child association from one of them, changes, and again when the changing transaction commits. The changing
+ * transaction itself does not use the cache.
+ * <p>
+ * The cache is held in the memory of each node and there is no cross-node invalidation: a site dashboard, page or
+ * component saved through Share on another cluster node would be rendered here in its old form, or still be
+ * reported as missing, until the entry expires. Share users expect their own customisations to show on the next
+ * page render, whichever node serves it, so the cache is disabled by default and is meant for single node
+ * installations only.
+ */
+public class SurfConfigCache extends AbstractLocalCache implements OnCreateChildAssociationPolicy,
+            OnDeleteChildAssociationPolicy, OnUpdateNodePolicy, OnDeleteNodePolicy, OnMoveNodePolicy
+{
+    private static final Log logger = LogFactory.getLog(SurfConfigCache.class);
+
+    private PolicyComponent policyComponent;
+
+    private boolean enabled = false;
+    private int maxContentSize = 16384;
+    private int maxFolderSize = 1000;
+
+    private final Region<Pair<String, String>, SurfConfig> surfConfigs = new Region<>(64);
+    private final Region<Pair<String, String>, Path> paths = new Region<>(256);
+    private final Region<Pair<NodeRef, String>, Listing> listings = new Region<>(64);
+    private final Set<NodeRef> watchedNodes = ConcurrentHashMap.newKeySet();
+
+    public SurfConfigCache()
+    {
+        super(5000, 60000L);
+    }
+
+    public void setPolicyComponent(PolicyComponent policyComponent)
+    {
+        this.policyComponent = policyComponent;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param maxContentSize the maximum size in bytes of the documents whose content is kept
+     */
+    public void setMaxContentSize(int maxContentSize)
+    {
+        this.maxContentSize = maxContentSize;
+    }
+
+    /**
+     * @param maxFolderSize the maximum number of documents of a folder indexed by name, the listings of larger
+     *            folders are kept per file pattern
+     */
+    public void setMaxFolderSize(int maxFolderSize)
+    {
+        this.maxFolderSize = maxFolderSize;
+    }
+
+    public void init()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        policyComponent.bindClassBehaviour(OnCreateChildAssociationPolicy.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onCreateChildAssociation", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnDeleteChildAssociationPolicy.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onDeleteChildAssociation", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnUpdateNodePolicy.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onUpdateNode", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnDeleteNodePolicy.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onDeleteNode", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnMoveNodePolicy.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onMoveNode", NotificationFrequency.EVERY_EVENT));
+    }
+
+    /**
+     * @return <tt>true</tt> if the cache may be used by the current transaction
+     */
+    public boolean isEnabled()
+    {
+        return enabled && !isChangedInTransaction();
+    }
+
+    public int getMaxContentSize()
+    {
+        return maxContentSize;
+    }
+
+    public int getMaxFolderSize()
+    {
+        return maxFolderSize;
+    }
+
+    /**
+     * @param tenantDomain the tenant domain
+     * @param siteName the site short name, <tt>null</tt> for the surf-config folder of the Sites folder
+     * @return the cached surf-config folder, or <tt>null</tt> if it is not cached
+     */
+    public SurfConfig getSurfConfig(String tenantDomain, String siteName)
+    {
+        return get(surfConfigs, new Pair<>(tenantDomain, siteName == null ? "" : siteName));
+    }
+
+    /**
+     * @param tenantDomain the tenant domain
+     * @param siteName the site short name, <tt>null</tt> for the surf-config folder of the Sites folder
+     * @param surfConfig the resolved surf-config folder
+     * @param traversedNodes the nodes traversed to resolve the folder
+     * @param readGeneration the generation read before the folder was resolved
+     */
+    public void putSurfConfig(String tenantDomain, String siteName, SurfConfig surfConfig, Collection<NodeRef> traversedNodes, long readGeneration)
+    {
+        put(surfConfigs, new Pair<>(tenantDomain, siteName == null ? "" : siteName), surfConfig, traversedNodes, readGeneration);
+    }
+
+    /**
+     * @param tenantDomain the tenant domain
+     * @param path the encoded document (or folder) path, including the file pattern it was resolved for if any
+     * @return the cached path, or <tt>null</tt> if it is not cached
+     */
+    public Path getPath(String tenantDomain, String path)
+    {
+        return get(paths, new Pair<>(tenantDomain, path));
+    }
+
+    /**
+     * @param tenantDomain the tenant domain
+     * @param path the encoded document (or folder) path, including the file pattern it was resolved for if any
+     * @param resolved the resolved path
+     * @param traversedNodes the nodes traversed to resolve the path
+     * @param readGeneration the generation read before the path was resolved
+     */
+    public void putPath(String tenantDomain, String path, Path resolved, Collection<NodeRef> traversedNodes, long readGeneration)
+    {
+        put(paths, new Pair<>(tenantDomain, path), resolved, traversedNodes, readGeneration);
+    }
+
+    /**
+     * @param folderRef the listed folder
+     * @param pattern the file pattern of the listing, <tt>null</tt> for the index of all the documents
+     * @return the cached listing, or <tt>null</tt> if it is not cached
+     */
+    public Listing getListing(NodeRef folderRef, String pattern)
+    {
+        return get(listings, new Pair<>(folderRef, pattern == null ? "" : pattern));
+    }
+
+    /**
+     * @param folderRef the listed folder
+     * @param pattern the file pattern of the listing, <tt>null</tt> for the index of all the documents
+     * @param listing the listing
+     * @param traversedNodes the folder, the folders up to its surf-config folder and the listed documents
+     * @param readGeneration the generation read before the folder was listed
+     */
+    public void putListing(NodeRef folderRef, String pattern, Listing listing, Collection<NodeRef> traversedNodes, long readGeneration)
+    {
+        put(listings, new Pair<>(folderRef, pattern == null ? "" : pattern), listing, traversedNodes, readGeneration);
+    }
+
+    /**
+     * Discard the cache because the Surf configuration is being changed by the current transaction.
+     */
+    public void invalidate()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        changedInTransaction();
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        super.clear();
+        watchedNodes.clear();
+    }
+
+    @Override
+    public void onCreateChildAssociation(ChildAssociationRef childAssocRef, boolean isNewNode)
+    {
+        nodeChanged(childAssocRef.getParentRef());
+    }
+
+    @Override
+    public void onDeleteChildAssociation(ChildAssociationRef childAssocRef)
+    {
+        nodeChanged(childAssocRef.getParentRef());
+        nodeChanged(childAssocRef.getChildRef());
+    }
+
+    @Override
+    public void onUpdateNode(NodeRef nodeRef)
+    {
+        nodeChanged(nodeRef);
+    }
+
+    @Override
+    public void onDeleteNode(ChildAssociationRef childAssocRef, boolean isNodeArchived)
+    {
+        nodeChanged(childAssocRef.getParentRef());
+        nodeChanged(childAssocRef.getChildRef());
+    }
+
+    @Override
+    public void onMoveNode(ChildAssociationRef oldChildAssocRef, ChildAssociationRef newChildAssocRef)
+    {
+        nodeChanged(oldChildAssocRef.getParentRef());
+        nodeChanged(newChildAssocRef.getParentRef());
+        nodeChanged(newChildAssocRef.getChildRef());
+    }
+
+    private <K, V> V get(Region<K, V> region, K key)
+    {
+        if (!isEnabled())
+        {
+            return null;
+        }
+        return region.get(key);
+    }
+
+    private <K, V> void put(Region<K, V> region, K key, V entry, Collection<NodeRef> traversedNodes, long readGeneration)
+    {
+        if (!isEnabled())
+        {
+            return;
+        }
+        watchedNodes.addAll(traversedNodes);
+        region.put(key, entry, readGeneration);
+    }
+
+    private void nodeChanged(NodeRef nodeRef)
+    {
+        if (nodeRef == null || !watchedNodes.contains(nodeRef))
+        {
+            return;
+        }
+        invalidate();
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("Cleared the Surf config cache after a change to " + nodeRef);
+        }
+    }
+
+    /**
+     * A resolved surf-config folder.
+     */
+    public static class SurfConfig
+    {
+        private final NodeRef nodeRef;
+
+        /**
+         * @param nodeRef the surf-config folder, <tt>null</tt> if it does not exist
+         */
+        public SurfConfig(NodeRef nodeRef)
+        {
+            this.nodeRef = nodeRef;
+        }
+
+        public NodeRef getNodeRef()
+        {
+            return nodeRef;
+        }
+    }
+
+    /**
+     * A resolved document (or folder) path.
+     */
+    public static class Path
+    {
+        private final FileInfo fileInfo;
+        private volatile Content content;
+
+        /**
+         * @param fileInfo the document or folder, <tt>null</tt> if the path does not exist
+         */
+        public Path(FileInfo fileInfo)
+        {
+            this.fileInfo = fileInfo;
+        }
+
+        public FileInfo getFileInfo()
+        {
+            return fileInfo;
+        }
+
+        /**
+         * @return the content of the document, or <tt>null</tt> if it has not been kept
+         */
+        public Content getContent()
+        {
+            return content;
+        }
+
+        public void setContent(Content content)
+        {
+            this.content = content;
+        }
+    }
+
+    /**
+     * The content of a small document.
+     */
+    public static class Content
+    {
+        private final byte[] bytes;
+        private final String mimetype;
+        private final String encoding;
+
+        public Content(byte[] bytes, String mimetype, String encoding)
+        {
+            this.bytes = bytes;
+            this.mimetype = mimetype;
+            this.encoding = encoding;
+        }
+
+        public byte[] getBytes()
+        {
+            return bytes;
+        }
+
+        public String getMimetype()
+        {
+            return mimetype;
+        }
+
+        public String getEncoding()
+        {
+            return encoding;
+        }
+    }
+
+    /**
+     * The documents of a folder, by (encoded) name.
+     */
+    public static class Listing
+    {
+        private final boolean complete;
+        private final List<String> names;
+        private final List<String> documentPaths;
+
+        /**
+         * @param complete <tt>true</tt> if the listing contains all the documents of the folder, <tt>false</tt>
+         *            if it was too large to be indexed (when listed without a pattern) or only contains the
+         *            documents matching a pattern
+         * @param names the encoded names of the documents
+         * @param documentPaths the decoded document paths to output for each document
+         */
+        public Listing(boolean complete, List<String> names, List<String> documentPaths)
+        {
+            this.complete = complete;
+            this.names = names;
+            this.documentPaths = documentPaths;
+        }
+
+        public boolean isComplete()
+        {
+            return complete;
+        }
+
+        /**
+         * @param pattern the file pattern, "*" is a wildcard and names are matched ignoring case, <tt>null</tt>
+         *            to return all the document paths
+         * @return the paths of the documents whose name matches the pattern, in listing order
+         */
+        public List<String> getDocumentPaths(String pattern)
+        {
+            if (pattern == null || "*".equals(pattern))
+            {
+                return documentPaths;
+            }
+            Pattern regex = compilePattern(pattern);
+            List<String> matches = new ArrayList<>();
+            for (int i = 0; i < names.size(); i++)
+            {
+                if (regex.matcher(names.get(i)).matches())
+                {
+                    matches.add(documentPaths.get(i));
+                }
+            }
+            return matches;
+        }
+
+        /**
+         * @return the number of documents
+         */
+        public int size()
+        {
+            return names.size();
+        }
+
+        private static Pattern compilePattern(String pattern)
+        {
+            StringBuilder regex = new StringBuilder(pattern.length() + 16);
+            int start = 0;
+            for (int i = pattern.indexOf('*'); i != -1; i = pattern.indexOf('*', start))
+            {
+                if (i > start)
+                {
+                    regex.append(Pattern.quote(pattern.substring(start, i)));
+                }
+                regex.append(".*");
+                start = i + 1;
+            }
+            if (start < pattern.length())
+            {
+                regex.append(Pattern.quote(pattern.substring(start)));
+            }
+            return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        }
+    }
+}
@@ -194,6 +194,58 @@ public class ContentStreamer implements ResourceLoaderAware
         streamContentImpl(req, res, reader, null, null, attach, lastModifiedDate, String.valueOf(lastModifiedDate.getTime()), attachFileName, model);
     }
 
+    /**
+     * Streams content held in memory back to client.
+     * 
+     * @param req               The request
+     * @param res               The response
+     * @param content           The content to stream
+     * @param mimetype          The mimetype of the content
+     * @param eTag              ETag of the content, if the request's If-None-Match header matches it a 304 is
+     *                          returned instead of the content. May be <tt>null</tt>.
+     * @param attach            Indicates whether the content should be streamed as an attachment or not
+     * @param attachFileName    Optional file name to use when attach is <code>true</code>
+     * @throws IOException
+     */
+    public void streamContent(WebScriptRequest req, 
+                                 WebScriptResponse res, 
+                                 byte[] content, 
+                                 String mimetype,
+                                 String eTag,
+                                 boolean attach, 
+                                 String attachFileName,
+                                 Map<String, Object> model) throws IOException
+    {
+        if (logger.isDebugEnabled())
+            logger.debug("Streaming " + content.length + " bytes of " + mimetype + " content (attach: " + attach + ")");
+        
+        // a 304 carries the same ETag and Cache-Control headers as the full response
+        setResponseCache(res, null, eTag, model);
+        if (eTag != null)
+        {
+            String noneMatch = req.getHeader("If-None-Match");
+            if (noneMatch != null && (noneMatch.equals("*") || noneMatch.contains("\"" + eTag + "\"") || noneMatch.equals(eTag)))
+            {
+                res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        
+        setAttachment(req, res, attach, attachFileName);
+        res.setContentType(mimetype == null ? MimetypeMap.MIMETYPE_BINARY : mimetype);
+        res.setHeader(HEADER_CONTENT_LENGTH, Integer.toString(content.length));
+        try
+        {
+            res.getOutputStream().write(content);
+        }
+        catch (SocketException e1)
+        {
+            // the client cut the connection - our mission was accomplished apart from a little error message
+            if (logger.isInfoEnabled())
+                logger.info("Client aborted stream read of in-memory content");
+        }
+    }
+
     /**
      * Streams the content on a given node's content property to the response of the web script.
      *
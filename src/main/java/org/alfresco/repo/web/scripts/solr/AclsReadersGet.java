@@ -31,6 +31,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.alfresco.repo.solr.AclReaders;
 import org.alfresco.repo.solr.SOLRTrackingComponent;
 import org.apache.commons.logging.Log;
@@ -43,6 +44,7 @@ import org.springframework.extensions.webscripts.DeclarativeWebScript;
 import org.springframework.extensions.webscripts.Status;
 import org.springframework.extensions.webscripts.WebScriptException;
 import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
 
 /**
  * Support for SOLR: Track ACLs
@@ -60,6 +62,19 @@ public class AclsReadersGet extends DeclarativeWebScript
         this.solrTrackingComponent = solrTrackingComponent;
     }
 
+    @Override
+    public void execute(WebScriptRequest req, WebScriptResponse res) throws IOException
+    {
+        if (SOLRBinaryFormat.isAccepted(req))
+        {
+            writeBinary(executeImpl(req, new Status()), res);
+        }
+        else
+        {
+            super.execute(req, res);
+        }
+    }
+
     protected Map<String, Object> executeImpl(WebScriptRequest req, Status status)
     {
         try
@@ -123,4 +138,39 @@ public class AclsReadersGet extends DeclarativeWebScript
         
         return model;
     }
+
+    /**
+     * Write the model using the binary encoding (equivalent to <tt>aclsReaders.post.json.ftl</tt>)
+     */
+    @SuppressWarnings("unchecked")
+    private void writeBinary(Map<String, Object> model, WebScriptResponse res) throws IOException
+    {
+        try (JsonGenerator generator = SOLRBinaryFormat.createGenerator(res))
+        {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("aclsReaders");
+            for (AclReaders aclReaders : (List<AclReaders>) model.get("aclsReaders"))
+            {
+                generator.writeStartObject();
+                generator.writeNumberField("aclId", aclReaders.getAclId());
+                generator.writeNumberField("aclChangeSetId", aclReaders.getAclChangeSetId());
+                generator.writeStringField("tenantDomain", aclReaders.getTenantDomain());
+                generator.writeArrayFieldStart("readers");
+                for (String reader : aclReaders.getReaders())
+                {
+                    generator.writeString(reader);
+                }
+                generator.writeEndArray();
+                generator.writeArrayFieldStart("denied");
+                for (String denied : aclReaders.getDenied())
+                {
+                    generator.writeString(denied);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
 }
@@ -33,6 +33,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.alfresco.repo.domain.node.Node;
 import org.alfresco.repo.domain.qname.QNameDAO;
 import org.alfresco.repo.search.impl.QueryParserUtils;
@@ -53,6 +54,7 @@ import org.springframework.extensions.webscripts.DeclarativeWebScript;
 import org.springframework.extensions.webscripts.Status;
 import org.springframework.extensions.webscripts.WebScriptException;
 import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
 
 /**
  * Support for SOLR: Get a list of nodes in the given transactions.
@@ -88,6 +90,19 @@ public class NodesGet extends DeclarativeWebScript
         this.qnameDAO = qnameDAO;
     }
 
+    @Override
+    public void execute(WebScriptRequest req, WebScriptResponse res) throws IOException
+    {
+        if (SOLRBinaryFormat.isAccepted(req))
+        {
+            writeBinary(executeImpl(req, new Status()), res);
+        }
+        else
+        {
+            super.execute(req, res);
+        }
+    }
+
     @Override
     protected Map<String, Object> executeImpl(WebScriptRequest req, Status status)
     {
@@ -225,6 +240,43 @@ public class NodesGet extends DeclarativeWebScript
         }
     }
 
+    /**
+     * Write the model using the binary encoding (equivalent to <tt>nodes.post.json.ftl</tt>)
+     */
+    @SuppressWarnings("unchecked")
+    private void writeBinary(Map<String, Object> model, WebScriptResponse res) throws IOException
+    {
+        try (JsonGenerator generator = SOLRBinaryFormat.createGenerator(res))
+        {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("nodes");
+            for (NodeRecord node : (List<NodeRecord>) model.get("nodes"))
+            {
+                generator.writeStartObject();
+                generator.writeNumberField("id", node.getId());
+                generator.writeStringField("nodeRef", node.getNodeRef());
+                generator.writeNumberField("txnId", node.getTxnId());
+                generator.writeStringField("status", node.isDeleted() ? "d" : "u");
+                if (node.getAclId() != null)
+                {
+                    generator.writeNumberField("aclId", node.getAclId());
+                }
+                if (node.getShardPropertyValue() != null)
+                {
+                    generator.writeStringField("shardPropertyValue", node.getShardPropertyValue());
+                }
+                if (node.getExplicitShardId() != null)
+                {
+                    generator.writeStringField("explicitShardId", node.getExplicitShardId().toString());
+                }
+                generator.writeStringField("tenant", node.getTenant());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
     public static class NodeRecord
     {
         private final Long id;
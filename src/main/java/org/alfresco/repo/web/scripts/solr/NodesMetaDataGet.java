@@ -36,6 +36,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 import org.alfresco.error.AlfrescoRuntimeException;
 import org.alfresco.repo.search.IndexerException;
 import org.alfresco.repo.solr.MetaDataResultsFilter;
@@ -45,10 +50,14 @@ import org.alfresco.repo.solr.SOLRTrackingComponent;
 import org.alfresco.repo.solr.SOLRTrackingComponent.NodeMetaDataQueryCallback;
 import org.alfresco.repo.tenant.TenantUtil;
 import org.alfresco.repo.tenant.TenantUtil.TenantRunAsWork;
+import org.alfresco.repo.transaction.RetryingTransactionHelper;
+import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
 import org.alfresco.service.cmr.repository.ChildAssociationRef;
 import org.alfresco.service.cmr.repository.NodeRef;
 import org.alfresco.service.cmr.repository.Path;
+import org.alfresco.service.namespace.NamespaceService;
 import org.alfresco.service.namespace.QName;
+import org.alfresco.service.transaction.TransactionService;
 import org.alfresco.util.Pair;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -57,9 +66,11 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.springframework.extensions.surf.util.Content;
 import org.springframework.extensions.webscripts.DeclarativeWebScript;
+import org.springframework.extensions.webscripts.Format;
 import org.springframework.extensions.webscripts.Status;
 import org.springframework.extensions.webscripts.WebScriptException;
 import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
 
 // todo url parameter to remove whitespace in results - make it the default?
 /**
@@ -73,9 +84,14 @@ public class NodesMetaDataGet extends DeclarativeWebScript
     protected static final Log logger = LogFactory.getLog(NodesMetaDataGet.class);
     private static final int INITIAL_DEFAULT_SIZE = 100;
     private static final int BATCH_SIZE = 50;
-    
+    private static final String ARG_STREAM = "stream";
+
     private SOLRTrackingComponent solrTrackingComponent;
     private SOLRSerializer solrSerializer;
+    private NamespaceService namespaceService;
+    private TransactionService transactionService;
+    private boolean streamResults = false;
+    private final JsonFactory jsonFactory = new JsonFactory();
     
     public void setSolrTrackingComponent(SOLRTrackingComponent solrTrackingComponent)
     {
@@ -87,8 +103,315 @@ public class NodesMetaDataGet extends DeclarativeWebScript
         this.solrSerializer = solrSerializer;
     }
 
+    public void setNamespaceService(NamespaceService namespaceService)
+    {
+        this.namespaceService = namespaceService;
+    }
+
+    public void setTransactionService(TransactionService transactionService)
+    {
+        this.transactionService = transactionService;
+    }
+
+    /**
+     * Whether or not to stream the results directly to the response (instead of rendering the FreeMarker template)
+     * when the request does not specify the <tt>stream</tt> argument.
+     */
+    public void setStreamResults(boolean streamResults)
+    {
+        this.streamResults = streamResults;
+    }
+
+    /**
+     * The descriptor declares no transaction: the template is rendered in a read-only transaction that may be
+     * retried, while streamed results are written in a read-only transaction that is never retried, as a retry
+     * would append a second document to the output already sent.
+     */
+    @Override
+    public void execute(final WebScriptRequest req, final WebScriptResponse res) throws IOException
+    {
+        String streamArg = req.getParameter(ARG_STREAM);
+        boolean stream = (streamArg != null) ? Boolean.parseBoolean(streamArg) : streamResults;
+        // the binary encoding is always streamed
+        final boolean binary = SOLRBinaryFormat.isAccepted(req);
+        if (binary || stream)
+        {
+            RetryingTransactionHelper txnHelper = transactionService.getRetryingTransactionHelper();
+            txnHelper.setMaxRetries(0);
+            txnHelper.doInTransaction(new RetryingTransactionCallback<Void>()
+            {
+                @Override
+                public Void execute() throws IOException
+                {
+                    executeStreaming(req, res, binary);
+                    return null;
+                }
+            }, true);
+        }
+        else
+        {
+            transactionService.getRetryingTransactionHelper().doInTransaction(new RetryingTransactionCallback<Void>()
+            {
+                @Override
+                public Void execute() throws IOException
+                {
+                    NodesMetaDataGet.super.execute(req, res);
+                    return null;
+                }
+            }, true);
+        }
+    }
+
     @Override
     protected Map<String, Object> executeImpl(WebScriptRequest req, Status status)
+    {
+        final MetaDataRequest metaDataRequest = parseRequest(req);
+
+        final ArrayList<FreemarkerNodeMetaData> nodesMetaData =
+            new ArrayList<FreemarkerNodeMetaData>(metaDataRequest.size > 0 ? metaDataRequest.size : INITIAL_DEFAULT_SIZE);
+        final boolean noSizeCalculated = (metaDataRequest.size == 0);
+
+        solrTrackingComponent.getNodesMetadata(metaDataRequest.params, metaDataRequest.filter, new NodeMetaDataQueryCallback()
+        {
+            private int counter = BATCH_SIZE;
+            private int numBatches = 0;
+
+            @Override
+            public boolean handleNodeMetaData(NodeMetaData nodeMetaData)
+            {
+                nodesMetaData.add(toFreemarkerNodeMetaData(nodeMetaData));
+
+                if(noSizeCalculated && --counter == 0)
+                {
+                    counter = BATCH_SIZE;
+                    nodesMetaData.ensureCapacity(++numBatches*BATCH_SIZE);
+                }
+
+                return true;
+            }
+        });
+
+        Map<String, Object> model = new HashMap<String, Object>(1, 1.0f);
+        model.put("nodes", nodesMetaData);
+        model.put("filter", metaDataRequest.filter);
+
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("Result: \n\tRequest: " + req + "\n\tModel: " + model);
+        }
+
+        return model;
+    }
+
+    /**
+     * Write the node metadata to the response as it is retrieved, so that only a single node is held
+     * in memory at any time regardless of the size of the requested range.
+     * <p/>
+     * The JSON produced is equivalent to that of the <tt>nodesMetaData.post.json.ftl</tt> template. If the
+     * metadata can't be read once the response has been committed, the document is left unterminated so that
+     * the client fails to parse it rather than taking the nodes written so far for the complete result.
+     */
+    private void executeStreaming(WebScriptRequest req, WebScriptResponse res, boolean binary) throws IOException
+    {
+        final MetaDataRequest metaDataRequest = parseRequest(req);
+
+        final JsonGenerator generator;
+        if (binary)
+        {
+            generator = SOLRBinaryFormat.createGenerator(res);
+        }
+        else
+        {
+            res.setContentType(Format.JSON.mimetype() + ";charset=UTF-8");
+            res.setContentEncoding("UTF-8");
+            generator = jsonFactory.createGenerator(res.getOutputStream(), JsonEncoding.UTF8);
+        }
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("nodes");
+
+        final int[] count = new int[1];
+        try
+        {
+            solrTrackingComponent.getNodesMetadata(metaDataRequest.params, metaDataRequest.filter, new NodeMetaDataQueryCallback()
+            {
+                @Override
+                public boolean handleNodeMetaData(NodeMetaData nodeMetaData)
+                {
+                    try
+                    {
+                        writeNodeMetaData(generator, toFreemarkerNodeMetaData(nodeMetaData), metaDataRequest.filter);
+                    }
+                    catch(IOException e)
+                    {
+                        throw new AlfrescoRuntimeException("Problem writing metadata for node " + nodeMetaData.getNodeRef(), e);
+                    }
+                    count[0]++;
+                    return true;
+                }
+            });
+        }
+        catch (RuntimeException e)
+        {
+            try
+            {
+                // nothing has been sent yet - discard the partial document and let the error status be returned
+                res.reset();
+            }
+            catch (IllegalStateException committed)
+            {
+                // the status has been sent - send the nodes written so far without closing the document
+                logger.error("Streaming metadata failed after " + count[0] + " nodes, the response is truncated: \n\tRequest: " + req, e);
+                generator.flush();
+            }
+            throw e;
+        }
+
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.flush();
+
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("Streamed metadata for " + count[0] + " nodes: \n\tRequest: " + req);
+        }
+    }
+
+    private FreemarkerNodeMetaData toFreemarkerNodeMetaData(NodeMetaData nodeMetaData)
+    {
+        // need to perform data structure conversions that are compatible with Freemarker
+        // e.g. Serializable -> String, QName -> String (because map keys must be string, number)
+        try
+        {
+            return new FreemarkerNodeMetaData(solrSerializer, nodeMetaData);
+        }
+        catch(Exception e)
+        {
+            throw new AlfrescoRuntimeException("Problem converting to Freemarker using node " + nodeMetaData.getNodeRef().toString(), e);
+        }
+    }
+
+    private void writeNodeMetaData(JsonGenerator generator, FreemarkerNodeMetaData nodeMetaData, MetaDataResultsFilter filter) throws IOException
+    {
+        generator.writeStartObject();
+        generator.writeNumberField("id", nodeMetaData.getNodeId());
+        if (nodeMetaData.getTenantDomain() != null)
+        {
+            generator.writeStringField("tenantDomain", nodeMetaData.getTenantDomain());
+        }
+        if (filter.getIncludeNodeRef() && nodeMetaData.getNodeRef() != null)
+        {
+            generator.writeStringField("nodeRef", nodeMetaData.getNodeRef().toString());
+        }
+        if (filter.getIncludeType() && nodeMetaData.getNodeType() != null)
+        {
+            generator.writeStringField("type", nodeMetaData.getNodeType().toPrefixString(namespaceService));
+        }
+        if (filter.getIncludeAclId() && nodeMetaData.getAclId() != null)
+        {
+            generator.writeNumberField("aclId", nodeMetaData.getAclId());
+        }
+        if (filter.getIncludeTxnId() && nodeMetaData.getTxnId() != null)
+        {
+            generator.writeNumberField("txnId", nodeMetaData.getTxnId());
+        }
+        if (filter.getIncludeProperties() && nodeMetaData.getProperties() != null)
+        {
+            generator.writeObjectFieldStart("properties");
+            for (Map.Entry<String, PropertyValue> entry : nodeMetaData.getProperties().entrySet())
+            {
+                // the property values have already been serialized to JSON by the SOLRSerializer
+                generator.writeFieldName(entry.getKey());
+                writeRawValue(generator, entry.getValue().toString());
+            }
+            generator.writeEndObject();
+        }
+        if (filter.getIncludeAspects() && nodeMetaData.getAspects() != null)
+        {
+            generator.writeArrayFieldStart("aspects");
+            for (QName aspectQName : nodeMetaData.getAspects())
+            {
+                generator.writeString(aspectQName.toPrefixString(namespaceService));
+            }
+            generator.writeEndArray();
+        }
+        if (filter.getIncludePaths())
+        {
+            writeRawValues(generator, "paths", nodeMetaData.getPaths());
+            if (nodeMetaData.getAncestors() != null && nodeMetaData.getAncestors().size() > 0)
+            {
+                generator.writeArrayFieldStart("ancestors");
+                for (String ancestor : nodeMetaData.getAncestors())
+                {
+                    generator.writeString(ancestor);
+                }
+                generator.writeEndArray();
+            }
+            writeRawValues(generator, "namePaths", nodeMetaData.getNamePaths());
+        }
+        if (filter.getIncludeParentAssociations() && nodeMetaData.getParentAssocs() != null && nodeMetaData.getParentAssocs().size() > 0)
+        {
+            writeRawValues(generator, "parentAssocs", nodeMetaData.getParentAssocs());
+            generator.writeFieldName("parentAssocsCrc");
+            if (nodeMetaData.getParentAssocsCrc() != null)
+            {
+                generator.writeNumber(nodeMetaData.getParentAssocsCrc());
+            }
+            else
+            {
+                generator.writeNull();
+            }
+        }
+        if (filter.getIncludeChildAssociations() && nodeMetaData.getChildAssocs() != null && nodeMetaData.getChildAssocs().size() > 0)
+        {
+            writeRawValues(generator, "childAssocs", nodeMetaData.getChildAssocs());
+        }
+        if (filter.getIncludeChildIds() && nodeMetaData.getChildIds() != null && nodeMetaData.getChildIds().size() > 0)
+        {
+            generator.writeArrayFieldStart("childIds");
+            for (Long childId : nodeMetaData.getChildIds())
+            {
+                generator.writeNumber(childId);
+            }
+            generator.writeEndArray();
+        }
+        if (filter.getIncludeOwner() && nodeMetaData.getOwner() != null)
+        {
+            generator.writeStringField("owner", nodeMetaData.getOwner());
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeRawValues(JsonGenerator generator, String fieldName, List<String> values) throws IOException
+    {
+        if (values != null)
+        {
+            generator.writeArrayFieldStart(fieldName);
+            for (String value : values)
+            {
+                writeRawValue(generator, value);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeRawValue(JsonGenerator generator, String json) throws IOException
+    {
+        if (generator instanceof SmileGenerator)
+        {
+            // the binary encoding cannot embed raw JSON, so re-encode the serialized value
+            try (JsonParser parser = jsonFactory.createParser(json))
+            {
+                parser.nextToken();
+                generator.copyCurrentStructure(parser);
+            }
+        }
+        else
+        {
+            generator.writeRawValue(json);
+        }
+    }
+
+    private MetaDataRequest parseRequest(WebScriptRequest req)
     {
         try
         {
@@ -135,8 +458,6 @@ public class NodesMetaDataGet extends DeclarativeWebScript
                 size = (int)(toNodeId - fromNodeId);
             }
 
-            final boolean noSizeCalculated = (size == 0);
-
             // filters, defaults are 'true'
             MetaDataResultsFilter filter = new MetaDataResultsFilter();
             if(o.has("includeAclId"))
@@ -180,54 +501,13 @@ public class NodesMetaDataGet extends DeclarativeWebScript
                 filter.setIncludeTxnId(o.getBoolean("includeTxnId"));
             }
             
-            final ArrayList<FreemarkerNodeMetaData> nodesMetaData = 
-                new ArrayList<FreemarkerNodeMetaData>(size > 0 ? size : INITIAL_DEFAULT_SIZE);
             NodeMetaDataParameters params = new NodeMetaDataParameters();
             params.setNodeIds(nodeIds);
             params.setFromNodeId(fromNodeId);
             params.setToNodeId(toNodeId);
             params.setMaxResults(maxResults);
 
-            solrTrackingComponent.getNodesMetadata(params, filter, new NodeMetaDataQueryCallback()
-            {
-                private int counter = BATCH_SIZE;
-                private int numBatches = 0;
-
-                @Override
-                public boolean handleNodeMetaData(NodeMetaData nodeMetaData)
-                {
-                    // need to perform data structure conversions that are compatible with Freemarker
-                    // e.g. Serializable -> String, QName -> String (because map keys must be string, number)
-                    try
-                    {
-                        FreemarkerNodeMetaData fNodeMetaData = new FreemarkerNodeMetaData(solrSerializer, nodeMetaData);
-                        nodesMetaData.add(fNodeMetaData);
-                    }
-                    catch(Exception e)
-                    {
-                        throw new AlfrescoRuntimeException("Problem converting to Freemarker using node " + nodeMetaData.getNodeRef().toString(), e); 
-                    }
-
-                    if(noSizeCalculated && --counter == 0)
-                    {
-                        counter = BATCH_SIZE;
-                        nodesMetaData.ensureCapacity(++numBatches*BATCH_SIZE);
-                    }
-
-                    return true;
-                }
-            });
-
-            Map<String, Object> model = new HashMap<String, Object>(1, 1.0f);
-            model.put("nodes", nodesMetaData);
-            model.put("filter", filter);
-
-            if (logger.isDebugEnabled())
-            {
-                logger.debug("Result: \n\tRequest: " + req + "\n\tModel: " + model);
-            }
-            
-            return model;
+            return new MetaDataRequest(params, filter, size);
         }
         catch(IOException e)
         {
@@ -239,6 +519,23 @@ public class NodesMetaDataGet extends DeclarativeWebScript
         }
     }
 
+    /**
+     * The parsed metadata request
+     */
+    private static class MetaDataRequest
+    {
+        private final NodeMetaDataParameters params;
+        private final MetaDataResultsFilter filter;
+        private final int size;
+
+        private MetaDataRequest(NodeMetaDataParameters params, MetaDataResultsFilter filter, int size)
+        {
+            this.params = params;
+            this.filter = filter;
+            this.size = size;
+        }
+    }
+
     /**
      * Bean to store node meta data for use by FreeMarker templates
      * 
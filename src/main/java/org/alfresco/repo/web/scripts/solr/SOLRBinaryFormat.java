@@ -0,0 +1,76 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.web.scripts.solr;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
+
+/**
+ * Support for SOLR: compact binary (Smile) encoding of the tracking responses.
+ * <p/>
+ * Smile is a binary encoding of the JSON data model, so the structure of the responses is the same as the
+ * JSON rendered by the SOLR templates. Integral values are written as variable length integers, and
+ * repeated field names and short string values (eg. QNames, tenant domains and authorities) are
+ * back-referenced rather than repeated. JSON remains the default; the binary encoding is only used
+ * when the client explicitly accepts it.
+ */
+/* package */ class SOLRBinaryFormat
+{
+    public static final String MIMETYPE_SMILE = "application/x-jackson-smile";
+
+    private static final String HEADER_ACCEPT = "Accept";
+
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+
+    private SOLRBinaryFormat()
+    {
+    }
+
+    /**
+     * @return true if the client accepts the binary encoding
+     */
+    public static boolean isAccepted(WebScriptRequest req)
+    {
+        String accept = req.getHeader(HEADER_ACCEPT);
+        return accept != null && accept.contains(MIMETYPE_SMILE);
+    }
+
+    /**
+     * Create a binary generator that writes to the given response (and set the response content type).
+     */
+    public static JsonGenerator createGenerator(WebScriptResponse res) throws IOException
+    {
+        res.setContentType(MIMETYPE_SMILE);
+        return SMILE_FACTORY.createGenerator(res.getOutputStream());
+    }
+}
@@ -25,10 +25,12 @@
  */
 package org.alfresco.repo.web.scripts.solr;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.alfresco.repo.index.shard.ShardMethodEnum;
 import org.alfresco.repo.index.shard.ShardState;
 import org.alfresco.repo.index.shard.ShardStateBuilder;
@@ -40,6 +42,7 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.extensions.webscripts.DeclarativeWebScript;
 import org.springframework.extensions.webscripts.Status;
 import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
 
 /**
  * Support for SOLR: Get a list of transactions with a commit time greater than or equal to the given parameter.
@@ -57,6 +60,19 @@ public class TransactionsGet extends DeclarativeWebScript
         this.solrTrackingComponent = solrTrackingComponent;
     }
 
+    @Override
+    public void execute(WebScriptRequest req, WebScriptResponse res) throws IOException
+    {
+        if (SOLRBinaryFormat.isAccepted(req))
+        {
+            writeBinary(executeImpl(req, new Status()), res);
+        }
+        else
+        {
+            super.execute(req, res);
+        }
+    }
+
     protected Map<String, Object> executeImpl(WebScriptRequest req, Status status)
     {
         String minTxnIdParam = req.getParameter("minTxnId");
@@ -163,4 +179,36 @@ public class TransactionsGet extends DeclarativeWebScript
         
         return model;
     }
+
+    /**
+     * Write the model using the binary encoding (equivalent to <tt>transactions.get.json.ftl</tt>)
+     */
+    @SuppressWarnings("unchecked")
+    private void writeBinary(Map<String, Object> model, WebScriptResponse res) throws IOException
+    {
+        try (JsonGenerator generator = SOLRBinaryFormat.createGenerator(res))
+        {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("transactions");
+            for (Transaction txn : (List<Transaction>) model.get("transactions"))
+            {
+                generator.writeStartObject();
+                generator.writeNumberField("id", txn.getId());
+                generator.writeNumberField("commitTimeMs", txn.getCommitTimeMs());
+                generator.writeNumberField("updates", txn.getUpdates());
+                generator.writeNumberField("deletes", txn.getDeletes());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            if (model.containsKey("maxTxnCommitTime"))
+            {
+                generator.writeNumberField("maxTxnCommitTime", (Long) model.get("maxTxnCommitTime"));
+            }
+            if (model.containsKey("maxTxnId"))
+            {
+                generator.writeNumberField("maxTxnId", (Long) model.get("maxTxnId"));
+            }
+            generator.writeEndObject();
+        }
+    }
 }
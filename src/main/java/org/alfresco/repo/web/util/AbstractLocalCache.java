@@ -0,0 +1,336 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2016 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.web.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport;
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport.TxnReadState;
+import org.alfresco.repo.transaction.TransactionListenerAdapter;
+
+/**
+ * Base class of the caches held in the memory of this node. The entries are kept in one or more {@link Region}s,
+ * access-ordered maps that evict the least recently used entries beyond <tt>maxItems</tt>, and are looked up again
+ * after <tt>timeToLive</tt> milliseconds.
+ * <p>
+ * Nothing is shared with or invalidated on the other cluster nodes: changes made there are only seen once the
+ * entries they affect expire.
+ * <p>
+ * A transaction that changes the cached data calls {@link #changedInTransaction()}, which clears the cache
+ * immediately, so other transactions stop using it, and again when the changing transaction commits. The changing
+ * transaction itself should not use the cache, see {@link #isChangedInTransaction()}. Values looked up while the
+ * cache was being cleared are not kept, see {@link #getGeneration()}.
+ * <p>
+ * The cache instance is the lock guarding the regions.
+ */
+public abstract class AbstractLocalCache extends TransactionListenerAdapter
+{
+    private final String keyChanged = getClass().getName() + ".changed." + System.identityHashCode(this);
+
+    private final List<Region<?, ?>> regions = new ArrayList<>(4);
+    private final AtomicLong generation = new AtomicLong();
+
+    private int maxItems;
+    private long timeToLive;
+
+    /**
+     * @param maxItems the default maximum number of entries kept in each region
+     * @param timeToLive the default time to live in milliseconds
+     */
+    protected AbstractLocalCache(int maxItems, long timeToLive)
+    {
+        this.maxItems = maxItems;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * @param maxItems the maximum number of entries kept in each region
+     */
+    public void setMaxItems(int maxItems)
+    {
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * @param timeToLive the time in milliseconds after which an entry is looked up again, 0 to keep it until it is
+     *            invalidated or evicted
+     */
+    public void setTimeToLive(long timeToLive)
+    {
+        this.timeToLive = timeToLive;
+    }
+
+    public long getTimeToLive()
+    {
+        return timeToLive;
+    }
+
+    /**
+     * @return the generation to pass to {@link Region#put(Object, Object, long)}, read before the value is looked
+     *         up
+     */
+    public long getGeneration()
+    {
+        return generation.get();
+    }
+
+    /**
+     * Discard all the cached entries.
+     */
+    public synchronized void clear()
+    {
+        generation.incrementAndGet();
+        for (Region<?, ?> region : regions)
+        {
+            region.entries.clear();
+            region.weight = 0;
+        }
+    }
+
+    /**
+     * @return the number of cached entries
+     */
+    public synchronized int size()
+    {
+        int size = 0;
+        for (Region<?, ?> region : regions)
+        {
+            size += region.entries.size();
+        }
+        return size;
+    }
+
+    /**
+     * Entries looked up by concurrent transactions before the change became visible are dropped again once the
+     * changing transaction has committed.
+     */
+    @Override
+    public void afterCommit()
+    {
+        clear();
+    }
+
+    /**
+     * @return <tt>true</tt> if the current transaction changed the cached data
+     */
+    protected boolean isChangedInTransaction()
+    {
+        return AlfrescoTransactionSupport.getTransactionReadState() != TxnReadState.TXN_NONE
+                    && AlfrescoTransactionSupport.getResource(keyChanged) != null;
+    }
+
+    /**
+     * Clear the cache because the current transaction changes the cached data, and again when it commits.
+     */
+    protected void changedInTransaction()
+    {
+        clear();
+        AlfrescoTransactionSupport.bindResource(keyChanged, Boolean.TRUE);
+        AlfrescoTransactionSupport.bindListener(this);
+    }
+
+    /**
+     * An access-ordered map of cached entries.
+     * 
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    protected class Region<K, V>
+    {
+        private final LinkedHashMap<K, Entry<V>> entries;
+        private long maxWeight = Long.MAX_VALUE;
+        private long weight;
+
+        public Region(int initialCapacity)
+        {
+            this.entries = new LinkedHashMap<>(initialCapacity, 0.75f, true);
+            regions.add(this);
+        }
+
+        /**
+         * @param maxWeight the maximum total weight of the entries, the least recently used entries are evicted
+         *            beyond it
+         */
+        public void setMaxWeight(long maxWeight)
+        {
+            this.maxWeight = maxWeight;
+        }
+
+        /**
+         * @return the total weight of the entries
+         */
+        public long getWeight()
+        {
+            synchronized (AbstractLocalCache.this)
+            {
+                return weight;
+            }
+        }
+
+        /**
+         * @param key the key
+         * @return the cached value, or <tt>null</tt> if there is none or it has expired
+         */
+        public V get(K key)
+        {
+            synchronized (AbstractLocalCache.this)
+            {
+                Entry<V> entry = getEntry(key);
+                return entry == null ? null : entry.value;
+            }
+        }
+
+        /**
+         * @param key the key
+         * @param loader looks the value up when it isn't cached, may return <tt>null</tt>
+         * @return the cached or loaded value
+         */
+        public V get(K key, Supplier<V> loader)
+        {
+            Entry<V> entry;
+            synchronized (AbstractLocalCache.this)
+            {
+                entry = getEntry(key);
+            }
+            if (entry != null)
+            {
+                return entry.value;
+            }
+            long readGeneration = generation.get();
+            V value = loader.get();
+            put(key, value, readGeneration);
+            return value;
+        }
+
+        /**
+         * Cache a value unless the cache was cleared since it was looked up.
+         * 
+         * @param key the key
+         * @param value the value
+         * @param readGeneration the generation read before the value was looked up
+         */
+        public void put(K key, V value, long readGeneration)
+        {
+            synchronized (AbstractLocalCache.this)
+            {
+                if (generation.get() == readGeneration)
+                {
+                    put(key, value);
+                }
+            }
+        }
+
+        /**
+         * Cache a value, evicting the least recently used entries beyond <tt>maxItems</tt> or the maximum weight.
+         * 
+         * @param key the key
+         * @param value the value
+         */
+        public void put(K key, V value)
+        {
+            synchronized (AbstractLocalCache.this)
+            {
+                remove(key);
+                entries.put(key, new Entry<>(value));
+                weight += weigh(value);
+                Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+                while ((entries.size() > maxItems || weight > maxWeight) && it.hasNext())
+                {
+                    Map.Entry<K, Entry<V>> eldest = it.next();
+                    it.remove();
+                    weight -= weigh(eldest.getValue().value);
+                    removed(eldest.getKey(), eldest.getValue().value);
+                }
+            }
+        }
+
+        /**
+         * @param key the key
+         * @return the removed value, or <tt>null</tt> if there was none
+         */
+        public V remove(K key)
+        {
+            synchronized (AbstractLocalCache.this)
+            {
+                Entry<V> entry = entries.remove(key);
+                if (entry == null)
+                {
+                    return null;
+                }
+                weight -= weigh(entry.value);
+                removed(key, entry.value);
+                return entry.value;
+            }
+        }
+
+        /**
+         * @param value a cached value
+         * @return the weight of the value, counted against the maximum weight
+         */
+        protected long weigh(V value)
+        {
+            return 1L;
+        }
+
+        /**
+         * Called when an entry is removed, expires or is evicted, but not when the cache is cleared.
+         * 
+         * @param key the key
+         * @param value the value
+         */
+        protected void removed(K key, V value)
+        {
+        }
+
+        private Entry<V> getEntry(K key)
+        {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && timeToLive > 0 && System.currentTimeMillis() - entry.created > timeToLive)
+            {
+                remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private static class Entry<V>
+    {
+        private final V value;
+        private final long created = System.currentTimeMillis();
+
+        private Entry(V value)
+        {
+            this.value = value;
+        }
+    }
+}
@@ -28,6 +28,9 @@ package org.alfresco.repo.web.util;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -36,6 +39,7 @@ import java.util.StringTokenizer;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
 
+import org.alfresco.repo.content.filestore.FileContentReader;
 import org.alfresco.service.cmr.repository.ContentReader;
 import org.alfresco.service.cmr.repository.ContentService;
 import org.alfresco.service.cmr.repository.NodeRef;
@@ -230,9 +234,24 @@ public class HttpRangeProcessor
           {
              os = webScriptResponse.getOutputStream();
           }
-          is = reader.getContentInputStream();
-          
-          streamRangeBytes(r, is, os, 0L);
+          if (reader instanceof FileContentReader)
+          {
+             // file backed content - transfer the range directly from the file channel
+             FileChannel channel = reader.getFileChannel();
+             try
+             {
+                streamRangeBytes(r, channel, os);
+             }
+             finally
+             {
+                channel.close();
+             }
+          }
+          else
+          {
+             is = reader.getContentInputStream();
+             streamRangeBytes(r, is, os, 0L, new byte[getBufferSize(r)]);
+          }
           
           os.close();
           processedRange = true;
@@ -391,9 +410,24 @@ public class HttpRangeProcessor
              os =webScriptResponse.getOutputStream();
           }
           
+          // file backed content can serve every range from a single channel using positional transfers,
+          // otherwise the content stream is only reopened if a range starts before the current position
+          FileChannel channel = null;
           InputStream is = null;
+          long position = 0L;
+          byte[] buf = null;
           try
           {
+             if (reader instanceof FileContentReader)
+             {
+                channel = reader.getFileChannel();
+             }
+             else
+             {
+                is = reader.getContentInputStream();
+                buf = new byte[CHUNKSIZE];
+             }
+             
              for (Range r : ranges)
              {
                 if (logger.isDebugEnabled())
@@ -406,11 +440,21 @@ public class HttpRangeProcessor
                        r.outputHeader((ServletOutputStream) os);
                    
                    // output the binary data for the range
-                   // need a new reader for each new InputStream
-                   is = contentService.getReader(ref, property).getContentInputStream();
-                   streamRangeBytes(r, is, os, 0L);
-                   is.close();
-                   is = null;
+                   if (channel != null)
+                   {
+                      streamRangeBytes(r, channel, os);
+                   }
+                   else
+                   {
+                      if (r.start < position)
+                      {
+                         // need a new reader for each new InputStream
+                         is.close();
+                         is = contentService.getReader(ref, property).getContentInputStream();
+                         position = 0L;
+                      }
+                      position = streamRangeBytes(r, is, os, position, buf);
+                   }
                    
                    // section marker and flush stream
                    if (os instanceof ServletOutputStream)
@@ -431,6 +475,10 @@ public class HttpRangeProcessor
              {
                 is.close();
              }
+             if (channel != null)
+             {
+                channel.close();
+             }
           }
           
           // end marker
@@ -450,67 +498,82 @@ public class HttpRangeProcessor
      * @param is      InputStream
      * @param os      ServletOutputStream
      * @param offset  Assumed InputStream position - to calculate skip bytes from
+     * @param buf     Buffer to copy the bytes through
      * 
+     * @return the InputStream position after the range has been streamed
      */
-    private void streamRangeBytes(final Range r, final InputStream is, final OutputStream os, long offset)
+    private long streamRangeBytes(final Range r, final InputStream is, final OutputStream os, long offset, byte[] buf)
        throws IOException
     {
        final Log logger = getLogger();
        final boolean trace = logger.isTraceEnabled();
        
-       // TODO: investigate using getFileChannel() on ContentReader
-       
-       if (r.start != 0L && r.start > offset)
+       while (r.start > offset)
        {
-          long skipped = offset + is.skip(r.start - offset);
-          if (skipped < r.start)
+          long skipped = is.skip(r.start - offset);
+          if (skipped <= 0L)
           {
               // Nothing left to download!
-              return;
+              return offset;
           }
+          offset += skipped;
        }
-       long span = (r.end - r.start) + 1L;
-       long bytesLeft = span;
+       long bytesLeft = (r.end - r.start) + 1L;
        int read = 0;
        
-       // Check that bytesLeft isn't greater than int can hold
-       int bufSize;
-       if (bytesLeft >= Integer.MAX_VALUE - 8)
-       {
-          bufSize = CHUNKSIZE;
-       }
-       else
-       {
-          bufSize = ((int)bytesLeft) < CHUNKSIZE ? (int)bytesLeft : CHUNKSIZE;
-       }
-       byte[] buf = new byte[bufSize];
-       
-       while ((read = is.read(buf)) > 0 && bytesLeft != 0L)
+       while (bytesLeft != 0L && (read = is.read(buf, 0, (int)Math.min(buf.length, bytesLeft))) > 0)
        {
           os.write(buf, 0, read);
           
           bytesLeft -= (long)read;
+          offset += (long)read;
           
-          if (bytesLeft != 0L)
+          if (trace) logger.trace("...wrote " + read + " bytes, with " + bytesLeft + " to go...");
+       }
+       
+       return offset;
+    }
+    
+    /**
+     * Transfer a range of bytes from the given FileChannel to the ServletOutputStream - the channel
+     * position is not used or changed so the same channel can be used for multiple ranges
+     * 
+     * @param r        Byte Range to process
+     * @param channel  FileChannel of the content
+     * @param os       ServletOutputStream
+     */
+    private void streamRangeBytes(final Range r, final FileChannel channel, final OutputStream os)
+       throws IOException
+    {
+       final Log logger = getLogger();
+       final boolean trace = logger.isTraceEnabled();
+       
+       // note: the target channel must not be closed as that would close the response stream
+       WritableByteChannel target = Channels.newChannel(os);
+       long position = r.start;
+       long end = Math.min(r.end + 1L, channel.size());
+       while (position < end)
+       {
+          long transferred = channel.transferTo(position, end - position, target);
+          if (transferred <= 0L)
           {
-             int resize;
-             if (bytesLeft >= Integer.MAX_VALUE - 8)
-             {
-                resize = CHUNKSIZE;
-             }
-             else
-             {
-                resize = ((int)bytesLeft) < CHUNKSIZE ? (int)bytesLeft : CHUNKSIZE;
-             }
-             if (resize != buf.length)
-             {
-                buf = new byte[resize];
-             }
+             break;
           }
-          if (trace) logger.trace("...wrote " + read + " bytes, with " + bytesLeft + " to go...");
+          position += transferred;
+          
+          if (trace) logger.trace("...wrote " + transferred + " bytes, with " + (end - position) + " to go...");
        }
     }
     
+    /**
+     * @return the size of buffer to use to stream the given range
+     */
+    private static int getBufferSize(Range r)
+    {
+       long span = (r.end - r.start) + 1L;
+       return span < CHUNKSIZE ? (int)span : CHUNKSIZE;
+    }
+    
     
     /**
      * Representation of a single byte range.
@@ -25,6 +25,7 @@
  */
 package org.alfresco.repo.webdav;
 
+import java.io.CharArrayWriter;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -32,12 +33,18 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.servlet.http.HttpServletResponse;
 
 import org.alfresco.error.AlfrescoRuntimeException;
 import org.alfresco.model.ContentModel;
 import org.alfresco.repo.SessionUser;
+import org.alfresco.repo.security.authentication.AuthenticationUtil;
 import org.alfresco.repo.webdav.auth.AuthenticationFilter;
 import org.alfresco.service.cmr.model.FileInfo;
 import org.alfresco.service.cmr.model.FileNotFoundException;
@@ -79,6 +86,22 @@ public class PropFindMethod extends WebDAVMethod
     // Available namespaces list
     protected HashMap<String, String> m_namespaces = null;
 
+    // Size of the generated XML (in characters) above which it is sent to the client
+    private static final int XML_FLUSH_SIZE = 64 * 1024;
+
+    // Lock info loaded for the nodes in the response, before their XML is generated
+    private Map<NodeRef, LockInfo> m_lockInfos = new HashMap<NodeRef, LockInfo>();
+
+    // The session user, loaded before the response XML is generated
+    private SessionUser m_sessionUser;
+    private boolean m_sessionUserLoaded = false;
+
+    // Set once part of the response has been sent to the client
+    private boolean m_responseStarted = false;
+
+    // Set if the response shows an active lock, such responses are not cached
+    private volatile boolean m_activeLockFound = false;
+
     /**
      * Default constructor
      */
@@ -187,6 +210,19 @@ public class PropFindMethod extends WebDAVMethod
      */
     protected void executeImpl() throws WebDAVServerException, Exception
     {
+        if (m_responseStarted)
+        {
+            // The transaction is being retried, discard the partial response if possible
+            if (m_response.isCommitted())
+            {
+                throw new AlfrescoRuntimeException("Unable to retry PROPFIND, the response has already been sent: " + m_strPath);
+            }
+            m_response.resetBuffer();
+            m_responseStarted = false;
+        }
+        m_lockInfos.clear();
+        m_activeLockFound = false;
+
         m_response.setStatus(WebDAV.WEBDAV_SC_MULTI_STATUS);
         
         FileInfo pathNodeInfo = null;
@@ -212,6 +248,28 @@ public class PropFindMethod extends WebDAVMethod
 
         m_response.setContentType(WebDAV.XML_CONTENT_TYPE);
 
+        // Get the session user now, the response XML may be generated by other threads
+        m_sessionUser = (SessionUser) m_request.getSession().getAttribute(AuthenticationFilter.AUTHENTICATION_USER);
+        m_sessionUserLoaded = true;
+
+        // Answer from the response cache, if possible
+        PropFindResponseCache cache = getDAVHelper().getPropFindCache();
+        String cacheKey = null;
+        List<NodeRef> cacheNodeRefs = null;
+        if (cache != null && cache.isEnabled() && pathNodeInfo.getNodeRef() != null
+                    && (getDepth() == WebDAV.DEPTH_0 || getDepth() == WebDAV.DEPTH_1))
+        {
+            cacheKey = getCacheKey(pathNodeInfo);
+            char[] cached = cache.get(cacheKey, pathNodeInfo.getNodeRef());
+            if (cached != null)
+            {
+                m_response.getWriter().write(cached);
+                return;
+            }
+            cacheNodeRefs = new ArrayList<NodeRef>();
+            cacheNodeRefs.add(pathNodeInfo.getNodeRef());
+        }
+
         // Create multistatus response
 
         XMLWriter xml = createXMLWriter();
@@ -307,16 +365,18 @@ public class PropFindMethod extends WebDAVMethod
 
                     int curBaseLen = baseBuild.length();
 
-                    // Output the child node details
+                    List<String> childPaths = new ArrayList<String>(childNodeInfos.size());
                     for (FileInfo curChildInfo : childNodeInfos)
                     {
 	                // Build the path for the current child node
 	                baseBuild.setLength(curBaseLen);
 	
 	                baseBuild.append(curChildInfo.getName());
-	
-	                // Output the current child node details
-	                generateResponseForNode(xml, curChildInfo, baseBuild.toString());
+	                childPaths.add(baseBuild.toString());
+	                if (cacheNodeRefs != null && curChildInfo.getNodeRef() != null)
+	                {
+	                    cacheNodeRefs.add(curChildInfo.getNodeRef());
+	                }
 	
 	                // If the child is a folder add it to the list of next level nodes
 	                if (nextNodeInfos != null && curChildInfo.isFolder())
@@ -324,6 +384,22 @@ public class PropFindMethod extends WebDAVMethod
 	                    nextNodeInfos.add(curChildInfo);
 	                }
                     }
+
+                    // Output the child node details
+                    generateResponseForNodes(xml, curNodeInfo, childNodeInfos, childPaths);
+
+                    // The response is held until it has been cached, unless it is too large to cache
+                    if (cacheKey != null && getBufferedXMLSize() > cache.getMaxEntrySize())
+                    {
+                        cacheKey = null;
+                    }
+
+                    // Send the XML generated so far, rather than holding the whole response in memory
+                    if (cacheKey == null && getBufferedXMLSize() >= XML_FLUSH_SIZE)
+                    {
+                        m_responseStarted = true;
+                        flushXML(xml);
+                    }
                 }
 
                 // Update the current tree depth
@@ -337,6 +413,13 @@ public class PropFindMethod extends WebDAVMethod
         // Close the outer XML element
         xml.endElement(WebDAV.DAV_NS, WebDAV.XML_MULTI_STATUS, WebDAV.XML_NS_MULTI_STATUS);
 
+        // Cache the response, unless it shows a lock that will expire
+        if (cacheKey != null && !m_activeLockFound)
+        {
+            xml.flush();
+            cache.put(cacheKey, pathNodeInfo.getNodeRef(), cacheNodeRefs, getBufferedXML());
+        }
+
         // Send remaining data
         flushXML(xml);
     }
@@ -391,6 +474,186 @@ public class PropFindMethod extends WebDAVMethod
         return strNamespaceName;
     }
 
+    /**
+     * Generates the response XML for the children of a folder, in parallel if there are enough
+     * nodes and a PROPFIND worker pool has been configured.
+     * <p>
+     * The lock info of the nodes is loaded up front, so that generating the XML does not need to
+     * access the repository.
+     * 
+     * @param xml XMLWriter
+     * @param folderInfo the folder
+     * @param nodeInfos the children of the folder
+     * @param paths the path of each node
+     */
+    protected void generateResponseForNodes(XMLWriter xml, FileInfo folderInfo, List<FileInfo> nodeInfos, List<String> paths) throws Exception
+    {
+        if (isLockInfoRequired())
+        {
+            loadLockInfo(folderInfo, nodeInfos);
+        }
+
+        ExecutorService executor = getDAVHelper().getPropFindExecutor();
+        if (executor == null || nodeInfos.size() < getDAVHelper().getPropFindParallelThreshold())
+        {
+            for (int i = 0; i < nodeInfos.size(); i++)
+            {
+                generateResponseForNode(xml, nodeInfos.get(i), paths.get(i));
+            }
+            return;
+        }
+
+        final OutputFormat format = getXMLOutputFormat();
+        List<Future<char[]>> fragments = new ArrayList<Future<char[]>>(nodeInfos.size());
+        for (int i = 0; i < nodeInfos.size(); i++)
+        {
+            final FileInfo nodeInfo = nodeInfos.get(i);
+            final String path = paths.get(i);
+            fragments.add(executor.submit(new Callable<char[]>()
+            {
+                @Override
+                public char[] call() throws Exception
+                {
+                    CharArrayWriter fragment = new CharArrayWriter(1024);
+                    XMLWriter fragmentXML = new XMLWriter(fragment, format);
+                    // the response elements are nested in the multistatus element
+                    fragmentXML.setIndentLevel(1);
+                    generateResponseForNode(fragmentXML, nodeInfo, path);
+                    fragmentXML.flush();
+                    return fragment.toCharArray();
+                }
+            }));
+        }
+
+        // Output the XML in the order of the nodes
+        try
+        {
+            for (Future<char[]> fragment : fragments)
+            {
+                writeXML(xml, fragment.get());
+            }
+        }
+        catch (ExecutionException e)
+        {
+            for (Future<char[]> fragment : fragments)
+            {
+                fragment.cancel(false);
+            }
+            if (e.getCause() instanceof Exception)
+            {
+                throw (Exception) e.getCause();
+            }
+            throw new AlfrescoRuntimeException("XML processing error", e.getCause());
+        }
+    }
+
+    /**
+     * Loads the lock info of the children of a folder, resolving the lock inherited from the folder
+     * and its ancestors only once
+     * 
+     * @param folderInfo the folder
+     * @param nodeInfos the children of the folder
+     */
+    private void loadLockInfo(FileInfo folderInfo, List<FileInfo> nodeInfos)
+    {
+        for (Map.Entry<NodeRef, LockInfo> entry : getChildNodeLockInfos(folderInfo, nodeInfos).entrySet())
+        {
+            m_lockInfos.put(entry.getKey(), checkActiveLock(entry.getValue()));
+        }
+    }
+
+    /**
+     * @return          Returns <tt>true</tt> if the response includes the lock discovery property
+     */
+    private boolean isLockInfoRequired()
+    {
+        return m_mode == GET_ALL_PROPS || isPropertyRequested(WebDAV.XML_LOCK_DISCOVERY);
+    }
+
+    /**
+     * @param name the name of a property in the default namespace
+     * @return          Returns <tt>true</tt> if the property is named in the request
+     */
+    private boolean isPropertyRequested(String name)
+    {
+        if (m_mode == GET_NAMED_PROPS)
+        {
+            for (WebDAVProperty property : m_properties)
+            {
+                if (WebDAV.DEFAULT_NAMESPACE_URI.equals(property.getNamespaceUri()) && property.getName().equals(name))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records whether the lock info describes a lock that has not expired yet
+     */
+    private LockInfo checkActiveLock(LockInfo lockInfo)
+    {
+        if (lockInfo != null && lockInfo.isLocked() && !lockInfo.isExpired())
+        {
+            m_activeLockFound = true;
+        }
+        return lockInfo;
+    }
+
+    /**
+     * Builds the response cache key for the request. The response depends on the requested properties, the
+     * permissions and ticket of the user and the URLs generated for the client.
+     * 
+     * @param pathNodeInfo the node the request was issued against
+     * @return          Returns the cache key
+     */
+    private String getCacheKey(FileInfo pathNodeInfo)
+    {
+        StringBuilder key = new StringBuilder(256);
+        key.append(getRootNodeRef()).append('|').append(m_strPath)
+           .append('|').append(getDepth()).append('|').append(m_mode).append('|');
+        if (m_mode == GET_NAMED_PROPS)
+        {
+            for (WebDAVProperty property : m_properties)
+            {
+                key.append('{').append(property.getNamespaceUri()).append('}').append(property.getName()).append(',');
+            }
+        }
+        key.append('|').append(AuthenticationUtil.getFullyAuthenticatedUser());
+        key.append('|').append(new TreeSet<String>(getDAVHelper().getServiceRegistry().getAuthorityService().getAuthorities()));
+        key.append('|').append(m_userAgent);
+        key.append('|').append(getURLForPath(m_request, "/", true));
+        if (m_mode == GET_ALL_PROPS || isPropertyRequested(WebDAV.XML_ALF_AUTHTICKET))
+        {
+            SessionUser davUser = getSessionUser();
+            key.append('|').append(davUser != null ? davUser.getTicket() : null);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the lock info loaded by {@link #generateResponseForNodes(XMLWriter, FileInfo, List, List)}, if available
+     */
+    @Override
+    protected LockInfo getNodeLockInfo(FileInfo nodeInfo)
+    {
+        LockInfo lockInfo = m_lockInfos.get(nodeInfo.getNodeRef());
+        return (lockInfo != null) ? lockInfo : checkActiveLock(super.getNodeLockInfo(nodeInfo));
+    }
+
+    /**
+     * @return          Returns the session user, if any
+     */
+    private SessionUser getSessionUser()
+    {
+        if (m_sessionUserLoaded)
+        {
+            return m_sessionUser;
+        }
+        return (SessionUser) m_request.getSession().getAttribute(AuthenticationFilter.AUTHENTICATION_USER);
+    }
+
     /**
      * Generates the required response XML for the current node
      * 
@@ -608,7 +871,7 @@ public class PropFindMethod extends WebDAVMethod
                 {
                 	// Get the users authentication ticket
                 	
-                    SessionUser davUser = (SessionUser) m_request.getSession().getAttribute( AuthenticationFilter.AUTHENTICATION_USER);
+                    SessionUser davUser = getSessionUser();
                     
                     xml.startElement(WebDAV.DAV_NS, WebDAV.XML_ALF_AUTHTICKET, WebDAV.XML_NS_ALF_AUTHTICKET, nullAttr);
                     if ( davUser != null)
@@ -633,7 +896,7 @@ public class PropFindMethod extends WebDAVMethod
                 {
                     if (deadProperties == null)
                     {
-                        deadProperties = loadDeadProperties(nodeInfo.getNodeRef());
+                        deadProperties = loadDeadProperties(nodeInfo);
                     }
                     value = deadProperties.get(property.createQName());
                 }
@@ -841,7 +1104,7 @@ public class PropFindMethod extends WebDAVMethod
 
         // Print out all the custom properties
 
-        SessionUser davUser = (SessionUser) m_request.getSession().getAttribute( AuthenticationFilter.AUTHENTICATION_USER);
+        SessionUser davUser = getSessionUser();
         
         xml.startElement(WebDAV.DAV_NS, WebDAV.XML_ALF_AUTHTICKET, WebDAV.XML_NS_ALF_AUTHTICKET, nullAttr);
         if ( davUser != null)
@@ -968,11 +1231,26 @@ public class PropFindMethod extends WebDAVMethod
      */
     @SuppressWarnings("unchecked")
     protected Map<QName, String> loadDeadProperties(NodeRef nodeRef)
+    {
+        return parseDeadProperties((List<String>)getNodeService().getProperty(nodeRef, ContentModel.PROP_DEAD_PROPERTIES));
+    }
+
+    /**
+     * Loads all dead properties from the already loaded properties of the node
+     * 
+     * @param nodeInfo FileInfo
+     * @return the map of all dead properties
+     */
+    @SuppressWarnings("unchecked")
+    protected Map<QName, String> loadDeadProperties(FileInfo nodeInfo)
+    {
+        return parseDeadProperties((List<String>)nodeInfo.getProperties().get(ContentModel.PROP_DEAD_PROPERTIES));
+    }
+
+    private Map<QName, String> parseDeadProperties(List<String> deadProperties)
     {
         Map<QName, String> result;
         
-        List<String> deadProperties = (List<String>)getNodeService().getProperty(nodeRef, ContentModel.PROP_DEAD_PROPERTIES);
-        
         if (deadProperties != null)
         {
             result = new HashMap<QName, String>(deadProperties.size() * 2);
@@ -0,0 +1,441 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.webdav;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.alfresco.model.ContentModel;
+import org.alfresco.repo.node.NodeServicePolicies.OnCreateChildAssociationPolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnDeleteChildAssociationPolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnDeleteNodePolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnUpdateNodePolicy;
+import org.alfresco.repo.policy.Behaviour.NotificationFrequency;
+import org.alfresco.repo.policy.JavaBehaviour;
+import org.alfresco.repo.policy.PolicyComponent;
+import org.alfresco.repo.security.permissions.PermissionServicePolicies.OnGrantLocalPermission;
+import org.alfresco.repo.security.permissions.PermissionServicePolicies.OnInheritPermissionsDisabled;
+import org.alfresco.repo.security.permissions.PermissionServicePolicies.OnInheritPermissionsEnabled;
+import org.alfresco.repo.security.permissions.PermissionServicePolicies.OnRevokeLocalPermission;
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport;
+import org.alfresco.repo.transaction.TransactionalResourceHelper;
+import org.alfresco.repo.web.util.AbstractLocalCache;
+import org.alfresco.service.cmr.dictionary.DictionaryService;
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.cmr.repository.NodeRef.Status;
+import org.alfresco.service.cmr.repository.NodeService;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Cache of serialized PROPFIND multistatus responses.
+ * <p>
+ * Entries are keyed by the caller (see {@link PropFindMethod}) on the requested path, depth, property set and
+ * the authorities of the user, and are bounded by the total number of cached characters, evicting the least
+ * recently used responses first. A cached response is dropped as soon as any node it was rendered from is
+ * changed or locked. Permission changes and locks on folders apply to the whole subtree, so they drop all
+ * cached responses.
+ * <p>
+ * Changes made on other cluster nodes are only noticed when they touch the requested folder itself, through its
+ * change transaction. Changes of its children, permissions and locks made elsewhere are served stale until the
+ * time to live expires, which is why the cache is disabled by default.
+ */
+public class PropFindResponseCache extends AbstractLocalCache implements PropFindResponseCacheMBean,
+            OnCreateChildAssociationPolicy, OnDeleteChildAssociationPolicy, OnUpdateNodePolicy, OnDeleteNodePolicy,
+            OnGrantLocalPermission, OnRevokeLocalPermission, OnInheritPermissionsEnabled, OnInheritPermissionsDisabled
+{
+    private static final Log logger = LogFactory.getLog(PropFindResponseCache.class);
+
+    private static final String KEY_CHANGED_NODES = PropFindResponseCache.class.getName() + ".changedNodes";
+    private static final String KEY_PERMISSIONS_CHANGED = PropFindResponseCache.class.getName() + ".permissionsChanged";
+
+    private PolicyComponent policyComponent;
+    private NodeService nodeService;
+    private DictionaryService dictionaryService;
+
+    private boolean enabled;
+    private long maxSize = 64L * 1024L * 1024L;
+    private int maxEntrySize = 1024 * 1024;
+
+    private final Region<String, Entry> entries = new Region<String, Entry>(16)
+    {
+        @Override
+        protected long weigh(Entry entry)
+        {
+            return entry.xml.length;
+        }
+
+        @Override
+        protected void removed(String key, Entry entry)
+        {
+            unindex(key, entry);
+        }
+    };
+    private final Map<NodeRef, Set<String>> keysByNode = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public void setPolicyComponent(PolicyComponent policyComponent)
+    {
+        this.policyComponent = policyComponent;
+    }
+
+    public void setNodeService(NodeService nodeService)
+    {
+        this.nodeService = nodeService;
+    }
+
+    public void setDictionaryService(DictionaryService dictionaryService)
+    {
+        this.dictionaryService = dictionaryService;
+    }
+
+    public PropFindResponseCache()
+    {
+        super(Integer.MAX_VALUE, 300000L);
+        entries.setMaxWeight(maxSize);
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * @param maxSize the maximum number of characters held by all cached responses
+     */
+    public void setMaxSize(long maxSize)
+    {
+        this.maxSize = maxSize;
+        entries.setMaxWeight(maxSize);
+    }
+
+    /**
+     * @param maxEntrySize the maximum number of characters of a single cacheable response
+     */
+    public void setMaxEntrySize(int maxEntrySize)
+    {
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    public int getMaxEntrySize()
+    {
+        return maxEntrySize;
+    }
+
+    public void init()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        policyComponent.bindClassBehaviour(OnCreateChildAssociationPolicy.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onCreateChildAssociation", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnDeleteChildAssociationPolicy.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onDeleteChildAssociation", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnUpdateNodePolicy.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onUpdateNode", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnDeleteNodePolicy.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onDeleteNode", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnGrantLocalPermission.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onGrantLocalPermission", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnRevokeLocalPermission.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onRevokeLocalPermission", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnInheritPermissionsEnabled.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onInheritPermissionsEnabled", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnInheritPermissionsDisabled.QNAME, ContentModel.TYPE_BASE,
+                    new JavaBehaviour(this, "onInheritPermissionsDisabled", NotificationFrequency.EVERY_EVENT));
+    }
+
+    /**
+     * Get a cached response.
+     * 
+     * @param key the response key
+     * @param folderRef the node the PROPFIND was issued against
+     * @return the cached response, or <tt>null</tt> if there is no valid response cached for the key
+     */
+    public char[] get(String key, NodeRef folderRef)
+    {
+        Entry entry = entries.get(key);
+        if (entry != null && (!entry.folderRef.equals(folderRef) || entry.dbTxnId != getDbTxnId(folderRef)))
+        {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null)
+        {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.xml;
+    }
+
+    /**
+     * Cache a rendered response.
+     * 
+     * @param key the response key
+     * @param folderRef the node the PROPFIND was issued against
+     * @param nodeRefs the nodes the response was rendered from
+     * @param xml the response
+     */
+    public void put(String key, NodeRef folderRef, Collection<NodeRef> nodeRefs, char[] xml)
+    {
+        if (xml.length > maxEntrySize || xml.length > maxSize)
+        {
+            return;
+        }
+        Entry entry = new Entry(xml, folderRef, getDbTxnId(folderRef), new HashSet<>(nodeRefs));
+        synchronized (this)
+        {
+            entries.remove(key);
+            for (NodeRef nodeRef : entry.nodeRefs)
+            {
+                keysByNode.computeIfAbsent(nodeRef, k -> new HashSet<>()).add(key);
+            }
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Discard all cached responses rendered from the given node.
+     * 
+     * @param nodeRef the changed node
+     */
+    public void invalidate(NodeRef nodeRef)
+    {
+        if (nodeRef == null)
+        {
+            return;
+        }
+        synchronized (this)
+        {
+            Set<String> keys = keysByNode.get(nodeRef);
+            if (keys == null)
+            {
+                return;
+            }
+            for (String key : keys.toArray(new String[keys.size()]))
+            {
+                entries.remove(key);
+            }
+        }
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("Invalidated PROPFIND responses for " + nodeRef);
+        }
+    }
+
+    /**
+     * Discard the cached responses affected by locking or unlocking the given node. The lock of a folder is
+     * also shown on its descendants, so locking a folder discards all cached responses.
+     * 
+     * @param nodeRef the locked or unlocked node
+     */
+    public void invalidateLock(NodeRef nodeRef)
+    {
+        if (nodeRef == null)
+        {
+            return;
+        }
+        if (nodeService.exists(nodeRef) && dictionaryService.isSubClass(nodeService.getType(nodeRef), ContentModel.TYPE_FOLDER))
+        {
+            clear();
+        }
+        else
+        {
+            invalidate(nodeRef);
+        }
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        super.clear();
+        keysByNode.clear();
+    }
+
+    @Override
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    @Override
+    public int getEntryCount()
+    {
+        return size();
+    }
+
+    @Override
+    public long getSize()
+    {
+        return entries.getWeight();
+    }
+
+    @Override
+    public void onCreateChildAssociation(ChildAssociationRef childAssocRef, boolean isNewNode)
+    {
+        nodeChanged(childAssocRef.getParentRef());
+        nodeChanged(childAssocRef.getChildRef());
+    }
+
+    @Override
+    public void onDeleteChildAssociation(ChildAssociationRef childAssocRef)
+    {
+        nodeChanged(childAssocRef.getParentRef());
+        nodeChanged(childAssocRef.getChildRef());
+    }
+
+    @Override
+    public void onUpdateNode(NodeRef nodeRef)
+    {
+        nodeChanged(nodeRef);
+    }
+
+    @Override
+    public void onDeleteNode(ChildAssociationRef childAssocRef, boolean isNodeArchived)
+    {
+        nodeChanged(childAssocRef.getParentRef());
+        nodeChanged(childAssocRef.getChildRef());
+    }
+
+    @Override
+    public void onGrantLocalPermission(NodeRef nodeRef, String authority, String permission)
+    {
+        permissionsChanged();
+    }
+
+    @Override
+    public void onRevokeLocalPermission(NodeRef nodeRef, String authority, String permission)
+    {
+        permissionsChanged();
+    }
+
+    @Override
+    public void onInheritPermissionsEnabled(NodeRef nodeRef)
+    {
+        permissionsChanged();
+    }
+
+    @Override
+    public void onInheritPermissionsDisabled(NodeRef nodeRef, boolean async)
+    {
+        permissionsChanged();
+    }
+
+    /**
+     * Responses rendered by concurrent transactions before the change became visible are dropped again once the
+     * changing transaction has committed.
+     */
+    @Override
+    public void afterCommit()
+    {
+        if (Boolean.TRUE.equals(AlfrescoTransactionSupport.getResource(KEY_PERMISSIONS_CHANGED)))
+        {
+            clear();
+            return;
+        }
+        Set<NodeRef> changedNodes = TransactionalResourceHelper.getSet(KEY_CHANGED_NODES);
+        for (NodeRef nodeRef : changedNodes)
+        {
+            invalidate(nodeRef);
+        }
+    }
+
+    private void nodeChanged(NodeRef nodeRef)
+    {
+        invalidate(nodeRef);
+        TransactionalResourceHelper.getSet(KEY_CHANGED_NODES).add(nodeRef);
+        AlfrescoTransactionSupport.bindListener(this);
+    }
+
+    /**
+     * A permission change applies to all the descendants of the node that inherit its permissions, so all
+     * cached responses are dropped rather than looking for the ones rendered beneath the node.
+     */
+    private void permissionsChanged()
+    {
+        clear();
+        AlfrescoTransactionSupport.bindResource(KEY_PERMISSIONS_CHANGED, Boolean.TRUE);
+        AlfrescoTransactionSupport.bindListener(this);
+    }
+
+    private long getDbTxnId(NodeRef nodeRef)
+    {
+        Status status = nodeService.getNodeStatus(nodeRef);
+        return (status == null || status.getDbTxnId() == null) ? -1L : status.getDbTxnId();
+    }
+
+    private void unindex(String key, Entry entry)
+    {
+        for (NodeRef nodeRef : entry.nodeRefs)
+        {
+            Set<String> keys = keysByNode.get(nodeRef);
+            if (keys != null)
+            {
+                keys.remove(key);
+                if (keys.isEmpty())
+                {
+                    keysByNode.remove(nodeRef);
+                }
+            }
+        }
+    }
+
+    private static class Entry
+    {
+        private final char[] xml;
+        private final NodeRef folderRef;
+        private final long dbTxnId;
+        private final Set<NodeRef> nodeRefs;
+
+        private Entry(char[] xml, NodeRef folderRef, long dbTxnId, Set<NodeRef> nodeRefs)
+        {
+            this.xml = xml;
+            this.folderRef = folderRef;
+            this.dbTxnId = dbTxnId;
+            this.nodeRefs = nodeRefs;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Pattern;
 
 import javax.servlet.http.HttpServletRequest;
@@ -133,6 +134,12 @@ public class WebDAVHelper
     private String m_urlPathPrefix;
         
     private long sizeLimit = -1L;
+
+    // Worker pool used to generate large PROPFIND responses, and the number of nodes needed to use it
+    
+    private ExecutorService m_propFindExecutor;
+    private int m_propFindParallelThreshold = 100;
+    private PropFindResponseCache m_propFindCache;
     
     /**
      * This method sets a value for the limit. If the string does not {@link Long#parseLong(String) parse} to a
@@ -169,6 +176,62 @@ public class WebDAVHelper
         this.m_renameShufflePattern = renameShufflePattern;
     }
 
+    /**
+     * Set the worker pool used to generate the response XML of PROPFIND requests in parallel.
+     * If not set the XML is generated by the request thread.
+     * 
+     * @param propFindExecutor      a bounded worker pool
+     */
+    public void setPropFindExecutor(ExecutorService propFindExecutor)
+    {
+        this.m_propFindExecutor = propFindExecutor;
+    }
+
+    /**
+     * @return          Return the PROPFIND worker pool, or <tt>null</tt>
+     */
+    public ExecutorService getPropFindExecutor()
+    {
+        return m_propFindExecutor;
+    }
+
+    /**
+     * Set the minimum number of nodes in a folder before the PROPFIND response XML for the folder
+     * is generated in parallel.
+     * 
+     * @param propFindParallelThreshold     the minimum number of child nodes
+     */
+    public void setPropFindParallelThreshold(int propFindParallelThreshold)
+    {
+        this.m_propFindParallelThreshold = propFindParallelThreshold;
+    }
+
+    /**
+     * @return          Return the minimum number of nodes for parallel PROPFIND response generation
+     */
+    public int getPropFindParallelThreshold()
+    {
+        return m_propFindParallelThreshold;
+    }
+
+    /**
+     * Set the cache of serialized PROPFIND responses.
+     * 
+     * @param propFindCache     the response cache, may be disabled
+     */
+    public void setPropFindCache(PropFindResponseCache propFindCache)
+    {
+        this.m_propFindCache = propFindCache;
+    }
+
+    /**
+     * @return          Return the PROPFIND response cache, or <tt>null</tt>
+     */
+    public PropFindResponseCache getPropFindCache()
+    {
+        return m_propFindCache;
+    }
+
     /**
      * @return          Return the limit size
      */
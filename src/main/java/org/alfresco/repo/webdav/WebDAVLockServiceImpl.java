@@ -69,6 +69,7 @@ public class WebDAVLockServiceImpl implements WebDAVLockService
     private NodeService nodeService;
     private TransactionService transactionService;
     private CheckOutCheckInService checkOutCheckInService;
+    private PropFindResponseCache propFindCache;
 
     /**
      * Set the LockService
@@ -109,6 +110,17 @@ public class WebDAVLockServiceImpl implements WebDAVLockService
     {
         this.checkOutCheckInService = checkOutCheckInService;
     }
+
+    /**
+     * Set the PROPFIND response cache. WebDAV locks are ephemeral and do not trigger node policies, so
+     * responses showing the lock state of a node are dropped here.
+     * 
+     * @param propFindCache PropFindResponseCache
+     */
+    public void setPropFindCache(PropFindResponseCache propFindCache)
+    {
+        this.propFindCache = propFindCache;
+    }
     
     /**
      * Caches current session to the thread local variable
@@ -186,6 +198,7 @@ public class WebDAVLockServiceImpl implements WebDAVLockService
                                                 {
                                                     // try to unlock it
                                                     lockService.unlock(nodeRef);
+                                                    invalidatePropFindCache(nodeRef);
 
                                                     if (logger.isDebugEnabled())
                                                     {
@@ -255,6 +268,7 @@ public class WebDAVLockServiceImpl implements WebDAVLockService
         // TODO: lock children according to depth? lock type?
         final String additionalInfo = lockInfo.toJSON();
         lockService.lock(nodeRef, LockType.WRITE_LOCK, (int) timeout, Lifetime.EPHEMERAL, additionalInfo);
+        invalidatePropFindCache(nodeRef);
         
 
         if (logger.isDebugEnabled())
@@ -309,6 +323,7 @@ public class WebDAVLockServiceImpl implements WebDAVLockService
     public void unlock(NodeRef nodeRef)
     {
         lockService.unlock(nodeRef);
+        invalidatePropFindCache(nodeRef);
 
         if (logger.isDebugEnabled())
         {
@@ -482,5 +497,13 @@ public class WebDAVLockServiceImpl implements WebDAVLockService
         
         return lockInfo;
     }
+
+    private void invalidatePropFindCache(NodeRef nodeRef)
+    {
+        if (propFindCache != null)
+        {
+            propFindCache.invalidateLock(nodeRef);
+        }
+    }
     
 }
@@ -38,6 +38,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -1247,6 +1248,61 @@ public abstract class WebDAVMethod
 
         // ALF-13472: In accordance with http://www.webdav.org/specs/rfc2518.html#rfc.section.8.10.4 lock of collection causes locking each resource within it.
         // It should be possible to receive information about direct or indirect lock because it is one of the states of requested resource.
+        return getNodeLockInfoFromAncestors(nodeInfo.getNodeRef());
+    }
+
+    /**
+     * Returns the lock info of the children of a folder. The lock that the children inherit from
+     * the folder or its ancestors is resolved once, rather than once for each child.
+     * 
+     * @param folderInfo the folder
+     * @param childInfos the children of the folder
+     * @return the lock info of each child
+     */
+    protected Map<NodeRef, LockInfo> getChildNodeLockInfos(final FileInfo folderInfo, final List<FileInfo> childInfos)
+    {
+        // perf optimisation - effectively run against unprotected nodeService (to bypass repeated permission checks)
+        return AuthenticationUtil.runAs(new RunAsWork<Map<NodeRef, LockInfo>>()
+        {
+            public Map<NodeRef, LockInfo> doWork() throws Exception
+            {
+                LockInfo inheritedLockInfo = new LockInfoImpl();
+                if (folderInfo.getNodeRef() != null)
+                {
+                    inheritedLockInfo = getNodeLockInfoIndirect(folderInfo.getNodeRef());
+                    if (inheritedLockInfo == null)
+                    {
+                        inheritedLockInfo = getNodeLockInfoFromAncestors(folderInfo.getNodeRef());
+                    }
+                }
+
+                Map<NodeRef, LockInfo> lockInfos = new HashMap<NodeRef, LockInfo>(childInfos.size() * 2);
+                for (FileInfo childInfo : childInfos)
+                {
+                    LockInfo lockInfo = null;
+                    if (childInfo.getNodeRef() != null)
+                    {
+                        lockInfo = getNodeLockInfoDirect(childInfo);
+                        if (lockInfo == null)
+                        {
+                            lockInfo = inheritedLockInfo;
+                        }
+                    }
+                    lockInfos.put(childInfo.getNodeRef(), (lockInfo != null) ? lockInfo : new LockInfoImpl());
+                }
+                return lockInfos;
+            }
+        }, AuthenticationUtil.getSystemUserName());
+    }
+
+    /**
+     * Searches the ancestors of a node for a lock that is valid for all their descendants.
+     * 
+     * @param nodeRef NodeRef
+     * @return The LockInfo of the locked ancestor, or an empty LockInfo if there is none
+     */
+    private LockInfo getNodeLockInfoFromAncestors(final NodeRef nodeRef)
+    {
         return AuthenticationUtil.runAsSystem(new RunAsWork<LockInfo>()
         {
             @Override
@@ -1254,7 +1310,7 @@ public abstract class WebDAVMethod
             {
                 NodeService nodeService = getNodeService();
         
-                NodeRef node = nodeInfo.getNodeRef();
+                NodeRef node = nodeRef;
                 
                 while (true)
                 {
@@ -1432,6 +1488,34 @@ public abstract class WebDAVMethod
         m_xmlWriter.reset();
     }
 
+    /**
+     * Appends XML that has already been generated by another XMLWriter to the response XML
+     * 
+     * @param writer XMLWriter for the response
+     * @param xml the generated XML
+     */
+    protected final void writeXML(XMLWriter writer, char[] xml) throws IOException
+    {
+        writer.flush();
+        m_xmlWriter.write(xml);
+    }
+
+    /**
+     * @return the number of characters of XML generated but not yet flushed to the response
+     */
+    protected final int getBufferedXMLSize()
+    {
+        return m_xmlWriter.size();
+    }
+
+    /**
+     * @return the XML generated but not yet flushed to the response
+     */
+    protected final char[] getBufferedXML()
+    {
+        return m_xmlWriter.toCharArray();
+    }
+
     /**
      * Returns a working copy of node for current user.
      * 
@@ -46,6 +46,8 @@ public interface Audit
     String PARAM_INCLUDE_VALUES = "values";
     String PARAM_INCLUDE_MAX = "max";
     String PARAM_INCLUDE_MIN = "min";
+    String PARAM_PAGE_TOKEN = "pageToken";
+    String NEXT_PAGE_TOKEN = "nextPageToken";
 
     /**
      * Gets a single audit application by id
@@ -87,6 +89,11 @@ public interface Audit
     /**
      * Lists audit entries
      * 
+     * When there are more items the list context contains a {@link #NEXT_PAGE_TOKEN}. Passing it back as the
+     * {@link #PARAM_PAGE_TOKEN} parameter continues after the last entry of the previous page, without reading the
+     * skipped entries again. The token is only valid for the same audit application, where clause and orderBy,
+     * otherwise the request fails with an invalid argument.
+     * 
      * @param auditAppId
      *            if null then across all audit apps
      * @param parameters
@@ -193,6 +193,14 @@ public interface Nodes
      */
     Node updateContent(String fileNodeId, BasicContentInfo contentInfo, InputStream stream, Parameters parameters);
 
+    /**
+     * Checks that the content of a file node exists and may be updated by the current user, before the new
+     * content is read.
+     *
+     * @param fileNodeId
+     */
+    void checkUpdateContent(String fileNodeId);
+
     /**
      * Uploads file content and meta-data into the repository.
      *
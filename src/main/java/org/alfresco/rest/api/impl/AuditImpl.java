@@ -26,8 +26,10 @@
 package org.alfresco.rest.api.impl;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -48,7 +50,6 @@ import org.alfresco.rest.api.Nodes;
 import org.alfresco.rest.api.People;
 import org.alfresco.rest.api.model.AuditApp;
 import org.alfresco.rest.api.model.AuditEntry;
-import org.alfresco.rest.api.model.Node;
 import org.alfresco.rest.api.model.UserInfo;
 import org.alfresco.rest.framework.core.exceptions.DisabledServiceException;
 import org.alfresco.rest.framework.core.exceptions.EntityNotFoundException;
@@ -59,6 +60,8 @@ import org.alfresco.rest.framework.resource.parameters.Parameters;
 import org.alfresco.rest.framework.resource.parameters.SortColumn;
 import org.alfresco.rest.framework.resource.parameters.where.Query;
 import org.alfresco.rest.framework.resource.parameters.where.QueryHelper;
+import org.alfresco.rest.framework.tools.RecognizedParamsExtractor;
+import org.alfresco.rest.framework.tools.UserInfoCache;
 import org.alfresco.rest.workflow.api.impl.MapBasedQueryWalker;
 import org.alfresco.service.cmr.audit.AuditQueryParameters;
 import org.alfresco.service.cmr.audit.AuditService;
@@ -97,6 +100,10 @@ public class AuditImpl implements Audit
         SORT_PARAMS_TO_NAMES = Collections.unmodifiableMap(aMap);
     }
 
+    // page token of an audit entry listing: the sort direction and the id of the last entry of the previous page
+    private final static String PAGE_TOKEN_ASCENDING = "a:";
+    private final static String PAGE_TOKEN_DESCENDING = "d:";
+
     private AuditService auditService;
 
     private PersonService personService;
@@ -109,6 +116,8 @@ public class AuditImpl implements Audit
 
     private People people;
 
+    private UserInfoCache userInfoCache;
+
     public void setPeople(People people)
     {
         this.people = people;
@@ -139,6 +148,11 @@ public class AuditImpl implements Audit
         this.personService = personService;
     }
 
+    public void setUserInfoCache(UserInfoCache userInfoCache)
+    {
+        this.userInfoCache = userInfoCache;
+    }
+
     private void checkEnabled()
     {
         if (!auditService.isAuditEnabled())
@@ -270,12 +284,16 @@ public class AuditImpl implements Audit
         int maxItems = paging.getMaxItems();
         int limit = skipCount + maxItems + 1; // to detect hasMoreItems
 
+        // keyset paging - skipCount (if any) is relative to the end of the previous page
+        String listing = getPageTokenListing(auditAppId, parameters);
+        Long afterId = parsePageToken(parameters.getParameter(PARAM_PAGE_TOKEN), forward, listing);
+
         if (q != null)
         {
             // filtering via "where" clause
             AuditEntryQueryWalker propertyWalker = new AuditEntryQueryWalker();
             QueryHelper.walk(q, propertyWalker);
-            entriesAudit = getQueryResultAuditEntries(auditApplication, propertyWalker, parameters.getInclude(), limit, forward);
+            entriesAudit = getQueryResultAuditEntries(auditApplication, propertyWalker, parameters.getInclude(), limit, forward, afterId);
         }
 
         // clear null elements
@@ -293,7 +311,93 @@ public class AuditImpl implements Audit
             boolean hasMoreItems = totalItems > end;
 
             entriesAudit = entriesAudit.subList(skipCount, end);
-            return CollectionWithPagingInfo.asPaged(paging, entriesAudit, hasMoreItems, totalItems);
+
+            Map<String, String> context = null;
+            if (hasMoreItems)
+            {
+                Long lastId = entriesAudit.get(entriesAudit.size() - 1).getId();
+                context = Collections.singletonMap(NEXT_PAGE_TOKEN, createPageToken(lastId, forward, listing));
+            }
+            return CollectionWithPagingInfo.asPaged(paging, entriesAudit, hasMoreItems, totalItems, null, context);
+        }
+    }
+
+    /**
+     * A page token only continues the listing it was returned for: the same audit application and where clause.
+     * 
+     * @param auditAppId the audit application id
+     * @param parameters the parameters of the request
+     * @return a short fingerprint of the audit application and the where clause
+     */
+    private static String getPageTokenListing(String auditAppId, Parameters parameters)
+    {
+        String where = parameters.getParameter(RecognizedParamsExtractor.PARAM_WHERE);
+        return Integer.toHexString((auditAppId + "\n" + (where == null ? "" : where.trim())).hashCode());
+    }
+
+    /**
+     * Audit entries are ordered by id (createdAt order is id order), so the id of the last entry is enough to
+     * continue a listing in either direction.
+     * 
+     * @param lastId id of the last entry of a page
+     * @param forward the sort direction of the listing
+     * @param listing the fingerprint of the listing, see {@link #getPageTokenListing(String, Parameters)}
+     * @return an opaque page token
+     */
+    private static String createPageToken(Long lastId, boolean forward, String listing)
+    {
+        String token = (forward ? PAGE_TOKEN_ASCENDING : PAGE_TOKEN_DESCENDING) + lastId + ":" + listing;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param pageToken a token returned by {@link #createPageToken(Long, boolean, String)}, may be null
+     * @param forward the sort direction of the listing
+     * @param listing the fingerprint of the listing, see {@link #getPageTokenListing(String, Parameters)}
+     * @return the id of the last entry of the previous page, null if there is no page token
+     * @throws InvalidArgumentException if the token is invalid or was returned for another sort direction,
+     *         audit application or where clause
+     */
+    private static Long parsePageToken(String pageToken, boolean forward, String listing)
+    {
+        if ((pageToken == null) || pageToken.isEmpty())
+        {
+            return null;
+        }
+
+        String token;
+        try
+        {
+            token = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+        }
+        catch (IllegalArgumentException iae)
+        {
+            throw new InvalidArgumentException("Invalid " + PARAM_PAGE_TOKEN + ": " + pageToken);
+        }
+
+        String prefix = (forward ? PAGE_TOKEN_ASCENDING : PAGE_TOKEN_DESCENDING);
+        if (!token.startsWith(prefix))
+        {
+            throw new InvalidArgumentException(PARAM_PAGE_TOKEN + " does not match the orderBy of the request: " + pageToken);
+        }
+
+        int idx = token.indexOf(':', prefix.length());
+        if (idx == -1)
+        {
+            throw new InvalidArgumentException("Invalid " + PARAM_PAGE_TOKEN + ": " + pageToken);
+        }
+        if (!token.substring(idx + 1).equals(listing))
+        {
+            throw new InvalidArgumentException(PARAM_PAGE_TOKEN + " does not match the audit application and where clause of the request: " + pageToken);
+        }
+
+        try
+        {
+            return Long.valueOf(token.substring(prefix.length(), idx));
+        }
+        catch (NumberFormatException nfe)
+        {
+            throw new InvalidArgumentException("Invalid " + PARAM_PAGE_TOKEN + ": " + pageToken);
         }
     }
 
@@ -414,10 +518,11 @@ public class AuditImpl implements Audit
      * @param includeParams
      * @param maxItem
      * @param forward
+     * @param afterId id of the last entry of the previous page, or null
      * @return
      */
     public List<AuditEntry> getQueryResultAuditEntries(AuditService.AuditApplication auditApplication, AuditEntryQueryWalker propertyWalker,
-            List<String> includeParam, int maxItem, Boolean forward)
+            List<String> includeParam, int maxItem, Boolean forward, Long afterId)
     {
         final List<AuditEntry> results = new ArrayList<>();
 
@@ -446,6 +551,19 @@ public class AuditImpl implements Audit
         params.setFromTime(fromTime);
         params.setToTime(toTime);
 
+        if (afterId != null)
+        {
+            // seek past the previous page (fromId is inclusive, toId is exclusive)
+            if (forward)
+            {
+                fromId = (fromId == null ? afterId + 1 : Math.max(fromId, afterId + 1));
+            }
+            else
+            {
+                toId = (toId == null ? afterId : Math.min(toId, afterId));
+            }
+        }
+
         params.setFromId(fromId);
         params.setToId(toId);
 
@@ -454,8 +572,6 @@ public class AuditImpl implements Audit
             params.addSearchKey(propertyWalker.getValuesKey(), propertyWalker.getValuesValue());
         }
 
-        final Map<String, UserInfo> mapUserInfo = new HashMap<>(10);
-
         // create the callback for auditQuery method
         final AuditQueryCallback callback = new AuditQueryCallback()
         {
@@ -471,7 +587,7 @@ public class AuditImpl implements Audit
 
             public boolean handleAuditEntry(Long entryId, String applicationName, String userName, long time, Map<String, Serializable> values)
             {
-                UserInfo userInfo = Node.lookupUserInfo(userName, mapUserInfo, personService);
+                UserInfo userInfo = userInfoCache.getUserInfo(userName);
                 AuditEntry auditEntry = new AuditEntry(entryId, auditAppId, userInfo, new Date(time), values);
                 results.add(auditEntry);
                 return true;
@@ -541,7 +657,7 @@ public class AuditImpl implements Audit
 
             public boolean handleAuditEntry(Long entryId, String applicationName, String userName, long time, Map<String, Serializable> values)
             {
-                UserInfo userInfo = Node.lookupUserInfo(userName, new HashMap<>(0), personService);
+                UserInfo userInfo = userInfoCache.getUserInfo(userName);
                 AuditEntry auditEntry = new AuditEntry(entryId, auditAppId, userInfo, new Date(time), values);
                 results.add(auditEntry);
                 return true;
@@ -777,7 +893,7 @@ public class AuditImpl implements Audit
 
             public boolean handleAuditEntry(Long entryId, String applicationName, String userName, long time, Map<String, Serializable> values)
             {
-                UserInfo userInfo = Node.lookupUserInfo(userName, new HashMap<>(0), personService);
+                UserInfo userInfo = userInfoCache.getUserInfo(userName);
                 AuditEntry auditEntry = new AuditEntry(entryId, auditAppId, userInfo, new Date(time), values);
                 results.add(auditEntry);
                 return true;
@@ -27,6 +27,7 @@ package org.alfresco.rest.api.impl;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -55,6 +56,7 @@ import org.alfresco.rest.framework.resource.content.BinaryResource;
 import org.alfresco.rest.framework.resource.parameters.CollectionWithPagingInfo;
 import org.alfresco.rest.framework.resource.parameters.Parameters;
 import org.alfresco.rest.framework.tools.RecognizedParamsExtractor;
+import org.alfresco.rest.framework.tools.UserInfoCache;
 import org.alfresco.service.cmr.repository.NodeRef;
 import org.alfresco.service.cmr.repository.NodeService;
 import org.alfresco.service.cmr.repository.StoreRef;
@@ -73,6 +75,7 @@ public class DeletedNodesImpl implements DeletedNodes, RecognizedParamsExtractor
     private NodeService nodeService;
     private Nodes nodes;
     private Renditions renditions;
+    private UserInfoCache userInfoCache;
 
     public void setNodeArchiveService(NodeArchiveService nodeArchiveService)
     {
@@ -99,6 +102,11 @@ public class DeletedNodesImpl implements DeletedNodes, RecognizedParamsExtractor
         this.renditions = renditions;
     }
 
+    public void setUserInfoCache(UserInfoCache userInfoCache)
+    {
+        this.userInfoCache = userInfoCache;
+    }
+
     /**
      * Sets archived information on the Node
      * @param aNode
@@ -111,7 +119,9 @@ public class DeletedNodesImpl implements DeletedNodes, RecognizedParamsExtractor
         }
         Map<QName, Serializable> nodeProps = nodeService.getProperties(aNode.getNodeRef());
         aNode.setArchivedAt((Date)nodeProps.get(ContentModel.PROP_ARCHIVED_DATE));
-        aNode.setArchivedByUser(aNode.lookupUserInfo((String)nodeProps.get(ContentModel.PROP_ARCHIVED_BY), mapUserInfo, personService));
+        String archivedBy = (String)nodeProps.get(ContentModel.PROP_ARCHIVED_BY);
+        userInfoCache.prefetch(Collections.singletonList(archivedBy), mapUserInfo);
+        aNode.setArchivedByUser(Node.lookupUserInfo(archivedBy, mapUserInfo, personService));
 
         //Don't show parent id
         aNode.setParentId(null);
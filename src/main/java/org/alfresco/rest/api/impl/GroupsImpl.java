@@ -107,6 +107,7 @@ public class GroupsImpl implements Groups
 
     protected AuthorityService authorityService;
     private AuthorityDAO authorityDAO;
+    private RootAuthoritiesCache rootAuthoritiesCache;
 
     protected People people;
 
@@ -130,6 +131,11 @@ public class GroupsImpl implements Groups
         this.people = people;
     }
 
+    public void setRootAuthoritiesCache(RootAuthoritiesCache rootAuthoritiesCache)
+    {
+        this.rootAuthoritiesCache = rootAuthoritiesCache;
+    }
+
     public Group create(Group group, Parameters parameters)
     {
         validateGroup(group, false);
@@ -213,21 +219,13 @@ public class GroupsImpl implements Groups
     
     private List<Group> createGroupsResponse(final List<AuthorityInfo> page, final List<String> includeParam, final Set<String> rootAuthorities)
     {
-        List<Group> groups = new AbstractList<Group>()
+        // materialise the page once - the serializer (and any re-iteration) must not repeat the lookups
+        GroupIncludes includes = new GroupIncludes(includeParam);
+        List<Group> groups = new ArrayList<>(page.size());
+        for (AuthorityInfo authorityInfo : page)
         {
-            @Override
-            public Group get(int index)
-            {
-                AuthorityInfo authorityInfo = page.get(index);
-                return getGroup(authorityInfo, includeParam, rootAuthorities);
-            }
-
-            @Override
-            public int size()
-            {
-                return page.size();
-            }
-        };
+            groups.add(getGroup(authorityInfo, includes, rootAuthorities));
+        }
         return groups;
     }
 
@@ -347,9 +345,7 @@ public class GroupsImpl implements Groups
         int totalItems = pagingResult.getTotalResultCount().getFirst();
 
         // Transform the page of results into Group objects
-        List<Group> groups = page.stream().
-                map(authority -> getGroup(authority, includeParam, rootAuthorities)).
-                collect(Collectors.toList());
+        List<Group> groups = createGroupsResponse(page, includeParam, rootAuthorities);
 
         return CollectionWithPagingInfo.asPaged(paging, groups, pagingResult.hasMoreItems(), totalItems);
     }
@@ -508,7 +504,8 @@ public class GroupsImpl implements Groups
         Set<String> authorities;
         try
         {
-            authorities = authorityService.getAllRootAuthorities(authorityType);
+            authorities = (rootAuthoritiesCache != null) ? rootAuthoritiesCache.getAllRootAuthorities(authorityType)
+                        : authorityService.getAllRootAuthorities(authorityType);
         }
         catch (UnknownAuthorityException e)
         {
@@ -565,6 +562,11 @@ public class GroupsImpl implements Groups
     }
 
     private Group getGroup(AuthorityInfo authorityInfo, List<String> includeParam, Set<String> rootAuthorities)
+    {
+        return getGroup(authorityInfo, new GroupIncludes(includeParam), rootAuthorities);
+    }
+
+    private Group getGroup(AuthorityInfo authorityInfo, GroupIncludes includes, Set<String> rootAuthorities)
     {
         if (authorityInfo == null)
         {
@@ -586,29 +588,47 @@ public class GroupsImpl implements Groups
         group.setIsRoot(isRootAuthority(rootAuthorities, authorityInfo.getAuthorityName()));
 
         // Optionally include
-        if (includeParam != null)
+        if (includes.parentIds)
         {
-            if (includeParam.contains(PARAM_INCLUDE_PARENT_IDS))
-            {
-                String authority = authorityInfo.getAuthorityName();
-                Set<String> containingAuthorities = Collections.emptySet();
-                // Workaround for AuthorityDAO.listAuthorities, where although AuthorityType.GUEST
-                // is a special case, AuthorityType.EVERYONE is not, and an exception is thrown.
-                if (!authority.equalsIgnoreCase(PermissionService.ALL_AUTHORITIES))
-                {
-                    containingAuthorities = authorityService.getContainingAuthorities(AuthorityType.GROUP, authority, true);
-                }
-                group.setParentIds(containingAuthorities);
-            }
+            group.setParentIds(includes.getParentIds(authorityInfo.getAuthorityName()));
+        }
+        if (includes.zones)
+        {
+            group.setZones(includes.getZones(authorityInfo.getAuthorityName()));
+        }
+
+        return group;
+    }
+
+    /**
+     * The optional parts of the groups of a response, with the include parameter parsed once per page.
+     */
+    private class GroupIncludes
+    {
+        private final boolean parentIds;
+        private final boolean zones;
+
+        private GroupIncludes(List<String> includeParam)
+        {
+            this.parentIds = includeParam != null && includeParam.contains(PARAM_INCLUDE_PARENT_IDS);
+            this.zones = includeParam != null && includeParam.contains(PARAM_INCLUDE_ZONES);
+        }
 
-            if (includeParam.contains(PARAM_INCLUDE_ZONES))
+        private Set<String> getParentIds(String authority)
+        {
+            // Workaround for AuthorityDAO.listAuthorities, where although AuthorityType.GUEST
+            // is a special case, AuthorityType.EVERYONE is not, and an exception is thrown.
+            if (authority.equalsIgnoreCase(PermissionService.ALL_AUTHORITIES))
             {
-                Set<String> authorityZones = authorityService.getAuthorityZones(authorityInfo.getAuthorityName());
-                group.setZones(authorityZones);
+                return Collections.emptySet();
             }
+            return authorityService.getContainingAuthorities(AuthorityType.GROUP, authority, true);
         }
 
-        return group;
+        private Set<String> getZones(String authority)
+        {
+            return authorityService.getAuthorityZones(authority);
+        }
     }
 
     private boolean isRootAuthority(Set<String> rootAuthorities, String authorityName)
@@ -32,7 +32,6 @@ import java.io.InputStream;
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.nio.charset.Charset;
-import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -107,13 +106,15 @@ import org.alfresco.rest.framework.resource.content.BasicContentInfo;
 import org.alfresco.rest.framework.resource.content.BinaryResource;
 import org.alfresco.rest.framework.resource.content.ContentInfoImpl;
 import org.alfresco.rest.framework.resource.content.NodeBinaryResource;
+import org.alfresco.rest.framework.resource.content.SpooledContentStream;
 import org.alfresco.rest.framework.resource.parameters.CollectionWithPagingInfo;
 import org.alfresco.rest.framework.resource.parameters.Paging;
 import org.alfresco.rest.framework.resource.parameters.Parameters;
 import org.alfresco.rest.framework.resource.parameters.SortColumn;
 import org.alfresco.rest.framework.resource.parameters.where.Query;
-import org.alfresco.rest.framework.resource.parameters.where.QueryHelper;
-import org.alfresco.rest.workflow.api.impl.MapBasedQueryWalker;
+import org.alfresco.rest.framework.resource.parameters.where.WhereFilter;
+import org.alfresco.rest.framework.resource.parameters.where.WhereFilterDefinition;
+import org.alfresco.rest.framework.tools.UserInfoCache;
 import org.alfresco.service.ServiceRegistry;
 import org.alfresco.service.cmr.action.Action;
 import org.alfresco.service.cmr.action.ActionDefinition;
@@ -137,6 +138,7 @@ import org.alfresco.service.cmr.repository.AssociationExistsException;
 import org.alfresco.service.cmr.repository.ChildAssociationRef;
 import org.alfresco.service.cmr.repository.ContentData;
 import org.alfresco.service.cmr.repository.ContentIOException;
+import org.alfresco.service.cmr.repository.ContentReader;
 import org.alfresco.service.cmr.repository.ContentService;
 import org.alfresco.service.cmr.repository.ContentWriter;
 import org.alfresco.service.cmr.repository.DuplicateChildNodeNameException;
@@ -215,6 +217,7 @@ public class NodesImpl implements Nodes
     private LockService lockService;
     private VirtualStore smartStore; // note: remove as part of REPO-1173
     private NodeDefinitionMapper nodeDefinitionMapper;
+    private UserInfoCache userInfoCache;
 
     private enum Activity_Type
     {
@@ -249,6 +252,7 @@ public class NodesImpl implements Nodes
         PropertyCheck.mandatory(this, "repositoryHelper", repositoryHelper);
         PropertyCheck.mandatory(this, "quickShareLinks", quickShareLinks);
         PropertyCheck.mandatory(this, "poster", poster);
+        PropertyCheck.mandatory(this, "userInfoCache", userInfoCache);
 
         this.namespaceService = sr.getNamespaceService();
         this.fileFolderService = sr.getFileFolderService();
@@ -318,6 +322,11 @@ public class NodesImpl implements Nodes
         this.nodeDefinitionMapper = nodeDefinitionMapper;
     }
 
+    public void setUserInfoCache(UserInfoCache userInfoCache)
+    {
+        this.userInfoCache = userInfoCache;
+    }
+
     // excluded namespaces (aspects, properties, assoc types)
     private static final List<String> EXCLUDED_NS = Arrays.asList(NamespaceService.SYSTEM_MODEL_1_0_URI);
 
@@ -363,9 +372,13 @@ public class NodesImpl implements Nodes
         PARAM_SYNONYMS_QNAME = Collections.unmodifiableMap(aMap);
     }
 
-    // list children filtering (via where clause)
-    private final static Set<String> LIST_FOLDER_CHILDREN_EQUALS_QUERY_PROPERTIES =
-            new HashSet<>(Arrays.asList(new String[] {PARAM_ISFOLDER, PARAM_ISFILE, PARAM_NODETYPE, PARAM_ISPRIMARY, PARAM_ASSOC_TYPE}));
+    // list children filtering (via where clause) - QNames are resolved per request, as the model may change
+    private final static WhereFilterDefinition LIST_FOLDER_CHILDREN_FILTER_DEFINITION = new WhereFilterDefinition()
+            .add(PARAM_ISFOLDER, WhereFilterDefinition.converter(Boolean.class), WhereClauseParser.EQUALS)
+            .add(PARAM_ISFILE, WhereFilterDefinition.converter(Boolean.class), WhereClauseParser.EQUALS)
+            .add(PARAM_ISPRIMARY, WhereFilterDefinition.converter(Boolean.class), WhereClauseParser.EQUALS)
+            .add(PARAM_NODETYPE, WhereFilterDefinition.converter(String.class), WhereClauseParser.EQUALS)
+            .add(PARAM_ASSOC_TYPE, WhereFilterDefinition.converter(String.class), WhereClauseParser.EQUALS);
 
     /*
      * Validates that node exists.
@@ -851,6 +864,10 @@ public class NodesImpl implements Nodes
         Node node;
         Map<QName, Serializable> properties = nodeService.getProperties(nodeRef);
 
+        // shared with the other mappers of the request
+        userInfoCache.prefetch(Arrays.asList((String) properties.get(ContentModel.PROP_CREATOR),
+                    (String) properties.get(ContentModel.PROP_MODIFIER)), mapUserInfo);
+
         PathInfo pathInfo = null;
         if (includeParam.contains(PARAM_INCLUDE_PATH))
         {
@@ -1224,6 +1241,7 @@ public class NodesImpl implements Nodes
                 {
                     if (PROPS_USERLOOKUP.contains(qName))
                     {
+                        userInfoCache.prefetch(Collections.singletonList((String) value), mapUserInfo);
                         value = Node.lookupUserInfo((String)value, mapUserInfo, sr.getPersonService());
                     }
 
@@ -1283,10 +1301,9 @@ public class NodesImpl implements Nodes
         if (q != null)
         {
             // filtering via "where" clause
-            MapBasedQueryWalker propertyWalker = createListChildrenQueryWalker();
-            QueryHelper.walk(q, propertyWalker);
+            WhereFilter filter = LIST_FOLDER_CHILDREN_FILTER_DEFINITION.compile(q);
 
-            String assocTypeQNameStr = propertyWalker.getProperty(PARAM_ASSOC_TYPE, WhereClauseParser.EQUALS, String.class);
+            String assocTypeQNameStr = filter.getValue(PARAM_ASSOC_TYPE);
             if (assocTypeQNameStr != null)
             {
                 assocTypeQNameParam = getAssocType(assocTypeQNameStr);
@@ -1324,65 +1341,56 @@ public class NodesImpl implements Nodes
 
         final Map<String, UserInfo> mapUserInfo = new HashMap<>(10);
 
+        // materialise the page once - the serializer (and any re-iteration) must not re-fetch node info
         final List<FileInfo> page = pagingResults.getPage();
-        List<Node> nodes = new AbstractList<Node>()
+        final List<Node> nodes = new ArrayList<>(page.size());
+
+        // resolve the distinct creators and modifiers of the page up front
+        final Set<String> userNames = new HashSet<>();
+        for (FileInfo fInfo : page)
         {
-            @Override
-            public Node get(int index)
+            Map<QName, Serializable> props = fInfo.getProperties();
+            if (props != null)
             {
-                FileInfo fInfo = page.get(index);
-
-                // minimal info by default (unless "include"d otherwise)
-                // (pass in null as parentNodeRef to force loading of primary
-                // parent node as parentId)
-                Node node = getFolderOrDocument(fInfo.getNodeRef(), null, fInfo.getType(), includeParam, mapUserInfo);
-                if (node.getPath() != null)
-                {
-                    calculateRelativePath(parentFolderNodeId, node);
-                }
-                return node;
+                userNames.add((String) props.get(ContentModel.PROP_CREATOR));
+                userNames.add((String) props.get(ContentModel.PROP_MODIFIER));
             }
+        }
+        userInfoCache.prefetch(userNames, mapUserInfo);
 
-            private void calculateRelativePath(String parentFolderNodeId, Node node)
+        // relative path only depends on the (primary) parent, so calculate it once per distinct parent
+        final Map<String, String> mapRelativePath = new HashMap<>(2);
+        NodeRef rootNodeRef = null;
+
+        for (FileInfo fInfo : page)
+        {
+            // minimal info by default (unless "include"d otherwise)
+            // (pass in null as parentNodeRef to force loading of primary
+            // parent node as parentId)
+            Node node = getFolderOrDocument(fInfo.getNodeRef(), null, fInfo.getType(), includeParam, mapUserInfo);
+            if (node.getPath() != null)
             {
-                NodeRef rootNodeRef = validateOrLookupNode(parentFolderNodeId, null);
-                try
+                if (rootNodeRef == null)
                 {
-                    // get the path elements
-                    List<String> pathInfos = fileFolderService.getNameOnlyPath(rootNodeRef, node.getNodeRef());
-
-                    int sizePathInfos = pathInfos.size();
-
-                    if (sizePathInfos > 1)
-                    {
-                        // remove the current child
-                        pathInfos.remove(sizePathInfos - 1);
-
-                        // build the path string
-                        StringBuilder sb = new StringBuilder(pathInfos.size() * 20);
-                        for (String fileInfo : pathInfos)
-                        {
-                            sb.append("/");
-                            sb.append(fileInfo);
-                        }
-
-                        node.getPath().setRelativePath(sb.toString());
-                    }
-
+                    rootNodeRef = validateOrLookupNode(parentFolderNodeId, null);
                 }
 
-                catch (FileNotFoundException e)
-                {   
-                 // NOTE: return null as relativePath
+                String parentId = (node.getParentId() != null ? node.getParentId().getId() : null);
+                String relativePath;
+                if (mapRelativePath.containsKey(parentId))
+                {
+                    relativePath = mapRelativePath.get(parentId);
+                }
+                else
+                {
+                    relativePath = calculateRelativePath(rootNodeRef, node.getNodeRef());
+                    mapRelativePath.put(parentId, relativePath);
                 }
-            }
 
-            @Override
-            public int size()
-            {
-                return page.size();
+                node.getPath().setRelativePath(relativePath);
             }
-        };
+            nodes.add(node);
+        }
 
         Node sourceEntity = null;
         if (parameters.includeSource())
@@ -1394,13 +1402,41 @@ public class NodesImpl implements Nodes
     }
 
     /**
-     * Create query walker for <code>listChildren</code>.
+     * Calculate the path of the given child (excluding the child itself) relative to the given root node.
      *
-     * @return The  created {@link MapBasedQueryWalker}.
+     * @return the relative path or null if the path cannot be resolved
      */
-    private MapBasedQueryWalker createListChildrenQueryWalker()
+    private String calculateRelativePath(NodeRef rootNodeRef, NodeRef childNodeRef)
     {
-        return new MapBasedQueryWalker(LIST_FOLDER_CHILDREN_EQUALS_QUERY_PROPERTIES, null);
+        try
+        {
+            // get the path elements
+            List<String> pathInfos = fileFolderService.getNameOnlyPath(rootNodeRef, childNodeRef);
+
+            int sizePathInfos = pathInfos.size();
+
+            if (sizePathInfos > 1)
+            {
+                // remove the current child
+                pathInfos.remove(sizePathInfos - 1);
+
+                // build the path string
+                StringBuilder sb = new StringBuilder(pathInfos.size() * 20);
+                for (String fileInfo : pathInfos)
+                {
+                    sb.append("/");
+                    sb.append(fileInfo);
+                }
+
+                return sb.toString();
+            }
+        }
+        catch (FileNotFoundException e)
+        {
+            // NOTE: return null as relativePath
+        }
+
+        return null;
     }
 
     /**
@@ -1418,10 +1454,7 @@ public class NodesImpl implements Nodes
         Query q = parameters.getQuery();
         if (q != null)
         {
-            MapBasedQueryWalker propertyWalker = createListChildrenQueryWalker();
-            QueryHelper.walk(q, propertyWalker);
-
-            Boolean isPrimary = propertyWalker.getProperty(PARAM_ISPRIMARY, WhereClauseParser.EQUALS, Boolean.class);
+            Boolean isPrimary = LIST_FOLDER_CHILDREN_FILTER_DEFINITION.compile(q).getValue(PARAM_ISPRIMARY);
 
             if (isPrimary != null)
             {
@@ -1641,11 +1674,10 @@ public class NodesImpl implements Nodes
         if (q != null)
         {
             // filtering via "where" clause
-            MapBasedQueryWalker propertyWalker = createListChildrenQueryWalker();
-            QueryHelper.walk(q, propertyWalker);
+            WhereFilter filter = LIST_FOLDER_CHILDREN_FILTER_DEFINITION.compile(q);
 
-            Boolean isFolder = propertyWalker.getProperty(PARAM_ISFOLDER, WhereClauseParser.EQUALS, Boolean.class);
-            Boolean isFile = propertyWalker.getProperty(PARAM_ISFILE, WhereClauseParser.EQUALS, Boolean.class);
+            Boolean isFolder = filter.getValue(PARAM_ISFOLDER);
+            Boolean isFile = filter.getValue(PARAM_ISFILE);
 
             if (isFolder != null)
             {
@@ -1662,7 +1694,7 @@ public class NodesImpl implements Nodes
                 throw new InvalidArgumentException("Invalid filter (isFile=true and isFolder=true) - a node cannot be both a file and a folder");
             }
 
-            String nodeTypeStr = propertyWalker.getProperty(PARAM_NODETYPE, WhereClauseParser.EQUALS, String.class);
+            String nodeTypeStr = filter.getValue(PARAM_NODETYPE);
             if ((nodeTypeStr != null) && (! nodeTypeStr.isEmpty()))
             {
                 if ((isFile != null) || (isFolder != null))
@@ -2733,6 +2765,22 @@ public class NodesImpl implements Nodes
         return updateExistingFile(null, nodeRef, fileName, contentInfo, stream, parameters, versionMajor, versionComment);
     }
 
+    @Override
+    public void checkUpdateContent(String fileNodeId)
+    {
+        final NodeRef nodeRef = validateNode(fileNodeId);
+
+        if (! nodeMatches(nodeRef, Collections.singleton(ContentModel.TYPE_CONTENT), null, false))
+        {
+            throw new InvalidArgumentException("NodeId of content is expected: " + nodeRef.getId());
+        }
+
+        if (permissionService.hasPermission(nodeRef, PermissionService.WRITE_CONTENT) != AccessStatus.ALLOWED)
+        {
+            throw new PermissionDeniedException();
+        }
+    }
+
     private Node updateExistingFile(NodeRef parentNodeRef, NodeRef nodeRef, String fileName, BasicContentInfo contentInfo, InputStream stream, Parameters parameters, Boolean versionMajor, String versionComment)
     {
         boolean isVersioned = versionService.isVersioned(nodeRef);
@@ -2780,6 +2828,13 @@ public class NodesImpl implements Nodes
 
     private void writeContent(NodeRef nodeRef, String fileName, InputStream stream, boolean guessEncoding)
     {
+        if (stream instanceof SpooledContentStream)
+        {
+            // the content is already in the content store
+            writeSpooledContent(nodeRef, fileName, ((SpooledContentStream) stream).getReader(), guessEncoding);
+            return;
+        }
+
         try
         {
             ContentWriter writer = contentService.getWriter(nodeRef, ContentModel.PROP_CONTENT, true);
@@ -2837,6 +2892,28 @@ public class NodesImpl implements Nodes
         }
     }
 
+    /**
+     * Sets content that has already been written to the content store on the node, rather than copying it.
+     */
+    private void writeSpooledContent(NodeRef nodeRef, String fileName, ContentReader reader, boolean guessEncoding)
+    {
+        String mimeType = mimetypeService.guessMimetype(fileName);
+        if ((mimeType == null) || (mimeType.equals(MimetypeMap.MIMETYPE_BINARY)))
+        {
+            // stronger guess based on the content
+            mimeType = mimetypeService.guessMimetype(fileName, reader.getReader());
+        }
+
+        String encoding = reader.getEncoding();
+        if (guessEncoding)
+        {
+            encoding = guessEncoding(new BufferedInputStream(reader.getReader().getContentInputStream()), mimeType, true);
+        }
+
+        ContentData contentData = new ContentData(reader.getContentUrl(), mimeType, reader.getSize(), encoding, reader.getLocale());
+        nodeService.setProperty(nodeRef, ContentModel.PROP_CONTENT, contentData);
+    }
+
     private String guessEncoding(InputStream in, String mimeType, boolean close)
     {
         String encoding = "UTF-8";
@@ -0,0 +1,148 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.api.impl;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.alfresco.model.ContentModel;
+import org.alfresco.repo.node.NodeServicePolicies.OnCreateChildAssociationPolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnCreateNodePolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnDeleteChildAssociationPolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnDeleteNodePolicy;
+import org.alfresco.repo.policy.Behaviour.NotificationFrequency;
+import org.alfresco.repo.policy.JavaBehaviour;
+import org.alfresco.repo.policy.PolicyComponent;
+import org.alfresco.repo.tenant.TenantUtil;
+import org.alfresco.repo.web.util.AbstractLocalCache;
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
+import org.alfresco.service.cmr.security.AuthorityService;
+import org.alfresco.service.cmr.security.AuthorityType;
+import org.alfresco.util.Pair;
+
+/**
+ * Cache of the root authorities (the authorities that are not contained by a group) per tenant and authority type,
+ * used when listing groups.
+ * <p>
+ * The cache is cleared whenever a group is created or deleted, or a member is added to or removed from a group:
+ * immediately, so other transactions stop using it, and again when the changing transaction commits. The
+ * changing transaction itself reads the root authorities from the {@link AuthorityService}.
+ * <p>
+ * The cache is local to the cluster node. When groups are created, deleted or moved on another node, the
+ * <tt>isRoot</tt> flag of those groups, and whether they are listed by <tt>where=(isRoot=true)</tt>, can be
+ * stale here until the time to live expires. The groups themselves, their names and their members are always
+ * read from the repository. Root groups only change through group administration, which is rare, and a listing
+ * that is up to a minute late on whether a group is a root is an acceptable cost for listing groups
+ * without reading all root authorities every time.
+ */
+public class RootAuthoritiesCache extends AbstractLocalCache implements OnCreateNodePolicy, OnDeleteNodePolicy,
+            OnCreateChildAssociationPolicy, OnDeleteChildAssociationPolicy
+{
+    private AuthorityService authorityService;
+    private PolicyComponent policyComponent;
+
+    private boolean enabled = true;
+
+    private final Region<Pair<String, AuthorityType>, Set<String>> entries = new Region<>(16);
+
+    public RootAuthoritiesCache()
+    {
+        super(1000, 60000L);
+    }
+
+    public void setAuthorityService(AuthorityService authorityService)
+    {
+        this.authorityService = authorityService;
+    }
+
+    public void setPolicyComponent(PolicyComponent policyComponent)
+    {
+        this.policyComponent = policyComponent;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    public void init()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        policyComponent.bindClassBehaviour(OnCreateNodePolicy.QNAME, ContentModel.TYPE_AUTHORITY_CONTAINER,
+                    new JavaBehaviour(this, "onCreateNode", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnDeleteNodePolicy.QNAME, ContentModel.TYPE_AUTHORITY_CONTAINER,
+                    new JavaBehaviour(this, "onDeleteNode", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnCreateChildAssociationPolicy.QNAME, ContentModel.TYPE_AUTHORITY_CONTAINER,
+                    new JavaBehaviour(this, "onCreateChildAssociation", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnDeleteChildAssociationPolicy.QNAME, ContentModel.TYPE_AUTHORITY_CONTAINER,
+                    new JavaBehaviour(this, "onDeleteChildAssociation", NotificationFrequency.EVERY_EVENT));
+    }
+
+    /**
+     * Get the root authorities of a type in the current tenant.
+     * 
+     * @param authorityType the authority type
+     * @return the root authorities, not to be modified
+     * @see AuthorityService#getAllRootAuthorities(AuthorityType)
+     */
+    public Set<String> getAllRootAuthorities(AuthorityType authorityType)
+    {
+        if (!enabled || isChangedInTransaction())
+        {
+            return authorityService.getAllRootAuthorities(authorityType);
+        }
+        return entries.get(new Pair<>(TenantUtil.getCurrentDomain(), authorityType),
+                    () -> Collections.unmodifiableSet(new HashSet<>(authorityService.getAllRootAuthorities(authorityType))));
+    }
+
+    @Override
+    public void onCreateNode(ChildAssociationRef childAssocRef)
+    {
+        changedInTransaction();
+    }
+
+    @Override
+    public void onDeleteNode(ChildAssociationRef childAssocRef, boolean isNodeArchived)
+    {
+        changedInTransaction();
+    }
+
+    @Override
+    public void onCreateChildAssociation(ChildAssociationRef childAssocRef, boolean isNewNode)
+    {
+        changedInTransaction();
+    }
+
+    @Override
+    public void onDeleteChildAssociation(ChildAssociationRef childAssocRef)
+    {
+        changedInTransaction();
+    }
+}
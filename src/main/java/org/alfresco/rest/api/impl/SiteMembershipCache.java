@@ -0,0 +1,182 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.api.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.alfresco.model.ContentModel;
+import org.alfresco.query.CannedQuerySortDetails.SortOrder;
+import org.alfresco.repo.node.NodeServicePolicies.OnCreateChildAssociationPolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnDeleteChildAssociationPolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnDeleteNodePolicy;
+import org.alfresco.repo.node.NodeServicePolicies.OnUpdateNodePolicy;
+import org.alfresco.repo.policy.Behaviour.NotificationFrequency;
+import org.alfresco.repo.policy.JavaBehaviour;
+import org.alfresco.repo.policy.PolicyComponent;
+import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.alfresco.repo.site.SiteMembership;
+import org.alfresco.repo.site.SiteMembershipComparator;
+import org.alfresco.repo.site.SiteModel;
+import org.alfresco.repo.tenant.TenantUtil;
+import org.alfresco.repo.web.util.AbstractLocalCache;
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.cmr.site.SiteService;
+import org.alfresco.util.Pair;
+
+/**
+ * Index of the site memberships of a person, kept sorted for each sort order requested, used when listing the
+ * sites of a person. The index is kept per tenant, person and user running the listing (the sites returned by the
+ * {@link SiteService} depend on the permissions of the latter), for the most recently used <tt>maxItems</tt>
+ * persons.
+ * <p>
+ * The index is cleared whenever a group membership changes (site memberships are memberships of the site
+ * groups), or a site is updated or deleted: immediately, so other transactions stop using it, and again when the
+ * changing transaction commits. The changing transaction itself does not use the index.
+ * <p>
+ * The index is local to the cluster node. A person who joins or leaves a site, or whose role changes, on another
+ * node would be listed here with their old memberships and roles until the entry expires. Users expect to find a
+ * site they have just joined in their list, so the index is disabled by default and is meant for single node
+ * installations only.
+ */
+public class SiteMembershipCache extends AbstractLocalCache implements OnCreateChildAssociationPolicy,
+            OnDeleteChildAssociationPolicy, OnUpdateNodePolicy, OnDeleteNodePolicy
+{
+    private SiteService siteService;
+    private PolicyComponent policyComponent;
+
+    private boolean enabled = false;
+
+    private final Region<List<String>, Entry> entries = new Region<>(64);
+
+    public SiteMembershipCache()
+    {
+        super(1000, 60000L);
+    }
+
+    public void setSiteService(SiteService siteService)
+    {
+        this.siteService = siteService;
+    }
+
+    public void setPolicyComponent(PolicyComponent policyComponent)
+    {
+        this.policyComponent = policyComponent;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    public void init()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        policyComponent.bindClassBehaviour(OnCreateChildAssociationPolicy.QNAME, ContentModel.TYPE_AUTHORITY_CONTAINER,
+                    new JavaBehaviour(this, "onCreateChildAssociation", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnDeleteChildAssociationPolicy.QNAME, ContentModel.TYPE_AUTHORITY_CONTAINER,
+                    new JavaBehaviour(this, "onDeleteChildAssociation", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnDeleteNodePolicy.QNAME, ContentModel.TYPE_AUTHORITY_CONTAINER,
+                    new JavaBehaviour(this, "onDeleteNode", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnUpdateNodePolicy.QNAME, SiteModel.TYPE_SITE,
+                    new JavaBehaviour(this, "onUpdateNode", NotificationFrequency.EVERY_EVENT));
+        policyComponent.bindClassBehaviour(OnDeleteNodePolicy.QNAME, SiteModel.TYPE_SITE,
+                    new JavaBehaviour(this, "onDeleteNode", NotificationFrequency.EVERY_EVENT));
+    }
+
+    /**
+     * Get the site memberships of a person, sorted.
+     * 
+     * @param personId the person
+     * @param sortPairs the sort order
+     * @return the sorted site memberships, not to be modified, or <tt>null</tt> if the index may not be used by
+     *         the current transaction
+     * @see SiteService#listSiteMemberships(String, int)
+     */
+    public List<SiteMembership> getSiteMemberships(String personId, List<Pair<? extends Object, SortOrder>> sortPairs)
+    {
+        if (!enabled || isChangedInTransaction())
+        {
+            return null;
+        }
+
+        List<String> key = Arrays.asList(TenantUtil.getCurrentDomain(), AuthenticationUtil.getRunAsUser(), personId);
+        return entries.get(key, () -> new Entry(new ArrayList<>(siteService.listSiteMemberships(personId, 0)))).getSorted(sortPairs);
+    }
+
+    @Override
+    public void onCreateChildAssociation(ChildAssociationRef childAssocRef, boolean isNewNode)
+    {
+        changedInTransaction();
+    }
+
+    @Override
+    public void onDeleteChildAssociation(ChildAssociationRef childAssocRef)
+    {
+        changedInTransaction();
+    }
+
+    @Override
+    public void onUpdateNode(NodeRef nodeRef)
+    {
+        changedInTransaction();
+    }
+
+    @Override
+    public void onDeleteNode(ChildAssociationRef childAssocRef, boolean isNodeArchived)
+    {
+        changedInTransaction();
+    }
+
+    private static class Entry
+    {
+        private final List<SiteMembership> memberships;
+        private final ConcurrentMap<List<Pair<? extends Object, SortOrder>>, List<SiteMembership>> sorted = new ConcurrentHashMap<>(4);
+
+        private Entry(List<SiteMembership> memberships)
+        {
+            this.memberships = memberships;
+        }
+
+        private List<SiteMembership> getSorted(List<Pair<? extends Object, SortOrder>> sortPairs)
+        {
+            return sorted.computeIfAbsent(new ArrayList<>(sortPairs), key ->
+            {
+                List<SiteMembership> list = new ArrayList<>(memberships);
+                Collections.sort(list, new SiteMembershipComparator(key, SiteMembershipComparator.Type.SITES));
+                return Collections.unmodifiableList(list);
+            });
+        }
+    }
+}
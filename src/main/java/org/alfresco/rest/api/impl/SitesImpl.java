@@ -26,6 +26,7 @@
 package org.alfresco.rest.api.impl;
 
 import java.io.Serializable;
+import java.text.CollationKey;
 import java.text.Collator;
 import java.util.AbstractList;
 import java.util.ArrayList;
@@ -34,12 +35,12 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import org.alfresco.error.AlfrescoRuntimeException;
@@ -79,8 +80,10 @@ import org.alfresco.service.cmr.dictionary.DictionaryService;
 import org.alfresco.service.cmr.favourites.FavouritesService;
 import org.alfresco.service.cmr.model.FileInfo;
 import org.alfresco.service.cmr.preference.PreferenceService;
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
 import org.alfresco.service.cmr.repository.NodeRef;
 import org.alfresco.service.cmr.repository.NodeService;
+import org.alfresco.service.cmr.repository.datatype.DefaultTypeConverter;
 import org.alfresco.service.cmr.security.AccessStatus;
 import org.alfresco.service.cmr.security.AuthorityService;
 import org.alfresco.service.cmr.security.AuthorityType;
@@ -161,6 +164,7 @@ public class SitesImpl implements Sites
     protected PermissionService permissionService;
     protected SiteServiceImpl siteServiceImpl;
     protected AuthorityService authorityService;
+    protected SiteMembershipCache siteMembershipCache;
 
     public void setPreferenceService(PreferenceService preferenceService)
     {
@@ -222,6 +226,11 @@ public class SitesImpl implements Sites
         return authorityService;
     }
 
+    public void setSiteMembershipCache(SiteMembershipCache siteMembershipCache)
+    {
+        this.siteMembershipCache = siteMembershipCache;
+    }
+
     public void setAuthorityService(AuthorityService authorityService)
     {
         this.authorityService = authorityService;
@@ -562,53 +571,51 @@ public class SitesImpl implements Sites
                     SortOrder.ASCENDING ));
         }
 
-        // get the unsorted list of site memberships
-        List<SiteMembership> siteMembers = siteService.listSiteMemberships(personId, 0);
-
-        // sort the list of site memberships
-        int totalSize = siteMembers.size();
-        final List<SiteMembership> sortedSiteMembers = new ArrayList<>(siteMembers);
-        Collections.sort(sortedSiteMembers, new SiteMembershipComparator(
-                    sortPairs,
-                    SiteMembershipComparator.Type.SITES));
+        List<FilterProp> filterProps = getFilterPropListOfSites(parameters);
 
-        PageDetails pageDetails = PageDetails.getPageDetails(pagingRequest, totalSize);
-        List<MemberOfSite> ret = new ArrayList<>(totalSize);
+        // the site memberships, sorted if they are indexed
+        List<SiteMembership> indexedSiteMembers = (siteMembershipCache != null ? siteMembershipCache.getSiteMemberships(personId, sortPairs) : null);
+        List<SiteMembership> siteMembers = (indexedSiteMembers != null ? indexedSiteMembers : siteService.listSiteMemberships(personId, 0));
 
-        List<FilterProp> filterProps = getFilterPropListOfSites(parameters);
+        PageDetails pageDetails = PageDetails.getPageDetails(pagingRequest, siteMembers.size());
+        if (filterProps != null)
+        {
+            siteMembers = filterSiteMemberships(siteMembers, filterProps);
+        }
+        int totalItems = siteMembers.size();
 
-        int counter;
-        int totalItems = 0;
-        Iterator<SiteMembership> it = sortedSiteMembers.iterator();
-        for(counter = 0; it.hasNext();)
+        List<SiteMembership> sortedSiteMembers = siteMembers;
+        if (indexedSiteMembers == null)
         {
-            SiteMembership siteMember = it.next();
+            // select the memberships up to the end of the page rather than sorting all of them
+            sortedSiteMembers = Util.selectFirst(siteMembers, new SiteMembershipComparator(
+                        sortPairs,
+                        SiteMembershipComparator.Type.SITES), pageDetails.getEnd());
+        }
 
-            if (filterProps != null && !includeFilter(siteMember, filterProps))
-            {
-                continue;
-            }
+        int end = Math.min(pageDetails.getEnd(), totalItems);
+        List<MemberOfSite> ret = new ArrayList<>(Math.max(end - pageDetails.getSkipCount(), 0));
+        for (int i = pageDetails.getSkipCount(); i < end; i++)
+        {
+            SiteMembership siteMember = sortedSiteMembers.get(i);
+            SiteInfo siteInfo = siteMember.getSiteInfo();
+            MemberOfSite memberOfSite = new MemberOfSite(siteInfo.getShortName(), siteInfo.getNodeRef(), siteMember.getRole());
+            ret.add(memberOfSite);
+        }
+        return CollectionWithPagingInfo.asPaged(paging, ret, end < totalItems, totalItems);
+    }
 
-            if(counter < pageDetails.getSkipCount())
-            {
-                totalItems++;
-                counter++;
-                continue;
-            }
-            
-            if (counter <= pageDetails.getEnd() - 1)
+    private List<SiteMembership> filterSiteMemberships(List<SiteMembership> siteMembers, List<FilterProp> filterProps)
+    {
+        List<SiteMembership> filtered = new ArrayList<>(siteMembers.size());
+        for (SiteMembership siteMember : siteMembers)
+        {
+            if (includeFilter(siteMember, filterProps))
             {
-                SiteInfo siteInfo = siteMember.getSiteInfo();
-                MemberOfSite memberOfSite = new MemberOfSite(siteInfo.getShortName(), siteInfo.getNodeRef(), siteMember.getRole());
-                ret.add(memberOfSite);
-
-                counter++;
+                filtered.add(siteMember);
             }
-
-            totalItems++;
         }
-        return CollectionWithPagingInfo.asPaged(paging, ret, counter < totalItems, totalItems);
-
+        return filtered;
     }
 
     public SiteContainer getSiteContainer(String siteId, String containerId)
@@ -970,15 +977,7 @@ public class SitesImpl implements Sites
     {
         final Collator collator = Collator.getInstance();
 
-        final Set<SiteInfo> sortedFavouriteSites = new TreeSet<SiteInfo>(new Comparator<SiteInfo>()
-        {
-            @Override
-            public int compare(SiteInfo o1, SiteInfo o2)
-            {
-                return collator.compare(o1.getTitle(), o2.getTitle());
-            }
-        });
-
+        Set<String> siteShortNames = new LinkedHashSet<String>();
         Map<String, Serializable> prefs = preferenceService.getPreferences(userName, FAVOURITE_SITES_PREFIX);
         for(Entry<String, Serializable> entry : prefs.entrySet())
         {
@@ -991,34 +990,47 @@ public class SitesImpl implements Sites
             if(isFavourite)
             {
                 String siteShortName = entry.getKey().substring(FAVOURITE_SITES_PREFIX_LENGTH).replace(".favourited", "");
-                SiteInfo siteInfo = siteService.getSite(siteShortName);
-                if(siteInfo != null)
+                siteShortNames.add(siteShortName);
+            }
+        }
+
+        // look up the favourite sites in one go (sites the user cannot read are filtered out by the node service) and
+        // sort them by title, collation keys are computed once per site. As before, only one site is listed per title:
+        // the one with the lowest short name.
+        final Map<CollationKey, Pair<String, NodeRef>> favouriteSitesByTitle = new TreeMap<CollationKey, Pair<String, NodeRef>>();
+        NodeRef siteRoot = (siteShortNames.isEmpty() ? null : siteService.getSiteRoot());
+        if(siteRoot != null)
+        {
+            for(ChildAssociationRef assocRef : nodeService.getChildrenByName(siteRoot, ContentModel.ASSOC_CONTAINS, siteShortNames))
+            {
+                NodeRef siteNodeRef = assocRef.getChildRef();
+                if(dictionaryService.isSubClass(nodeService.getType(siteNodeRef), SiteModel.TYPE_SITE))
                 {
-                    sortedFavouriteSites.add(siteInfo);
+                    String name = DefaultTypeConverter.INSTANCE.convert(String.class, nodeService.getProperty(siteNodeRef, ContentModel.PROP_NAME));
+                    String title = DefaultTypeConverter.INSTANCE.convert(String.class, nodeService.getProperty(siteNodeRef, ContentModel.PROP_TITLE));
+                    CollationKey key = collator.getCollationKey(title != null ? title : "");
+                    Pair<String, NodeRef> other = favouriteSitesByTitle.get(key);
+                    if(other == null || name.compareTo(other.getFirst()) < 0)
+                    {
+                        favouriteSitesByTitle.put(key, new Pair<String, NodeRef>(name, siteNodeRef));
+                    }
                 }
             }
         }
+        final List<Pair<String, NodeRef>> sortedFavouriteSites = new ArrayList<Pair<String, NodeRef>>(favouriteSitesByTitle.values());
 
         int totalSize = sortedFavouriteSites.size();
         final PageDetails pageDetails = PageDetails.getPageDetails(pagingRequest, totalSize);
 
+        // only the sites of the page are read
         final List<SiteInfo> page = new ArrayList<SiteInfo>(pageDetails.getPageSize());
-        Iterator<SiteInfo> it = sortedFavouriteSites.iterator();
-        for(int counter = 0; counter < pageDetails.getEnd() && it.hasNext(); counter++)
+        for(int counter = pageDetails.getSkipCount(), end = Math.min(pageDetails.getEnd(), totalSize); counter < end; counter++)
         {
-            SiteInfo favouriteSite = it.next();
-
-            if(counter < pageDetails.getSkipCount())
+            SiteInfo favouriteSite = siteService.getSite(sortedFavouriteSites.get(counter).getSecond());
+            if(favouriteSite != null)
             {
-                continue;
+                page.add(favouriteSite);
             }
-
-            if(counter > pageDetails.getEnd() - 1)
-            {
-                break;
-            }
-
-            page.add(favouriteSite);
         }
 
         return new PagingResults<SiteInfo>()
@@ -36,8 +36,10 @@ import org.alfresco.util.Pair;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 /**
  * @author steveglover
@@ -112,4 +114,52 @@ public class Util
             }
         };
     }
+
+    /**
+     * Select the first elements of a list in the order of a comparator, using a bounded heap so the cost is
+     * O(n log count) rather than the O(n log n) of sorting the whole list. Elements that compare equal keep their
+     * relative order, as they would with a (stable) sort.
+     *
+     * @param items the elements to select from, not modified
+     * @param comparator the order of the elements
+     * @param count the number of elements to select
+     * @return the first <tt>count</tt> elements (or all of them if there are fewer), sorted
+     */
+    public static <T> List<T> selectFirst(final List<T> items, final Comparator<? super T> comparator, int count)
+    {
+        count = Math.min(count, items.size());
+        if (count <= 0)
+        {
+            return new ArrayList<>(0);
+        }
+
+        // indexes of the selected elements, the last one (in order) at the head
+        Comparator<Integer> order = (a, b) ->
+        {
+            int result = comparator.compare(items.get(a), items.get(b));
+            return (result != 0 ? result : Integer.compare(a, b));
+        };
+        PriorityQueue<Integer> heap = new PriorityQueue<>(count + 1, order.reversed());
+        for (int i = 0; i < items.size(); i++)
+        {
+            if (heap.size() < count)
+            {
+                heap.add(i);
+            }
+            else if (order.compare(i, heap.peek()) < 0)
+            {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+
+        List<Integer> selected = new ArrayList<>(heap);
+        selected.sort(order);
+        List<T> result = new ArrayList<>(count);
+        for (Integer index : selected)
+        {
+            result.add(items.get(index));
+        }
+        return result;
+    }
 }
@@ -26,15 +26,13 @@
 package org.alfresco.rest.api.lookups;
 
 import org.alfresco.model.ContentModel;
-import org.alfresco.repo.transaction.TransactionalResourceHelper;
 import org.alfresco.rest.api.impl.NodesImpl;
-import org.alfresco.rest.api.model.Node;
 import org.alfresco.rest.api.model.UserInfo;
+import org.alfresco.rest.framework.tools.UserInfoCache;
 import org.alfresco.service.ServiceRegistry;
 
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -47,12 +45,12 @@ public class PersonPropertyLookup implements PropertyLookup<String>
 {
     private Set<String> supported = new HashSet<>();
     private ServiceRegistry serviceRegistry;
+    private UserInfoCache userInfoCache;
 
     @Override
     public String lookup(String propertyValue)
     {
-        Map<String, UserInfo> mapUserInfo = TransactionalResourceHelper.getMap("PERSON_PROPERTY_LOOKUP_USER_INFO_CACHE");
-        UserInfo user = Node.lookupUserInfo(propertyValue, mapUserInfo, serviceRegistry.getPersonService());
+        UserInfo user = userInfoCache.getUserInfo(propertyValue);
         if (user != null) return user.getDisplayName();
         return null;
     }
@@ -73,4 +71,9 @@ public class PersonPropertyLookup implements PropertyLookup<String>
     {
         this.serviceRegistry = serviceRegistry;
     }
+
+    public void setUserInfoCache(UserInfoCache userInfoCache)
+    {
+        this.userInfoCache = userInfoCache;
+    }
 }
@@ -33,19 +33,15 @@ import java.util.List;
 import java.util.Map;
 
 import org.alfresco.model.ContentModel;
-import org.alfresco.repo.security.authentication.AuthenticationUtil;
-import org.alfresco.repo.security.permissions.AccessDeniedException;
 import org.alfresco.rest.api.search.model.SearchEntry;
 import org.alfresco.rest.framework.resource.UniqueId;
+import org.alfresco.rest.framework.tools.UserInfoCache;
 import org.alfresco.service.ServiceRegistry;
 import org.alfresco.service.cmr.repository.NodeRef;
-import org.alfresco.service.cmr.security.NoSuchPersonException;
 import org.alfresco.service.cmr.security.PersonService;
 import org.alfresco.service.namespace.QName;
 import org.alfresco.util.EqualsHelper;
 import org.apache.chemistry.opencmis.commons.data.PropertyData;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
 
 /**
  * Concrete class carrying general information for <b>alf_node</b> data
@@ -56,8 +52,6 @@ import org.apache.commons.logging.LogFactory;
  */
 public class Node implements Comparable<Node>
 {
-    private static final Log logger = LogFactory.getLog(Node.class);
-
     protected NodeRef nodeRef;
     protected String name;
 
@@ -154,41 +148,11 @@ public class Node implements Comparable<Node>
         UserInfo userInfo = mapUserInfo.get(userName);
         if ((userInfo == null) && (userName != null))
         {
-            String sysUserName = AuthenticationUtil.getSystemUserName();
-            if (userName.equals(sysUserName) || (AuthenticationUtil.isMtEnabled() && userName.startsWith(sysUserName + "@")))
-            {
-                userInfo = new UserInfo((displayNameOnly ? null : userName), userName, "");
-            }
-            else
+            // note: callers mapping many nodes prefetch into mapUserInfo via UserInfoCache
+            userInfo = UserInfoCache.resolve(userName, personService);
+            if (displayNameOnly)
             {
-                PersonService.PersonInfo pInfo = null;
-                try
-                {
-                    NodeRef pNodeRef = personService.getPersonOrNull(userName);
-                    if (pNodeRef != null)
-                    {
-                        pInfo = personService.getPerson(pNodeRef);
-                    }
-                }
-                catch (NoSuchPersonException nspe)
-                {
-                    // drop-through
-                }
-                catch (AccessDeniedException ade)
-                {
-                    // SFS-610
-                    // drop-through
-                }
-
-                if (pInfo != null)
-                {
-                    userInfo = new UserInfo((displayNameOnly ? null : userName), pInfo.getFirstName(), pInfo.getLastName());
-                }
-                else
-                {
-                    logger.warn("Unknown person: "+userName);
-                    userInfo = new UserInfo((displayNameOnly ? null : userName), userName, "");
-                }
+                userInfo = new UserInfo(null, userInfo.getDisplayName(), null);
             }
 
             mapUserInfo.put(userName, userInfo);
@@ -58,7 +58,7 @@ import org.springframework.beans.factory.InitializingBean;
 @EntityResource(name="nodes", title = "Nodes")
 public class NodesEntityResource implements
         EntityResourceAction.ReadById<Node>, EntityResourceAction.Delete, EntityResourceAction.Update<Node>,
-        BinaryResourceAction.Read, BinaryResourceAction.Update<Node>, InitializingBean
+        BinaryResourceAction.Read, BinaryResourceAction.Update<Node>, BinaryResourceAction.CheckUpdate, InitializingBean
 {
     private Nodes nodes;
 
@@ -125,6 +125,12 @@ public class NodesEntityResource implements
         return nodes.updateContent(fileNodeId, contentInfo, stream, parameters);
     }
 
+    @Override
+    public void checkUpdateProperty(String fileNodeId, String propertyName)
+    {
+        nodes.checkUpdateContent(fileNodeId);
+    }
+
     /**
      * Update info on the node 'nodeId' - folder or document
      *
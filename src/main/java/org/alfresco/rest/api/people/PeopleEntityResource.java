@@ -27,7 +27,9 @@ package org.alfresco.rest.api.people;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -44,6 +46,8 @@ import org.alfresco.rest.framework.WebApiParam;
 import org.alfresco.rest.framework.core.ResourceParameter;
 import org.alfresco.rest.framework.core.exceptions.EntityNotFoundException;
 import org.alfresco.rest.framework.core.exceptions.InvalidArgumentException;
+import org.alfresco.rest.framework.core.exceptions.NotFoundException;
+import org.alfresco.rest.framework.core.exceptions.PermissionDeniedException;
 import org.alfresco.rest.framework.resource.EntityResource;
 import org.alfresco.rest.framework.resource.actions.interfaces.BinaryResourceAction;
 import org.alfresco.rest.framework.resource.actions.interfaces.EntityResourceAction;
@@ -64,7 +68,7 @@ import org.springframework.beans.factory.InitializingBean;
  * @author Gethin James
  */
 @EntityResource(name="people", title = "People")
-public class PeopleEntityResource implements EntityResourceAction.ReadById<Person>, EntityResourceAction.Create<Person>,
+public class PeopleEntityResource implements EntityResourceAction.ReadById<Person>, EntityResourceAction.ReadByIds<Person>, EntityResourceAction.Create<Person>,
         EntityResourceAction.Update<Person>,EntityResourceAction.Read<Person>,
 
         BinaryResourceAction.Read, BinaryResourceAction.Update<Person>, BinaryResourceAction.Delete, InitializingBean
@@ -98,6 +102,33 @@ public class PeopleEntityResource implements EntityResourceAction.ReadById<Perso
         return person;
     }
 
+    /**
+     * Get the people embedded into a page of entities, eg. the members of a site, in the transaction of the request.
+     * 
+     * @see org.alfresco.rest.framework.resource.actions.interfaces.EntityResourceAction.ReadByIds#readByIds(List, org.alfresco.rest.framework.resource.parameters.Parameters)
+     */
+    @Override
+    public Map<String, Person> readByIds(List<String> personIds, Parameters parameters)
+    {
+        Map<String, Person> result = new HashMap<>(personIds.size() * 2);
+        for (String personId : personIds)
+        {
+            try
+            {
+                result.put(personId, people.getPerson(personId));
+            }
+            catch (NotFoundException | PermissionDeniedException e)
+            {
+                // not embedded, as when the person is read by id
+                if (logger.isDebugEnabled())
+                {
+                    logger.debug("Cannot embed person " + personId + ": " + e.getMessage());
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     @WebApiDescription(title="Create person", description="Create a person")
     @WebApiParam(name="persons", title="A single person", description="A single person, multiple people are not supported.",
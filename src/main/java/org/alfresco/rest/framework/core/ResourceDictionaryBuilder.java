@@ -142,12 +142,38 @@ public class ResourceDictionaryBuilder
             for (ResourceMetadata resourceMeta : metaData)
             {
                 resourcesWithMeta.add(new ResourceWithMetadata(bean, resourceMeta));
+                inspectEntityClasses(resourceMeta);
             }
         }
         
         return apiMap;
     }   
 
+    /**
+     * Inspects the entity classes of the operations of a resource up front, so that their @UniqueId
+     * and @EmbeddedEntityResource accessors are ready before the first request.
+     * @param resourceMeta ResourceMetadata
+     */
+    private static void inspectEntityClasses(ResourceMetadata resourceMeta)
+    {
+        if (resourceMeta.getOperations() == null)
+        {
+            return;
+        }
+        for (ResourceOperation operation : resourceMeta.getOperations())
+        {
+            if (operation.getParameters() == null)
+            {
+                continue;
+            }
+            Class<?> entityClass = resourceMeta.getObjectType(operation);
+            if (entityClass != null)
+            {
+                ResourceEntityAccessors.forClass(entityClass);
+            }
+        }
+    }
+
     /**
      * Builds a ResourceDictionary by parsing the resources that are passed in.
      * @param entityResources - object annotated as @EntityResource
@@ -0,0 +1,283 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.framework.core;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.alfresco.rest.framework.resource.EmbeddedEntityResource;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+
+/**
+ * The @UniqueId and @EmbeddedEntityResource accessors of an entity class.
+ * <p>
+ * The annotations of a class are inspected once, when its accessors are first requested (the entity classes of
+ * the resources are inspected when the {@link ResourceDictionary} is built), and the annotated getters are then
+ * called through generated accessors rather than by reflection.
+ */
+public class ResourceEntityAccessors
+{
+    private static Log logger = LogFactory.getLog(ResourceEntityAccessors.class);
+
+    private static final ClassValue<ResourceEntityAccessors> ACCESSORS = new ClassValue<ResourceEntityAccessors>()
+    {
+        @Override
+        protected ResourceEntityAccessors computeValue(Class<?> type)
+        {
+            return new ResourceEntityAccessors(type);
+        }
+    };
+
+    private final boolean simpleProperty;
+    private final Method uniqueIdMethod;
+    private final Function<Object, Object> uniqueIdAccessor;
+    private final IllegalArgumentException uniqueIdError;
+    private final Map<String, EmbeddedAccessor> embeddedResources;
+
+    private ResourceEntityAccessors(Class<?> type)
+    {
+        simpleProperty = BeanUtils.isSimpleProperty(type);
+
+        Method method = null;
+        IllegalArgumentException error = null;
+        try
+        {
+            method = ResourceInspector.findUniqueIdMethod(type);
+        }
+        catch (IllegalArgumentException iae)
+        {
+            error = iae;
+        }
+        uniqueIdMethod = method;
+        uniqueIdAccessor = (method != null) ? createAccessor(method) : null;
+        uniqueIdError = error;
+
+        Map<String, EmbeddedAccessor> embeds = new LinkedHashMap<>();
+        List<Method> annotatedMethods = ResourceInspectorUtil.findMethodsByAnnotation(type, EmbeddedEntityResource.class);
+        for (Method annotatedMethod : annotatedMethods)
+        {
+            Annotation annot = AnnotationUtils.findAnnotation(annotatedMethod, EmbeddedEntityResource.class);
+            if (annot != null)
+            {
+                Map<String, Object> annotAttribs = AnnotationUtils.getAnnotationAttributes(annot);
+                String entityPath = ResourceInspector.findEntityNameByAnnotationAttributes(annotAttribs);
+                String key = String.valueOf(annotAttribs.get("propertyName"));
+                embeds.put(key, new EmbeddedAccessor(entityPath, annotatedMethod, createAccessor(annotatedMethod)));
+            }
+        }
+        embeddedResources = Collections.unmodifiableMap(embeds);
+    }
+
+    /**
+     * Gets the accessors of a class, inspecting the class if it has not been inspected yet.
+     * 
+     * @param type the entity class
+     * @return ResourceEntityAccessors
+     */
+    public static ResourceEntityAccessors forClass(Class<?> type)
+    {
+        return ACCESSORS.get(type);
+    }
+
+    /**
+     * @return true if the class is a simple property (a primitive, String, Date etc.) that can not be embedded
+     */
+    public boolean isSimpleProperty()
+    {
+        return simpleProperty;
+    }
+
+    /**
+     * @return the method annotated with @UniqueId, or null
+     * @throws IllegalArgumentException if there is is more than 1 method annotated with @UniqueId
+     */
+    public Method getUniqueIdMethod()
+    {
+        if (uniqueIdError != null)
+        {
+            throw uniqueIdError;
+        }
+        return uniqueIdMethod;
+    }
+
+    /**
+     * Gets the unique id of an instance of the class, see {@link ResourceInspector#findUniqueId(Object)}.
+     * 
+     * @param obj an instance of the class
+     * @return the unique id, or null
+     * @throws IllegalArgumentException if there is is more than 1 method annotated with @UniqueId
+     */
+    public String getUniqueId(Object obj)
+    {
+        if (uniqueIdError != null)
+        {
+            throw uniqueIdError;
+        }
+        Object id = invoke(uniqueIdAccessor, obj);
+        if (id == null)
+        {
+            return null;
+        }
+        if (id instanceof NodeRef)
+        {
+            return ((NodeRef) id).getId();
+        }
+        return String.valueOf(id);
+    }
+
+    /**
+     * @return the @EmbeddedEntityResource accessors keyed by property name, never null
+     */
+    public Map<String, EmbeddedAccessor> getEmbeddedResources()
+    {
+        return embeddedResources;
+    }
+
+    private static Object invoke(Function<Object, Object> accessor, Object obj)
+    {
+        if (accessor == null)
+        {
+            return null;
+        }
+        try
+        {
+            return accessor.apply(obj);
+        }
+        catch (Throwable error)
+        {
+            logger.error("Invocation failure", error);
+            return null;
+        }
+    }
+
+    /**
+     * Generates an accessor for a no arg method. A lambda is generated where possible, otherwise the method is
+     * called through a method handle, or as a last resort by reflection.
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createAccessor(final Method method)
+    {
+        MethodHandle handle = null;
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+            handle = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class), handle, handle.type().wrap());
+            return (Function<Object, Object>) site.getTarget().invoke();
+        }
+        catch (Throwable error)
+        {
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Unable to generate an accessor for " + method + ": " + error.getMessage());
+            }
+        }
+
+        if (handle == null)
+        {
+            try
+            {
+                handle = MethodHandles.publicLookup().unreflect(method);
+            }
+            catch (IllegalAccessException error)
+            {
+                return obj -> ResourceInspectorUtil.invokeMethod(method, obj);
+            }
+        }
+
+        final MethodHandle genericHandle = handle.asType(MethodType.methodType(Object.class, Object.class));
+        return obj -> {
+            try
+            {
+                return genericHandle.invokeExact(obj);
+            }
+            catch (RuntimeException | Error error)
+            {
+                throw error;
+            }
+            catch (Throwable error)
+            {
+                throw new IllegalStateException(error);
+            }
+        };
+    }
+
+    /**
+     * The accessor of a method annotated with @EmbeddedEntityResource.
+     */
+    public static class EmbeddedAccessor
+    {
+        private final String entityPath;
+        private final Method method;
+        private final Function<Object, Object> accessor;
+
+        private EmbeddedAccessor(String entityPath, Method method, Function<Object, Object> accessor)
+        {
+            this.entityPath = entityPath;
+            this.method = method;
+            this.accessor = accessor;
+        }
+
+        /**
+         * @return the path of the embedded entity
+         */
+        public String getEntityPath()
+        {
+            return entityPath;
+        }
+
+        public Method getMethod()
+        {
+            return method;
+        }
+
+        /**
+         * Gets the id of the embedded entity.
+         * 
+         * @param obj the entity
+         * @return the id of the embedded entity, or null
+         */
+        public Object getId(Object obj)
+        {
+            return invoke(accessor, obj);
+        }
+    }
+}
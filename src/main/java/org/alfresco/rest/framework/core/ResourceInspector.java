@@ -59,7 +59,6 @@ import org.alfresco.rest.framework.resource.actions.interfaces.MultiPartRelation
 import org.alfresco.rest.framework.resource.actions.interfaces.RelationshipResourceAction;
 import org.alfresco.rest.framework.resource.actions.interfaces.RelationshipResourceBinaryAction;
 import org.alfresco.rest.framework.resource.actions.interfaces.ResourceAction;
-import org.alfresco.service.cmr.repository.NodeRef;
 import org.alfresco.util.Pair;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -764,24 +763,7 @@ public class ResourceInspector
      */
     public static String findUniqueId(Object obj)
     {
-        @SuppressWarnings("rawtypes")
-        Class objClass = obj.getClass();
-
-        Method annotatedMethod = findUniqueIdMethod(objClass);
-        Object id = ResourceInspectorUtil.invokeMethod(annotatedMethod, obj);
-        if (id != null)
-        {
-            if (id instanceof NodeRef)
-            {
-                return ((NodeRef)id).getId();
-            }
-            return String.valueOf(id);
-        }
-        else
-        {
-            return null;
-        }
-
+        return ResourceEntityAccessors.forClass(obj.getClass()).getUniqueId(obj);
     }
 
 
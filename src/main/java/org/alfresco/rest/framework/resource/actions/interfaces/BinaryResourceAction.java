@@ -125,6 +125,22 @@ public interface BinaryResourceAction
         public E updateProperty (String entityId, BasicContentInfo contentInfo, InputStream stream, Parameters params);
     }
 
+    /**
+     * Checks an update of a binary resource before the content of the request is read. The content of a PUT to
+     * a resource implementing it may be written to the content store before the resource is updated.
+     */
+    public static interface CheckUpdate
+    {
+
+        /**
+         * Checks that a binary property exists and may be updated by the current user.
+         * @param entityId unique id
+         * @param propertyName the binary property
+         * @throws EntityNotFoundException
+         */
+        public void checkUpdateProperty (String entityId, String propertyName) throws EntityNotFoundException;
+    }
+
     /**
      * HTTP PUT - Updates a binary resource if it exists, error if not
      */
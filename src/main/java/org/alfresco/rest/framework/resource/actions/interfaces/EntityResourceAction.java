@@ -26,6 +26,7 @@
 package org.alfresco.rest.framework.resource.actions.interfaces;
 
 import java.util.List;
+import java.util.Map;
 
 import org.alfresco.rest.framework.core.exceptions.EntityNotFoundException;
 import org.alfresco.rest.framework.resource.parameters.CollectionWithPagingInfo;
@@ -104,6 +105,25 @@ public interface EntityResourceAction
         public E readById (String id, Parameters parameters, WithResponse withResponse) throws EntityNotFoundException;
     }
 
+    /**
+     * Retrieve several entities by their unique ids in one call.
+     * 
+     * This is not an HTTP operation. It is used to embed an entity (see
+     * {@link org.alfresco.rest.framework.resource.EmbeddedEntityResource EmbeddedEntityResource}) into
+     * every entry of a collection page, instead of calling ReadById once per entry.
+     */
+    public static interface ReadByIds<E> extends ResourceAction
+    {
+        /**
+         * Reads the entities with the given ids.
+         * 
+         * @param ids the distinct ids, never null or empty
+         * @param parameters the parameters of the embedding request, with no entity id
+         * @return the entities keyed by id, ids that do not exist or cannot be read are left out
+         */
+        public Map<String, E> readByIds (List<String> ids, Parameters parameters);
+    }
+
     /**
      * HTTP PUT - Update entity if it exists, error if not
      */
@@ -26,6 +26,7 @@
 package org.alfresco.rest.framework.resource.actions.interfaces;
 
 import java.util.List;
+import java.util.Map;
 
 import org.alfresco.rest.framework.core.exceptions.RelationshipResourceNotFoundException;
 import org.alfresco.rest.framework.resource.parameters.CollectionWithPagingInfo;
@@ -72,6 +73,24 @@ public interface RelationshipResourceAction
         public CollectionWithPagingInfo<E> readAll(String entityResourceId, Parameters params, WithResponse withResponse);
     }
 
+    /**
+     * Retrieve the related entities of several entityResource Ids in one call.
+     * 
+     * This is not an HTTP operation. It is used to include a relationship (relations=) for every
+     * entry of a collection page, instead of calling Read once per entry.
+     */
+    public static interface ReadAllByIds<E> extends ResourceAction
+    {
+        /**
+         * Reads the relationship entities of each of the related entityResourceIds.
+         * 
+         * @param entityResourceIds the distinct entity resource ids, never null or empty
+         * @param params will never be null and will have the PAGING default values, with no entity id
+         * @return the relationship entities keyed by entityResourceId, ids that do not exist or cannot be read are left out
+         */
+        public Map<String, CollectionWithPagingInfo<E>> readAll(List<String> entityResourceIds, Parameters params);
+    }
+
     /**
      * HTTP GET - Retrieve a relation by its unique id & entity context
      */
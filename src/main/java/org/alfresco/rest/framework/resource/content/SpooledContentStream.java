@@ -0,0 +1,100 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.framework.resource.content;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.alfresco.service.cmr.repository.ContentReader;
+
+/**
+ * The stream of request content that has already been written to the content store, outside of the
+ * (retrying) transaction that consumes it.
+ * <p>
+ * The content store stream is only opened when the stream is read. Consumers that store the content
+ * on a node can reference it directly using {@link #getReader()} instead of copying it again.
+ */
+public class SpooledContentStream extends InputStream
+{
+    private final ContentReader reader;
+    private InputStream stream;
+
+    public SpooledContentStream(ContentReader reader)
+    {
+        this.reader = reader;
+    }
+
+    /**
+     * @return a reader for the spooled content
+     */
+    public ContentReader getReader()
+    {
+        return reader.getReader();
+    }
+
+    private InputStream getStream()
+    {
+        if (stream == null)
+        {
+            stream = reader.getReader().getContentInputStream();
+        }
+        return stream;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        return getStream().read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        return getStream().read(b, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException
+    {
+        return getStream().skip(n);
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        return (stream == null) ? 0 : stream.available();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (stream != null)
+        {
+            stream.close();
+            stream = null;
+        }
+    }
+}
@@ -119,6 +119,14 @@ public abstract class QueryHelper
         public void or() {throw UNSUPPORTED;}
     }
 
+    /**
+     * A single callback made when walking a query, recorded so that it can be replayed without the tree.
+     */
+    static interface WalkStep
+    {
+        void apply(WalkerCallback callback);
+    }
+
     /**
      * Walks a query with a callback for each operation
      * @param query the query
@@ -126,6 +134,17 @@ public abstract class QueryHelper
      */
     public static void walk(Query query, WalkerCallback callback)
     {
+        List<WalkStep> steps = (query instanceof QueryImpl) ? ((QueryImpl) query).getSteps() : null;
+        if (steps != null)
+        {
+            // replay the callbacks recorded when the query was compiled
+            for (WalkStep step : steps)
+            {
+                step.apply(callback);
+            }
+            return;
+        }
+
         CommonTree tree = query.getTree();
         if (tree != null)
         {
@@ -135,6 +154,73 @@ public abstract class QueryHelper
         }
     }
 
+    /**
+     * Walks a tree once and records the callbacks it makes, in order.
+     * @param tree the tree of a where clause, may be null
+     * @return the recorded callbacks, or null if the tree cannot be walked (the walk then reports the error)
+     */
+    static List<WalkStep> record(CommonTree tree)
+    {
+        if (tree == null)
+        {
+            return Collections.emptyList();
+        }
+        final List<WalkStep> steps = new ArrayList<WalkStep>();
+        try
+        {
+            callbackTree(tree, new WalkerCallback()
+            {
+                @Override
+                public void exists(final String propertyName, final boolean negated)
+                {
+                    steps.add(callback -> callback.exists(propertyName, negated));
+                }
+
+                @Override
+                public void between(final String propertyName, final String firstValue, final String secondValue, final boolean negated)
+                {
+                    steps.add(callback -> callback.between(propertyName, firstValue, secondValue, negated));
+                }
+
+                @Override
+                public void comparison(final int type, final String propertyName, final String propertyValue, final boolean negated)
+                {
+                    steps.add(callback -> callback.comparison(type, propertyName, propertyValue, negated));
+                }
+
+                @Override
+                public void in(final String property, final boolean negated, final String... propertyValues)
+                {
+                    final String[] values = propertyValues.clone();
+                    steps.add(callback -> callback.in(property, negated, values.clone()));
+                }
+
+                @Override
+                public void matches(final String property, final String propertyValue, final boolean negated)
+                {
+                    steps.add(callback -> callback.matches(property, propertyValue, negated));
+                }
+
+                @Override
+                public void and()
+                {
+                    steps.add(callback -> callback.and());
+                }
+
+                @Override
+                public void or()
+                {
+                    steps.add(callback -> callback.or());
+                }
+            }, false);
+        }
+        catch (RuntimeException error)
+        {
+            return null;
+        }
+        return Collections.unmodifiableList(steps);
+    }
+
     /**
      * Processes a tree type and calls the corresponding callback method.
      * @param tree Tree
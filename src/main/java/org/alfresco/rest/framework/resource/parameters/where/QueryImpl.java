@@ -25,6 +25,12 @@
  */
 package org.alfresco.rest.framework.resource.parameters.where;
 
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.alfresco.rest.framework.resource.parameters.where.QueryHelper.WalkStep;
 import org.antlr.runtime.tree.CommonTree;
 
 /**
@@ -34,17 +40,22 @@ import org.antlr.runtime.tree.CommonTree;
 public class QueryImpl implements Query
 {
     public static final Query EMPTY = new QueryImpl();
+    private static final int MAX_COMPILED = 16;
     private final CommonTree tree;
+    private final List<WalkStep> steps;
+    private final ConcurrentMap<Object, Object> compiled = new ConcurrentHashMap<Object, Object>(4);
     
     private QueryImpl()
     {
         super();
         this.tree = null;
+        this.steps = null;
     }
 
     public QueryImpl(CommonTree tree) {
         super();
         this.tree = tree;
+        this.steps = QueryHelper.record(tree);
 	}
     
     @Override
@@ -52,6 +63,41 @@ public class QueryImpl implements Query
 		return tree;
 	}
 
+    /**
+     * @return the callbacks made when walking this query, in order, or null if it must be walked from the tree
+     */
+    List<WalkStep> getSteps()
+    {
+        return steps;
+    }
+
+    /**
+     * Get a form of this query compiled for a resource, compiling it on first use. The compiled forms are kept
+     * with the query, so they are shared for as long as the query is (see {@link WhereClauseCache}).
+     * 
+     * @param key identifies the compiled form, eg. the definition it was compiled with
+     * @param compiler compiles the query, any exception is thrown to the caller and nothing is kept
+     * @return the compiled form
+     */
+    @SuppressWarnings("unchecked")
+    <T> T getCompiled(Object key, Function<Query, T> compiler)
+    {
+        T result = (T) compiled.get(key);
+        if (result == null)
+        {
+            result = compiler.apply(this);
+            if (compiled.size() < MAX_COMPILED)
+            {
+                T existing = (T) compiled.putIfAbsent(key, result);
+                if (existing != null)
+                {
+                    result = existing;
+                }
+            }
+        }
+        return result;
+    }
+
 	@Override
 	public String toString() {
 		return "QueryImpl [tree=" + tree + "]";
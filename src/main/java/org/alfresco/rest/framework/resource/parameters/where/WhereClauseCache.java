@@ -0,0 +1,189 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.framework.resource.parameters.where;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.alfresco.repo.cache.DefaultSimpleCache;
+import org.alfresco.repo.cache.SimpleCache;
+
+/**
+ * Keeps the compiled form of the where, select and include clauses of the REST API by their text,
+ * so that the clauses a client repeats on every request are only parsed once. It is injected into the
+ * {@link org.alfresco.rest.framework.tools.RecognizedParamsExtractor} implementations that parse the clauses
+ * of a request.
+ * <p>
+ * Only clauses that compile are kept; the cached {@link Query} instances are walked from their
+ * recorded callbacks (see {@link QueryHelper#walk(Query, QueryHelper.WalkerCallback)}) and are
+ * shared between requests, so they must not be modified.
+ */
+public class WhereClauseCache implements WhereClauseCacheMBean
+{
+    private int maxItems = 500;
+    private int maxClauseLength = 1024;
+
+    private SimpleCache<String, Query> whereClauses;
+    private SimpleCache<String, List<String>> selectClauses;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public WhereClauseCache()
+    {
+        createCaches();
+    }
+
+    /**
+     * @param maxItems the maximum number of where clauses, and of select/include clauses, kept; 0 disables the cache
+     */
+    public void setMaxItems(int maxItems)
+    {
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * @param maxClauseLength the length of the longest clause kept
+     */
+    public void setMaxClauseLength(int maxClauseLength)
+    {
+        this.maxClauseLength = maxClauseLength;
+    }
+
+    public void init()
+    {
+        createCaches();
+    }
+
+    private void createCaches()
+    {
+        if (maxItems > 0)
+        {
+            whereClauses = new DefaultSimpleCache<String, Query>(maxItems, "restApiWhereClauseCache");
+            selectClauses = new DefaultSimpleCache<String, List<String>>(maxItems, "restApiSelectClauseCache");
+        }
+        else
+        {
+            whereClauses = null;
+            selectClauses = null;
+        }
+    }
+
+    /**
+     * @param clause the text of a where clause
+     * @return the compiled where clause, or <tt>null</tt> if it is not cached
+     */
+    public Query getWhereClause(String clause)
+    {
+        return count(whereClauses != null ? whereClauses.get(clause) : null);
+    }
+
+    /**
+     * @param clause the text of a where clause that compiled
+     * @param query the compiled where clause
+     */
+    public void putWhereClause(String clause, Query query)
+    {
+        if (whereClauses != null && clause.length() <= maxClauseLength)
+        {
+            whereClauses.put(clause, query);
+        }
+    }
+
+    /**
+     * @param clause the text of a select or include clause
+     * @return a copy of the property names of the clause, or <tt>null</tt> if it is not cached
+     */
+    public List<String> getSelectClause(String clause)
+    {
+        List<String> properties = count(selectClauses != null ? selectClauses.get(clause) : null);
+        return (properties != null) ? new ArrayList<String>(properties) : null;
+    }
+
+    /**
+     * @param clause the text of a select or include clause that compiled
+     * @param properties the property names of the clause
+     */
+    public void putSelectClause(String clause, List<String> properties)
+    {
+        if (selectClauses != null && clause.length() <= maxClauseLength)
+        {
+            selectClauses.put(clause, Collections.unmodifiableList(new ArrayList<String>(properties)));
+        }
+    }
+
+    private <T> T count(T value)
+    {
+        (value != null ? hits : misses).incrementAndGet();
+        return value;
+    }
+
+    @Override
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    @Override
+    public double getHitRate()
+    {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return (total == 0) ? 0d : (double) hitCount / total;
+    }
+
+    @Override
+    public int getSize()
+    {
+        return (whereClauses != null ? whereClauses.getKeys().size() : 0) + (selectClauses != null ? selectClauses.getKeys().size() : 0);
+    }
+
+    @Override
+    public int getMaxItems()
+    {
+        return maxItems;
+    }
+
+    @Override
+    public void clear()
+    {
+        if (whereClauses != null)
+        {
+            whereClauses.clear();
+            selectClauses.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+    }
+}
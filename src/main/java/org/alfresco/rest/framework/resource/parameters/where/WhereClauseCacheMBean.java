@@ -0,0 +1,62 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.framework.resource.parameters.where;
+
+/**
+ * Management interface of the {@link WhereClauseCache}.
+ */
+public interface WhereClauseCacheMBean
+{
+    /**
+     * @return the number of clauses found in the cache
+     */
+    long getHits();
+
+    /**
+     * @return the number of clauses that had to be compiled
+     */
+    long getMisses();
+
+    /**
+     * @return the proportion of clauses found in the cache, between 0 and 1
+     */
+    double getHitRate();
+
+    /**
+     * @return the number of clauses currently cached
+     */
+    int getSize();
+
+    /**
+     * @return the maximum number of where clauses, and of select/include clauses, kept
+     */
+    int getMaxItems();
+
+    /**
+     * Discard the cached clauses and reset the counters.
+     */
+    void clear();
+}
@@ -0,0 +1,107 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.framework.resource.parameters.where;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.alfresco.rest.antlr.WhereClauseParser;
+
+/**
+ * A where clause compiled by a {@link WhereFilterDefinition}: the values of the clause, converted to the
+ * types of the definition, by property and operator (eg. {@link WhereClauseParser#EQUALS}).
+ * <p>
+ * Filters are immutable and may be shared between requests.
+ */
+public class WhereFilter
+{
+    public static final WhereFilter EMPTY = new WhereFilter(Collections.<String, Map<Integer, Object>>emptyMap());
+
+    private final Map<String, Map<Integer, Object>> values;
+
+    WhereFilter(Map<String, Map<Integer, Object>> values)
+    {
+        this.values = values;
+    }
+
+    /**
+     * @return true if the where clause has no conditions
+     */
+    public boolean isEmpty()
+    {
+        return values.isEmpty();
+    }
+
+    /**
+     * @param property the property name
+     * @param operator the operator, eg. {@link WhereClauseParser#EQUALS}
+     * @return true if the where clause has a condition for the property and operator
+     */
+    public boolean contains(String property, int operator)
+    {
+        Map<Integer, Object> operators = values.get(property);
+        return operators != null && operators.containsKey(operator);
+    }
+
+    /**
+     * Get the converted value of a condition.
+     * 
+     * @param property the property name
+     * @param operator the operator, eg. {@link WhereClauseParser#EQUALS}
+     * @return the value, or <tt>null</tt> if the where clause has no such condition
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(String property, int operator)
+    {
+        Map<Integer, Object> operators = values.get(property);
+        return (operators != null) ? (T) operators.get(operator) : null;
+    }
+
+    /**
+     * @param property the property name
+     * @return the value the property must equal, or <tt>null</tt> if the where clause has no such condition
+     */
+    public <T> T getValue(String property)
+    {
+        return getValue(property, WhereClauseParser.EQUALS);
+    }
+
+    /**
+     * @param property the property name
+     * @return the values of the property's IN condition, or <tt>null</tt> if the where clause has no such condition
+     */
+    public <T> List<T> getValues(String property)
+    {
+        return getValue(property, WhereClauseParser.IN);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "WhereFilter " + values;
+    }
+}
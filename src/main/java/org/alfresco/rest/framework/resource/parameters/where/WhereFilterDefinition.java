@@ -0,0 +1,223 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.framework.resource.parameters.where;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.alfresco.rest.antlr.WhereClauseParser;
+import org.alfresco.rest.framework.core.exceptions.InvalidArgumentException;
+import org.alfresco.rest.framework.resource.parameters.where.QueryHelper.WalkerCallbackAdapter;
+import org.apache.commons.beanutils.ConversionException;
+import org.apache.commons.beanutils.ConvertUtils;
+
+/**
+ * The properties a resource supports in its where clause, with the operators allowed for each and the
+ * conversion of their values. A where clause is compiled into a typed {@link WhereFilter} once: the filter
+ * is kept with the (cached) {@link Query}, so repeated requests neither walk the clause nor convert its
+ * values again.
+ * <p>
+ * Clauses are accepted and rejected as by the {@link org.alfresco.rest.workflow.api.impl.MapBasedQueryWalker},
+ * with the same messages: only AND is supported, and a negated condition (eg. <tt>NOT isFolder=true</tt>) is
+ * rejected with an {@link InvalidArgumentException}.
+ * Definitions are typically held by a resource for its lifetime and must not be changed once they are used.
+ * <pre>
+ * WhereFilterDefinition definition = new WhereFilterDefinition()
+ *          .add("isPrimary", WhereFilterDefinition.converter(Boolean.class), WhereClauseParser.EQUALS)
+ *          .add("size", WhereFilterDefinition.converter(Long.class), WhereClauseParser.GREATERTHAN, WhereClauseParser.LESSTHAN);
+ * WhereFilter filter = definition.compile(parameters.getQuery());
+ * Boolean isPrimary = filter.getValue("isPrimary");
+ * </pre>
+ */
+public class WhereFilterDefinition
+{
+    /**
+     * Converts the value of a property in a where clause.
+     * <p>
+     * The converted values are kept with the (cached) query and shared by all tenants and requests, so a converter
+     * must only depend on the value: resolve QNames or other data dictionary lookups from the filter's values instead.
+     */
+    public static interface ValueConverter
+    {
+        /**
+         * @param property the property name
+         * @param value the value, stripped of quotes
+         * @return the converted value, or <tt>null</tt> if the value means there is no condition (eg. an empty value)
+         * @throws InvalidArgumentException if the value is not valid for the property
+         */
+        Object convert(String property, String value);
+    }
+
+    private final Map<String, Map<Integer, ValueConverter>> properties = new HashMap<>();
+
+    /**
+     * Get a converter to a type supported by {@link ConvertUtils}, eg. Boolean, Integer or Long, converting values
+     * as the {@link org.alfresco.rest.workflow.api.impl.MapBasedQueryWalker} does.
+     * 
+     * @param type the type
+     * @return the converter
+     */
+    public static ValueConverter converter(final Class<?> type)
+    {
+        return (property, value) ->
+        {
+            Object result;
+            try
+            {
+                result = ConvertUtils.convert(value, type);
+            }
+            catch (ConversionException ce)
+            {
+                throw new InvalidArgumentException("Query property value for '" + property + "' should be a valid " + type.getSimpleName());
+            }
+            if ((result instanceof String) && (!type.equals(String.class)))
+            {
+                // If a string is returned, no converter has been found (for non-String return type)
+                throw new IllegalArgumentException("Unable to convert parameter to type: " + type.getName());
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Supports a property in the where clause.
+     * 
+     * @param property the property name
+     * @param converter converts the values of the property
+     * @param operators the operators allowed for the property, eg. {@link WhereClauseParser#EQUALS} or {@link WhereClauseParser#IN}
+     * @return this definition
+     */
+    public WhereFilterDefinition add(String property, ValueConverter converter, int... operators)
+    {
+        Map<Integer, ValueConverter> converters = properties.computeIfAbsent(property, key -> new HashMap<>(4));
+        for (int operator : operators)
+        {
+            converters.put(operator, converter);
+        }
+        return this;
+    }
+
+    /**
+     * Compile a where clause, or get the filter it was already compiled into by this definition.
+     * 
+     * @param query the where clause, may be <tt>null</tt>
+     * @return the filter
+     * @throws InvalidArgumentException if the clause uses unsupported properties or operators, or has invalid values
+     */
+    public WhereFilter compile(Query query)
+    {
+        if (query == null || query.getTree() == null)
+        {
+            return WhereFilter.EMPTY;
+        }
+        if (query instanceof QueryImpl)
+        {
+            return ((QueryImpl) query).getCompiled(this, this::doCompile);
+        }
+        return doCompile(query);
+    }
+
+    private WhereFilter doCompile(Query query)
+    {
+        final Map<String, Map<Integer, Object>> values = new HashMap<>();
+        QueryHelper.walk(query, new WalkerCallbackAdapter()
+        {
+            @Override
+            public void comparison(int type, String propertyName, String propertyValue, boolean negated)
+            {
+                ValueConverter converter = getConverter(propertyName, type, propertyValue);
+                if (negated)
+                {
+                    throw new InvalidArgumentException("Cannot use NOT for " + WhereClauseParser.tokenNames[type] + " comparison.");
+                }
+                put(propertyName, type, converter.convert(propertyName, propertyValue));
+            }
+
+            @Override
+            public void matches(String property, String value, boolean negated)
+            {
+                if (negated)
+                {
+                    throw new InvalidArgumentException("Cannot use negated matching for property: " + property);
+                }
+                Map<Integer, ValueConverter> converters = properties.get(property);
+                ValueConverter converter = (converters != null) ? converters.get(WhereClauseParser.MATCHES) : null;
+                if (converter == null)
+                {
+                    throw new InvalidArgumentException("Cannot use matching for property: " + property);
+                }
+                put(property, WhereClauseParser.MATCHES, converter.convert(property, value));
+            }
+
+            @Override
+            public void in(String property, boolean negated, String... propertyValues)
+            {
+                ValueConverter converter = getConverter(property, WhereClauseParser.IN, String.join(",", propertyValues));
+                if (negated)
+                {
+                    throw new InvalidArgumentException("Cannot use NOT for " + WhereClauseParser.tokenNames[WhereClauseParser.IN] + " comparison.");
+                }
+                List<Object> converted = new ArrayList<>(propertyValues.length);
+                for (String value : propertyValues)
+                {
+                    converted.add(converter.convert(property, value));
+                }
+                put(property, WhereClauseParser.IN, Collections.unmodifiableList(converted));
+            }
+
+            @Override
+            public void and()
+            {
+                // AND is supported, OR is not
+            }
+
+            private ValueConverter getConverter(String propertyName, int type, String propertyValue)
+            {
+                Map<Integer, ValueConverter> converters = properties.get(propertyName);
+                ValueConverter converter = (converters != null) ? converters.get(type) : null;
+                if (converter == null)
+                {
+                    throw new InvalidArgumentException("framework.exception.InvalidProperty", new Object[] {propertyName, propertyValue, WhereClauseParser.tokenNames[type]});
+                }
+                return converter;
+            }
+
+            private void put(String property, int type, Object value)
+            {
+                values.computeIfAbsent(property, key -> new HashMap<>(2)).put(type, value);
+            }
+        });
+
+        for (Map.Entry<String, Map<Integer, Object>> entry : values.entrySet())
+        {
+            entry.setValue(Collections.unmodifiableMap(entry.getValue()));
+        }
+        return new WhereFilter(Collections.unmodifiableMap(values));
+    }
+}
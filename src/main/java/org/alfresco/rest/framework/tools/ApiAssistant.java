@@ -51,6 +51,7 @@ public class ApiAssistant {
     private ExceptionResolver<Exception> resolver;
     private JacksonHelper jsonHelper;
     private RestMetricsReporter restMetricsReporter;
+    private RestLatencyMetrics restLatencyMetrics;
 
     /**
      * Determines the api being used from the templateVars
@@ -120,4 +121,17 @@ public class ApiAssistant {
     {
         this.restMetricsReporter = restMetricsReporterImpl;
     }
+
+    /**
+     * @return the latency histograms of the REST API operations, or null if not configured
+     */
+    public RestLatencyMetrics getRestLatencyMetrics()
+    {
+        return restLatencyMetrics;
+    }
+
+    public void setRestLatencyMetrics(RestLatencyMetrics restLatencyMetrics)
+    {
+        this.restLatencyMetrics = restLatencyMetrics;
+    }
 }
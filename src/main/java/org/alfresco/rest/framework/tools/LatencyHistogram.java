@@ -0,0 +1,161 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.framework.tools;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock free latency histogram with log-linear buckets, in the style of an HDR histogram.
+ * <p>
+ * Values (in nanoseconds) are counted in buckets that are exact below 32 and have a relative width of at most
+ * 1/32 (about 3%) above, so percentiles are reported with that precision. Recording a value does not allocate.
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // values above 2^43 ns (about 2.4 hours) are counted in the last bucket
+    private static final int MAX_EXPONENT = 42;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a latency.
+     * 
+     * @param nanos the latency in nanoseconds, negative values are ignored
+     */
+    public void record(long nanos)
+    {
+        if (nanos < 0)
+        {
+            return;
+        }
+        counts.incrementAndGet(bucketIndex(Math.min(nanos, MAX_VALUE)));
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+        long currentMax;
+        while (nanos > (currentMax = max.get()) && !max.compareAndSet(currentMax, nanos))
+        {
+            // retry
+        }
+    }
+
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    /**
+     * @return the mean latency in nanoseconds, 0 if nothing has been recorded
+     */
+    public long getMean()
+    {
+        long n = count.get();
+        return (n == 0) ? 0 : total.get() / n;
+    }
+
+    /**
+     * @return the maximum latency in nanoseconds
+     */
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /**
+     * Get a percentile of the recorded latencies.
+     * 
+     * @param percentile the percentile, between 0 and 100
+     * @return the highest latency in nanoseconds counted in the bucket holding the percentile, 0 if nothing has been
+     *         recorded
+     */
+    public long getPercentile(double percentile)
+    {
+        long n = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            n += counts.get(i);
+        }
+        if (n == 0)
+        {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(n * Math.min(percentile, 100.0) / 100.0));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            cumulative += counts.get(i);
+            if (cumulative >= target)
+            {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Discard all recorded latencies.
+     */
+    public void reset()
+    {
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    static int bucketIndex(long value)
+    {
+        if (value < SUB_BUCKET_COUNT)
+        {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + (exponent - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long highestValue(int index)
+    {
+        if (index < SUB_BUCKET_COUNT)
+        {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT + SUB_BUCKET_BITS;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        long lowest = ((long) (SUB_BUCKET_COUNT + subBucket)) << (exponent - SUB_BUCKET_BITS);
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -35,6 +35,7 @@ import org.alfresco.rest.framework.resource.parameters.SortColumn;
 import org.alfresco.rest.framework.resource.parameters.where.InvalidQueryException;
 import org.alfresco.rest.framework.resource.parameters.where.Query;
 import org.alfresco.rest.framework.resource.parameters.where.QueryImpl;
+import org.alfresco.rest.framework.resource.parameters.where.WhereClauseCache;
 import org.alfresco.rest.framework.resource.parameters.where.WhereCompiler;
 import org.antlr.runtime.RecognitionException;
 import org.antlr.runtime.tree.CommonErrorNode;
@@ -195,8 +196,18 @@ public interface RecognizedParamsExtractor
         return getClause(includeParam, "INCLUDE");
     }
 
+    /**
+     * @return the cache of compiled clauses, or <tt>null</tt> to parse the clauses of every request
+     */
+    default WhereClauseCache getWhereClauseCache()
+    {
+        return null;
+    }
+
     /**
      * Gets the clause specificed in paramName
+     * <p>
+     * Clauses that compile are kept in the {@link #getWhereClauseCache() WhereClauseCache}, if any.
      *
      * @param param
      * @param paramName
@@ -207,6 +218,13 @@ public interface RecognizedParamsExtractor
         if (param == null)
             return Collections.emptyList();
 
+        WhereClauseCache cache = getWhereClauseCache();
+        List<String> cached = (cache != null) ? cache.getSelectClause(param) : null;
+        if (cached != null)
+        {
+            return cached;
+        }
+
         try
         {
             CommonTree selectedPropsTree = WhereCompiler.compileSelectClause(param);
@@ -217,7 +235,12 @@ public interface RecognizedParamsExtractor
             }
             if (selectedPropsTree.getChildCount() == 0 && !selectedPropsTree.getText().isEmpty())
             {
-                return Arrays.asList(selectedPropsTree.getText());
+                List<String> properties = Arrays.asList(selectedPropsTree.getText());
+                if (cache != null)
+                {
+                    cache.putSelectClause(param, properties);
+                }
+                return properties;
             }
             List<Tree> children = (List<Tree>) selectedPropsTree.getChildren();
             if (children != null && !children.isEmpty())
@@ -227,6 +250,10 @@ public interface RecognizedParamsExtractor
                 {
                     properties.add(child.getText());
                 }
+                if (cache != null)
+                {
+                    cache.putSelectClause(param, properties);
+                }
                 return properties;
             }
         }
@@ -249,6 +276,9 @@ public interface RecognizedParamsExtractor
 
     /**
      * Takes the "where" parameter and turns it into a Java Object that can be used for querying
+     * <p>
+     * Clauses that compile are kept in the {@link #getWhereClauseCache() WhereClauseCache}, if any, so the returned
+     * query may be shared.
      *
      * @param whereParam String
      * @return Query a parsed version of the where clause, represented in Java
@@ -258,6 +288,13 @@ public interface RecognizedParamsExtractor
         if (whereParam == null)
             return QueryImpl.EMPTY;
 
+        WhereClauseCache cache = getWhereClauseCache();
+        Query cached = (cache != null) ? cache.getWhereClause(whereParam) : null;
+        if (cached != null)
+        {
+            return cached;
+        }
+
         try
         {
             CommonTree whereTree = WhereCompiler.compileWhereClause(whereParam);
@@ -266,7 +303,12 @@ public interface RecognizedParamsExtractor
                 rpeLogger().debug("Error parsing the WHERE clause " + whereTree);
                 throw new InvalidQueryException(whereTree);
             }
-            return new QueryImpl(whereTree);
+            Query query = new QueryImpl(whereTree);
+            if (cache != null)
+            {
+                cache.putWhereClause(whereParam, query);
+            }
+            return query;
         }
         catch (RewriteCardinalityException re)
         {  //Catch any error so it doesn't get thrown up the stack
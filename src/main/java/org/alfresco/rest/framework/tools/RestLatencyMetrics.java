@@ -0,0 +1,142 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.framework.tools;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Latency histograms of the REST API operations, split into transaction, action, additions (embedded entities and
+ * relations) and JSON serialization time.
+ * 
+ * @see RestOperationLatency
+ */
+public class RestLatencyMetrics implements RestLatencyMetricsMBean
+{
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+    private final ConcurrentMap<String, RestOperationLatency> operations = new ConcurrentHashMap<>();
+
+    private boolean enabled = false;
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Get the latency histograms of an operation, creating them if required.
+     * 
+     * @param name the operation name, eg. <tt>GET /public/alfresco/versions/1/nodes/{entityId}/children</tt>
+     * @return the latency histograms, or <tt>null</tt> if the metrics are disabled
+     */
+    public RestOperationLatency getOperation(String name)
+    {
+        if (!enabled)
+        {
+            return null;
+        }
+        return operations.computeIfAbsent(name, RestOperationLatency::new);
+    }
+
+    /**
+     * @return the latency histograms of all operations recorded so far
+     */
+    public Collection<RestOperationLatency> getOperationLatencies()
+    {
+        return operations.values();
+    }
+
+    @Override
+    public String[] getOperations()
+    {
+        Set<String> names = new TreeSet<>(operations.keySet());
+        return names.toArray(new String[names.size()]);
+    }
+
+    @Override
+    public String[] getSummary(String operation)
+    {
+        RestOperationLatency latency = operations.get(operation);
+        if (latency == null)
+        {
+            return null;
+        }
+        List<String> summary = new ArrayList<>(4);
+        summary.add(summarize("transaction", latency.getTransaction()));
+        summary.add(summarize("action", latency.getAction()));
+        summary.add(summarize("additions", latency.getAdditions()));
+        summary.add(summarize("serialization", latency.getSerialization()));
+        return summary.toArray(new String[summary.size()]);
+    }
+
+    @Override
+    public void reset()
+    {
+        for (RestOperationLatency latency : operations.values())
+        {
+            latency.reset();
+        }
+    }
+
+    /**
+     * @return the percentiles reported for each phase
+     */
+    public static double[] getPercentiles()
+    {
+        return PERCENTILES.clone();
+    }
+
+    private static String summarize(String phase, LatencyHistogram histogram)
+    {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append(phase).append(": count=").append(histogram.getCount())
+          .append(" mean=").append(toMillis(histogram.getMean()));
+        for (double percentile : PERCENTILES)
+        {
+            sb.append(" p").append(percentile % 1 == 0 ? String.valueOf((long) percentile) : String.valueOf(percentile))
+              .append('=').append(toMillis(histogram.getPercentile(percentile)));
+        }
+        sb.append(" max=").append(toMillis(histogram.getMax()));
+        return sb.toString();
+    }
+
+    private static String toMillis(long nanos)
+    {
+        return String.format(Locale.ENGLISH, "%.3fms", nanos / 1000000.0);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.framework.tools;
+
+/**
+ * Management interface of the {@link RestLatencyMetrics}.
+ */
+public interface RestLatencyMetricsMBean
+{
+    /**
+     * @return the names of the operations that have been recorded
+     */
+    String[] getOperations();
+
+    /**
+     * Get the count, mean, percentiles and maximum (in milliseconds) of each phase of an operation.
+     * 
+     * @param operation the operation name
+     * @return a one line summary per phase, or <tt>null</tt> if the operation has not been recorded
+     */
+    String[] getSummary(String operation);
+
+    /**
+     * Discard the latencies recorded so far.
+     */
+    void reset();
+}
@@ -0,0 +1,90 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.framework.tools;
+
+/**
+ * The latency histograms of a REST API operation (an HTTP method on an entity, relationship or property resource).
+ * 
+ * @see RestLatencyMetrics
+ */
+public class RestOperationLatency
+{
+    private final String name;
+    private final LatencyHistogram transaction = new LatencyHistogram();
+    private final LatencyHistogram action = new LatencyHistogram();
+    private final LatencyHistogram additions = new LatencyHistogram();
+    private final LatencyHistogram serialization = new LatencyHistogram();
+
+    public RestOperationLatency(String name)
+    {
+        this.name = name;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return the time spent in the (retrying) transaction, including the action and the additions
+     */
+    public LatencyHistogram getTransaction()
+    {
+        return transaction;
+    }
+
+    /**
+     * @return the time spent executing the resource action, ie. reading the repository and mapping the entities
+     */
+    public LatencyHistogram getAction()
+    {
+        return action;
+    }
+
+    /**
+     * @return the time spent adding embedded entities and relations to the response
+     */
+    public LatencyHistogram getAdditions()
+    {
+        return additions;
+    }
+
+    /**
+     * @return the time spent serializing the response to JSON
+     */
+    public LatencyHistogram getSerialization()
+    {
+        return serialization;
+    }
+
+    public void reset()
+    {
+        transaction.reset();
+        action.reset();
+        additions.reset();
+        serialization.reset();
+    }
+}
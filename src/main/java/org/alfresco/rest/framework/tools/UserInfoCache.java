@@ -0,0 +1,240 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.framework.tools;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.alfresco.repo.cache.SimpleCache;
+import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.alfresco.repo.security.permissions.AccessDeniedException;
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport;
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport.TxnReadState;
+import org.alfresco.repo.transaction.TransactionalResourceHelper;
+import org.alfresco.rest.api.model.UserInfo;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.cmr.security.AccessStatus;
+import org.alfresco.service.cmr.security.NoSuchPersonException;
+import org.alfresco.service.cmr.security.PermissionService;
+import org.alfresco.service.cmr.security.PersonService;
+import org.alfresco.util.PropertyCheck;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Resolves the {@link UserInfo} (id and display name) of users for the REST API entity mappers.
+ * <p>
+ * Resolved users are kept for the rest of the request (the transaction), so every mapper rendering
+ * the same user during a request shares a single lookup. Optionally, users found in the repository
+ * are also kept across requests in the configured shared cache. A user kept across requests is only
+ * returned to a reader who may read the person node, otherwise it is resolved again for that reader.
+ */
+public class UserInfoCache
+{
+    private static final Log logger = LogFactory.getLog(UserInfoCache.class);
+
+    private static final String KEY_REQUEST_CACHE = UserInfoCache.class.getName() + ".request";
+
+    private PersonService personService;
+    private PermissionService permissionService;
+    private SimpleCache<String, SharedUserInfo> sharedCache;
+    private boolean shareAcrossRequests = false;
+
+    public void setPersonService(PersonService personService)
+    {
+        this.personService = personService;
+    }
+
+    public void setPermissionService(PermissionService permissionService)
+    {
+        this.permissionService = permissionService;
+    }
+
+    /**
+     * @param sharedCache the cache of users kept across requests
+     */
+    public void setSharedCache(SimpleCache<String, SharedUserInfo> sharedCache)
+    {
+        this.sharedCache = sharedCache;
+    }
+
+    /**
+     * @param shareAcrossRequests <tt>true</tt> to keep users across requests, <tt>false</tt> to only keep them for the request
+     */
+    public void setShareAcrossRequests(boolean shareAcrossRequests)
+    {
+        this.shareAcrossRequests = shareAcrossRequests;
+    }
+
+    public void init()
+    {
+        PropertyCheck.mandatory(this, "personService", personService);
+        if (shareAcrossRequests)
+        {
+            PropertyCheck.mandatory(this, "permissionService", permissionService);
+            PropertyCheck.mandatory(this, "sharedCache", sharedCache);
+        }
+    }
+
+    /**
+     * Get the user info of a user.
+     * 
+     * @param userName the user name, may be <tt>null</tt>
+     * @return the user info, or <tt>null</tt> if the user name is <tt>null</tt>
+     */
+    public UserInfo getUserInfo(String userName)
+    {
+        if (userName == null)
+        {
+            return null;
+        }
+
+        Map<String, UserInfo> requestCache = getRequestCache();
+        UserInfo userInfo = requestCache.get(userName);
+        if (userInfo == null)
+        {
+            userInfo = getSharedUserInfo(userName);
+            if (userInfo == null)
+            {
+                SharedUserInfo resolved = resolveShared(userName, personService);
+                if (shareAcrossRequests && (resolved.personRef != null))
+                {
+                    sharedCache.put(userName, resolved);
+                }
+                userInfo = resolved.userInfo;
+            }
+            requestCache.put(userName, userInfo);
+        }
+        return userInfo;
+    }
+
+    /**
+     * Resolve the user info of all the given users in one pass, eg. for the distinct creators and modifiers of a page
+     * of nodes, and add them to the given call-site map so that mapping the page is served from that map.
+     * 
+     * @param userNames the user names, may contain duplicates and <tt>null</tt>s
+     * @param mapUserInfo the call-site map to add the user info to
+     */
+    public void prefetch(Collection<String> userNames, Map<String, UserInfo> mapUserInfo)
+    {
+        for (String userName : userNames)
+        {
+            if ((userName != null) && !mapUserInfo.containsKey(userName))
+            {
+                mapUserInfo.put(userName, getUserInfo(userName));
+            }
+        }
+    }
+
+    private UserInfo getSharedUserInfo(String userName)
+    {
+        if (!shareAcrossRequests)
+        {
+            return null;
+        }
+        SharedUserInfo shared = sharedCache.get(userName);
+        if ((shared == null) || (permissionService.hasReadPermission(shared.personRef) != AccessStatus.ALLOWED))
+        {
+            return null;
+        }
+        return shared.userInfo;
+    }
+
+    private static Map<String, UserInfo> getRequestCache()
+    {
+        if (AlfrescoTransactionSupport.getTransactionReadState() == TxnReadState.TXN_NONE)
+        {
+            return new HashMap<>(2);
+        }
+        return TransactionalResourceHelper.getMap(KEY_REQUEST_CACHE);
+    }
+
+    /**
+     * Resolve the user info of a user, without using any cache.
+     * 
+     * @param userName the user name
+     * @param personService PersonService
+     * @return the user info, with the user name as the display name if the person is unknown or not accessible
+     */
+    public static UserInfo resolve(String userName, PersonService personService)
+    {
+        return resolveShared(userName, personService).userInfo;
+    }
+
+    private static SharedUserInfo resolveShared(String userName, PersonService personService)
+    {
+        String sysUserName = AuthenticationUtil.getSystemUserName();
+        if (userName.equals(sysUserName) || (AuthenticationUtil.isMtEnabled() && userName.startsWith(sysUserName + "@")))
+        {
+            return new SharedUserInfo(null, new UserInfo(userName, userName, ""));
+        }
+
+        NodeRef pNodeRef = null;
+        PersonService.PersonInfo pInfo = null;
+        try
+        {
+            pNodeRef = personService.getPersonOrNull(userName);
+            if (pNodeRef != null)
+            {
+                pInfo = personService.getPerson(pNodeRef);
+            }
+        }
+        catch (NoSuchPersonException nspe)
+        {
+            // drop-through
+        }
+        catch (AccessDeniedException ade)
+        {
+            // SFS-610
+            // drop-through
+        }
+
+        if (pInfo == null)
+        {
+            // not shared, the person may be visible to other users
+            logger.warn("Unknown person: "+userName);
+            return new SharedUserInfo(null, new UserInfo(userName, userName, ""));
+        }
+
+        return new SharedUserInfo(pNodeRef, new UserInfo(userName, pInfo.getFirstName(), pInfo.getLastName()));
+    }
+
+    /**
+     * A user kept across requests, with the person node the reader must be able to read.
+     */
+    public static class SharedUserInfo
+    {
+        private final NodeRef personRef;
+        private final UserInfo userInfo;
+
+        private SharedUserInfo(NodeRef personRef, UserInfo userInfo)
+        {
+            this.personRef = personRef;
+            this.userInfo = userInfo;
+        }
+    }
+}
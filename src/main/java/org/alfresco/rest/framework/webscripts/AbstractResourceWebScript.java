@@ -28,6 +28,8 @@ package org.alfresco.rest.framework.webscripts;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.alfresco.error.AlfrescoRuntimeException;
 import org.alfresco.metrics.rest.RestMetricsReporter;
@@ -39,6 +41,7 @@ import org.alfresco.rest.framework.Api;
 import org.alfresco.rest.framework.core.HttpMethodSupport;
 import org.alfresco.rest.framework.core.ResourceInspector;
 import org.alfresco.rest.framework.core.ResourceLocator;
+import org.alfresco.rest.framework.core.ResourceMetadata;
 import org.alfresco.rest.framework.core.ResourceOperation;
 import org.alfresco.rest.framework.core.ResourceWithMetadata;
 import org.alfresco.rest.framework.core.exceptions.ApiException;
@@ -46,12 +49,16 @@ import org.alfresco.rest.framework.resource.actions.ActionExecutor;
 import org.alfresco.rest.framework.resource.actions.interfaces.BinaryResourceAction;
 import org.alfresco.rest.framework.resource.actions.interfaces.RelationshipResourceBinaryAction;
 import org.alfresco.rest.framework.resource.content.BinaryResource;
+import org.alfresco.rest.framework.resource.content.ByteArrayBinaryResource;
 import org.alfresco.rest.framework.resource.content.CacheDirective;
 import org.alfresco.rest.framework.resource.content.ContentInfo;
 import org.alfresco.rest.framework.resource.content.FileBinaryResource;
 import org.alfresco.rest.framework.resource.content.NodeBinaryResource;
 import org.alfresco.rest.framework.resource.parameters.Params;
+import org.alfresco.rest.framework.resource.parameters.where.WhereClauseCache;
 import org.alfresco.rest.framework.tools.ResponseWriter;
+import org.alfresco.rest.framework.tools.RestLatencyMetrics;
+import org.alfresco.rest.framework.tools.RestOperationLatency;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -83,6 +90,8 @@ public abstract class AbstractResourceWebScript extends ApiWebScript implements
     private ParamsExtractor paramsExtractor;
     private ContentStreamer streamer;
     protected ResourceWebScriptHelper helper;
+    private WhereClauseCache whereClauseCache;
+    private final ConcurrentMap<ResourceMetadata, RestOperationLatency> latencies = new ConcurrentHashMap<>();
 
     @SuppressWarnings("rawtypes")
     @Override
@@ -99,6 +108,9 @@ public abstract class AbstractResourceWebScript extends ApiWebScript implements
             // MNT-20308 - allow write transactions for authentication api
             RetryingTransactionHelper transHelper = getTransactionHelper(resource.getMetaData().getApi().getName());
 
+            // consume the request content before the retrying transaction, if possible, so that it does not need to be buffered
+            final WebScriptRequest scriptReq = prepareRequest(resource, req);
+
             // encapsulate script within transaction
             RetryingTransactionHelper.RetryingTransactionCallback<Object> work = new RetryingTransactionHelper.RetryingTransactionCallback<Object>()
             {
@@ -107,15 +119,15 @@ public abstract class AbstractResourceWebScript extends ApiWebScript implements
                 {
                     try
                     {
-                        final Params params = paramsExtractor.extractParams(resource.getMetaData(), req);
+                        final Params params = paramsExtractor.extractParams(resource.getMetaData(), scriptReq);
                         return AbstractResourceWebScript.this.execute(resource, params, res, isReadOnly);
                     }
                     catch (Exception e)
                     {
-                        if (req instanceof BufferedRequest)
+                        if (scriptReq instanceof BufferedRequest)
                         {
                             // Reset the request in case of a transaction retry
-                            ((BufferedRequest) req).reset();
+                            ((BufferedRequest) scriptReq).reset();
                         }
 
                         // re-throw original exception for retry
@@ -124,8 +136,25 @@ public abstract class AbstractResourceWebScript extends ApiWebScript implements
                 }
             };
 
+            final RestOperationLatency latency = getOperationLatency(resource);
+            long txnStart = System.nanoTime();
+
             //This execution usually takes place in a Retrying Transaction (see subclasses)
-            final Object toSerialize = transHelper.doInTransaction(work, isReadOnly, true);
+            final Object toSerialize;
+            try
+            {
+                toSerialize = transHelper.doInTransaction(work, isReadOnly, true);
+            }
+            catch (RuntimeException e)
+            {
+                requestFailed(scriptReq);
+                throw e;
+            }
+
+            if (latency != null)
+            {
+                latency.getTransaction().record(System.nanoTime() - txnStart);
+            }
 
             //Outside the transaction.
             if (toSerialize != null)
@@ -168,7 +197,12 @@ public abstract class AbstractResourceWebScript extends ApiWebScript implements
                 }
                 else
                 {
+                    long serializeStart = System.nanoTime();
                     renderJsonResponse(res, toSerialize, assistant.getJsonHelper());
+                    if (latency != null)
+                    {
+                        latency.getSerialization().record(System.nanoTime() - serializeStart);
+                    }
                 }
             }
 
@@ -187,11 +221,33 @@ public abstract class AbstractResourceWebScript extends ApiWebScript implements
         }
     }
 
+    /**
+     * Prepares the request before the (retrying) transaction is started.
+     * 
+     * @param resource the resource the request is for
+     * @param req the request
+     * @return the request to execute, by default the given request
+     */
+    protected WebScriptRequest prepareRequest(final ResourceWithMetadata resource, final WebScriptRequest req) throws IOException
+    {
+        return req;
+    }
+
+    /**
+     * Called when the transaction executing a request failed, to release what {@link #prepareRequest} set up.
+     * 
+     * @param req the request returned by {@link #prepareRequest}
+     */
+    protected void requestFailed(final WebScriptRequest req)
+    {
+    }
+
     public Object execute(final ResourceWithMetadata resource, final Params params, final WebScriptResponse res, boolean isReadOnly)
     {
         final String entityCollectionName = ResourceInspector.findEntityCollectionNameName(resource.getMetaData());
         final ResourceOperation operation = resource.getMetaData().getOperation(getHttpMethod());
         final WithResponse callBack = new WithResponse(operation.getSuccessStatus(), DEFAULT_JSON_CONTENT,CACHE_NEVER);
+        final RestOperationLatency latency = getOperationLatency(resource);
 
         // MNT-20308 - allow write transactions for authentication api
         RetryingTransactionHelper transHelper = getTransactionHelper(resource.getMetaData().getApi().getName());
@@ -202,13 +258,23 @@ public abstract class AbstractResourceWebScript extends ApiWebScript implements
                     @Override
                     public Object execute() throws Throwable
                     {
-
+                        long actionStart = System.nanoTime();
                         Object result = executeAction(resource, params, callBack);
+                        long actionEnd = System.nanoTime();
+                        if (latency != null)
+                        {
+                            latency.getAction().record(actionEnd - actionStart);
+                        }
                         if (result instanceof BinaryResource)
                         {
                             return result; //don't postprocess it.
                         }
-        return helper.processAdditionsToTheResponse(res, resource.getMetaData().getApi(), entityCollectionName, params, result);
+                        Object response = helper.processAdditionsToTheResponse(res, resource.getMetaData().getApi(), entityCollectionName, params, result);
+                        if (latency != null)
+                        {
+                            latency.getAdditions().record(System.nanoTime() - actionEnd);
+                        }
+                        return response;
                     }
                 }, isReadOnly, false);
         setResponse(res,callBack);
@@ -245,6 +311,16 @@ public abstract class AbstractResourceWebScript extends ApiWebScript implements
             Map<String, Object> model = getModelForCacheDirective(nodeResource.getCacheDirective());
             streamer.streamContent(req, res, nodeResource.getNodeRef(), nodeResource.getPropertyQName(), attach, nodeResource.getAttachFileName(), model);
         }
+        else if (resource instanceof ByteArrayBinaryResource)
+        {
+            ByteArrayBinaryResource byteArrayResource = (ByteArrayBinaryResource) resource;
+            // if requested, set attachment
+            boolean attach = StringUtils.isNotEmpty(byteArrayResource.getAttachFileName());
+            CacheDirective cacheDirective = byteArrayResource.getCacheDirective();
+            Map<String, Object> model = getModelForCacheDirective(cacheDirective);
+            streamer.streamContent(req, res, byteArrayResource.getContent(), byteArrayResource.getMimetype(), 
+                        cacheDirective == null ? null : cacheDirective.getETag(), attach, byteArrayResource.getAttachFileName(), model);
+        }
 
     }
 
@@ -268,6 +344,31 @@ public abstract class AbstractResourceWebScript extends ApiWebScript implements
         }
     }
 
+    /**
+     * Gets the latency histograms of the operation on the resource, if latency metrics are enabled.
+     * 
+     * @param resource the resource
+     * @return the latency histograms, or null
+     */
+    private RestOperationLatency getOperationLatency(final ResourceWithMetadata resource)
+    {
+        final RestLatencyMetrics metrics = (assistant != null) ? assistant.getRestLatencyMetrics() : null;
+        if (metrics == null || !metrics.isEnabled())
+        {
+            return null;
+        }
+        final ResourceMetadata metadata = resource.getMetaData();
+        RestOperationLatency latency = latencies.get(metadata);
+        if (latency == null)
+        {
+            Api api = metadata.getApi();
+            String name = httpMethod + " /" + api.getScope().toString().toLowerCase() + "/" + api.getName() + "/versions/" + api.getVersion() + metadata.getUniqueId();
+            latency = metrics.getOperation(name);
+            latencies.putIfAbsent(metadata, latency);
+        }
+        return latency;
+    }
+
     private static Map<String, Object> getModelForCacheDirective(CacheDirective cacheDirective)
     {
         if (cacheDirective != null)
@@ -306,4 +407,18 @@ public abstract class AbstractResourceWebScript extends ApiWebScript implements
     {
         this.streamer = streamer;
     }
+
+    public void setWhereClauseCache(WhereClauseCache whereClauseCache)
+    {
+        this.whereClauseCache = whereClauseCache;
+    }
+
+    /**
+     * @return the cache of compiled where, select and include clauses, used by the subclasses extracting the
+     *         recognized parameters of a request
+     */
+    public WhereClauseCache getWhereClauseCache()
+    {
+        return this.whereClauseCache;
+    }
 }
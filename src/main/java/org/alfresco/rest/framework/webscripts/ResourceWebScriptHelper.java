@@ -31,13 +31,29 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.alfresco.repo.tenant.TenantUtil;
+import org.alfresco.repo.tenant.TenantUtil.TenantRunAsWork;
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport;
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport.TxnReadState;
+import org.alfresco.repo.transaction.RetryingTransactionHelper;
+import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
 import org.alfresco.rest.framework.Api;
-import org.alfresco.rest.framework.core.ResourceInspector;
-import org.alfresco.rest.framework.core.ResourceInspectorUtil;
+import org.alfresco.rest.framework.core.ResourceEntityAccessors;
+import org.alfresco.rest.framework.core.ResourceEntityAccessors.EmbeddedAccessor;
 import org.alfresco.rest.framework.core.ResourceLocator;
 import org.alfresco.rest.framework.core.ResourceWithMetadata;
 import org.alfresco.rest.framework.core.exceptions.NotFoundException;
@@ -45,14 +61,16 @@ import org.alfresco.rest.framework.core.exceptions.PermissionDeniedException;
 import org.alfresco.rest.framework.jacksonextensions.BeanPropertiesFilter;
 import org.alfresco.rest.framework.jacksonextensions.ExecutionResult;
 import org.alfresco.rest.framework.resource.actions.ActionExecutor;
+import org.alfresco.rest.framework.resource.actions.interfaces.EntityResourceAction;
+import org.alfresco.rest.framework.resource.actions.interfaces.RelationshipResourceAction;
 import org.alfresco.rest.framework.resource.parameters.CollectionWithPagingInfo;
 import org.alfresco.rest.framework.resource.parameters.Params;
 import org.alfresco.rest.framework.tools.ResponseWriter;
-import org.alfresco.util.Pair;
 import org.alfresco.util.PropertyCheck;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.BeanUtils;
+import org.springframework.extensions.surf.util.I18NUtil;
 import org.springframework.extensions.webscripts.Status;
 import org.springframework.extensions.webscripts.WebScriptResponse;
 import org.springframework.http.HttpMethod;
@@ -70,6 +88,13 @@ public class ResourceWebScriptHelper
 
     private ActionExecutor executor;
 
+    private ExecutorService relationsExecutor;
+    private RetryingTransactionHelper transactionHelper;
+    private int parallelThreshold = 10;
+
+    /** Set while a worker executes a resource, so that it does not wait for other workers */
+    private static final ThreadLocal<Boolean> IN_WORKER = new ThreadLocal<Boolean>();
+
     /**
      * Set the id of theObj to the uniqueId. Attempts to find a set method and
      * invoke it. If it fails it just swallows the exceptions and doesn't throw
@@ -80,7 +105,7 @@ public class ResourceWebScriptHelper
      */
     public static void setUniqueId(Object theObj, String uniqueId)
     {
-        Method annotatedMethod = ResourceInspector.findUniqueIdMethod(theObj.getClass());
+        Method annotatedMethod = ResourceEntityAccessors.forClass(theObj.getClass()).getUniqueIdMethod();
         if (annotatedMethod != null)
         {
             PropertyDescriptor pDesc = BeanUtils.findPropertyForMethod(annotatedMethod);
@@ -123,6 +148,10 @@ public class ResourceWebScriptHelper
      * Looks at the object passed in and recursively expands any @EmbeddedEntityResource annotations or related relationship.
      * {@link org.alfresco.rest.framework.resource.EmbeddedEntityResource EmbeddedEntityResource} is expanded by calling the ReadById method for this entity.
      * 
+     * For a collection the embedded and related resources are executed once for the whole page: either with a single call
+     * to a resource implementing {@link EntityResourceAction.ReadByIds} or {@link RelationshipResourceAction.ReadAllByIds},
+     * or one call per distinct id, on the worker pool when there are enough of them and the request is read-only.
+     * 
      * Either returns a ExecutionResult object or a CollectionWithPagingInfo containing a collection of ExecutionResult objects.
      * 
      * @param api Api
@@ -142,42 +171,130 @@ public class ResourceWebScriptHelper
             Collection<Object> resultCollection = new ArrayList(collectionToWrap.getCollection().size());
             if (!collectionToWrap.getCollection().isEmpty())
             {
-                for (Object obj : collectionToWrap.getCollection())
-                {
-                    resultCollection.add(processAdditionsToTheResponse(res, api,entityCollectionName,params,obj));
-                }
+                resultCollection.addAll(processEntities(api, entityCollectionName, params, new ArrayList<Object>(collectionToWrap.getCollection())));
             }
             return CollectionWithPagingInfo.asPaged(collectionToWrap.getPaging(), resultCollection, collectionToWrap.hasMoreItems(),
                                                     collectionToWrap.getTotalItems(), sourceEntity, collectionToWrap.getContext());
         }
         else
-        {           
-            if (BeanUtils.isSimpleProperty(objectToWrap.getClass())  || objectToWrap instanceof Collection)
+        {
+            return processEntities(api, entityCollectionName, params, Collections.singletonList(objectToWrap)).get(0);
+        }
+    }
+
+    /**
+     * Wraps each entity in an ExecutionResult and adds its embedded and related resources.
+     *
+     * @param api Api
+     * @param entityCollectionName String
+     * @param params Params
+     * @param entities List<Object>
+     * @return List - the wrapped entities in the same order, simple properties and collections are returned as they are
+     */
+    private List<Object> processEntities(Api api, String entityCollectionName, Params params, List<Object> entities)
+    {
+        final List<Object> results = new ArrayList<Object>(entities.size());
+        final Map<String, PendingResource> pendingResources = new LinkedHashMap<String, PendingResource>();
+        Map<String, ResourceWithMetadata> relationshipResources = null;
+
+        for (Object objectToWrap : entities)
+        {
+            if (objectToWrap == null)
+            {
+                results.add(null);
+                continue;
+            }
+
+            final ResourceEntityAccessors accessors = ResourceEntityAccessors.forClass(objectToWrap.getClass());
+            if (accessors.isSimpleProperty()  || objectToWrap instanceof Collection)
             {
                 //Simple property or Collection that can't be embedded so just return it.
-                return objectToWrap;
+                results.add(objectToWrap);
+                continue;
             }
 
             final ExecutionResult execRes = new ExecutionResult(objectToWrap, params.getFilter());
-            
-            Map<String,Pair<String,Method>> embeddded = ResourceInspector.findEmbeddedResources(objectToWrap.getClass());
-            if (embeddded != null && !embeddded.isEmpty())
+            results.add(execRes);
+
+            for (Entry<String, EmbeddedAccessor> embeddedEntry : accessors.getEmbeddedResources().entrySet())
             {
-                Map<String, Object> results = executeEmbeddedResources(api, params,objectToWrap, embeddded);
-                execRes.addEmbedded(results);
+                String entityPath = embeddedEntry.getValue().getEntityPath();
+                String pendingKey = "embedded:" + embeddedEntry.getKey() + ":" + entityPath;
+                PendingResource pending = pendingResources.get(pendingKey);
+                if (pending == null)
+                {
+                    ResourceWithMetadata res = locator.locateEntityResource(api, entityPath, HttpMethod.GET);
+                    if (res == null)
+                    {
+                        continue;
+                    }
+                    pending = new PendingResource(embeddedEntry.getKey(), res, true);
+                    pendingResources.put(pendingKey, pending);
+                }
+
+                Object id = embeddedEntry.getValue().getId(objectToWrap);
+                if (id != null)
+                {
+                    pending.addTarget(String.valueOf(id), execRes);
+                }
+                else
+                {
+                    //Call to embedded id for null value, 
+                    logger.warn("Cannot embed resource with path "+embeddedEntry.getKey()+". No unique id because the method annotated with @EmbeddedEntityResource returned null.");
+                }
             }
-            
+
             if (params.getRelationsFilter() != null && !params.getRelationsFilter().isEmpty())
             {
-                Map<String, ResourceWithMetadata> relationshipResources = locator.locateRelationResource(api,entityCollectionName, params.getRelationsFilter().keySet(), HttpMethod.GET);
-                String uniqueEntityId = ResourceInspector.findUniqueId(objectToWrap);
-                Map<String,Object> relatedResources = executeRelatedResources(api, params, relationshipResources, uniqueEntityId);
-                execRes.addRelated(relatedResources);
+                if (relationshipResources == null)
+                {
+                    relationshipResources = locator.locateRelationResource(api,entityCollectionName, params.getRelationsFilter().keySet(), HttpMethod.GET);
+                }
+                String uniqueEntityId = accessors.getUniqueId(objectToWrap);
+                for (Entry<String, ResourceWithMetadata> relation : relationshipResources.entrySet())
+                {
+                    String pendingKey = "related:" + relation.getKey();
+                    PendingResource pending = pendingResources.get(pendingKey);
+                    if (pending == null)
+                    {
+                        pending = new PendingResource(relation.getKey(), relation.getValue(), false);
+                        pendingResources.put(pendingKey, pending);
+                    }
+                    pending.addTarget(uniqueEntityId, execRes);
+                }
             }
+        }
 
-            return execRes; 
-
+        for (PendingResource pending : pendingResources.values())
+        {
+            Map<String, Object> resultsById = executeResources(api, params, pending);
+            for (Entry<String, List<ExecutionResult>> target : pending.targets.entrySet())
+            {
+                Object execResult = resultsById.get(target.getKey());
+                if (execResult == null)
+                {
+                    continue;
+                }
+                if (pending.embedded && execResult instanceof ExecutionResult)
+                {
+                    ((ExecutionResult) execResult).setAnEmbeddedEntity(true);
+                }
+                Map<String, Object> addition = Collections.singletonMap(pending.key, execResult);
+                for (ExecutionResult execRes : target.getValue())
+                {
+                    if (pending.embedded)
+                    {
+                        execRes.addEmbedded(addition);
+                    }
+                    else
+                    {
+                        execRes.addRelated(addition);
+                    }
+                }
+            }
         }
+
+        return results;
     }
 
     private Object executeIncludedSource(Api api, Params params, String entityCollectionName, CollectionWithPagingInfo<?> collectionToWrap)
@@ -201,70 +318,214 @@ public class ResourceWebScriptHelper
     }
 
     /**
-     * Loops through the embedded Resources and executes them.  The results are added to list of embedded results used by
-     * the ExecutionResult object.
+     * Executes an embedded or related Resource for all the ids it is needed for. Uses the batch action of the
+     * resource if it has one, otherwise executes the resource once per id, in parallel when there are at least
+     * parallelThreshold ids.
+     * <p>
+     * The workers cannot see the changes of a read-write transaction, so the response of a request that writes
+     * (eg. a POST that embeds entities) is always executed in the transaction of the request.
      *
      * @param api Api
      * @param params Params
-     * @param objectToWrap Object
-     * @param embeddded Map<String, Pair<String, Method>>
-     * @return Map
+     * @param pending PendingResource
+     * @return Map - the results keyed by id, ids that could not be executed are left out
      */
-    private Map<String, Object> executeEmbeddedResources(Api api, Params params, Object objectToWrap, Map<String, Pair<String, Method>> embeddded)
+    private Map<String, Object> executeResources(final Api api, final Params params, final PendingResource pending)
     {
-        final Map<String,Object> results = new HashMap<String,Object>(embeddded.size());
-        for (Entry<String, Pair<String,Method>> embeddedEntry : embeddded.entrySet())
+        final List<String> ids = new ArrayList<String>(pending.targets.keySet());
+        final Map<String, Object> results = new HashMap<String, Object>(ids.size());
+        if (ids.isEmpty())
         {
-            ResourceWithMetadata res = locator.locateEntityResource(api, embeddedEntry.getValue().getFirst(), HttpMethod.GET);
-            if (res != null)
+            return results;
+        }
+
+        if (isBatchSupported(pending))
+        {
+            Map<String, ?> batchResults = executeBatch(params, pending, ids);
+            for (String id : ids)
             {
-                Object id = ResourceInspectorUtil.invokeMethod(embeddedEntry.getValue().getSecond(), objectToWrap);
-                if (id != null)
+                Object result = batchResults.get(id);
+                if (result != null)
                 {
-                    Object execEmbeddedResult = executeResource(api, params, String.valueOf(id), embeddedEntry.getKey(), res);
-                    if (execEmbeddedResult != null)
-                    {
-                        if (execEmbeddedResult instanceof ExecutionResult)
-                        {
-                           ((ExecutionResult) execEmbeddedResult).setAnEmbeddedEntity(true);
-                        }
-                        results.put(embeddedEntry.getKey(), execEmbeddedResult);
-                    }
+                    Params executionParams = Params.valueOf(getRelationFilter(params, pending.key), id, params.getRequest());
+                    results.put(id, processAdditionsToTheResponse(null, api, null, executionParams, result));
                 }
-                else
+            }
+        }
+        else if (relationsExecutor != null && parallelThreshold > 0 && ids.size() >= parallelThreshold && !Boolean.TRUE.equals(IN_WORKER.get())
+                    && AlfrescoTransactionSupport.getTransactionReadState() != TxnReadState.TXN_READ_WRITE)
+        {
+            executeInParallel(api, params, pending, ids, results);
+        }
+        else
+        {
+            for (String id : ids)
+            {
+                Object result = executeResource(api, params, id, pending.key, pending.resource);
+                if (result != null)
                 {
-                    //Call to embedded id for null value, 
-                    logger.warn("Cannot embed resource with path "+embeddedEntry.getKey()+". No unique id because the method annotated with @EmbeddedEntityResource returned null.");
+                    results.put(id, result);
                 }
             }
         }
         return results;
     }
 
+    private boolean isBatchSupported(PendingResource pending)
+    {
+        ResourceWithMetadata resource = pending.resource;
+        if (pending.embedded)
+        {
+            return resource.getResource() instanceof EntityResourceAction.ReadByIds
+                        && !resource.getMetaData().isDeleted(EntityResourceAction.ReadById.class)
+                        && !resource.getMetaData().isDeleted(EntityResourceAction.ReadByIdWithResponse.class);
+        }
+        return resource.getResource() instanceof RelationshipResourceAction.ReadAllByIds
+                    && !resource.getMetaData().isDeleted(RelationshipResourceAction.Read.class)
+                    && !resource.getMetaData().isDeleted(RelationshipResourceAction.ReadWithResponse.class);
+    }
+
     /**
-     * Loops through the related Resources and executed them.  The results are added to list of embedded results used by
-     * the ExecutionResult object.
+     * Calls the batch action of an embedded or related Resource for all the ids at once.
      *
-     * @param api Api
-     * @param params Params
-     * @param relatedResources Map<String, ResourceWithMetadata>
-     * @param uniqueEntityId String
-     * @return Map
+     * @return Map - the raw results keyed by id, never null
      */
-    private Map<String,Object> executeRelatedResources(final Api api, Params params,
-                                                       Map<String, ResourceWithMetadata> relatedResources,
-                                                       String uniqueEntityId)
+    private Map<String, ?> executeBatch(Params params, PendingResource pending, List<String> ids)
     {
-        final Map<String,Object> results = new HashMap<String,Object>(relatedResources.size());
-        for (final Entry<String, ResourceWithMetadata> relation : relatedResources.entrySet())
+        try
         {
-            Object execResult = executeResource(api, params, uniqueEntityId, relation.getKey(), relation.getValue());
-            if (execResult != null)
+            final Params executionParams = Params.valueOf(getRelationFilter(params, pending.key), null, params.getRequest());
+            Map<String, ?> batchResults;
+            if (pending.embedded)
             {
-              results.put(relation.getKey(), execResult);
+                batchResults = ((EntityResourceAction.ReadByIds<?>) pending.resource.getResource()).readByIds(ids, executionParams);
+            }
+            else
+            {
+                batchResults = ((RelationshipResourceAction.ReadAllByIds<?>) pending.resource.getResource()).readAll(ids, executionParams);
+            }
+            if (batchResults != null)
+            {
+                return batchResults;
             }
         }
-        return results;
+        catch(NotFoundException e)
+        {
+            // ignore, cannot access the objects so don't embed them
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Ignored error, cannot access the objects so can't embed them ", e);
+            }
+        }
+        catch(PermissionDeniedException e)
+        {
+            // ignore, cannot access the objects so don't embed them
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Ignored error, cannot access the objects so can't embed them ", e);
+            }
+        }
+        catch (Throwable throwable)
+        {
+            logger.warn("Failed to execute a batch RelatedResource for "+pending.key+" "+throwable.getMessage());
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Executes an embedded or related Resource once per id on the worker pool. Each execution runs as the current
+     * user and tenant, with the current locale and content locale, in its own read-only transaction, so each busy worker
+     * holds its own database connection. Nested collections are not executed in parallel again, so that the workers
+     * never wait for each other.
+     */
+    private void executeInParallel(final Api api, final Params params, final PendingResource pending, List<String> ids, Map<String, Object> results)
+    {
+        final String runAsUser = AuthenticationUtil.getRunAsUser();
+        final String tenantDomain = TenantUtil.getCurrentDomain();
+        final Locale locale = I18NUtil.getLocale();
+        final Locale contentLocale = I18NUtil.getContentLocale();
+        final Map<String, Future<Object>> futures = new LinkedHashMap<String, Future<Object>>(ids.size());
+        for (final String id : ids)
+        {
+            Callable<Object> task = new Callable<Object>()
+            {
+                @Override
+                public Object call() throws Exception
+                {
+                    final Locale workerLocale = I18NUtil.getLocale();
+                    final Locale workerContentLocale = I18NUtil.getContentLocale();
+                    IN_WORKER.set(Boolean.TRUE);
+                    I18NUtil.setLocale(locale);
+                    I18NUtil.setContentLocale(contentLocale);
+                    try
+                    {
+                        return TenantUtil.runAsUserTenant(new TenantRunAsWork<Object>()
+                        {
+                            @Override
+                            public Object doWork() throws Exception
+                            {
+                                return transactionHelper.doInTransaction(new RetryingTransactionCallback<Object>()
+                                {
+                                    @Override
+                                    public Object execute() throws Throwable
+                                    {
+                                        return executeResource(api, params, id, pending.key, pending.resource);
+                                    }
+                                }, true, true);
+                            }
+                        }, runAsUser, tenantDomain);
+                    }
+                    finally
+                    {
+                        I18NUtil.setLocale(workerLocale);
+                        I18NUtil.setContentLocale(workerContentLocale);
+                        IN_WORKER.remove();
+                    }
+                }
+            };
+
+            try
+            {
+                futures.put(id, relationsExecutor.submit(task));
+            }
+            catch (RejectedExecutionException e)
+            {
+                // the pool is shutting down, execute it on the request thread instead
+                Object result = executeResource(api, params, id, pending.key, pending.resource);
+                if (result != null)
+                {
+                    results.put(id, result);
+                }
+            }
+        }
+
+        for (Entry<String, Future<Object>> future : futures.entrySet())
+        {
+            try
+            {
+                Object result = future.getValue().get();
+                if (result != null)
+                {
+                    results.put(future.getKey(), result);
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while executing a RelatedResource for "+pending.key);
+                break;
+            }
+            catch (ExecutionException e)
+            {
+                logger.warn("Failed to execute a RelatedResource for "+pending.key+" "+e.getCause().getMessage());
+            }
+        }
+    }
+
+    private static BeanPropertiesFilter getRelationFilter(Params params, String resourceKey)
+    {
+        Map<String, BeanPropertiesFilter> filters = params.getRelationsFilter();
+        return filters != null ? filters.get(resourceKey) : null;
     }
 
     /**
@@ -283,14 +544,7 @@ public class ResourceWebScriptHelper
     {
         try
         {
-            BeanPropertiesFilter paramFilter = null;
-            final Object[] resultOfExecution = new Object[1];
-            Map<String, BeanPropertiesFilter> filters = params.getRelationsFilter();
-            if (filters!=null)
-            {
-                paramFilter = filters.get(resourceKey);
-            }
-            final Params executionParams = Params.valueOf(paramFilter, uniqueEntityId, params.getRequest());
+            final Params executionParams = Params.valueOf(getRelationFilter(params, resourceKey), uniqueEntityId, params.getRequest());
             final WithResponse callBack = new WithResponse(Status.STATUS_OK, ResponseWriter.DEFAULT_JSON_CONTENT,ResponseWriter.CACHE_NEVER);
             //Read only because this only occurs for GET requests
             Object result = executor.executeAction(resource, executionParams, callBack);
@@ -319,6 +573,36 @@ public class ResourceWebScriptHelper
         return null; //default
     }
 
+    /**
+     * An embedded or related Resource to execute for a page of entities, with the ExecutionResults to add
+     * its results to, keyed by the id to execute it for.
+     */
+    private static class PendingResource
+    {
+        private final String key;
+        private final ResourceWithMetadata resource;
+        private final boolean embedded;
+        private final Map<String, List<ExecutionResult>> targets = new LinkedHashMap<String, List<ExecutionResult>>();
+
+        private PendingResource(String key, ResourceWithMetadata resource, boolean embedded)
+        {
+            this.key = key;
+            this.resource = resource;
+            this.embedded = embedded;
+        }
+
+        private void addTarget(String id, ExecutionResult execRes)
+        {
+            List<ExecutionResult> execResults = targets.get(id);
+            if (execResults == null)
+            {
+                execResults = new ArrayList<ExecutionResult>(1);
+                targets.put(id, execResults);
+            }
+            execResults.add(execRes);
+        }
+    }
+
     public void setLocator(ResourceLocator locator)
     {
         this.locator = locator;
@@ -328,5 +612,28 @@ public class ResourceWebScriptHelper
     {
         this.executor = executor;
     }
+
+    /**
+     * @param relationsExecutor the bounded worker pool used to execute embedded and related resources in parallel,
+     *                          null to always execute them on the request thread
+     */
+    public void setRelationsExecutor(ExecutorService relationsExecutor)
+    {
+        this.relationsExecutor = relationsExecutor;
+    }
+
+    /**
+     * @param parallelThreshold the number of distinct ids from which an embedded or related resource is executed in parallel,
+     *                          0 to never execute them in parallel
+     */
+    public void setParallelThreshold(int parallelThreshold)
+    {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public void setTransactionHelper(RetryingTransactionHelper transactionHelper)
+    {
+        this.transactionHelper = transactionHelper;
+    }
         
 }
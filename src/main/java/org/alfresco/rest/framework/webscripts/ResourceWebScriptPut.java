@@ -30,12 +30,18 @@ import java.io.InputStream;
 import java.util.Locale;
 import java.util.Map;
 
+import org.alfresco.repo.content.ContentLimitViolationException;
 import org.alfresco.repo.content.MimetypeMap;
+import org.alfresco.repo.content.cleanup.EagerContentStoreCleaner;
+import org.alfresco.repo.transaction.RetryingTransactionHelper;
+import org.alfresco.repo.web.scripts.BufferedRequest;
 import org.alfresco.rest.framework.core.ResourceLocator;
 import org.alfresco.rest.framework.core.ResourceMetadata;
 import org.alfresco.rest.framework.core.ResourceOperation;
 import org.alfresco.rest.framework.core.ResourceWithMetadata;
 import org.alfresco.rest.framework.core.exceptions.DeletedResourceException;
+import org.alfresco.rest.framework.core.exceptions.InsufficientStorageException;
+import org.alfresco.rest.framework.core.exceptions.RequestEntityTooLargeException;
 import org.alfresco.rest.framework.core.exceptions.UnsupportedResourceOperationException;
 import org.alfresco.rest.framework.resource.actions.interfaces.BinaryResourceAction;
 import org.alfresco.rest.framework.resource.actions.interfaces.EntityResourceAction;
@@ -47,6 +53,10 @@ import org.alfresco.rest.framework.resource.parameters.Params;
 import org.alfresco.rest.framework.resource.parameters.Params.RecognizedParams;
 import org.alfresco.rest.framework.tools.RecognizedParamsExtractor;
 import org.alfresco.rest.framework.tools.RequestReader;
+import org.alfresco.service.cmr.repository.ContentReader;
+import org.alfresco.service.cmr.repository.ContentService;
+import org.alfresco.service.cmr.repository.ContentWriter;
+import org.alfresco.service.cmr.usage.ContentQuotaException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -65,6 +75,10 @@ public class ResourceWebScriptPut extends AbstractResourceWebScript implements P
 {
 
     private static Log logger = LogFactory.getLog(ResourceWebScriptPut.class);
+
+    private ContentService contentService;
+    private EagerContentStoreCleaner eagerContentStoreCleaner;
+    private boolean spoolContent = false;
     
     public ResourceWebScriptPut()
     {
@@ -72,6 +86,134 @@ public class ResourceWebScriptPut extends AbstractResourceWebScript implements P
        setHttpMethod(HttpMethod.PUT);
        setParamsExtractor(this);
     }
+
+    public void setContentService(ContentService contentService)
+    {
+        this.contentService = contentService;
+    }
+
+    public void setEagerContentStoreCleaner(EagerContentStoreCleaner eagerContentStoreCleaner)
+    {
+        this.eagerContentStoreCleaner = eagerContentStoreCleaner;
+    }
+
+    /**
+     * @param spoolContent true to write binary content straight to the content store, before the retrying
+     *            transaction, instead of buffering it so that it can be re-read on a transaction retry
+     */
+    public void setSpoolContent(boolean spoolContent)
+    {
+        this.spoolContent = spoolContent;
+    }
+
+    /**
+     * Writes the content of a binary PUT to the content store, in its own transaction, so that only the
+     * content URL needs to be replayed if the transaction updating the resource is retried.
+     * <p>
+     * Only done for resources that can check the update first (see {@link BinaryResourceAction.CheckUpdate}),
+     * so that no content is written for an update that is rejected upfront. Multipart POST uploads are not
+     * spooled, their content is buffered by the container like any other request body.
+     */
+    @Override
+    protected WebScriptRequest prepareRequest(final ResourceWithMetadata resource, final WebScriptRequest req) throws IOException
+    {
+        if (!spoolContent || contentService == null || eagerContentStoreCleaner == null
+                    || resource.getMetaData().getType() != ResourceMetadata.RESOURCE_TYPE.PROPERTY
+                    || !(resource.getResource() instanceof BinaryResourceAction.CheckUpdate))
+        {
+            return req;
+        }
+
+        // check that the entity exists and may be updated by the current user before writing any content
+        final Map<String, String> resourceVars = locator.parseTemplateVars(req.getServiceMatch().getTemplateVars());
+        final String entityId = resourceVars.get(ResourceLocator.ENTITY_ID);
+        final String propertyName = StringUtils.isNotBlank(resourceVars.get(ResourceLocator.PROPERTY)) ?
+                    resourceVars.get(ResourceLocator.PROPERTY) : resourceVars.get(ResourceLocator.RELATIONSHIP_RESOURCE);
+        if (StringUtils.isBlank(entityId) || StringUtils.isBlank(propertyName))
+        {
+            return req;
+        }
+        final BinaryResourceAction.CheckUpdate checker = (BinaryResourceAction.CheckUpdate) resource.getResource();
+        transactionService.getRetryingTransactionHelper().doInTransaction(new RetryingTransactionHelper.RetryingTransactionCallback<Void>()
+        {
+            @Override
+            public Void execute() throws Throwable
+            {
+                checker.checkUpdateProperty(entityId, propertyName);
+                return null;
+            }
+        }, true, false);
+
+        // read the content from the underlying request, so that it is not buffered
+        final WebScriptRequest contentReq = (req instanceof BufferedRequest) ? ((BufferedRequest) req).getNext() : req;
+        final InputStream stream = contentReq.getContent().getInputStream();
+        final BasicContentInfo contentInfo = getContentInfo(req);
+
+        // the stream can only be consumed once, so don't retry
+        RetryingTransactionHelper transHelper = transactionService.getRetryingTransactionHelper();
+        transHelper.setMaxRetries(0);
+        ContentReader reader = transHelper.doInTransaction(new RetryingTransactionHelper.RetryingTransactionCallback<ContentReader>()
+        {
+            @Override
+            public ContentReader execute() throws Throwable
+            {
+                try
+                {
+                    ContentWriter writer = contentService.getWriter(null, null, false);
+                    writer.setMimetype(contentInfo.getMimeType());
+                    writer.setEncoding(contentInfo.getEncoding());
+                    writer.putContent(stream);
+                    return writer.getReader();
+                }
+                catch (ContentQuotaException cqe)
+                {
+                    throw new InsufficientStorageException();
+                }
+                catch (ContentLimitViolationException clv)
+                {
+                    throw new RequestEntityTooLargeException(clv.getMessage());
+                }
+            }
+        }, false, true);
+
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("Spooled content of " + req.getServicePath() + " to " + reader.getContentUrl());
+        }
+
+        return new SpooledContentRequest(req, reader);
+    }
+
+    /**
+     * Deletes the content spooled for a request that failed, as nothing references it.
+     */
+    @Override
+    protected void requestFailed(final WebScriptRequest req)
+    {
+        if (!(req instanceof SpooledContentRequest))
+        {
+            return;
+        }
+
+        final String contentUrl = ((SpooledContentRequest) req).getContentUrl();
+        try
+        {
+            transactionService.getRetryingTransactionHelper().doInTransaction(new RetryingTransactionHelper.RetryingTransactionCallback<Void>()
+            {
+                @Override
+                public Void execute() throws Throwable
+                {
+                    // deleted once the transaction commits
+                    eagerContentStoreCleaner.registerOrphanedContentUrl(contentUrl, true);
+                    return null;
+                }
+            }, false, true);
+        }
+        catch (RuntimeException e)
+        {
+            logger.warn("Failed to delete the content spooled to " + contentUrl, e);
+        }
+    }
     
     @Override
     public Params extractParams(ResourceMetadata resourceMeta, WebScriptRequest req)
@@ -0,0 +1,105 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.framework.webscripts;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import org.alfresco.repo.web.scripts.BufferedRequest;
+import org.alfresco.rest.framework.resource.content.SpooledContentStream;
+import org.alfresco.service.cmr.repository.ContentReader;
+import org.springframework.extensions.surf.util.Content;
+import org.springframework.extensions.webscripts.WebScriptRequest;
+
+/**
+ * A request whose body has already been written to the content store.
+ * <p>
+ * The body is not buffered: each read of the content (eg. on a transaction retry) opens a new
+ * {@link SpooledContentStream} on the spooled content.
+ */
+class SpooledContentRequest extends BufferedRequest
+{
+    private final ContentReader reader;
+
+    SpooledContentRequest(WebScriptRequest req, ContentReader reader)
+    {
+        super(req, null);
+        this.reader = reader;
+    }
+
+    /**
+     * @return the URL of the spooled content
+     */
+    String getContentUrl()
+    {
+        return reader.getContentUrl();
+    }
+
+    @Override
+    public Content getContent()
+    {
+        return new Content()
+        {
+            @Override
+            public String getContent() throws IOException
+            {
+                return reader.getReader().getContentString();
+            }
+
+            @Override
+            public String getEncoding()
+            {
+                return reader.getEncoding();
+            }
+
+            @Override
+            public String getMimetype()
+            {
+                return reader.getMimetype();
+            }
+
+            @Override
+            public long getSize()
+            {
+                return reader.getSize();
+            }
+
+            @Override
+            public InputStream getInputStream()
+            {
+                return new SpooledContentStream(reader);
+            }
+
+            @Override
+            public BufferedReader getReader() throws IOException
+            {
+                return new BufferedReader(new InputStreamReader(getInputStream(), reader.getEncoding()));
+            }
+        };
+    }
+}
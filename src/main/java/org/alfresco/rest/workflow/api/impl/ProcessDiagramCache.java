@@ -0,0 +1,181 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2016 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.workflow.api.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Cache of rendered process diagrams, keyed by process definition and the set of active activities highlighted in
+ * the diagram. As deployed process definitions don't change, a diagram never needs to be rendered again while it is
+ * cached. The most recently used diagrams are kept, up to <tt>maxSize</tt> bytes in total.
+ */
+public class ProcessDiagramCache
+{
+    private boolean enabled = true;
+    private long maxSize = 8L * 1024L * 1024L;
+
+    private final LinkedHashMap<List<String>, Diagram> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalSize;
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param maxSize the maximum total size in bytes of the cached diagrams
+     */
+    public void setMaxSize(long maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get a cached diagram.
+     * 
+     * @param processDefinitionId the process definition
+     * @param activeActivityIds the active activities highlighted in the diagram, in any order
+     * @return the diagram, or <tt>null</tt> if it isn't cached
+     */
+    public synchronized Diagram get(String processDefinitionId, Collection<String> activeActivityIds)
+    {
+        if (!enabled)
+        {
+            return null;
+        }
+        return entries.get(getKey(processDefinitionId, activeActivityIds));
+    }
+
+    /**
+     * Cache a rendered diagram, unless it is larger than the cache.
+     * 
+     * @param processDefinitionId the process definition
+     * @param activeActivityIds the active activities highlighted in the diagram, in any order
+     * @param content the rendered diagram
+     * @return the diagram
+     */
+    public Diagram put(String processDefinitionId, Collection<String> activeActivityIds, byte[] content)
+    {
+        Diagram diagram = new Diagram(content);
+        if (!enabled || content.length > maxSize)
+        {
+            return diagram;
+        }
+
+        List<String> key = getKey(processDefinitionId, activeActivityIds);
+        synchronized (this)
+        {
+            Diagram previous = entries.put(key, diagram);
+            if (previous != null)
+            {
+                totalSize -= previous.content.length;
+            }
+            totalSize += content.length;
+
+            Iterator<Map.Entry<List<String>, Diagram>> it = entries.entrySet().iterator();
+            while (totalSize > maxSize && it.hasNext())
+            {
+                totalSize -= it.next().getValue().content.length;
+                it.remove();
+            }
+        }
+        return diagram;
+    }
+
+    /**
+     * Discard all the cached diagrams.
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+        totalSize = 0L;
+    }
+
+    /**
+     * @return the number of cached diagrams
+     */
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * @return the total size in bytes of the cached diagrams
+     */
+    public synchronized long getTotalSize()
+    {
+        return totalSize;
+    }
+
+    private static List<String> getKey(String processDefinitionId, Collection<String> activeActivityIds)
+    {
+        List<String> activities = new ArrayList<>(activeActivityIds);
+        Collections.sort(activities);
+        List<String> key = new ArrayList<>(activities.size() + 1);
+        key.add(processDefinitionId);
+        key.addAll(activities);
+        return key;
+    }
+
+    /**
+     * A rendered process diagram.
+     */
+    public static class Diagram
+    {
+        private final byte[] content;
+        private final String eTag;
+
+        public Diagram(byte[] content)
+        {
+            this.content = content;
+            this.eTag = DigestUtils.md5Hex(content);
+        }
+
+        /**
+         * @return the rendered diagram, not to be modified
+         */
+        public byte[] getContent()
+        {
+            return content;
+        }
+
+        /**
+         * @return the entity tag of the rendered diagram
+         */
+        public String getETag()
+        {
+            return eTag;
+        }
+    }
+}
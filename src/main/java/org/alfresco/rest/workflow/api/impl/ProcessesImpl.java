@@ -25,8 +25,6 @@
  */
 package org.alfresco.rest.workflow.api.impl;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
@@ -38,7 +36,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
 
 import org.activiti.bpmn.model.BpmnModel;
 import org.activiti.engine.ActivitiObjectNotFoundException;
@@ -54,6 +51,7 @@ import org.activiti.engine.runtime.ProcessInstance;
 import org.activiti.image.ProcessDiagramGenerator;
 import org.activiti.image.impl.DefaultProcessDiagramGenerator;
 import org.alfresco.model.ContentModel;
+import org.alfresco.repo.content.MimetypeMap;
 import org.alfresco.repo.i18n.MessageService;
 import org.alfresco.repo.model.Repository;
 import org.alfresco.repo.security.authentication.AuthenticationUtil;
@@ -77,7 +75,8 @@ import org.alfresco.rest.framework.core.exceptions.ApiException;
 import org.alfresco.rest.framework.core.exceptions.EntityNotFoundException;
 import org.alfresco.rest.framework.core.exceptions.InvalidArgumentException;
 import org.alfresco.rest.framework.resource.content.BinaryResource;
-import org.alfresco.rest.framework.resource.content.FileBinaryResource;
+import org.alfresco.rest.framework.resource.content.ByteArrayBinaryResource;
+import org.alfresco.rest.framework.resource.content.CacheDirective;
 import org.alfresco.rest.framework.resource.parameters.CollectionWithPagingInfo;
 import org.alfresco.rest.framework.resource.parameters.Paging;
 import org.alfresco.rest.framework.resource.parameters.Parameters;
@@ -99,7 +98,6 @@ import org.alfresco.service.cmr.security.PersonService;
 import org.alfresco.service.namespace.InvalidQNameException;
 import org.alfresco.service.namespace.QName;
 import org.alfresco.util.ISO8601DateFormat;
-import org.alfresco.util.TempFileProvider;
 import org.alfresco.util.collections.CollectionUtils;
 import org.apache.commons.io.IOUtils;
 
@@ -138,6 +136,7 @@ public class ProcessesImpl extends WorkflowRestImpl implements Processes
     protected String engineId;
     protected Repository repositoryHelper;
     protected RestVariableHelper restVariableHelper;
+    protected ProcessDiagramCache processDiagramCache;
     
     protected ActivitiNodeConverter nodeConverter;
     protected ActivitiUtil activitiUtil;
@@ -188,6 +187,11 @@ public class ProcessesImpl extends WorkflowRestImpl implements Processes
     {
         this.restVariableHelper = restVariableHelper;
     }
+    
+    public void setProcessDiagramCache(ProcessDiagramCache processDiagramCache)
+    {
+        this.processDiagramCache = processDiagramCache;
+    }
 
     protected ActivitiNodeConverter getNodeConverter()
     {
@@ -470,12 +474,11 @@ public class ProcessesImpl extends WorkflowRestImpl implements Processes
             query.orderByProcessInstanceStartTime().desc();
         }
         
-        List<HistoricProcessInstance> processInstances = query.listPage(paging.getSkipCount(), paging.getMaxItems());
-        int totalCount = (int) query.count();
+        QueryPage<HistoricProcessInstance> processInstances = listPage(query, parameters, "processes");
 
-        List<ProcessInfo> page = new ArrayList<ProcessInfo>(processInstances.size());
+        List<ProcessInfo> page = new ArrayList<ProcessInfo>(processInstances.getResults().size());
         Map<String, TypeDefinition> definitionTypeMap = new HashMap<String, TypeDefinition>();
-        for (HistoricProcessInstance processInstance: processInstances) 
+        for (HistoricProcessInstance processInstance: processInstances.getResults()) 
         {
             ProcessInfo processInfo = createProcessInfo(processInstance);
             if (includeVariables != null && includeVariables) 
@@ -501,7 +504,7 @@ public class ProcessesImpl extends WorkflowRestImpl implements Processes
             page.add(processInfo);
         }
         
-        return CollectionWithPagingInfo.asPaged(paging, page, (page.size() + paging.getSkipCount()) < totalCount, totalCount);
+        return CollectionWithPagingInfo.asPaged(paging, page, processInstances.hasMoreItems(), processInstances.getTotalItems());
     }
 
     @Override
@@ -1045,32 +1048,62 @@ public class ProcessesImpl extends WorkflowRestImpl implements Processes
             throw new EntityNotFoundException(processId);
         }
         
-        try
+        String processDefinitionId = processInstance.getProcessDefinitionId();
+        List<String> activeActivities = activitiProcessEngine.getRuntimeService().getActiveActivityIds(processId);
+        ProcessDiagramCache.Diagram diagram = null;
+        if (processDiagramCache != null)
         {
-        	BpmnModel model = activitiProcessEngine.getRepositoryService().getBpmnModel(processInstance.getProcessDefinitionId());
-            
-            if(model != null && model.getLocationMap().size() > 0)
+            diagram = processDiagramCache.get(processDefinitionId, activeActivities);
+        }
+        
+        if (diagram == null)
+        {
+            try
             {
-                List<String> activeActivities = activitiProcessEngine.getRuntimeService().getActiveActivityIds(processId);
-                ProcessDiagramGenerator generator = new DefaultProcessDiagramGenerator();
-                InputStream generateDiagram = generator.generateDiagram(model, "png", activeActivities);
-                
-                File file = TempFileProvider.createTempFile(processId + UUID.randomUUID(), ".png");
-                FileOutputStream fos = new FileOutputStream(file);
-                IOUtils.copy(generateDiagram, fos);
-                fos.close();
+                BpmnModel model = activitiProcessEngine.getRepositoryService().getBpmnModel(processDefinitionId);
                 
-                return new FileBinaryResource(file);
+                if(model != null && model.getLocationMap().size() > 0)
+                {
+                    ProcessDiagramGenerator generator = new DefaultProcessDiagramGenerator();
+                    InputStream generateDiagram = generator.generateDiagram(model, "png", activeActivities);
+                    byte[] content;
+                    try
+                    {
+                        content = IOUtils.toByteArray(generateDiagram);
+                    }
+                    finally
+                    {
+                        generateDiagram.close();
+                    }
+                    
+                    if (processDiagramCache != null)
+                    {
+                        diagram = processDiagramCache.put(processDefinitionId, activeActivities, content);
+                    }
+                    else
+                    {
+                        diagram = new ProcessDiagramCache.Diagram(content);
+                    }
+                }
+                else
+                {
+                    throw new EntityNotFoundException(processId + "/image");
+                }
             }
-            else
+            catch (IOException error)
             {
-                throw new EntityNotFoundException(processId + "/image");
+                throw new ApiException("Error while getting process image.");
             }
         }
-        catch (IOException error)
-        {
-            throw new ApiException("Error while getting process image.");
-        }
+        
+        // let clients revalidate the diagram they have with its ETag
+        CacheDirective cacheDirective = new CacheDirective.Builder()
+                    .setNeverCache(false)
+                    .setMustRevalidate(true)
+                    .setMaxAge(0L)
+                    .setETag(diagram.getETag())
+                    .build();
+        return new ByteArrayBinaryResource(diagram.getContent(), MimetypeMap.MIMETYPE_IMAGE_PNG, null, cacheDirective);
     }
     
     protected Object convertAssociationDefinitionValue(AssociationDefinition associationDef, String variableName, Object variableValue) 
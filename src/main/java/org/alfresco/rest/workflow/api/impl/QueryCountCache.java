@@ -0,0 +1,76 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2016 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.workflow.api.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import org.alfresco.repo.web.util.AbstractLocalCache;
+
+/**
+ * Short-lived cache of the total number of results of workflow queries, used when listing tasks or processes for
+ * clients that ask for the total number of items while the lists are not counted by default. Counts are kept for
+ * the most recently used <tt>maxItems</tt> keys (which identify the query, including the tenant and user running
+ * it and the request parameters that shape it) and are read again after <tt>timeToLive</tt> milliseconds.
+ * <p>
+ * Counts are never invalidated, on this cluster node or any other: a task or process started, completed or
+ * reassigned anywhere in the cluster may be missing from, or still included in, <tt>totalItems</tt> for up to the
+ * time to live. This is acceptable as the count only sizes the paging of the client: the items of each page, and
+ * whether there are more, are always read from the process engine.
+ */
+public class QueryCountCache extends AbstractLocalCache
+{
+    private boolean enabled = true;
+
+    private final Region<List<Object>, Long> entries = new Region<>(64);
+
+    public QueryCountCache()
+    {
+        super(1000, 5000L);
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the total number of results of a query.
+     * 
+     * @param key identifies the query, including the tenant and user running it
+     * @param counter counts the results when the count isn't cached
+     * @return the number of results
+     */
+    public long getCount(List<?> key, LongSupplier counter)
+    {
+        if (!enabled || getTimeToLive() <= 0)
+        {
+            return counter.getAsLong();
+        }
+        return entries.get(new ArrayList<>(key), () -> counter.getAsLong());
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2016 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.workflow.api.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.activiti.engine.ProcessEngine;
+import org.activiti.engine.delegate.event.ActivitiEntityEvent;
+import org.activiti.engine.delegate.event.ActivitiEvent;
+import org.activiti.engine.delegate.event.ActivitiEventListener;
+import org.activiti.engine.delegate.event.ActivitiEventType;
+import org.activiti.engine.repository.Deployment;
+import org.activiti.engine.repository.ProcessDefinition;
+import org.alfresco.repo.dictionary.DictionaryDAO;
+import org.alfresco.repo.dictionary.DictionaryListener;
+import org.alfresco.repo.tenant.TenantUtil;
+import org.alfresco.repo.web.util.AbstractLocalCache;
+import org.alfresco.service.cmr.dictionary.TypeDefinition;
+
+/**
+ * Process-wide cache of the form keys of task definitions and of the type definitions of start and task forms,
+ * used when listing tasks so that a page of tasks doesn't need a form service lookup per task.
+ * <p>
+ * Entries are kept per tenant for the most recently used <tt>maxItems</tt> keys. The cache is cleared whenever a
+ * deployment or process definition is created or deleted by the local process engine, and whenever the dictionary
+ * is initialised again after a content model change, so that no stale type definition is returned.
+ * <p>
+ * The cache is local to the cluster node. Form keys and start form types are cached per process definition id, and
+ * a deployed process definition never changes (deploying it again creates a new id), so a deployment made on
+ * another node cannot make them stale. The only stale entries are task type definitions after a workflow content
+ * model is changed on another node: until the entry expires after the time to live, or this node reloads its
+ * dictionary, tasks may be listed without the properties added by the change. Workflow models are changed rarely,
+ * by administrators.
+ */
+public class TaskFormCache extends AbstractLocalCache implements ActivitiEventListener, DictionaryListener
+{
+    private static final String FORM_KEY = "formKey";
+    private static final String START_FORM_TYPE = "startFormType";
+    private static final String TASK_TYPE = "taskType";
+
+    private ProcessEngine activitiProcessEngine;
+    private DictionaryDAO dictionaryDAO;
+
+    private boolean enabled = true;
+
+    private final Region<List<Object>, Object> entries = new Region<>(64);
+
+    public TaskFormCache()
+    {
+        super(1000, 60000L);
+    }
+
+    public void setActivitiProcessEngine(ProcessEngine activitiProcessEngine)
+    {
+        this.activitiProcessEngine = activitiProcessEngine;
+    }
+
+    public void setDictionaryDAO(DictionaryDAO dictionaryDAO)
+    {
+        this.dictionaryDAO = dictionaryDAO;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    public void init()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        activitiProcessEngine.getRuntimeService().addEventListener(this, ActivitiEventType.ENTITY_CREATED,
+                    ActivitiEventType.ENTITY_DELETED);
+        dictionaryDAO.registerListener(this);
+    }
+
+    /**
+     * Get the form key of a task definition.
+     * 
+     * @param processDefinitionId the process definition
+     * @param taskDefinitionKey the task definition within the process definition
+     * @param loader looks the form key up when it isn't cached
+     * @return the form key, may be <tt>null</tt>
+     */
+    public String getFormKey(String processDefinitionId, String taskDefinitionKey, Supplier<String> loader)
+    {
+        return get(Arrays.asList(TenantUtil.getCurrentDomain(), FORM_KEY, processDefinitionId, taskDefinitionKey), loader);
+    }
+
+    /**
+     * Get the type definition of the start form of a process definition.
+     * 
+     * @param processDefinitionId the process definition
+     * @param loader looks the type definition up when it isn't cached
+     * @return the type definition, <tt>null</tt> if the process definition has no start form
+     */
+    public TypeDefinition getStartFormTypeDefinition(String processDefinitionId, Supplier<TypeDefinition> loader)
+    {
+        return get(Arrays.asList(TenantUtil.getCurrentDomain(), START_FORM_TYPE, processDefinitionId), loader);
+    }
+
+    /**
+     * Get the full type definition of a form.
+     * 
+     * @param formKey the form key, may be <tt>null</tt>
+     * @param isStart whether the form is a start form
+     * @param loader looks the type definition up when it isn't cached
+     * @return the type definition
+     */
+    public TypeDefinition getTaskTypeDefinition(String formKey, boolean isStart, Supplier<TypeDefinition> loader)
+    {
+        return get(Arrays.asList(TenantUtil.getCurrentDomain(), TASK_TYPE, formKey, isStart), loader);
+    }
+
+    @Override
+    public void onEvent(ActivitiEvent event)
+    {
+        if (event instanceof ActivitiEntityEvent)
+        {
+            Object entity = ((ActivitiEntityEvent) event).getEntity();
+            if (entity instanceof Deployment || entity instanceof ProcessDefinition)
+            {
+                clear();
+            }
+        }
+    }
+
+    @Override
+    public boolean isFailOnException()
+    {
+        return false;
+    }
+
+    @Override
+    public void onDictionaryInit()
+    {
+    }
+
+    @Override
+    public void afterDictionaryInit()
+    {
+        clear();
+    }
+
+    @Override
+    public void afterDictionaryDestroy()
+    {
+        clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(List<Object> key, Supplier<T> loader)
+    {
+        if (!enabled)
+        {
+            return loader.get();
+        }
+        return (T) entries.get(key, loader::get);
+    }
+}
@@ -139,6 +139,7 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
     private PersonService personService;
     private ActivitiPropertyConverter propertyConverter;
     private int taskVariablesLimit = 20000;
+    private TaskFormCache taskFormCache;
     
     public void setPropertyConverter(ActivitiPropertyConverter propertyConverter)
     {
@@ -170,6 +171,11 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
         this.taskVariablesLimit = taskVariablesLimit;
     }
     
+    public void setTaskFormCache(TaskFormCache taskFormCache)
+    {
+        this.taskFormCache = taskFormCache;
+    }
+    
     @Override
     public CollectionWithPagingInfo<Task> getTasks(Parameters parameters)
     {
@@ -236,7 +242,7 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
         }
         
         List<Task> page = null;
-        int totalCount = 0;
+        QueryPage<?> queryPage = null;
         if (status == null || STATUS_ACTIVE.equals(status))
         {
             TaskQuery query = activitiProcessEngine
@@ -324,12 +330,12 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
             
             setSorting(query, sortColumn);
             
-            List<org.activiti.engine.task.Task> tasks = query.listPage(paging.getSkipCount(), paging.getMaxItems());
-            totalCount = (int) query.count();
+            QueryPage<org.activiti.engine.task.Task> tasks = listPage(query, parameters, "tasks");
+            queryPage = tasks;
             
-            page = new ArrayList<Task>(tasks.size());
+            page = new ArrayList<Task>(tasks.getResults().size());
             Map<String, TypeDefinition> definitionTypeMap = new HashMap<String, TypeDefinition>();
-            for (org.activiti.engine.task.Task taskInstance: tasks) 
+            for (org.activiti.engine.task.Task taskInstance: tasks.getResults()) 
             {
                 Task task = new Task(taskInstance);
                 task.setFormResourceKey(getFormResourceKey(taskInstance));
@@ -414,12 +420,12 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
             
             setSorting(query, sortColumn);
             
-            List<HistoricTaskInstance> tasks = query.listPage(paging.getSkipCount(), paging.getMaxItems());
-            totalCount = (int) query.count();
+            QueryPage<HistoricTaskInstance> tasks = listPage(query, parameters, "historicTasks");
+            queryPage = tasks;
 
-            page = new ArrayList<Task>(tasks.size());
+            page = new ArrayList<Task>(tasks.getResults().size());
             Map<String, TypeDefinition> definitionTypeMap = new HashMap<String, TypeDefinition>();
-            for (HistoricTaskInstance taskInstance: tasks) 
+            for (HistoricTaskInstance taskInstance: tasks.getResults()) 
             {
                 Task task = new Task(taskInstance);
                 if ((includeProcessVariables != null && includeProcessVariables) || (includeTaskVariables != null && includeTaskVariables))
@@ -435,7 +441,7 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
             throw new InvalidArgumentException("Invalid status parameter: " + status);
         }
         
-        return CollectionWithPagingInfo.asPaged(paging, page, (page.size() + paging.getSkipCount()) < totalCount, totalCount);
+        return CollectionWithPagingInfo.asPaged(paging, page, queryPage.hasMoreItems(), queryPage.getTotalItems());
     }
 
     private void setQueryUsingVariables(TaskInfoQuery<?, ? extends TaskInfo> query, List<QueryVariableHolder> variableProperties)
@@ -543,11 +549,10 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
         {
             if (definitionTypeMap.containsKey(task.getProcessDefinitionId()) == false)
             {
-                StartFormData startFormData = activitiProcessEngine.getFormService().getStartFormData(task.getProcessDefinitionId());
-                if (startFormData != null)
+                TypeDefinition typeDefinition = getStartFormTypeDefinition(task.getProcessDefinitionId());
+                if (typeDefinition != null)
                 {
-                    String formKey = startFormData.getFormKey();
-                    definitionTypeMap.put(task.getProcessDefinitionId(), getWorkflowFactory().getTaskFullTypeDefinition(formKey, true));
+                    definitionTypeMap.put(task.getProcessDefinitionId(), typeDefinition);
                 }
             }
             
@@ -560,7 +565,7 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
         TypeDefinition taskTypeDefinition = null;
         if (includeTaskVariables != null && includeTaskVariables) 
         {
-            taskTypeDefinition = getWorkflowFactory().getTaskFullTypeDefinition(task.getFormResourceKey(), false);
+            taskTypeDefinition = getTaskTypeDefinition(task.getFormResourceKey(), false);
         }
         
         List<TaskVariable> variables = restVariableHelper.getTaskVariables(taskVariables, processVariables, 
@@ -588,7 +593,7 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
         validateIfUserAllowedToWorkWithProcess(processId);
 
         List<Task> page = null;
-        int totalCount = 0;
+        QueryPage<?> queryPage = null;
         if (status == null || STATUS_ACTIVE.equals(status))
         {
             TaskQuery query = activitiProcessEngine
@@ -598,11 +603,11 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
             query.processInstanceId(processId);
             setSorting(query, sortColumn);
             
-            List<org.activiti.engine.task.Task> tasks = query.listPage(paging.getSkipCount(), paging.getMaxItems());
-            totalCount = (int) query.count();
+            QueryPage<org.activiti.engine.task.Task> tasks = listPage(query, parameters, "processTasks:" + processId);
+            queryPage = tasks;
 
-            page = new ArrayList<Task>(tasks.size());
-            for (org.activiti.engine.task.Task taskInstance: tasks) 
+            page = new ArrayList<Task>(tasks.getResults().size());
+            for (org.activiti.engine.task.Task taskInstance: tasks.getResults()) 
             {
                 Task task = new Task(taskInstance);
                 task.setFormResourceKey(getFormResourceKey(taskInstance));
@@ -626,11 +631,11 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
             
             setSorting(query, sortColumn);
             
-            List<HistoricTaskInstance> tasks = query.listPage(paging.getSkipCount(), paging.getMaxItems());
-            totalCount = (int) query.count();
+            QueryPage<HistoricTaskInstance> tasks = listPage(query, parameters, "processHistoricTasks:" + processId);
+            queryPage = tasks;
 
-            page = new ArrayList<Task>(tasks.size());
-            for (HistoricTaskInstance taskInstance: tasks) 
+            page = new ArrayList<Task>(tasks.getResults().size());
+            for (HistoricTaskInstance taskInstance: tasks.getResults()) 
             {
                 Task task = new Task(taskInstance);
                 page.add(task);
@@ -641,7 +646,7 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
             throw new InvalidArgumentException("Invalid status parameter: " + status);
         }
         
-        return CollectionWithPagingInfo.asPaged(paging, page, (page.size() + paging.getSkipCount()) < totalCount, totalCount);
+        return CollectionWithPagingInfo.asPaged(paging, page, queryPage.hasMoreItems(), queryPage.getTotalItems());
     }
 
     @Override
@@ -901,7 +906,7 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
         String formKey = task.getFormKey();
         
         // Lookup type definition for the task
-        TypeDefinition taskType = getWorkflowFactory().getTaskFullTypeDefinition(formKey, true);
+        TypeDefinition taskType = getTaskTypeDefinition(formKey, true);
         return getFormModelElements(taskType, paging);
     }
     
@@ -950,14 +955,9 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
         }
         
         // Convert raw variables to TaskVariables
-        TypeDefinition taskTypeDefinition = getWorkflowFactory().getTaskFullTypeDefinition(formKey, false);
-        TypeDefinition startFormTypeDefinition = null;
-        StartFormData startFormData = activitiProcessEngine.getFormService().getStartFormData(taskInstance.getProcessDefinitionId());
-        if (startFormData != null)
-        {
-            startFormTypeDefinition = getWorkflowFactory().getTaskFullTypeDefinition(startFormData.getFormKey(), true);
-        }
-        else
+        TypeDefinition taskTypeDefinition = getTaskTypeDefinition(formKey, false);
+        TypeDefinition startFormTypeDefinition = getStartFormTypeDefinition(taskInstance.getProcessDefinitionId());
+        if (startFormTypeDefinition == null)
         {
             // fall back
             startFormTypeDefinition = taskTypeDefinition;
@@ -1029,14 +1029,11 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
         if (taskVariable.getVariableScope() == VariableScope.GLOBAL)
         {
             // Get start-task definition for explicit typing of variables submitted at the start
-            String formKey = null;
-            StartFormData startFormData = activitiProcessEngine.getFormService().getStartFormData(taskInstance.getProcessDefinitionId());
-            if (startFormData != null)
+            TypeDefinition startTaskTypeDefinition = getStartFormTypeDefinition(taskInstance.getProcessDefinitionId());
+            if (startTaskTypeDefinition == null)
             {
-                formKey = startFormData.getFormKey();
+                startTaskTypeDefinition = getTaskTypeDefinition(null, true);
             }
-            
-            TypeDefinition startTaskTypeDefinition = getWorkflowFactory().getTaskFullTypeDefinition(formKey, true);
             context = new TypeDefinitionContext(startTaskTypeDefinition, getQNameConverter());
             if (context.getPropertyDefinition(taskVariable.getName()) != null) 
             {
@@ -1056,8 +1053,8 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
             // Revert to either the content-model type or the raw type provided by the request
             try 
             {
-                String formKey = activitiProcessEngine.getFormService().getTaskFormKey(taskInstance.getProcessDefinitionId(), taskInstance.getTaskDefinitionKey());
-                TypeDefinition typeDefinition = getWorkflowFactory().getTaskFullTypeDefinition(formKey, false);
+                String formKey = getTaskFormKey(taskInstance.getProcessDefinitionId(), taskInstance.getTaskDefinitionKey());
+                TypeDefinition typeDefinition = getTaskTypeDefinition(formKey, false);
                 context = new TypeDefinitionContext(typeDefinition, getQNameConverter());
                 if (context.getPropertyDefinition(taskVariable.getName()) != null) 
                 {
@@ -1221,7 +1218,7 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
     {
         if (task.getProcessDefinitionId() != null)
         {
-            String formKey = activitiProcessEngine.getFormService().getTaskFormKey(task.getProcessDefinitionId(), task.getTaskDefinitionKey());
+            String formKey = getTaskFormKey(task.getProcessDefinitionId(), task.getTaskDefinitionKey());
             return formKey;
         } 
         else 
@@ -1231,6 +1228,57 @@ public class TasksImpl extends WorkflowRestImpl implements Tasks
         }
     }
     
+    /**
+     * Get the form key of a task definition, from the {@link TaskFormCache} when available.
+     */
+    protected String getTaskFormKey(final String processDefinitionId, final String taskDefinitionKey)
+    {
+        if (taskFormCache == null)
+        {
+            return activitiProcessEngine.getFormService().getTaskFormKey(processDefinitionId, taskDefinitionKey);
+        }
+        return taskFormCache.getFormKey(processDefinitionId, taskDefinitionKey, 
+                () -> activitiProcessEngine.getFormService().getTaskFormKey(processDefinitionId, taskDefinitionKey));
+    }
+    
+    /**
+     * Get the full type definition of a form, from the {@link TaskFormCache} when available.
+     */
+    protected TypeDefinition getTaskTypeDefinition(final String formKey, final boolean isStart)
+    {
+        if (taskFormCache == null)
+        {
+            return getWorkflowFactory().getTaskFullTypeDefinition(formKey, isStart);
+        }
+        return taskFormCache.getTaskTypeDefinition(formKey, isStart, 
+                () -> getWorkflowFactory().getTaskFullTypeDefinition(formKey, isStart));
+    }
+    
+    /**
+     * Get the type definition of the start form of a process definition, from the {@link TaskFormCache} when available.
+     * 
+     * @return the type definition, or null when the process definition has no start form
+     */
+    protected TypeDefinition getStartFormTypeDefinition(final String processDefinitionId)
+    {
+        if (taskFormCache == null)
+        {
+            return loadStartFormTypeDefinition(processDefinitionId);
+        }
+        return taskFormCache.getStartFormTypeDefinition(processDefinitionId, 
+                () -> loadStartFormTypeDefinition(processDefinitionId));
+    }
+    
+    private TypeDefinition loadStartFormTypeDefinition(String processDefinitionId)
+    {
+        StartFormData startFormData = activitiProcessEngine.getFormService().getStartFormData(processDefinitionId);
+        if (startFormData == null)
+        {
+            return null;
+        }
+        return getTaskTypeDefinition(startFormData.getFormKey(), true);
+    }
+    
     /**
      * @return true, if at least one task property has been changed based on the given parameters.
      */
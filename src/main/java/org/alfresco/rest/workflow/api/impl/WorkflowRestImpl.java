@@ -42,6 +42,7 @@ import org.activiti.engine.ProcessEngine;
 import org.activiti.engine.history.HistoricTaskInstance;
 import org.activiti.engine.history.HistoricTaskInstanceQuery;
 import org.activiti.engine.history.HistoricVariableInstance;
+import org.activiti.engine.query.Query;
 import org.activiti.engine.task.Task;
 import org.alfresco.model.ContentModel;
 import org.alfresco.repo.dictionary.constraint.ListOfValuesConstraint;
@@ -60,6 +61,7 @@ import org.alfresco.rest.framework.core.exceptions.PermissionDeniedException;
 import org.alfresco.rest.framework.resource.parameters.CollectionWithPagingInfo;
 import org.alfresco.rest.framework.resource.parameters.Paging;
 import org.alfresco.rest.framework.resource.parameters.Parameters;
+import org.alfresco.rest.framework.tools.RecognizedParamsExtractor;
 import org.alfresco.rest.workflow.api.model.FormModelElement;
 import org.alfresco.rest.workflow.api.model.Item;
 import org.alfresco.service.cmr.dictionary.AssociationDefinition;
@@ -81,6 +83,7 @@ import org.alfresco.service.namespace.NamespaceService;
 import org.alfresco.service.namespace.QName;
 import org.apache.commons.beanutils.ConversionException;
 import org.apache.commons.beanutils.ConvertUtils;
+import org.springframework.extensions.webscripts.WebScriptRequest;
 
 /**
  * Base class for rest-implementations related to workflow. Contains utility-methods that
@@ -91,6 +94,7 @@ import org.apache.commons.beanutils.ConvertUtils;
 public class WorkflowRestImpl
 {
     protected static final String BPM_PACKAGE = "bpm_package";
+    protected static final String PARAM_INCLUDE_TOTAL_ITEMS = "totalItems";
     
     protected TenantService tenantService;
     protected AuthorityService authorityService;
@@ -101,6 +105,8 @@ public class WorkflowRestImpl
     protected boolean deployWorkflowsInTenant;
     protected List<String> excludeModelTypes = new ArrayList<String>(Arrays.asList("bpm_priority", "bpm_description", "bpm_dueDate"));
     private ActivitiWorkflowEngine activitiWorkflowEngine;
+    private boolean countTotalItems = true;
+    private QueryCountCache queryCountCache;
     
     static 
     {
@@ -145,6 +151,85 @@ public class WorkflowRestImpl
         this.deployWorkflowsInTenant = deployWorkflowsInTenant;
     }
     
+    /**
+     * @param countTotalItems true to count all the results of task and process queries for every page (the default),
+     *            false to only count them when the client includes <tt>totalItems</tt>
+     */
+    public void setCountTotalItems(boolean countTotalItems)
+    {
+        this.countTotalItems = countTotalItems;
+    }
+    
+    public void setQueryCountCache(QueryCountCache queryCountCache)
+    {
+        this.queryCountCache = queryCountCache;
+    }
+    
+    /**
+     * Get a page of the results of a query.
+     * <p>
+     * When total items are not counted for every page, one more result than requested is fetched to find out whether
+     * there are more items, and the total is only returned when it is known from the page (the last page was reached)
+     * or the client includes <tt>totalItems</tt>, in which case the count comes from the {@link QueryCountCache}.
+     * 
+     * @param query the query, with its filters and sorting set
+     * @param parameters the request parameters, with the paging to apply
+     * @param queryName identifies the query (together with the request parameters other than paging, such as the
+     *            where clause or the status) in the {@link QueryCountCache}
+     * @return the page of results
+     */
+    protected <U> QueryPage<U> listPage(final Query<?, U> query, Parameters parameters, String queryName)
+    {
+        Paging paging = parameters.getPaging();
+        int skipCount = paging.getSkipCount();
+        int maxItems = paging.getMaxItems();
+        if (countTotalItems)
+        {
+            List<U> results = query.listPage(skipCount, maxItems);
+            int totalCount = (int) query.count();
+            return new QueryPage<U>(results, (results.size() + skipCount) < totalCount, totalCount);
+        }
+        
+        List<U> results = query.listPage(skipCount, maxItems < Integer.MAX_VALUE ? maxItems + 1 : maxItems);
+        boolean hasMoreItems = results.size() > maxItems;
+        if (hasMoreItems)
+        {
+            results = results.subList(0, maxItems);
+        }
+        
+        Integer totalCount = null;
+        if (parameters.getInclude().contains(PARAM_INCLUDE_TOTAL_ITEMS))
+        {
+            WebScriptRequest request = parameters.getRequest();
+            if (queryCountCache != null && request != null)
+            {
+                List<Object> key = new ArrayList<Object>(Arrays.asList(TenantUtil.getCurrentDomain(),
+                            AuthenticationUtil.getRunAsUser(), queryName));
+                // every request parameter may shape the query, only the paging doesn't change the count
+                String[] names = request.getParameterNames();
+                Arrays.sort(names);
+                for (String name : names)
+                {
+                    if (!RecognizedParamsExtractor.PARAM_PAGING_SKIP.equals(name) && !RecognizedParamsExtractor.PARAM_PAGING_MAX.equals(name))
+                    {
+                        key.add(name);
+                        key.add(Arrays.asList(request.getParameterValues(name)));
+                    }
+                }
+                totalCount = (int) queryCountCache.getCount(key, () -> query.count());
+            }
+            else
+            {
+                totalCount = (int) query.count();
+            }
+        }
+        else if (!hasMoreItems && (!results.isEmpty() || skipCount == 0))
+        {
+            totalCount = skipCount + results.size();
+        }
+        return new QueryPage<U>(results, hasMoreItems, totalCount);
+    }
+    
     /**
      * Create NodeRef from item id String
      */
@@ -605,4 +690,39 @@ public class WorkflowRestImpl
         // Check if the user is a group member.
         return (groupMembers != null) && groupMembers.contains(username);
     }
+    
+    /**
+     * A page of query results, with the paging information to return.
+     */
+    protected static class QueryPage<U>
+    {
+        private final List<U> results;
+        private final boolean hasMoreItems;
+        private final Integer totalItems;
+        
+        public QueryPage(List<U> results, boolean hasMoreItems, Integer totalItems)
+        {
+            this.results = results;
+            this.hasMoreItems = hasMoreItems;
+            this.totalItems = totalItems;
+        }
+        
+        public List<U> getResults()
+        {
+            return results;
+        }
+        
+        public boolean hasMoreItems()
+        {
+            return hasMoreItems;
+        }
+        
+        /**
+         * @return the total number of results, or null when it isn't known
+         */
+        public Integer getTotalItems()
+        {
+            return totalItems;
+        }
+    }
 }
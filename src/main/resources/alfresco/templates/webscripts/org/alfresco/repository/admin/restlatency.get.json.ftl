@@ -0,0 +1,17 @@
+<#escape x as jsonUtils.encodeJSONString(x)>
+{
+   "enabled" : ${enabled?string("true","false")},
+   "operations" :
+   [
+   <#list operations as operation>
+      {
+         "name" : "${operation.name}",
+         <#list operation.phases?keys as phase>
+         <#assign values = operation.phases[phase]>
+         "${phase}" : { <#list values?keys as key>"${key}" : ${values[key]?c}<#if key_has_next>, </#if></#list> }<#if phase_has_next>,</#if>
+         </#list>
+      }<#if operation_has_next>,</#if>
+   </#list>
+   ]
+}
+</#escape>
@@ -36,16 +36,27 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
 
     // very fast - no context tests - true jUnit tests
+    org.alfresco.repo.web.scripts.RepoDocumentCacheTest.class,
+    org.alfresco.repo.web.scripts.audit.AuditExportGetTest.class,
+    org.alfresco.repo.web.scripts.bean.SurfConfigCacheTest.class,
+    org.alfresco.repo.web.scripts.content.ContentStreamerTest.class,
     org.alfresco.repo.web.scripts.workflow.WorkflowModelBuilderTest.class,
     org.alfresco.repo.web.scripts.solr.StatsGetTest.class,
+    org.alfresco.repo.web.scripts.solr.NodesMetaDataGetTest.class,
     org.alfresco.repo.web.scripts.solr.SOLRSerializerTest.class,
     org.alfresco.repo.web.util.PagingCursorTest.class,
     org.alfresco.repo.web.util.paging.PagingTest.class,
     org.alfresco.repo.webdav.GetMethodTest.class,
     org.alfresco.repo.webdav.LockInfoImplTest.class,
+    org.alfresco.repo.webdav.PropFindMethodTest.class,
+    org.alfresco.repo.webdav.PropFindResponseCacheTest.class,
     org.alfresco.repo.webdav.RenameShuffleDetectionTest.class,
     org.alfresco.repo.webdav.WebDAVHelperTest.class,
     org.alfresco.repo.webdav.WebDAVLockServiceImplTest.class,
+    org.alfresco.rest.api.impl.RootAuthoritiesCacheTest.class,
+    org.alfresco.rest.api.impl.SiteMembershipCacheTest.class,
+    org.alfresco.rest.api.impl.SitesImplUnitTest.class,
+    org.alfresco.rest.api.people.PeopleEntityResourceTest.class,
     org.alfresco.rest.api.search.ResultMapperTests.class,
     org.alfresco.rest.api.search.SearchApiWebscriptTests.class,
     org.alfresco.rest.api.search.SearchMapperTests.class,
@@ -57,7 +68,12 @@ import org.junit.runners.Suite;
     org.alfresco.rest.framework.tests.core.ParamsExtractorTests.class,
     org.alfresco.rest.framework.tests.core.WhereTests.class,
     org.alfresco.rest.framework.tests.core.WithResponseTest.class,
+    org.alfresco.rest.framework.tools.LatencyHistogramTest.class,
     org.alfresco.rest.framework.tools.RecognizedParamsExtractorTest.class,
+    org.alfresco.rest.framework.tools.UserInfoCacheTest.class,
+    org.alfresco.rest.workflow.api.impl.ProcessDiagramCacheTest.class,
+    org.alfresco.rest.workflow.api.impl.QueryCountCacheTest.class,
+    org.alfresco.rest.workflow.api.impl.TaskFormCacheTest.class,
         // add applicationContext_02_part2 as it is compatible with the rest of the tests in this test suite
         // and because it balances the load of the build jobs
     
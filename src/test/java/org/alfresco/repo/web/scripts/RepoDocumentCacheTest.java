@@ -0,0 +1,111 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.web.scripts;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RepoDocumentCache} class.
+ */
+public class RepoDocumentCacheTest
+{
+    private RepoDocumentCache cache;
+    private NodeRef baseRef;
+    private NodeRef folderRef;
+    private NodeRef documentRef;
+
+    @Before
+    public void setUp()
+    {
+        cache = new RepoDocumentCache(2, 0);
+        baseRef = new NodeRef("workspace://SpacesStore/base-id");
+        folderRef = new NodeRef("workspace://SpacesStore/folder-id");
+        documentRef = new NodeRef("workspace://SpacesStore/document-id");
+    }
+
+    @Test
+    public void testIndexedDocuments()
+    {
+        assertNull(cache.get("", "folder/doc.get.js"));
+
+        RepoDocumentCache.Document document = new RepoDocumentCache.Document(documentRef, true, 10L, "UTF-8");
+        document.setContent("model.a = 1;".getBytes());
+        cache.put("", "folder/doc.get.js", document, Arrays.asList(baseRef, folderRef, documentRef), cache.getGeneration());
+        RepoDocumentCache.Document missing = new RepoDocumentCache.Document(null, false, 0L, null);
+        cache.put("", "folder/doc.get.html.ftl", missing, Arrays.asList(baseRef, folderRef), cache.getGeneration());
+
+        assertSame(document, cache.get("", "folder/doc.get.js"));
+        assertArrayEquals("model.a = 1;".getBytes(), cache.get("", "folder/doc.get.js").getContent());
+        assertNull(cache.get("", "folder/doc.get.html.ftl").getNodeRef());
+        assertNull(cache.get("tenant.com", "folder/doc.get.js"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction()
+    {
+        RepoDocumentCache.Document document = new RepoDocumentCache.Document(documentRef, true, 10L, "UTF-8");
+        cache.put("", "a", document, Collections.singletonList(baseRef), cache.getGeneration());
+        cache.put("", "b", document, Collections.singletonList(baseRef), cache.getGeneration());
+        assertNotNull(cache.get("", "a"));
+        cache.put("", "c", document, Collections.singletonList(baseRef), cache.getGeneration());
+
+        assertNotNull(cache.get("", "a"));
+        assertNull(cache.get("", "b"));
+        assertNotNull(cache.get("", "c"));
+    }
+
+    @Test
+    public void testNotKeptWhenChangedDuringLookup()
+    {
+        long readGeneration = cache.getGeneration();
+        cache.clear();
+        cache.put("", "a", new RepoDocumentCache.Document(documentRef, true, 10L, "UTF-8"), Collections.singletonList(baseRef), readGeneration);
+        assertNull(cache.get("", "a"));
+    }
+
+    @Test
+    public void testUnwatchedChangesIgnored()
+    {
+        cache.put("", "a", new RepoDocumentCache.Document(documentRef, true, 10L, "UTF-8"), Arrays.asList(baseRef, documentRef), cache.getGeneration());
+        cache.onUpdateNode(new NodeRef("workspace://SpacesStore/other-id"));
+        assertNotNull(cache.get("", "a"));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2016 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.web.scripts.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.StringWriter;
+import java.util.Collections;
+
+import org.alfresco.repo.transaction.RetryingTransactionHelper;
+import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
+import org.alfresco.service.cmr.audit.AuditQueryParameters;
+import org.alfresco.service.cmr.audit.AuditService;
+import org.alfresco.service.cmr.audit.AuditService.AuditQueryCallback;
+import org.alfresco.service.transaction.TransactionService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.extensions.webscripts.Match;
+import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
+
+/**
+ * Tests the chunking of the AuditExportGet
+ */
+public class AuditExportGetTest
+{
+    private static final String APP_NAME = "test";
+    private static final long LAST_ID = 7L;
+    private static final long ERROR_ID = 2L;
+
+    private AuditExportGet webScript;
+    private WebScriptRequest req;
+    private WebScriptResponse res;
+    private StringWriter out;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() throws Exception
+    {
+        AuditService auditService = mock(AuditService.class);
+        when(auditService.getAuditApplications()).thenReturn(
+                    Collections.singletonMap(APP_NAME, mock(AuditService.AuditApplication.class)));
+        // entries 1 to 7, entry 2 cannot be read
+        doAnswer(invocation -> {
+            AuditQueryCallback callback = (AuditQueryCallback) invocation.getArguments()[0];
+            AuditQueryParameters params = (AuditQueryParameters) invocation.getArguments()[1];
+            int maxResults = (Integer) invocation.getArguments()[2];
+            long id = (params.getFromId() == null) ? 1L : params.getFromId();
+            for (int count = 0; count < maxResults && id <= LAST_ID; count++, id++)
+            {
+                if (id == ERROR_ID)
+                {
+                    callback.handleAuditEntryError(id, "Unreadable", new RuntimeException());
+                }
+                else
+                {
+                    callback.handleAuditEntry(id, APP_NAME, "admin", 0L, null);
+                }
+            }
+            return null;
+        }).when(auditService).auditQuery(any(AuditQueryCallback.class), any(AuditQueryParameters.class), anyInt());
+
+        RetryingTransactionHelper txnHelper = mock(RetryingTransactionHelper.class);
+        when(txnHelper.doInTransaction(any(RetryingTransactionCallback.class), anyBoolean(), anyBoolean())).thenAnswer(
+                    invocation -> ((RetryingTransactionCallback<?>) invocation.getArguments()[0]).execute());
+        TransactionService transactionService = mock(TransactionService.class);
+        when(transactionService.getRetryingTransactionHelper()).thenReturn(txnHelper);
+
+        webScript = new AuditExportGet();
+        webScript.setAuditService(auditService);
+        webScript.setTransactionService(transactionService);
+        webScript.setChunkSize(3);
+
+        Match match = mock(Match.class);
+        when(match.getTemplateVars()).thenReturn(Collections.singletonMap(AbstractAuditWebScript.PARAM_APPLICATION, APP_NAME));
+        req = mock(WebScriptRequest.class);
+        when(req.getServiceMatch()).thenReturn(match);
+
+        out = new StringWriter();
+        res = mock(WebScriptResponse.class);
+        when(res.getWriter()).thenReturn(out);
+    }
+
+    @Test
+    public void testErrorEntryInChunk() throws Exception
+    {
+        webScript.execute(req, res);
+
+        // the unreadable entry is skipped, and the export continues after its chunk
+        String[] lines = out.toString().trim().split("\n");
+        assertEquals(6, lines.length);
+        assertEquals(1L, getEntryId(lines[0]));
+        assertEquals(3L, getEntryId(lines[1]));
+        assertEquals(LAST_ID, getEntryId(lines[5]));
+    }
+
+    private static long getEntryId(String line)
+    {
+        String key = "\"" + AbstractAuditWebScript.JSON_KEY_ENTRY_ID + "\":";
+        int start = line.indexOf(key) + key.length();
+        int end = line.indexOf(',', start);
+        return Long.parseLong(line.substring(start, end));
+    }
+}
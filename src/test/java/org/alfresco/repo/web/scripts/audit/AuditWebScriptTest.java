@@ -552,4 +552,56 @@ public class AuditWebScriptTest extends BaseWebScriptTest
         entryUsername = jsonValues.getString("/repositorytest/login/error/user");
         assertEquals("Didn't find the login-failure-user", oddUser, entryUsername);
     }
+
+    public void testExportAuditRepo() throws Exception
+    {
+        long now = System.currentTimeMillis();
+
+        auditService.setAuditEnabled(true);
+        auditService.enableAudit(APP_REPOTEST_NAME, APP_REPOTEST_PATH);
+
+        loginWithFailure(getName() + "-1");
+        loginWithFailure(getName() + "-2");
+
+        // Export everything since the start of the test, one JSON entry per line
+        String url = "/api/audit/export/" + APP_REPOTEST_NAME + "?verbose=true&fromTime=" + now;
+        String[] lines = null;
+        // auditing of failures is asynchronous, so loop 60 times with a 1 second sleep
+        for (int i = 0; i < 60; i++)
+        {
+            Response response = sendRequest(new TestWebScriptServer.GetRequest(url), Status.STATUS_OK, admin);
+            assertTrue(response.getContentType().startsWith(AuditExportGet.MIMETYPE_NDJSON));
+            lines = response.getContentAsString().split("\n");
+            if (lines.length >= 2)
+            {
+                break;
+            }
+            Thread.sleep(1000);
+        }
+        assertEquals("Incorrect number of exported entries", 2, lines.length);
+        JSONObject first = new JSONObject(lines[0]);
+        JSONObject second = new JSONObject(lines[1]);
+        assertEquals(getName() + "-1", first.getJSONObject(AbstractAuditWebScript.JSON_KEY_ENTRY_VALUES).getString("/repositorytest/login/error/user"));
+        assertNotNull(ISO8601DateFormat.parse(first.getString(AbstractAuditWebScript.JSON_KEY_ENTRY_TIME)));
+        long firstId = first.getLong(AbstractAuditWebScript.JSON_KEY_ENTRY_ID);
+        long secondId = second.getLong(AbstractAuditWebScript.JSON_KEY_ENTRY_ID);
+        assertTrue("Entries must be in id order", firstId < secondId);
+
+        // Resume after the first entry
+        url = "/api/audit/export/" + APP_REPOTEST_NAME + "?fromTime=" + now + "&fromId=" + (firstId + 1);
+        Response response = sendRequest(new TestWebScriptServer.GetRequest(url), Status.STATUS_OK, admin);
+        lines = response.getContentAsString().split("\n");
+        assertEquals("Incorrect number of exported entries", 1, lines.length);
+        assertEquals(secondId, new JSONObject(lines[0]).getLong(AbstractAuditWebScript.JSON_KEY_ENTRY_ID));
+
+        // Backwards, limited to the last entry
+        url = "/api/audit/export/" + APP_REPOTEST_NAME + "?fromTime=" + now + "&forward=false&limit=1";
+        response = sendRequest(new TestWebScriptServer.GetRequest(url), Status.STATUS_OK, admin);
+        lines = response.getContentAsString().split("\n");
+        assertEquals("Incorrect number of exported entries", 1, lines.length);
+        assertEquals(secondId, new JSONObject(lines[0]).getLong(AbstractAuditWebScript.JSON_KEY_ENTRY_ID));
+
+        // Unknown application
+        sendRequest(new TestWebScriptServer.GetRequest("/api/audit/export/" + GUID.generate()), Status.STATUS_NOT_FOUND, admin);
+    }
 }
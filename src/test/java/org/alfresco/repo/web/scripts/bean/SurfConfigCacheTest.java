@@ -0,0 +1,146 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.web.scripts.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link SurfConfigCache} class.
+ */
+public class SurfConfigCacheTest
+{
+    private SurfConfigCache cache;
+    private NodeRef siteRef;
+    private NodeRef surfConfigRef;
+    private NodeRef folderRef;
+
+    @Before
+    public void setUp()
+    {
+        cache = new SurfConfigCache();
+        cache.setEnabled(true);
+        cache.setMaxItems(2);
+        cache.setTimeToLive(0);
+        siteRef = new NodeRef("workspace://SpacesStore/site-id");
+        surfConfigRef = new NodeRef("workspace://SpacesStore/surf-config-id");
+        folderRef = new NodeRef("workspace://SpacesStore/folder-id");
+    }
+
+    @Test
+    public void testCachedEntries()
+    {
+        assertNull(cache.getSurfConfig("", "swsdp"));
+
+        SurfConfigCache.SurfConfig surfConfig = new SurfConfigCache.SurfConfig(surfConfigRef);
+        cache.putSurfConfig("", "swsdp", surfConfig, Arrays.asList(siteRef, surfConfigRef), cache.getGeneration());
+        cache.putSurfConfig("", null, new SurfConfigCache.SurfConfig(null), Collections.<NodeRef>emptyList(), cache.getGeneration());
+        SurfConfigCache.Path missing = new SurfConfigCache.Path(null);
+        cache.putPath("", "/alfresco/site-data/pages/site/swsdp/dashboard.xml", missing, Arrays.asList(surfConfigRef), cache.getGeneration());
+
+        assertSame(surfConfig, cache.getSurfConfig("", "swsdp"));
+        assertNull(cache.getSurfConfig("", null).getNodeRef());
+        assertNull(cache.getSurfConfig("tenant.com", "swsdp"));
+        assertSame(missing, cache.getPath("", "/alfresco/site-data/pages/site/swsdp/dashboard.xml"));
+        assertNull(cache.getPath("", "/alfresco/site-data/pages/site/swsdp/dashboard.xml|*"));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testListingPatterns()
+    {
+        SurfConfigCache.Listing listing = new SurfConfigCache.Listing(true,
+                    Arrays.asList("page.title.site~swsdp~dashboard.xml", "page.component-1-1.site~swsdp~dashboard.xml", "page.component-1-1.user~admin~dashboard.xml"),
+                    Arrays.asList("/alfresco/site-data/components/a", "/alfresco/site-data/components/b", "/alfresco/site-data/components/c"));
+        cache.putListing(folderRef, null, listing, Arrays.asList(surfConfigRef, folderRef), cache.getGeneration());
+
+        SurfConfigCache.Listing index = cache.getListing(folderRef, null);
+        assertTrue(index.isComplete());
+        assertEquals(3, index.getDocumentPaths("*").size());
+        assertEquals(Arrays.asList("/alfresco/site-data/components/a", "/alfresco/site-data/components/b"),
+                    index.getDocumentPaths("page.*.site~swsdp~dashboard.xml"));
+        assertEquals(Arrays.asList("/alfresco/site-data/components/c"), index.getDocumentPaths("PAGE.*.user~admin~*"));
+        // dots are not wildcards
+        assertEquals(0, index.getDocumentPaths("page.title.site~swsdp~dashboardxxml").size());
+        assertNull(cache.getListing(folderRef, "page.*.site~swsdp~dashboard.xml"));
+    }
+
+    @Test
+    public void testNotKeptWhenChangedDuringLookup()
+    {
+        long readGeneration = cache.getGeneration();
+        cache.clear();
+        cache.putSurfConfig("", "swsdp", new SurfConfigCache.SurfConfig(surfConfigRef), Arrays.asList(siteRef, surfConfigRef), readGeneration);
+        assertNull(cache.getSurfConfig("", "swsdp"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction()
+    {
+        cache.putPath("", "a", new SurfConfigCache.Path(null), Collections.singletonList(surfConfigRef), cache.getGeneration());
+        cache.putPath("", "b", new SurfConfigCache.Path(null), Collections.singletonList(surfConfigRef), cache.getGeneration());
+        assertNotNull(cache.getPath("", "a"));
+        cache.putPath("", "c", new SurfConfigCache.Path(null), Collections.singletonList(surfConfigRef), cache.getGeneration());
+
+        assertNotNull(cache.getPath("", "a"));
+        assertNull(cache.getPath("", "b"));
+        assertNotNull(cache.getPath("", "c"));
+    }
+
+    @Test
+    public void testUnwatchedChangesIgnored()
+    {
+        cache.putPath("", "a", new SurfConfigCache.Path(null), Arrays.asList(surfConfigRef, folderRef), cache.getGeneration());
+        cache.onUpdateNode(new NodeRef("workspace://SpacesStore/other-id"));
+        cache.onDeleteChildAssociation(new ChildAssociationRef(null, siteRef, null, new NodeRef("workspace://SpacesStore/other-id")));
+        assertNotNull(cache.getPath("", "a"));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        cache.setEnabled(false);
+        assertFalse(cache.isEnabled());
+        cache.putPath("", "a", new SurfConfigCache.Path(null), Collections.singletonList(surfConfigRef), cache.getGeneration());
+        assertNull(cache.getPath("", "a"));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2016 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.web.scripts.content;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.extensions.webscripts.Cache;
+import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
+
+/**
+ * Unit tests for streaming in-memory content with the {@link ContentStreamer}.
+ */
+public class ContentStreamerTest
+{
+    private static final byte[] CONTENT = new byte[] { 1, 2, 3 };
+    private static final String ETAG = "0123456789abcdef";
+
+    private ContentStreamer streamer;
+    private WebScriptRequest req;
+    private WebScriptResponse res;
+
+    @Before
+    public void setUp()
+    {
+        streamer = new ContentStreamer();
+        req = mock(WebScriptRequest.class);
+        res = mock(WebScriptResponse.class);
+    }
+
+    @Test
+    public void testStreamedWithETag() throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        when(req.getHeader("If-None-Match")).thenReturn("\"another\"");
+        when(res.getOutputStream()).thenReturn(out);
+
+        streamer.streamContent(req, res, CONTENT, "image/png", ETAG, false, null, null);
+
+        assertArrayEquals(CONTENT, out.toByteArray());
+        verify(res).setContentType("image/png");
+        verify(res, never()).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        assertCacheHeaders();
+    }
+
+    @Test
+    public void testNotModifiedWhenNoneMatch() throws Exception
+    {
+        when(req.getHeader("If-None-Match")).thenReturn("\"" + ETAG + "\"");
+
+        streamer.streamContent(req, res, CONTENT, "image/png", ETAG, false, null, null);
+
+        verify(res).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(res, never()).getOutputStream();
+        // the 304 carries the same cache headers as the content
+        assertCacheHeaders();
+    }
+
+    private void assertCacheHeaders()
+    {
+        ArgumentCaptor<Cache> cache = ArgumentCaptor.forClass(Cache.class);
+        verify(res).setCache(cache.capture());
+        assertEquals(ETAG, cache.getValue().getETag());
+        assertTrue(cache.getValue().getMustRevalidate());
+    }
+}
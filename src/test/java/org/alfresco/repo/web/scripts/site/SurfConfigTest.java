@@ -42,6 +42,7 @@ import org.alfresco.service.cmr.security.PermissionService;
 import org.alfresco.service.cmr.site.SiteService;
 import org.alfresco.service.cmr.site.SiteVisibility;
 import org.json.JSONObject;
+import org.springframework.extensions.webscripts.TestWebScriptServer.GetRequest;
 import org.springframework.extensions.webscripts.TestWebScriptServer.PostRequest;
 import org.springframework.extensions.webscripts.TestWebScriptServer.PutRequest;
 import org.springframework.extensions.webscripts.TestWebScriptServer.Response;
@@ -221,4 +222,36 @@ public class SurfConfigTest extends AbstractSiteServiceTest
             //expected
         }
     }
+
+    public void testCreateDocuments() throws Exception
+    {
+        String shortName = UUID.randomUUID().toString();
+        createSite("myPreset", shortName, "myTitle", "myDescription", SiteVisibility.PUBLIC, 200);
+
+        // Share posts the site dashboard and its components in a single request
+        String payload = "<documents>"
+                    + "<document path=\"/alfresco/site-data/pages/site/" + shortName + "/dashboard.xml\"><page><title>dashboard</title></page></document>"
+                    + "<document path=\"/alfresco/site-data/components/page.title.site~" + shortName + "~dashboard.xml\"><component><region-id>title</region-id></component></document>"
+                    + "<document path=\"/alfresco/site-data/components/page.navigation.site~" + shortName + "~dashboard.xml\"><component><region-id>navigation</region-id></component></document>"
+                    + "<document path=\"/alfresco/site-data/components/page.title.site~" + shortName + "~dashboard.xml\"><component><region-id>updated</region-id></component></document>"
+                    + "</documents>";
+        sendRequest(new PostRequest(URL_ADM + "CREATEMULTI?s=sitestore", payload, "text/xml"), 200);
+
+        AuthenticationUtil.setAdminUserAsFullyAuthenticatedUser();
+        NodeRef surfConfigFolderRef = nodeService
+                    .getChildByName(siteService.getSite(shortName).getNodeRef(), ContentModel.ASSOC_CONTAINS, "surf-config");
+        NodeRef pagesRef = nodeService.getChildByName(surfConfigFolderRef, ContentModel.ASSOC_CONTAINS, "pages");
+        NodeRef sitePagesRef = nodeService.getChildByName(pagesRef, ContentModel.ASSOC_CONTAINS, "site");
+        NodeRef dashboardFolderRef = nodeService.getChildByName(sitePagesRef, ContentModel.ASSOC_CONTAINS, shortName);
+        assertNotNull(nodeService.getChildByName(dashboardFolderRef, ContentModel.ASSOC_CONTAINS, "dashboard.xml"));
+
+        NodeRef componentsRef = nodeService.getChildByName(surfConfigFolderRef, ContentModel.ASSOC_CONTAINS, "components");
+        List<FileInfo> components = fileFolderService.list(componentsRef, true, false, null, null, null,
+                    new PagingRequest(CannedQueryPageDetails.DEFAULT_PAGE_SIZE)).getPage();
+        assertEquals(2, components.size());
+
+        // the same document written twice in a batch is updated
+        Response response = sendRequest(new GetRequest(URL_ADM + "GET/alfresco/site-data/components/page.title.site~" + shortName + "~dashboard.xml?s=sitestore"), 200);
+        assertTrue(response.getContentAsString().contains("updated"));
+    }
 }
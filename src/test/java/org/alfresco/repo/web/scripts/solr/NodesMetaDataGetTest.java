@@ -0,0 +1,124 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2016 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.web.scripts.solr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+
+import org.alfresco.repo.solr.MetaDataResultsFilter;
+import org.alfresco.repo.solr.NodeMetaDataParameters;
+import org.alfresco.repo.solr.SOLRTrackingComponent;
+import org.alfresco.repo.solr.SOLRTrackingComponent.NodeMetaDataQueryCallback;
+import org.alfresco.repo.transaction.RetryingTransactionHelper;
+import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
+import org.alfresco.service.transaction.TransactionService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.extensions.surf.util.Content;
+import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
+
+/**
+ * Tests failures while streaming the NodesMetaDataGet results
+ */
+public class NodesMetaDataGetTest
+{
+    private NodesMetaDataGet webScript;
+    private RetryingTransactionHelper txnHelper;
+    private WebScriptRequest req;
+    private WebScriptResponse res;
+    private ByteArrayOutputStream out;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        txnHelper = mock(RetryingTransactionHelper.class);
+        when(txnHelper.doInTransaction(any(RetryingTransactionCallback.class), anyBoolean())).thenAnswer(
+                    invocation -> ((RetryingTransactionCallback<?>) invocation.getArguments()[0]).execute());
+        TransactionService transactionService = mock(TransactionService.class);
+        when(transactionService.getRetryingTransactionHelper()).thenReturn(txnHelper);
+
+        SOLRTrackingComponent solrTrackingComponent = mock(SOLRTrackingComponent.class);
+        doThrow(new ConcurrencyFailureException("Deadlock")).when(solrTrackingComponent).getNodesMetadata(
+                    any(NodeMetaDataParameters.class), any(MetaDataResultsFilter.class), any(NodeMetaDataQueryCallback.class));
+
+        webScript = new NodesMetaDataGet();
+        webScript.setTransactionService(transactionService);
+        webScript.setSolrTrackingComponent(solrTrackingComponent);
+        webScript.setStreamResults(true);
+
+        Content content = mock(Content.class);
+        when(content.getContent()).thenReturn("{\"fromNodeId\": 1, \"toNodeId\": 100}");
+        req = mock(WebScriptRequest.class);
+        when(req.getContent()).thenReturn(content);
+        out = new ByteArrayOutputStream();
+        res = mock(WebScriptResponse.class);
+        when(res.getOutputStream()).thenReturn(out);
+    }
+
+    @Test
+    public void testFailureBeforeCommitResetsResponse() throws Exception
+    {
+        try
+        {
+            webScript.execute(req, res);
+            fail("The failure should be thrown");
+        }
+        catch (ConcurrencyFailureException e)
+        {
+            // expected
+        }
+        verify(res).reset();
+        verify(txnHelper).setMaxRetries(0);
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    public void testFailureAfterCommitLeavesDocumentUnterminated() throws Exception
+    {
+        doThrow(new IllegalStateException("Committed")).when(res).reset();
+        try
+        {
+            webScript.execute(req, res);
+            fail("The failure should be thrown");
+        }
+        catch (ConcurrencyFailureException e)
+        {
+            // expected
+        }
+        // the client can't mistake the truncated output for a complete (empty) result
+        assertEquals("{\"nodes\":[", out.toString("UTF-8"));
+    }
+}
@@ -29,6 +29,7 @@ import java.io.PrintWriter;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -59,6 +60,9 @@ import org.alfresco.util.Pair;
 import org.alfresco.util.PropertyMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -486,7 +490,12 @@ public class SOLRWebScriptTest extends BaseWebScriptTest
 
     private JSONArray getNodesMetaData(List<Long> nodeIds, int maxResults, int numMetaDataNodes) throws Exception
     {
-        StringBuilder url = new StringBuilder("/api/solr/metadata");
+        return getNodesMetaData(nodeIds, maxResults, numMetaDataNodes, false);
+    }
+
+    private JSONArray getNodesMetaData(List<Long> nodeIds, int maxResults, int numMetaDataNodes, boolean stream) throws Exception
+    {
+        StringBuilder url = new StringBuilder("/api/solr/metadata?stream=").append(stream);
 
         JSONObject json = new JSONObject();
         if(nodeIds != null && nodeIds.size() > 0)
@@ -623,6 +632,92 @@ public class SOLRWebScriptTest extends BaseWebScriptTest
         }
     }
 
+    public void testNodeMetaDataStreaming() throws Exception
+    {
+        long fromCommitTime = System.currentTimeMillis();
+
+        buildTransactions7();
+
+        JSONArray transactions = getTransactions(fromCommitTime);
+        List<Long> transactionIds = getTransactionIds(transactions);
+
+        GetNodesParameters params = new GetNodesParameters();
+        params.setTransactionIds(transactionIds);
+        params.setStoreProtocol(storeRef.getProtocol());
+        params.setStoreIdentifier(storeRef.getIdentifier());
+        JSONArray nodes = getNodes(params, 0, 2);
+
+        List<Long> nodeIds = new ArrayList<Long>(nodes.length());
+        for(int i = 0; i < nodes.length(); i++)
+        {
+            nodeIds.add(nodes.getJSONObject(i).getLong("id"));
+        }
+
+        // the streamed results must match the FreeMarker rendered results
+        JSONArray renderedMetaData = getNodesMetaData(nodeIds, 0, 2, false);
+        JSONArray streamedMetaData = getNodesMetaData(nodeIds, 0, 2, true);
+        for(int i = 0; i < renderedMetaData.length(); i++)
+        {
+            JSONObject rendered = renderedMetaData.getJSONObject(i);
+            JSONObject streamed = streamedMetaData.getJSONObject(i);
+
+            assertEquals("Id is incorrect", rendered.getLong("id"), streamed.getLong("id"));
+            assertEquals("NodeRef is incorrect", rendered.getString("nodeRef"), streamed.getString("nodeRef"));
+            assertEquals("Type is incorrect", rendered.getString("type"), streamed.getString("type"));
+            assertEquals("AclId is incorrect", rendered.getLong("aclId"), streamed.getLong("aclId"));
+            assertEquals("Aspects are incorrect", rendered.getJSONArray("aspects").length(), streamed.getJSONArray("aspects").length());
+            assertEquals("Properties are incorrect", getPropertyMap(rendered.getJSONObject("properties")), getPropertyMap(streamed.getJSONObject("properties")));
+            assertEquals("Paths are incorrect", rendered.getJSONArray("paths").length(), streamed.getJSONArray("paths").length());
+        }
+
+        JSONObject node = streamedMetaData.getJSONObject(1);
+        assertTrue("Expected author aspect", containsAspect(node.getJSONArray("aspects"), ContentModel.ASPECT_AUTHOR));
+        assertTrue("Expected author property", containsProperty(getPropertyMap(node.getJSONObject("properties")), ContentModel.PROP_AUTHOR, "ste\"ve"));
+    }
+
+    public void testBinaryFormat() throws Exception
+    {
+        long fromCommitTime = System.currentTimeMillis();
+
+        buildTransactions7();
+
+        ObjectMapper jsonMapper = new ObjectMapper();
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        Map<String, String> headers = Collections.singletonMap("Accept", SOLRBinaryFormat.MIMETYPE_SMILE);
+
+        // transactions
+        String url = "/api/solr/transactions?fromCommitTime=" + fromCommitTime;
+        Response jsonResponse = sendRequest(new TestWebScriptServer.GetRequest(url), Status.STATUS_OK, admin);
+        Response smileResponse = sendRequest(new TestWebScriptServer.GetRequest(url).setHeaders(headers), Status.STATUS_OK, admin);
+        assertEquals("Transactions do not match", jsonMapper.readTree(jsonResponse.getContentAsString()),
+                    smileMapper.readTree(smileResponse.getContentAsByteArray()));
+
+        JSONArray transactions = getTransactions(fromCommitTime);
+        JSONObject json = new JSONObject();
+        json.put("txnIds", new JSONArray(getTransactionIds(transactions)));
+        json.put("storeProtocol", storeRef.getProtocol());
+        json.put("storeIdentifier", storeRef.getIdentifier());
+
+        // nodes
+        jsonResponse = sendRequest(new TestWebScriptServer.PostRequest("/api/solr/nodes", json.toString(), "application/json"), Status.STATUS_OK, admin);
+        smileResponse = sendRequest(new TestWebScriptServer.PostRequest("/api/solr/nodes", json.toString(), "application/json").setHeaders(headers), Status.STATUS_OK, admin);
+        JsonNode nodes = jsonMapper.readTree(jsonResponse.getContentAsString());
+        assertEquals("Nodes do not match", nodes, smileMapper.readTree(smileResponse.getContentAsByteArray()));
+
+        // metadata
+        JSONObject metadataJSON = new JSONObject();
+        JSONArray nodeIds = new JSONArray();
+        for (JsonNode node : nodes.get("nodes"))
+        {
+            nodeIds.put(node.get("id").asLong());
+        }
+        metadataJSON.put("nodeIds", nodeIds);
+        jsonResponse = sendRequest(new TestWebScriptServer.PostRequest("/api/solr/metadata?stream=true", metadataJSON.toString(), "application/json"), Status.STATUS_OK, admin);
+        smileResponse = sendRequest(new TestWebScriptServer.PostRequest("/api/solr/metadata", metadataJSON.toString(), "application/json").setHeaders(headers), Status.STATUS_OK, admin);
+        assertEquals("Metadata does not match", jsonMapper.readTree(jsonResponse.getContentAsString()),
+                    smileMapper.readTree(smileResponse.getContentAsByteArray()));
+    }
+
     private NodeRef container7;
     
     private void buildTransactions7()
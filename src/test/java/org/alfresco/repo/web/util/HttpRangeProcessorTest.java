@@ -25,15 +25,27 @@
  */
 package org.alfresco.repo.web.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 
 import javax.servlet.http.HttpServletResponse;
 
+import org.alfresco.repo.content.filestore.FileContentReader;
 import org.alfresco.service.cmr.repository.ContentReader;
+import org.alfresco.service.cmr.repository.ContentService;
+import org.alfresco.util.TempFileProvider;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -85,6 +97,80 @@ public class HttpRangeProcessorTest
         testRange("20000-", HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
     }
     
+    @Test
+    public void testFileChannelRange() throws IOException
+    {
+        File file = createContentFile();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        boolean result = httpRangeProcessor.processRange(response, new FileContentReader(file), "700-800", null, null, "image/jpeg", null);
+        
+        assertTrue(result);
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertArrayEquals(Arrays.copyOfRange(Files.readAllBytes(file.toPath()), 700, 801), response.getContentAsByteArray());
+    }
+    
+    @Test
+    public void testMultiRangeSingleStream() throws IOException
+    {
+        ContentService contentService = mock(ContentService.class);
+        when(contentService.getReader(null, null)).thenReturn(reader);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        boolean result = new HttpRangeProcessor(contentService).processRange(response, reader, "100-199,300-399", null, null, "image/jpeg", "Firefox");
+        
+        assertTrue(result);
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        // ascending ranges are served from a single content stream
+        verify(reader, times(1)).getContentInputStream();
+    }
+    
+    @Test
+    public void testFileChannelMultiRange() throws IOException
+    {
+        File file = createContentFile();
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        ContentReader fileReader = new FileContentReader(file);
+        ContentService contentService = mock(ContentService.class);
+        when(contentService.getReader(null, null)).thenReturn(fileReader);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        // descending ranges, a stream would have to be reopened for the second one
+        boolean result = new HttpRangeProcessor(contentService).processRange(response, fileReader, "300-399,100-199", null, null, "image/jpeg", "Firefox");
+        
+        assertTrue(result);
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        byte[] body = response.getContentAsByteArray();
+        assertEquals(Long.parseLong(response.getHeader("Content-Length")), body.length);
+        // both ranges are transferred from the one file channel, in the requested order
+        int first = indexOf(body, Arrays.copyOfRange(bytes, 300, 400), 0);
+        assertTrue(first != -1);
+        assertTrue(indexOf(body, Arrays.copyOfRange(bytes, 100, 200), first + 100) != -1);
+        verify(contentService, times(1)).getReader(null, null);
+    }
+    
+    private static int indexOf(byte[] bytes, byte[] part, int fromIndex)
+    {
+        for (int i = fromIndex; i <= bytes.length - part.length; i++)
+        {
+            if (Arrays.equals(Arrays.copyOfRange(bytes, i, i + part.length), part))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private File createContentFile() throws IOException
+    {
+        File file = TempFileProvider.createTempFile(getClass().getSimpleName(), ".jpg");
+        try (InputStream is = getClass().getResourceAsStream("/test.jpg"))
+        {
+            Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+    
     protected void testRange(String range, int expectedStatus) throws IOException
     {
         MockHttpServletResponse response = new MockHttpServletResponse();
@@ -0,0 +1,167 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.webdav;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.alfresco.model.ContentModel;
+import org.alfresco.service.cmr.model.FileFolderService;
+import org.alfresco.service.cmr.model.FileInfo;
+import org.alfresco.service.cmr.repository.ContentData;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.namespace.QName;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for the {@link PropFindMethod} class.
+ */
+public class PropFindMethodTest
+{
+    private static final String CUSTOM_NAMESPACE = "http://www.example.com/custom";
+    private static final int CHILD_COUNT = 500;
+
+    private NodeRef folderNodeRef;
+    private FileInfo folderInfo;
+    private List<FileInfo> childInfos;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        folderNodeRef = new NodeRef("workspace://SpacesStore/folder-id");
+        folderInfo = createFileInfo(folderNodeRef, "folder", true, null);
+
+        childInfos = new ArrayList<FileInfo>(CHILD_COUNT);
+        for (int i = 0; i < CHILD_COUNT; i++)
+        {
+            String deadProperty = (i % 2 == 0) ? QName.createQName(CUSTOM_NAMESPACE, "custom") + ":value" + i : null;
+            childInfos.add(createFileInfo(new NodeRef("workspace://SpacesStore/doc-" + i), "doc" + i + ".txt", false, deadProperty));
+        }
+    }
+
+    @Test
+    public void testParallelResponseMatchesSerialResponse() throws Exception
+    {
+        String serialResponse = propFind(null);
+
+        for (int i = 0; i < CHILD_COUNT; i++)
+        {
+            assertTrue(serialResponse.contains("doc" + i + ".txt"));
+        }
+        assertTrue(serialResponse.contains(">value0<"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            assertEquals(serialResponse, propFind(executor));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private String propFind(ExecutorService executor) throws Exception
+    {
+        WebDAVHelper davHelper = spy(new WebDAVHelper());
+        davHelper.setPropFindExecutor(executor);
+        davHelper.setPropFindParallelThreshold(1);
+
+        FileFolderService fileFolderService = mock(FileFolderService.class);
+        doReturn(fileFolderService).when(davHelper).getFileFolderService();
+        doReturn("/folder").when(davHelper).getRepositoryPath(any(HttpServletRequest.class));
+        doReturn(folderInfo).when(davHelper).getNodeForPath(folderNodeRef, "/folder");
+        doReturn(childInfos).when(davHelper).getChildren(folderInfo);
+        doAnswer(invocation -> "/alfresco/webdav" + invocation.getArgument(1)).when(davHelper)
+                .getURLForPath(any(HttpServletRequest.class), anyString(), anyBoolean(), nullable(String.class));
+
+        MockHttpServletRequest req = new MockHttpServletRequest();
+        MockHttpServletResponse resp = new MockHttpServletResponse();
+
+        PropFindMethod propFindMethod = new PropFindMethod();
+        propFindMethod.setDetails(req, resp, davHelper, folderNodeRef);
+        propFindMethod.m_depth = WebDAV.DEPTH_1;
+        propFindMethod.m_mode = PropFindMethod.GET_NAMED_PROPS;
+        propFindMethod.m_namespaces.put(CUSTOM_NAMESPACE, "ns0");
+        propFindMethod.m_properties = new ArrayList<WebDAVProperty>();
+        propFindMethod.m_properties.add(new WebDAVProperty(WebDAV.XML_DISPLAYNAME));
+        propFindMethod.m_properties.add(new WebDAVProperty(WebDAV.XML_RESOURCE_TYPE));
+        propFindMethod.m_properties.add(new WebDAVProperty(WebDAV.XML_GET_CONTENT_LENGTH));
+        propFindMethod.m_properties.add(new WebDAVProperty(WebDAV.XML_GET_ETAG));
+        propFindMethod.m_properties.add(new WebDAVProperty("custom", CUSTOM_NAMESPACE, "ns0"));
+
+        propFindMethod.executeImpl();
+
+        assertEquals(WebDAV.WEBDAV_SC_MULTI_STATUS, resp.getStatus());
+        return resp.getContentAsString();
+    }
+
+    private FileInfo createFileInfo(NodeRef nodeRef, String name, boolean isFolder, String deadProperty)
+    {
+        Map<QName, Serializable> props = new HashMap<QName, Serializable>();
+        props.put(ContentModel.PROP_NAME, name);
+        props.put(ContentModel.PROP_MODIFIED, new Date(1000000L));
+        if (!isFolder)
+        {
+            props.put(ContentModel.PROP_CONTENT, new ContentData(null, "text/plain", name.length(), "UTF-8"));
+        }
+        if (deadProperty != null)
+        {
+            props.put(ContentModel.PROP_DEAD_PROPERTIES, new ArrayList<String>(Collections.singletonList(deadProperty)));
+        }
+
+        FileInfo fileInfo = mock(FileInfo.class);
+        when(fileInfo.getNodeRef()).thenReturn(nodeRef);
+        when(fileInfo.getName()).thenReturn(name);
+        when(fileInfo.isFolder()).thenReturn(isFolder);
+        when(fileInfo.getProperties()).thenReturn(props);
+        return fileInfo;
+    }
+}
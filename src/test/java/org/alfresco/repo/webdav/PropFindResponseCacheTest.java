@@ -0,0 +1,142 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.webdav;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.alfresco.model.ContentModel;
+import org.alfresco.service.cmr.dictionary.DictionaryService;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.cmr.repository.NodeService;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link PropFindResponseCache} class.
+ */
+public class PropFindResponseCacheTest
+{
+    private PropFindResponseCache cache;
+    private NodeRef folderRef;
+    private NodeRef childRef;
+
+    @Before
+    public void setUp()
+    {
+        folderRef = new NodeRef("workspace://SpacesStore/folder-id");
+        childRef = new NodeRef("workspace://SpacesStore/child-id");
+
+        NodeService nodeService = mock(NodeService.class);
+        when(nodeService.exists(folderRef)).thenReturn(true);
+        when(nodeService.getType(folderRef)).thenReturn(ContentModel.TYPE_FOLDER);
+        when(nodeService.exists(childRef)).thenReturn(true);
+        when(nodeService.getType(childRef)).thenReturn(ContentModel.TYPE_CONTENT);
+        DictionaryService dictionaryService = mock(DictionaryService.class);
+        when(dictionaryService.isSubClass(ContentModel.TYPE_FOLDER, ContentModel.TYPE_FOLDER)).thenReturn(true);
+
+        cache = new PropFindResponseCache();
+        cache.setNodeService(nodeService);
+        cache.setDictionaryService(dictionaryService);
+        cache.setEnabled(true);
+        cache.setMaxSize(100);
+        cache.setMaxEntrySize(60);
+        cache.setTimeToLive(0);
+    }
+
+    @Test
+    public void testHitsAndMisses()
+    {
+        assertNull(cache.get("a", folderRef));
+        char[] xml = "<multistatus/>".toCharArray();
+        cache.put("a", folderRef, Arrays.asList(folderRef, childRef), xml);
+        assertArrayEquals(xml, cache.get("a", folderRef));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(xml.length, cache.getSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction()
+    {
+        cache.put("a", folderRef, Collections.singletonList(folderRef), new char[40]);
+        cache.put("b", folderRef, Collections.singletonList(folderRef), new char[40]);
+        // use "a", so that "b" is evicted first
+        cache.get("a", folderRef);
+        cache.put("c", folderRef, Collections.singletonList(folderRef), new char[40]);
+
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(80, cache.getSize());
+        assertNull(cache.get("b", folderRef));
+
+        // responses larger than the entry limit are not cached
+        cache.put("d", folderRef, Collections.singletonList(folderRef), new char[61]);
+        assertNull(cache.get("d", folderRef));
+    }
+
+    @Test
+    public void testInvalidate()
+    {
+        NodeRef otherRef = new NodeRef("workspace://SpacesStore/other-id");
+        cache.put("a", folderRef, Arrays.asList(folderRef, childRef), new char[10]);
+        cache.put("b", otherRef, Collections.singletonList(otherRef), new char[10]);
+
+        cache.invalidate(childRef);
+
+        assertNull(cache.get("a", folderRef));
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(10, cache.getSize());
+
+        cache.clear();
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testInvalidateLock()
+    {
+        NodeRef otherRef = new NodeRef("workspace://SpacesStore/other-id");
+        cache.put("a", folderRef, Arrays.asList(folderRef, childRef), new char[10]);
+        cache.put("b", otherRef, Collections.singletonList(otherRef), new char[10]);
+
+        // a document lock only affects the responses rendered from the document
+        cache.invalidateLock(childRef);
+        assertNull(cache.get("a", folderRef));
+        assertEquals(1, cache.getEntryCount());
+
+        // a folder lock is shown on all its descendants
+        cache.invalidateLock(folderRef);
+        assertEquals(0, cache.getEntryCount());
+    }
+}
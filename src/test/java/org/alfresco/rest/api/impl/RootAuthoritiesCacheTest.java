@@ -0,0 +1,92 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2020 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.alfresco.service.cmr.security.AuthorityService;
+import org.alfresco.service.cmr.security.AuthorityType;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the RootAuthoritiesCache
+ */
+public class RootAuthoritiesCacheTest
+{
+    private AuthorityService authorityService;
+    private RootAuthoritiesCache cache;
+
+    @Before
+    public void setUp()
+    {
+        authorityService = mock(AuthorityService.class);
+        when(authorityService.getAllRootAuthorities(AuthorityType.GROUP)).thenReturn(new HashSet<>(Collections.singleton("GROUP_A")));
+        when(authorityService.getAllRootAuthorities(AuthorityType.ROLE)).thenReturn(new HashSet<>(Collections.singleton("ROLE_A")));
+
+        cache = new RootAuthoritiesCache();
+        cache.setAuthorityService(authorityService);
+        cache.setTimeToLive(0);
+    }
+
+    @Test
+    public void testCachedUntilCleared()
+    {
+        assertEquals(Collections.singleton("GROUP_A"), cache.getAllRootAuthorities(AuthorityType.GROUP));
+        assertEquals(Collections.singleton("GROUP_A"), cache.getAllRootAuthorities(AuthorityType.GROUP));
+        assertEquals(Collections.singleton("ROLE_A"), cache.getAllRootAuthorities(AuthorityType.ROLE));
+        verify(authorityService, times(1)).getAllRootAuthorities(AuthorityType.GROUP);
+
+        Set<String> changed = new HashSet<>(Collections.singleton("GROUP_B"));
+        when(authorityService.getAllRootAuthorities(AuthorityType.GROUP)).thenReturn(changed);
+        cache.clear();
+        assertEquals(changed, cache.getAllRootAuthorities(AuthorityType.GROUP));
+        verify(authorityService, times(2)).getAllRootAuthorities(AuthorityType.GROUP);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        cache.setEnabled(false);
+        cache.getAllRootAuthorities(AuthorityType.GROUP);
+        cache.getAllRootAuthorities(AuthorityType.GROUP);
+        verify(authorityService, times(2)).getAllRootAuthorities(AuthorityType.GROUP);
+    }
+
+    @Test (expected = UnsupportedOperationException.class)
+    public void testNotModifiable()
+    {
+        cache.getAllRootAuthorities(AuthorityType.GROUP).add("GROUP_B");
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2020 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.alfresco.query.CannedQuerySortDetails.SortOrder;
+import org.alfresco.repo.site.SiteMembership;
+import org.alfresco.service.cmr.site.SiteInfo;
+import org.alfresco.service.cmr.site.SiteService;
+import org.alfresco.util.Pair;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the SiteMembershipCache
+ */
+public class SiteMembershipCacheTest
+{
+    private static final String PERSON = "user1";
+
+    private SiteService siteService;
+    private SiteMembershipCache cache;
+
+    @Before
+    public void setUp()
+    {
+        siteService = mock(SiteService.class);
+        when(siteService.listSiteMemberships(PERSON, 0)).thenReturn(
+                    Arrays.asList(membership("b", "Beta"), membership("c", "Gamma"), membership("a", "Alpha")));
+
+        cache = new SiteMembershipCache();
+        cache.setEnabled(true);
+        cache.setSiteService(siteService);
+        cache.setTimeToLive(0);
+    }
+
+    @Test
+    public void testSortedAndCachedUntilCleared()
+    {
+        assertEquals(Arrays.asList("a", "b", "c"), shortNames(cache.getSiteMemberships(PERSON, sortByTitle(SortOrder.ASCENDING))));
+        assertEquals(Arrays.asList("c", "b", "a"), shortNames(cache.getSiteMemberships(PERSON, sortByTitle(SortOrder.DESCENDING))));
+        assertEquals(Arrays.asList("a", "b", "c"), shortNames(cache.getSiteMemberships(PERSON, sortByTitle(SortOrder.ASCENDING))));
+        verify(siteService, times(1)).listSiteMemberships(PERSON, 0);
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        cache.getSiteMemberships(PERSON, sortByTitle(SortOrder.ASCENDING));
+        verify(siteService, times(2)).listSiteMemberships(PERSON, 0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction()
+    {
+        cache.setMaxItems(1);
+        when(siteService.listSiteMemberships("user2", 0)).thenReturn(Collections.<SiteMembership>emptyList());
+        cache.getSiteMemberships(PERSON, sortByTitle(SortOrder.ASCENDING));
+        cache.getSiteMemberships("user2", sortByTitle(SortOrder.ASCENDING));
+        assertEquals(1, cache.size());
+
+        cache.getSiteMemberships(PERSON, sortByTitle(SortOrder.ASCENDING));
+        verify(siteService, times(2)).listSiteMemberships(PERSON, 0);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        cache.setEnabled(false);
+        assertNull(cache.getSiteMemberships(PERSON, sortByTitle(SortOrder.ASCENDING)));
+        verify(siteService, times(0)).listSiteMemberships(PERSON, 0);
+    }
+
+    @Test
+    public void testSelectFirst()
+    {
+        List<SiteMembership> memberships = siteService.listSiteMemberships(PERSON, 0);
+        List<Pair<? extends Object, SortOrder>> sortPairs = sortByTitle(SortOrder.ASCENDING);
+        List<SiteMembership> sorted = cache.getSiteMemberships(PERSON, sortPairs);
+
+        assertEquals(sorted.subList(0, 2), Util.selectFirst(memberships, (m1, m2) -> m1.getSiteInfo().getTitle().compareTo(m2.getSiteInfo().getTitle()), 2));
+        assertEquals(sorted, Util.selectFirst(memberships, (m1, m2) -> m1.getSiteInfo().getTitle().compareTo(m2.getSiteInfo().getTitle()), 10));
+        assertEquals(0, Util.selectFirst(memberships, (m1, m2) -> 0, 0).size());
+        // equal elements keep their order
+        assertEquals(memberships.subList(0, 2), Util.selectFirst(memberships, (m1, m2) -> 0, 2));
+    }
+
+    private static List<Pair<? extends Object, SortOrder>> sortByTitle(SortOrder sortOrder)
+    {
+        List<Pair<? extends Object, SortOrder>> sortPairs = new ArrayList<>(1);
+        sortPairs.add(new Pair<>(SiteService.SortFields.SiteTitle, sortOrder));
+        return sortPairs;
+    }
+
+    private static SiteMembership membership(String shortName, String title)
+    {
+        SiteInfo siteInfo = mock(SiteInfo.class);
+        when(siteInfo.getShortName()).thenReturn(shortName);
+        when(siteInfo.getTitle()).thenReturn(title);
+        return new SiteMembership(siteInfo, PERSON, "SiteConsumer");
+    }
+
+    private static List<String> shortNames(List<SiteMembership> memberships)
+    {
+        List<String> shortNames = new ArrayList<>(memberships.size());
+        for (SiteMembership membership : memberships)
+        {
+            shortNames.add(membership.getSiteInfo().getShortName());
+        }
+        return shortNames;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2016 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.alfresco.model.ContentModel;
+import org.alfresco.repo.site.SiteModel;
+import org.alfresco.rest.api.People;
+import org.alfresco.rest.api.model.FavouriteSite;
+import org.alfresco.rest.framework.jacksonextensions.BeanPropertiesFilter;
+import org.alfresco.rest.framework.resource.parameters.CollectionWithPagingInfo;
+import org.alfresco.rest.framework.resource.parameters.Paging;
+import org.alfresco.rest.framework.resource.parameters.Parameters;
+import org.alfresco.service.cmr.dictionary.DictionaryService;
+import org.alfresco.service.cmr.preference.PreferenceService;
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.cmr.repository.NodeService;
+import org.alfresco.service.cmr.site.SiteInfo;
+import org.alfresco.service.cmr.site.SiteService;
+import org.alfresco.service.namespace.QName;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the listing of favourite sites of {@link SitesImpl}.
+ */
+public class SitesImplUnitTest
+{
+    private static final String PERSON = "user1";
+    private static final String FAVOURITE_SITES_PREFIX = "org.alfresco.share.sites.favourites.";
+
+    private final NodeRef siteRoot = new NodeRef("workspace://SpacesStore/sites");
+
+    private NodeService nodeService;
+    private SiteService siteService;
+    private PreferenceService preferenceService;
+    private Parameters parameters;
+    private SitesImpl sitesImpl;
+
+    private final Map<String, Serializable> preferences = new HashMap<>();
+    private final List<ChildAssociationRef> readableSites = new ArrayList<>();
+
+    @Before
+    public void setUp()
+    {
+        nodeService = mock(NodeService.class);
+        siteService = mock(SiteService.class);
+        preferenceService = mock(PreferenceService.class);
+        DictionaryService dictionaryService = mock(DictionaryService.class);
+        People people = mock(People.class);
+
+        when(people.validatePerson(PERSON)).thenReturn(PERSON);
+        when(preferenceService.getPreferences(PERSON, FAVOURITE_SITES_PREFIX)).thenReturn(preferences);
+        when(siteService.getSiteRoot()).thenReturn(siteRoot);
+        when(nodeService.getChildrenByName(eq(siteRoot), eq(ContentModel.ASSOC_CONTAINS), anyCollection())).thenReturn(readableSites);
+        when(nodeService.getType(any(NodeRef.class))).thenReturn(SiteModel.TYPE_SITE);
+        when(dictionaryService.isSubClass(SiteModel.TYPE_SITE, SiteModel.TYPE_SITE)).thenReturn(true);
+
+        parameters = mock(Parameters.class);
+        when(parameters.getPaging()).thenReturn(Paging.valueOf(0, 100));
+        when(parameters.getFilter()).thenReturn(BeanPropertiesFilter.ALLOW_ALL);
+
+        sitesImpl = new SitesImpl();
+        sitesImpl.setNodeService(nodeService);
+        sitesImpl.setSiteService(siteService);
+        sitesImpl.setPreferenceService(preferenceService);
+        sitesImpl.setDictionaryService(dictionaryService);
+        sitesImpl.setPeople(people);
+    }
+
+    @Test
+    public void testFavouriteSitesSortedByTitle()
+    {
+        favourite("site-c", "Gamma", true);
+        favourite("site-a", "Beta", true);
+        favourite("site-b", "Alpha", true);
+
+        CollectionWithPagingInfo<FavouriteSite> favourites = sitesImpl.getFavouriteSites(PERSON, parameters);
+
+        assertEquals(Arrays.asList("site-b", "site-a", "site-c"), ids(favourites));
+        assertEquals(Integer.valueOf(3), favourites.getTotalItems());
+    }
+
+    @Test
+    public void testUnreadableFavouriteSite()
+    {
+        favourite("site-a", "Alpha", true);
+        // favourited, but filtered out by the node service as the user cannot read it
+        NodeRef privateSite = favourite("site-p", "Private", false);
+
+        CollectionWithPagingInfo<FavouriteSite> favourites = sitesImpl.getFavouriteSites(PERSON, parameters);
+
+        assertEquals(Arrays.asList("site-a"), ids(favourites));
+        assertEquals(Integer.valueOf(1), favourites.getTotalItems());
+        verify(siteService, never()).getSite(privateSite);
+    }
+
+    @Test
+    public void testFavouriteSitesWithTheSameTitle()
+    {
+        favourite("site-b", "Same", true);
+        favourite("site-a", "Same", true);
+        favourite("site-c", "Other", true);
+
+        CollectionWithPagingInfo<FavouriteSite> favourites = sitesImpl.getFavouriteSites(PERSON, parameters);
+
+        // only one site is listed per title, the one with the lowest short name
+        assertEquals(Arrays.asList("site-c", "site-a"), ids(favourites));
+        assertEquals(Integer.valueOf(2), favourites.getTotalItems());
+    }
+
+    @Test
+    public void testOnlyThePageIsRead()
+    {
+        favourite("site-a", "Alpha", true);
+        NodeRef beta = favourite("site-b", "Beta", true);
+        NodeRef gamma = favourite("site-c", "Gamma", true);
+        when(parameters.getPaging()).thenReturn(Paging.valueOf(0, 1));
+
+        CollectionWithPagingInfo<FavouriteSite> favourites = sitesImpl.getFavouriteSites(PERSON, parameters);
+
+        assertEquals(Arrays.asList("site-a"), ids(favourites));
+        assertEquals(Integer.valueOf(3), favourites.getTotalItems());
+        verify(siteService, never()).getSite(beta);
+        verify(siteService, never()).getSite(gamma);
+    }
+
+    private NodeRef favourite(String shortName, String title, boolean readable)
+    {
+        preferences.put(FAVOURITE_SITES_PREFIX + shortName + ".favourited", Boolean.TRUE);
+
+        NodeRef siteRef = new NodeRef("workspace://SpacesStore/" + shortName);
+        when(nodeService.getProperty(siteRef, ContentModel.PROP_NAME)).thenReturn(shortName);
+        when(nodeService.getProperty(siteRef, ContentModel.PROP_TITLE)).thenReturn(title);
+        SiteInfo siteInfo = mock(SiteInfo.class);
+        when(siteInfo.getShortName()).thenReturn(shortName);
+        when(siteInfo.getTitle()).thenReturn(title);
+        when(siteInfo.getNodeRef()).thenReturn(siteRef);
+        when(siteService.getSite(siteRef)).thenReturn(siteInfo);
+
+        if (readable)
+        {
+            readableSites.add(new ChildAssociationRef(ContentModel.ASSOC_CONTAINS, siteRoot,
+                        QName.createQName(ContentModel.USER_MODEL_URI, shortName), siteRef));
+        }
+        return siteRef;
+    }
+
+    private static List<String> ids(CollectionWithPagingInfo<FavouriteSite> favourites)
+    {
+        List<String> ids = new ArrayList<>();
+        for (FavouriteSite favourite : favourites.getCollection())
+        {
+            ids.add(favourite.getId());
+        }
+        return ids;
+    }
+}
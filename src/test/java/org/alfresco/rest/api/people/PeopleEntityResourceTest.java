@@ -0,0 +1,71 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2016 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.api.people;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.alfresco.rest.api.People;
+import org.alfresco.rest.api.model.Person;
+import org.alfresco.rest.framework.core.exceptions.EntityNotFoundException;
+import org.alfresco.rest.framework.core.exceptions.PermissionDeniedException;
+import org.alfresco.rest.framework.resource.parameters.Parameters;
+import org.junit.Test;
+
+/**
+ * Test the batch read of the PeopleEntityResource
+ */
+public class PeopleEntityResourceTest
+{
+    @Test
+    public void testReadByIds()
+    {
+        Person person1 = new Person();
+        Person person2 = new Person();
+        People people = mock(People.class);
+        when(people.getPerson("user1")).thenReturn(person1);
+        when(people.getPerson("user2")).thenReturn(person2);
+        when(people.getPerson("missing")).thenThrow(new EntityNotFoundException("missing"));
+        when(people.getPerson("hidden")).thenThrow(new PermissionDeniedException());
+
+        PeopleEntityResource resource = new PeopleEntityResource();
+        resource.setPeople(people);
+
+        Map<String, Person> result = resource.readByIds(Arrays.asList("user1", "missing", "hidden", "user2"), mock(Parameters.class));
+
+        // people that cannot be read are left out, as when they are read by id
+        assertEquals(2, result.size());
+        assertSame(person1, result.get("user1"));
+        assertSame(person2, result.get("user2"));
+        assertTrue(!result.containsKey("missing") && !result.containsKey("hidden"));
+    }
+}
@@ -26,6 +26,7 @@
 package org.alfresco.rest.api.tests;
 
 import static org.alfresco.rest.api.tests.util.RestApiUtil.toJsonAsStringNonNull;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -33,6 +34,9 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -46,6 +50,7 @@ import org.alfresco.repo.security.authentication.AuthenticationException;
 import org.alfresco.repo.security.authentication.AuthenticationUtil;
 import org.alfresco.repo.security.authentication.AuthenticationUtil.RunAsWork;
 import org.alfresco.rest.AbstractSingleNetworkSiteTest;
+import org.alfresco.rest.api.tests.client.HttpResponse;
 import org.alfresco.rest.api.tests.client.PublicApiClient;
 import org.alfresco.rest.api.tests.client.PublicApiClient.AuditApps;
 import org.alfresco.rest.api.tests.client.PublicApiClient.ListResponse;
@@ -62,6 +67,7 @@ import org.alfresco.service.cmr.site.SiteVisibility;
 import org.alfresco.util.ISO8601DateFormat;
 import org.junit.After;
 import org.junit.Before;
+import org.json.simple.JSONObject;
 import org.junit.Test;
 import org.springframework.util.ResourceUtils;
 
@@ -390,6 +396,7 @@ public class AuditAppTest extends AbstractSingleNetworkSiteTest
         testAuditEntriesWhereId(auditAppsProxy, auditApp);
         testAuditEntriesWithInclude(auditAppsProxy, auditApp);
         testAuditEntriesSkipCount(auditAppsProxy, auditApp);
+        testAuditEntriesPageToken(auditAppsProxy, auditApp);
         testRetrieveAuditEntry(auditAppsProxy, auditApp);
         testDeleteAuditEntry(auditAppsProxy, auditApp);
         testDeleteAuditEntries(auditAppsProxy, auditApp);
@@ -563,6 +570,85 @@ public class AuditAppTest extends AbstractSingleNetworkSiteTest
         checkList(expectedSublist, sublistResponse.getPaging(), sublistResponse);
     }
 
+    private void testAuditEntriesPageToken(AuditApps auditAppsProxy, AuditApp auditApp) throws Exception
+    {
+        String url = "audit-applications/" + auditApp.getId() + "/audit-entries";
+
+        // forward
+        Map<String, String> otherParams = new HashMap<>();
+        addOrderBy(otherParams, org.alfresco.rest.api.Audit.CREATED_AT, true);
+        ListResponse<AuditEntry> resp = auditAppsProxy.getAuditAppEntries(auditApp.getId(),
+                createParams(getPaging(0, 4), otherParams), HttpServletResponse.SC_OK);
+        assertEquals(4, resp.getList().size());
+
+        HttpResponse response = getAll(url, getPaging(0, 2), otherParams, HttpServletResponse.SC_OK);
+        String ascPageToken = getNextPageToken(response);
+        assertNotNull(ascPageToken);
+        assertEquals(getIds(resp.getList().subList(0, 2)), getIds(AuditEntry.parseAuditEntries(response.getJsonResponse()).getList()));
+
+        otherParams.put(org.alfresco.rest.api.Audit.PARAM_PAGE_TOKEN, ascPageToken);
+        response = getAll(url, getPaging(0, 2), otherParams, HttpServletResponse.SC_OK);
+        assertEquals(getIds(resp.getList().subList(2, 4)), getIds(AuditEntry.parseAuditEntries(response.getJsonResponse()).getList()));
+
+        // backward - entries may be added meanwhile, so only check the second page continues after the first
+        otherParams = new HashMap<>();
+        addOrderBy(otherParams, org.alfresco.rest.api.Audit.CREATED_AT, false);
+        response = getAll(url, getPaging(0, 2), otherParams, HttpServletResponse.SC_OK);
+        String descPageToken = getNextPageToken(response);
+        assertNotNull(descPageToken);
+        List<Long> firstPageIds = getIds(AuditEntry.parseAuditEntries(response.getJsonResponse()).getList());
+        assertEquals(2, firstPageIds.size());
+        assertTrue(firstPageIds.get(0) > firstPageIds.get(1));
+
+        otherParams.put(org.alfresco.rest.api.Audit.PARAM_PAGE_TOKEN, descPageToken);
+        response = getAll(url, getPaging(0, 2), otherParams, HttpServletResponse.SC_OK);
+        List<Long> secondPageIds = getIds(AuditEntry.parseAuditEntries(response.getJsonResponse()).getList());
+        assertEquals(2, secondPageIds.size());
+        assertTrue(firstPageIds.get(1) > secondPageIds.get(0));
+        assertTrue(secondPageIds.get(0) > secondPageIds.get(1));
+
+        // Negative tests
+        // token of the other orderBy
+        addOrderBy(otherParams, org.alfresco.rest.api.Audit.CREATED_AT, true);
+        otherParams.put(org.alfresco.rest.api.Audit.PARAM_PAGE_TOKEN, descPageToken);
+        getAll(url, getPaging(0, 2), otherParams, HttpServletResponse.SC_BAD_REQUEST);
+
+        // token of another where clause
+        otherParams = new HashMap<>();
+        addOrderBy(otherParams, org.alfresco.rest.api.Audit.CREATED_AT, true);
+        otherParams.put("where", "(" + org.alfresco.rest.api.Audit.ID + " between ('1', '" + Long.MAX_VALUE + "'))");
+        response = getAll(url, getPaging(0, 2), otherParams, HttpServletResponse.SC_OK);
+        String wherePageToken = getNextPageToken(response);
+        assertNotNull(wherePageToken);
+        otherParams.remove("where");
+        otherParams.put(org.alfresco.rest.api.Audit.PARAM_PAGE_TOKEN, wherePageToken);
+        getAll(url, getPaging(0, 2), otherParams, HttpServletResponse.SC_BAD_REQUEST);
+
+        // malformed tokens
+        otherParams.put(org.alfresco.rest.api.Audit.PARAM_PAGE_TOKEN, "not+a/token!");
+        getAll(url, getPaging(0, 2), otherParams, HttpServletResponse.SC_BAD_REQUEST);
+        otherParams.put(org.alfresco.rest.api.Audit.PARAM_PAGE_TOKEN,
+                Base64.getUrlEncoder().encodeToString("a:notAnId".getBytes(StandardCharsets.UTF_8)));
+        getAll(url, getPaging(0, 2), otherParams, HttpServletResponse.SC_BAD_REQUEST);
+    }
+
+    private String getNextPageToken(HttpResponse response)
+    {
+        JSONObject jsonList = (JSONObject) response.getJsonResponse().get("list");
+        JSONObject jsonContext = (JSONObject) jsonList.get("context");
+        return (jsonContext != null ? (String) jsonContext.get(org.alfresco.rest.api.Audit.NEXT_PAGE_TOKEN) : null);
+    }
+
+    private List<Long> getIds(List<AuditEntry> auditEntries)
+    {
+        List<Long> ids = new ArrayList<>(auditEntries.size());
+        for (AuditEntry auditEntry : auditEntries)
+        {
+            ids.add(auditEntry.getId());
+        }
+        return ids;
+    }
+
     private void testRetrieveAuditEntry(AuditApps auditAppsProxy, AuditApp auditApp) throws Exception
     {
         int skipCount = 0;
@@ -56,6 +56,7 @@ import java.util.concurrent.TimeUnit;
 import org.alfresco.model.ContentModel;
 import org.alfresco.repo.content.ContentLimitProvider.SimpleFixedLimitProvider;
 import org.alfresco.repo.content.MimetypeMap;
+import org.alfresco.repo.content.filestore.FileContentStore;
 import org.alfresco.repo.security.authentication.AuthenticationUtil;
 import org.alfresco.repo.tenant.TenantService;
 import org.alfresco.repo.tenant.TenantUtil;
@@ -87,6 +88,7 @@ import org.alfresco.rest.api.tests.util.MultiPartBuilder;
 import org.alfresco.rest.api.tests.util.MultiPartBuilder.FileData;
 import org.alfresco.rest.api.tests.util.MultiPartBuilder.MultiPartRequest;
 import org.alfresco.rest.api.tests.util.RestApiUtil;
+import org.alfresco.rest.framework.webscripts.ResourceWebScriptPut;
 import org.alfresco.service.cmr.lock.LockType;
 import org.alfresco.service.cmr.repository.NodeRef;
 import org.alfresco.service.cmr.repository.NodeService;
@@ -2440,6 +2442,11 @@ public class NodeApiTest extends AbstractSingleNetworkSiteTest
         params = new HashMap<>();
         params.put("where", "(nodeType='cm:object' AND isFile=true)");
         getAll(childrenUrl, paging, params, 400);
+
+        // -ve - conditions cannot be negated
+        params = new HashMap<>();
+        params.put("where", "(NOT isFolder=true)");
+        getAll(childrenUrl, paging, params, 400);
     }
 
     private void checkNodeIds(List<Node> nodes, List<String> nodeIds)
@@ -3768,6 +3775,144 @@ public class NodeApiTest extends AbstractSingleNetworkSiteTest
         }
     }
 
+    /**
+     * Tests update of file/content when the content is written to the content store before the
+     * transaction updating the node.
+     * <p>
+     * PUT:
+     * </p>
+     * {@literal <host>:<port>/alfresco/api/-default-/public/alfresco/versions/1/nodes/<nodeId>/content}
+     */
+    @Test
+    public void testUpdateFileWithSpooledContent() throws Exception
+    {
+        setRequestContext(user1);
+
+        ResourceWebScriptPut putWebScript = applicationContext.getBean("webscript.org.alfresco.api.ResourceWebScript.put", ResourceWebScriptPut.class);
+        putWebScript.setSpoolContent(true);
+
+        File file = null;
+        try
+        {
+            Document doc = createTextFile(Nodes.PATH_MY, "spooled-" + RUNID + ".txt", "initial content");
+
+            // Larger than the memory threshold for buffered requests
+            Long contentSize = 5 * 1024 * 1024L;
+            file = TempFileProvider.createTempFile(getClass().getSimpleName(), ".txt");
+            RandomAccessFile rndFile = new RandomAccessFile(file.getPath(), "rw");
+            rndFile.setLength(contentSize);
+            rndFile.close();
+
+            HttpResponse response = putBinary(getNodeContentUrl(doc.getId()), new BinaryPayload(file), null, null, 200);
+            Document docResp = RestApiUtil.parseRestApiEntry(response.getJsonResponse(), Document.class);
+            assertEquals(contentSize, docResp.getContent().getSizeInBytes());
+            assertEquals(MimetypeMap.MIMETYPE_TEXT_PLAIN, docResp.getContent().getMimeType());
+
+            // Download the content
+            response = getSingle(NodesEntityResource.class, doc.getId() + "/content", null, 200);
+            assertEquals(contentSize.intValue(), response.getResponseAsBytes().length);
+
+            // Update with text content
+            String content = "The quick brown fox jumps over the lazy dog.";
+            File txtFile = TempFileProvider.createTempFile(new ByteArrayInputStream(content.getBytes()), getClass().getSimpleName(), ".txt");
+            putBinary(getNodeContentUrl(doc.getId()), new BinaryPayload(txtFile), null, null, 200);
+            txtFile.delete();
+
+            response = getSingle(NodesEntityResource.class, doc.getId() + "/content", null, 200);
+            assertEquals(content, response.getResponse());
+
+            // Try to update a folder
+            Folder folderResp = createFolder(Nodes.PATH_MY, "spooled-f1-" + RUNID);
+            putBinary(getNodeContentUrl(folderResp.getId()), new BinaryPayload(file), null, null, 400);
+        }
+        finally
+        {
+            putWebScript.setSpoolContent(false);
+            if (file != null)
+            {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Tests that no content is left in the content store when an update of file/content with spooled content
+     * is rejected, either before the content is read or after it has been written.
+     * <p>
+     * PUT:
+     * </p>
+     * {@literal <host>:<port>/alfresco/api/-default-/public/alfresco/versions/1/nodes/<nodeId>/content}
+     */
+    @Test
+    public void testRejectedUpdateWithSpooledContent() throws Exception
+    {
+        setRequestContext(user1);
+
+        ResourceWebScriptPut putWebScript = applicationContext.getBean("webscript.org.alfresco.api.ResourceWebScript.put", ResourceWebScriptPut.class);
+        putWebScript.setSpoolContent(true);
+        File contentStoreRoot = new File(applicationContext.getBean("fileContentStore", FileContentStore.class).getRootLocation());
+
+        File file = null;
+        try
+        {
+            Document doc = createTextFile(Nodes.PATH_MY, "spooled-rejected-" + RUNID + ".txt", "initial content");
+            Document otherDoc = createTextFile(Nodes.PATH_MY, "spooled-other-" + RUNID + ".txt", "other content");
+
+            // an unusual size, to find the content in the content store
+            long contentSize = 3 * 1024 * 1024L + 17;
+            file = TempFileProvider.createTempFile(getClass().getSimpleName(), ".txt");
+            RandomAccessFile rndFile = new RandomAccessFile(file.getPath(), "rw");
+            rndFile.setLength(contentSize);
+            rndFile.close();
+
+            Set<File> contentFiles = findFiles(contentStoreRoot, contentSize);
+
+            // rejected before the content is read
+            putBinary(getNodeContentUrl(UUID.randomUUID().toString()), new BinaryPayload(file), null, null, 404);
+            setRequestContext(user2);
+            putBinary(getNodeContentUrl(doc.getId()), new BinaryPayload(file), null, null, 403);
+
+            // rejected after the content has been written - the new name already exists
+            setRequestContext(user1);
+            Map<String, String> params = Collections.singletonMap(Nodes.PARAM_NAME, otherDoc.getName());
+            putBinary(getNodeContentUrl(doc.getId()), new BinaryPayload(file), null, params, 409);
+
+            assertEquals(contentFiles, findFiles(contentStoreRoot, contentSize));
+
+            HttpResponse response = getSingle(NodesEntityResource.class, doc.getId() + "/content", null, 200);
+            assertEquals("initial content", response.getResponse());
+        }
+        finally
+        {
+            putWebScript.setSpoolContent(false);
+            if (file != null)
+            {
+                file.delete();
+            }
+        }
+    }
+
+    private static Set<File> findFiles(File dir, long size)
+    {
+        Set<File> found = new HashSet<>();
+        File[] files = dir.listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                if (file.isDirectory())
+                {
+                    found.addAll(findFiles(file, size));
+                }
+                else if (file.length() == size)
+                {
+                    found.add(file);
+                }
+            }
+        }
+        return found;
+    }
+
     /**
      * Tests download of file/content - basic read permission
      * <p>GET:</p>
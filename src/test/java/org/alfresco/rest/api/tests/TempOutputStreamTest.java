@@ -36,6 +36,7 @@ import java.util.Arrays;
 import java.util.stream.Stream;
 
 import org.alfresco.repo.content.ContentLimitViolationException;
+import org.alfresco.repo.web.scripts.TempBufferPool;
 import org.alfresco.repo.web.scripts.TempOutputStream;
 import org.alfresco.repo.web.scripts.TempOutputStreamFactory;
 import org.alfresco.util.TempFileProvider;
@@ -232,6 +233,51 @@ public class TempOutputStreamTest
         file.delete();
     }
 
+    @Test
+    public void testBufferPoolMemoryBudget() throws IOException
+    {
+        // The budget only allows for a single stream to be held in memory
+        TempBufferPool bufferPool = new TempBufferPool(1024, MEMORY_THRESHOLD, MEMORY_THRESHOLD);
+        TempOutputStreamFactory streamFactory = new TempOutputStreamFactory(bufferTempDirectory, MEMORY_THRESHOLD, MAX_CONTENT_SIZE, false, false, bufferPool);
+
+        File file = createTextFileWithRandomContent(MEMORY_THRESHOLD - 1024L);
+
+        long countBefore = countFilesInDirectoryWithPrefix(bufferTempDirectory);
+
+        TempOutputStream outputStream1 = streamFactory.createOutputStream();
+        StreamUtils.copy(new BufferedInputStream(new FileInputStream(file)), outputStream1);
+
+        // Within the budget, so kept in memory
+        Assert.assertEquals(countBefore, countFilesInDirectoryWithPrefix(bufferTempDirectory));
+        Assert.assertEquals(MEMORY_THRESHOLD - 1024L, bufferPool.getBytesBuffered());
+        Assert.assertEquals(0, bufferPool.getSpillCount());
+
+        TempOutputStream outputStream2 = streamFactory.createOutputStream();
+        StreamUtils.copy(new BufferedInputStream(new FileInputStream(file)), outputStream2);
+
+        // The budget is used up, so the second stream spills to a temp file although it is below the memory threshold
+        Assert.assertEquals(countBefore + 1, countFilesInDirectoryWithPrefix(bufferTempDirectory));
+        Assert.assertEquals(MEMORY_THRESHOLD - 1024L, bufferPool.getBytesBuffered());
+        Assert.assertEquals(1, bufferPool.getSpillCount());
+        Assert.assertEquals(MEMORY_THRESHOLD - 1024L, bufferPool.getBytesSpilled());
+
+        // Compare content
+        String contentWriten = StreamUtils.copyToString(new BufferedInputStream(new FileInputStream(file)), Charset.defaultCharset());
+        Assert.assertEquals(contentWriten, StreamUtils.copyToString(outputStream1.getInputStream(), Charset.defaultCharset()));
+        Assert.assertEquals(contentWriten, StreamUtils.copyToString(outputStream2.getInputStream(), Charset.defaultCharset()));
+
+        outputStream1.destroy();
+        outputStream2.destroy();
+
+        // Memory is returned to the pool and the temp file is deleted
+        Assert.assertEquals(countBefore, countFilesInDirectoryWithPrefix(bufferTempDirectory));
+        Assert.assertEquals(0, bufferPool.getBytesBuffered());
+        // Every chunk handed out (including the one the second stream got before the budget ran out) is kept for reuse
+        Assert.assertEquals(MEMORY_THRESHOLD, bufferPool.getBytesPooled());
+
+        file.delete();
+    }
+
     private File createTextFileWithRandomContent(long contentSize) throws IOException
     {
         File txtFile = TempFileProvider.createTempFile(getClass().getSimpleName(), ".txt");
@@ -25,12 +25,16 @@
  */
 package org.alfresco.rest.framework.tests.api.mocks;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.alfresco.rest.framework.resource.EntityResource;
 import org.alfresco.rest.framework.resource.actions.interfaces.EntityResourceAction;
 import org.alfresco.rest.framework.resource.parameters.Parameters;
 
 @EntityResource(name="goat", title="Goat")
-public class GoatEntityResource implements EntityResourceAction.ReadById<Goat>{
+public class GoatEntityResource implements EntityResourceAction.ReadById<Goat>, EntityResourceAction.ReadByIds<Goat>{
 
     @Override
     public Goat readById(String id, Parameters parameters)
@@ -38,4 +42,15 @@ public class GoatEntityResource implements EntityResourceAction.ReadById<Goat>{
         return new Goat("Goat"+id);
     }
 
+    @Override
+    public Map<String, Goat> readByIds(List<String> ids, Parameters parameters)
+    {
+        Map<String, Goat> goats = new HashMap<String, Goat>();
+        for (String id : ids)
+        {
+            goats.put(id, readById(id, parameters));
+        }
+        return goats;
+    }
+
 }
@@ -25,7 +25,11 @@
  */
 package org.alfresco.rest.framework.tests.api.mocks;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Locale;
+
 import org.alfresco.rest.framework.resource.UniqueId;
 
 /**
@@ -38,6 +42,8 @@ public class Sheep implements Animal
     private String id;
     private String name = "Dolly";
     private int age = 3;
+    private Locale locale;
+    private Locale contentLocale;
     
     public Sheep(String id)
     {
@@ -76,4 +82,32 @@ public class Sheep implements Animal
     {
         this.age = age;
     }
+
+    /**
+     * @return the locale the sheep was read in, not serialized
+     */
+    @JsonIgnore
+    public Locale getLocale()
+    {
+        return this.locale;
+    }
+
+    public void setLocale(Locale locale)
+    {
+        this.locale = locale;
+    }
+
+    /**
+     * @return the content locale the sheep was read in, not serialized
+     */
+    @JsonIgnore
+    public Locale getContentLocale()
+    {
+        return this.contentLocale;
+    }
+
+    public void setContentLocale(Locale contentLocale)
+    {
+        this.contentLocale = contentLocale;
+    }
 }
@@ -33,6 +33,7 @@ import org.alfresco.rest.framework.resource.EntityResource;
 import org.alfresco.rest.framework.resource.actions.interfaces.EntityResourceAction;
 import org.alfresco.rest.framework.resource.parameters.CollectionWithPagingInfo;
 import org.alfresco.rest.framework.resource.parameters.Parameters;
+import org.springframework.extensions.surf.util.I18NUtil;
 import org.springframework.extensions.webscripts.Status;
 
 @EntityResource(name=SheepEntityResource.ENTITY_KEY,title="Sheep")
@@ -60,7 +61,10 @@ public class SheepEntityResource implements EntityResourceAction.Read<Sheep>,Ent
     @Override
     public Sheep readById(String id, Parameters parameters)
     {
-        return new Sheep(id);
+        Sheep sheep = new Sheep(id);
+        sheep.setLocale(I18NUtil.getLocale());
+        sheep.setContentLocale(I18NUtil.getContentLocale());
+        return sheep;
     }
 
     @Override
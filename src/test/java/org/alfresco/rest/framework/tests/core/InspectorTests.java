@@ -43,6 +43,8 @@ import org.alfresco.rest.api.model.Comment;
 import org.alfresco.rest.api.nodes.NodeCommentsRelation;
 import org.alfresco.rest.framework.Api;
 import org.alfresco.rest.framework.core.OperationResourceMetaData;
+import org.alfresco.rest.framework.core.ResourceEntityAccessors;
+import org.alfresco.rest.framework.core.ResourceEntityAccessors.EmbeddedAccessor;
 import org.alfresco.rest.framework.core.ResourceInspector;
 import org.alfresco.rest.framework.core.ResourceInspectorUtil;
 import org.alfresco.rest.framework.core.ResourceMetadata;
@@ -294,6 +296,31 @@ public class InspectorTests
         assertTrue("SlimGoat has no embedded entities", embeds.isEmpty());
     }
     
+    @Test
+    public void testEntityAccessors()
+    {
+        Farmer farmer = new Farmer("345");
+        farmer.setSheepId("sheep1");
+        ResourceEntityAccessors accessors = ResourceEntityAccessors.forClass(Farmer.class);
+        assertFalse(accessors.isSimpleProperty());
+        assertEquals("345", accessors.getUniqueId(farmer));
+
+        Map<String, EmbeddedAccessor> embeds = accessors.getEmbeddedResources();
+        assertEquals(2, embeds.size());
+        assertEquals("sheep", embeds.get("sheep").getEntityPath());
+        assertEquals("sheep1", embeds.get("sheep").getId(farmer));
+        assertEquals("goat", embeds.get("goat").getEntityPath());
+        assertNull(embeds.get("goat").getId(farmer));
+
+        //the accessors of an overridden method call the subclass implementation
+        embeds = ResourceEntityAccessors.forClass(FarmersGrandson.class).getEmbeddedResources();
+        assertEquals(ResourceInspector.findEmbeddedResources(FarmersGrandson.class).keySet(), embeds.keySet());
+        assertEquals("12", ResourceEntityAccessors.forClass(FarmersGrandson.class).getUniqueId(new FarmersGrandson("12")));
+
+        assertTrue(ResourceEntityAccessors.forClass(String.class).isSimpleProperty());
+        assertTrue(ResourceEntityAccessors.forClass(Grass.class).getEmbeddedResources().isEmpty());
+    }
+
     @Test
     public void testWebDeletedAnnotationOnMethods()
     {
@@ -28,9 +28,13 @@ package org.alfresco.rest.framework.tests.core;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -38,6 +42,8 @@ import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsonschema.JsonSchema;
 import org.alfresco.repo.content.MimetypeMap;
+import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.alfresco.repo.transaction.RetryingTransactionHelper;
 import org.alfresco.rest.api.tests.util.MultiPartBuilder;
 import org.alfresco.rest.api.tests.util.MultiPartBuilder.FileData;
 import org.alfresco.rest.api.tests.util.MultiPartBuilder.MultiPartRequest;
@@ -72,6 +78,9 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.extensions.surf.util.I18NUtil;
 import org.springframework.extensions.webscripts.Format;
 import org.springframework.extensions.webscripts.WebScriptResponse;
 import org.springframework.extensions.webscripts.servlet.FormData;
@@ -83,13 +92,18 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class SerializeTests extends AbstractContextTest implements RecognizedParamsExtractor
 {
@@ -193,6 +207,105 @@ public class SerializeTests extends AbstractContextTest implements RecognizedPar
         assertTrue("There must be json output", StringUtils.isNotBlank(out));
     }
     
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExpandEmbeddedCollection() throws IOException
+    {
+        Farmer farmer1 = new Farmer("180");
+        farmer1.setGoatId("1111");
+        farmer1.setSheepId("2222");
+        Farmer farmer2 = new Farmer("190");
+        farmer2.setGoatId("1111");
+        farmer2.setSheepId("3333");
+        Farmer farmer3 = new Farmer("280");
+        farmer3.setGoatId("4444");
+
+        CollectionWithPagingInfo<?> resultCollection = (CollectionWithPagingInfo<?>) helper.processAdditionsToTheResponse(mock(WebScriptResponse.class), api, null,
+                    Params.valueOf("notUsed", null, null), CollectionWithPagingInfo.asPaged(Paging.DEFAULT, Arrays.asList(farmer1, farmer2, farmer3)));
+        List<ExecutionResult> results = new ArrayList<ExecutionResult>((Collection<ExecutionResult>) resultCollection.getCollection());
+        assertEquals(3, results.size());
+        assertEquals(farmer1, results.get(0).getRoot());
+        assertEquals(farmer3, results.get(2).getRoot());
+
+        // goats are read with ReadByIds, once per distinct id
+        ExecutionResult goat1 = (ExecutionResult) results.get(0).getEmbedded().get("goat");
+        ExecutionResult goat3 = (ExecutionResult) results.get(2).getEmbedded().get("goat");
+        assertTrue(goat1.isAnEmbeddedEntity());
+        assertSame(goat1, results.get(1).getEmbedded().get("goat"));
+        assertEquals("Goat1111", ((Goat) goat1.getRoot()).getGrassId());
+        assertEquals("Goat4444", ((Goat) goat3.getRoot()).getGrassId());
+        assertEquals("Goat4444", ((Grass) ((ExecutionResult) goat3.getEmbedded().get("grass")).getRoot()).getId());
+
+        // sheep only have ReadById so are read one at a time
+        assertEquals("2222", ((Sheep) ((ExecutionResult) results.get(0).getEmbedded().get("sheep")).getRoot()).getId());
+        assertEquals("3333", ((Sheep) ((ExecutionResult) results.get(1).getEmbedded().get("sheep")).getRoot()).getId());
+        assertFalse(results.get(2).getEmbedded().containsKey("sheep"));
+
+        String out = writeResponse(resultCollection);
+        assertTrue("There must be json output", StringUtils.isNotBlank(out));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testExpandEmbeddedCollectionInParallel() throws IOException
+    {
+        RetryingTransactionHelper tHelper = mock(RetryingTransactionHelper.class);
+        when(tHelper.doInTransaction(any(RetryingTransactionHelper.RetryingTransactionCallback.class), anyBoolean(), anyBoolean())).thenAnswer(new Answer<Object>() {
+            @SuppressWarnings("rawtypes")
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                RetryingTransactionHelper.RetryingTransactionCallback cb = (RetryingTransactionHelper.RetryingTransactionCallback) invocation.getArguments()[0];
+                return cb.execute();
+            }
+        });
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+        helper.setRelationsExecutor(pool);
+        helper.setParallelThreshold(2);
+        helper.setTransactionHelper(tHelper);
+
+        Locale locale = I18NUtil.getLocale();
+        Locale contentLocale = I18NUtil.getContentLocale();
+        AuthenticationUtil.setRunAsUserSystem();
+        I18NUtil.setLocale(Locale.GERMAN);
+        I18NUtil.setContentLocale(Locale.FRENCH);
+        try
+        {
+            List<Farmer> farmers = new ArrayList<Farmer>();
+            for (String sheepId : Arrays.asList("2222", "3333", "4444"))
+            {
+                Farmer farmer = new Farmer("1" + sheepId);
+                farmer.setSheepId(sheepId);
+                farmers.add(farmer);
+            }
+
+            CollectionWithPagingInfo<?> resultCollection = (CollectionWithPagingInfo<?>) helper.processAdditionsToTheResponse(mock(WebScriptResponse.class), api, null,
+                        Params.valueOf("notUsed", null, null), CollectionWithPagingInfo.asPaged(Paging.DEFAULT, farmers));
+            List<ExecutionResult> results = new ArrayList<ExecutionResult>((Collection<ExecutionResult>) resultCollection.getCollection());
+            assertEquals(3, results.size());
+
+            // sheep only have ReadById, so with 3 distinct ids they are read on the worker pool
+            assertEquals(3, pool.getTaskCount());
+            for (int i = 0; i < results.size(); i++)
+            {
+                Sheep sheep = (Sheep) ((ExecutionResult) results.get(i).getEmbedded().get("sheep")).getRoot();
+                assertEquals(farmers.get(i).getSheepId(), sheep.getId());
+                // the workers use the locales of the request
+                assertEquals(Locale.GERMAN, sheep.getLocale());
+                assertEquals(Locale.FRENCH, sheep.getContentLocale());
+            }
+        }
+        finally
+        {
+            I18NUtil.setLocale(locale);
+            I18NUtil.setContentLocale(contentLocale);
+            AuthenticationUtil.clearCurrentSecurityContext();
+            helper.setRelationsExecutor(null);
+            helper.setParallelThreshold(10);
+            helper.setTransactionHelper(null);
+            pool.shutdown();
+        }
+    }
+
     @Test
     public void testExpandRelations() throws IOException
     {
@@ -26,18 +26,28 @@
 package org.alfresco.rest.framework.tests.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.alfresco.rest.antlr.WhereClauseParser;
+import org.alfresco.rest.framework.core.exceptions.InvalidArgumentException;
 import org.alfresco.rest.framework.resource.parameters.where.InvalidQueryException;
 import org.alfresco.rest.framework.resource.parameters.where.Query;
 import org.alfresco.rest.framework.resource.parameters.where.QueryHelper;
 import org.alfresco.rest.framework.resource.parameters.where.QueryHelper.WalkerCallbackAdapter;
+import org.alfresco.rest.framework.resource.parameters.where.WhereFilter;
+import org.alfresco.rest.framework.resource.parameters.where.WhereFilterDefinition;
 import org.alfresco.rest.framework.tools.RecognizedParamsExtractor;
+import org.alfresco.rest.workflow.api.impl.MapBasedQueryWalker;
 import org.antlr.runtime.tree.CommonTree;
 import org.junit.Test;
 
@@ -467,6 +477,140 @@ public class WhereTests implements RecognizedParamsExtractor
 	    assertNotNull(tree);
 	    assertTrue(2 == QueryHelper.getChildren(tree).size());
 	}
+
+	@Test
+	public void cachedClauseTest()
+	{
+	    String clause = "(NOT dueAt between (5,8) AND nextOne in (5,'me , you') AND EXISTS(target/site))";
+	    Query theQuery = getWhereClause(clause);
+	    assertSame(theQuery, getWhereClause(clause));
+
+	    // the recorded callbacks are the same as walking the tree
+	    final CommonTree tree = theQuery.getTree();
+	    assertEquals(walkToString(() -> tree), walkToString(theQuery));
+	    assertTrue(walkToString(theQuery).contains("in:nextOne:[5, me , you]:false,"));
+
+	    // the select clause is copied so callers may change it
+	    List<String> selected = getSelectClause("id,name");
+	    selected.add("other");
+	    assertEquals(Arrays.asList("id", "name"), getSelectClause("id,name"));
+
+	    // only clauses that compile are cached
+	    for (int i = 0; i < 2; i++)
+	    {
+	        try
+	        {
+	            getWhereClause("(noClosingBracket");
+	            fail("Should throw an InvalidQueryException");
+	        }
+	        catch (InvalidQueryException error)
+	        {
+	            //this is correct
+	        }
+	    }
+	}
+
+	@Test
+	public void whereFilterTest()
+	{
+	    WhereFilterDefinition definition = new WhereFilterDefinition()
+	                .add("isPrimary", WhereFilterDefinition.converter(Boolean.class), WhereClauseParser.EQUALS)
+	                .add("size", WhereFilterDefinition.converter(Long.class), WhereClauseParser.GREATERTHAN, WhereClauseParser.LESSTHANOREQUALS)
+	                .add("zones", WhereFilterDefinition.converter(String.class), WhereClauseParser.IN)
+	                .add("name", WhereFilterDefinition.converter(String.class), WhereClauseParser.MATCHES);
+
+	    assertTrue(definition.compile(null).isEmpty());
+	    assertTrue(definition.compile(getWhereClause(null)).isEmpty());
+
+	    Query theQuery = getWhereClause("(isPrimary=true AND size > 10 AND size <= 20 AND zones in ('APP.DEFAULT', 'APP.SHARE') AND name matches('fred*'))");
+	    WhereFilter filter = definition.compile(theQuery);
+	    assertSame(filter, definition.compile(theQuery));
+	    assertEquals(Boolean.TRUE, filter.getValue("isPrimary"));
+	    assertEquals(Long.valueOf(10), filter.getValue("size", WhereClauseParser.GREATERTHAN));
+	    assertEquals(Long.valueOf(20), filter.getValue("size", WhereClauseParser.LESSTHANOREQUALS));
+	    assertEquals(Arrays.asList("APP.DEFAULT", "APP.SHARE"), filter.getValues("zones"));
+	    assertTrue(filter.contains("name", WhereClauseParser.MATCHES));
+	    assertEquals("fred*", filter.getValue("name", WhereClauseParser.MATCHES));
+	    assertNull(filter.getValue("size"));
+	    assertFalse(filter.contains("size", WhereClauseParser.EQUALS));
+
+	    String[] invalidClauses = {"(isPrimary > true)", "(name=fred)", "(NOT isPrimary=true)", "(other=1)", "(isPrimary=true OR size > 10)"};
+	    for (String clause : invalidClauses)
+	    {
+	        try
+	        {
+	            definition.compile(getWhereClause(clause));
+	            fail("Should throw an exception for " + clause);
+	        }
+	        catch (InvalidArgumentException | InvalidQueryException error)
+	        {
+	            //this is correct
+	        }
+	    }
+	}
+
+	@Test
+	public void whereFilterNegatedEqualsTest()
+	{
+	    WhereFilterDefinition definition = new WhereFilterDefinition()
+	                .add("isPrimary", WhereFilterDefinition.converter(Boolean.class), WhereClauseParser.EQUALS);
+	    Query theQuery = getWhereClause("(NOT isPrimary=true)");
+
+	    // the MapBasedQueryWalker rejects the negation of an EQUALS condition
+	    String walkerMessage = null;
+	    try
+	    {
+	        QueryHelper.walk(theQuery, new MapBasedQueryWalker(Collections.singleton("isPrimary"), null));
+	        fail("Should throw an InvalidArgumentException");
+	    }
+	    catch (InvalidArgumentException error)
+	    {
+	        walkerMessage = error.getMessage();
+	    }
+
+	    // and so does a filter, with the same message
+	    try
+	    {
+	        definition.compile(theQuery);
+	        fail("Should throw an InvalidArgumentException");
+	    }
+	    catch (InvalidArgumentException error)
+	    {
+	        assertEquals(walkerMessage, error.getMessage());
+	    }
+	}
+
+	private String walkToString(Query theQuery)
+	{
+	    final StringBuilder calls = new StringBuilder();
+	    QueryHelper.walk(theQuery, new WalkerCallbackAdapter(){
+	        @Override
+	        public void exists(String propertyName, boolean negated) {
+	            calls.append("exists:").append(propertyName).append(":").append(negated).append(",");
+	        }
+	        @Override
+	        public void between(String propertyName, String firstValue, String secondValue, boolean negated) {
+	            calls.append("between:").append(propertyName).append(":").append(firstValue).append(":").append(secondValue).append(":").append(negated).append(",");
+	        }
+	        @Override
+	        public void in(String property, boolean negated, String... propertyValues) {
+	            calls.append("in:").append(property).append(":").append(Arrays.toString(propertyValues)).append(":").append(negated).append(",");
+	        }
+	        @Override
+	        public void matches(String property, String value, boolean negated) {
+	            calls.append("matches:").append(property).append(":").append(value).append(":").append(negated).append(",");
+	        }
+	        @Override
+	        public void and() {
+	            calls.append("and,");
+	        }
+	        @Override
+	        public void or() {
+	            calls.append("or,");
+	        }
+	    });
+	    return calls.toString();
+	}
 	
 	/**
 	 * Used by ComparisonClauseTest, validates the clause
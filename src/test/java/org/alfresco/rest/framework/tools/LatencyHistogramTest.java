@@ -0,0 +1,80 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.framework.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test the LatencyHistogram
+ */
+public class LatencyHistogramTest
+{
+    @Test
+    public void testPercentiles()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(99.0));
+
+        for (long value = 1; value <= 1000; value++)
+        {
+            histogram.record(value * 1000);
+        }
+        histogram.record(-1);
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500, histogram.getMean());
+        assertEquals(1000000, histogram.getMax());
+        assertWithinPrecision(500000, histogram.getPercentile(50.0));
+        assertWithinPrecision(990000, histogram.getPercentile(99.0));
+        assertEquals(1000000, histogram.getPercentile(100.0));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void testBuckets()
+    {
+        for (long value : new long[] {0, 1, 31, 32, 33, 63, 64, 1000, 123456789, 1L << 42})
+        {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue("Value " + value + " above its bucket", value <= LatencyHistogram.highestValue(index));
+            if (index > 0)
+            {
+                assertTrue("Value " + value + " below its bucket", value > LatencyHistogram.highestValue(index - 1));
+            }
+        }
+    }
+
+    private static void assertWithinPrecision(long expected, long actual)
+    {
+        assertTrue("Expected about " + expected + " but was " + actual, actual >= expected && actual <= expected + expected / 32);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2026 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.framework.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.alfresco.repo.cache.DefaultSimpleCache;
+import org.alfresco.rest.api.model.UserInfo;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.cmr.security.AccessStatus;
+import org.alfresco.service.cmr.security.PermissionService;
+import org.alfresco.service.cmr.security.PersonService;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the UserInfoCache
+ */
+public class UserInfoCacheTest
+{
+    private static final NodeRef PERSON_NODE_REF = new NodeRef("workspace://SpacesStore/person-id");
+
+    private PersonService personService;
+    private PermissionService permissionService;
+    private UserInfoCache userInfoCache;
+
+    @Before
+    public void setUp()
+    {
+        personService = mock(PersonService.class);
+        when(personService.getPersonOrNull("jbloggs")).thenReturn(PERSON_NODE_REF);
+        when(personService.getPerson(PERSON_NODE_REF)).thenReturn(
+                    new PersonService.PersonInfo(PERSON_NODE_REF, "jbloggs", "Joe", "Bloggs"));
+        permissionService = mock(PermissionService.class);
+        when(permissionService.hasReadPermission(PERSON_NODE_REF)).thenReturn(AccessStatus.ALLOWED);
+
+        userInfoCache = new UserInfoCache();
+        userInfoCache.setPersonService(personService);
+        userInfoCache.setPermissionService(permissionService);
+        userInfoCache.setSharedCache(new DefaultSimpleCache<String, UserInfoCache.SharedUserInfo>(10, true, 60, 0, "restApiUserInfoSharedCache"));
+        userInfoCache.setShareAcrossRequests(true);
+        userInfoCache.init();
+    }
+
+    @Test
+    public void testSharedAcrossRequests()
+    {
+        UserInfo userInfo = userInfoCache.getUserInfo("jbloggs");
+        assertEquals("jbloggs", userInfo.getId());
+        assertEquals("Joe Bloggs", userInfo.getDisplayName());
+
+        Map<String, UserInfo> mapUserInfo = new HashMap<>();
+        userInfoCache.prefetch(Arrays.asList("jbloggs", null, "jbloggs"), mapUserInfo);
+        assertEquals(1, mapUserInfo.size());
+        assertEquals("Joe Bloggs", mapUserInfo.get("jbloggs").getDisplayName());
+
+        verify(personService, times(1)).getPerson(PERSON_NODE_REF);
+        assertNull(userInfoCache.getUserInfo(null));
+    }
+
+    @Test
+    public void testSharedOnlyWithReaders()
+    {
+        userInfoCache.getUserInfo("jbloggs");
+
+        // a reader who may not read the person resolves the user again
+        when(permissionService.hasReadPermission(PERSON_NODE_REF)).thenReturn(AccessStatus.DENIED);
+        assertEquals("Joe Bloggs", userInfoCache.getUserInfo("jbloggs").getDisplayName());
+
+        verify(personService, times(2)).getPerson(PERSON_NODE_REF);
+    }
+
+    @Test
+    public void testNotSharedAcrossRequests()
+    {
+        userInfoCache.setShareAcrossRequests(false);
+
+        userInfoCache.getUserInfo("jbloggs");
+        userInfoCache.getUserInfo("jbloggs");
+
+        verify(personService, times(2)).getPerson(PERSON_NODE_REF);
+    }
+
+    @Test
+    public void testUnknownPersonNotShared()
+    {
+        assertEquals("unknown", userInfoCache.getUserInfo("unknown").getDisplayName());
+        assertEquals("unknown", userInfoCache.getUserInfo("unknown").getDisplayName());
+
+        verify(personService, times(2)).getPersonOrNull("unknown");
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2016 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.workflow.api.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.alfresco.rest.workflow.api.impl.ProcessDiagramCache.Diagram;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the ProcessDiagramCache
+ */
+public class ProcessDiagramCacheTest
+{
+    private ProcessDiagramCache cache;
+
+    @Before
+    public void setUp()
+    {
+        cache = new ProcessDiagramCache();
+        cache.setMaxSize(10);
+    }
+
+    @Test
+    public void testKeyedBySortedActiveActivities()
+    {
+        Diagram diagram = cache.put("review:1:4", Arrays.asList("reviewTask", "approved"), new byte[] { 1, 2, 3 });
+        assertSame(diagram, cache.get("review:1:4", Arrays.asList("approved", "reviewTask")));
+        assertArrayEquals(new byte[] { 1, 2, 3 }, diagram.getContent());
+        assertNotNull(diagram.getETag());
+
+        assertNull(cache.get("review:1:4", Collections.singletonList("reviewTask")));
+        assertNull(cache.get("review:2:8", Arrays.asList("approved", "reviewTask")));
+
+        Diagram other = cache.put("review:1:4", Collections.singletonList("reviewTask"), new byte[] { 1, 2, 4 });
+        assertNotEquals(diagram.getETag(), other.getETag());
+        assertEquals(diagram.getETag(), new Diagram(new byte[] { 1, 2, 3 }).getETag());
+    }
+
+    @Test
+    public void testBoundedBySize()
+    {
+        cache.put("review:1:4", Collections.singletonList("a"), new byte[4]);
+        cache.put("review:1:4", Collections.singletonList("b"), new byte[4]);
+        assertNotNull(cache.get("review:1:4", Collections.singletonList("a")));
+
+        // the least recently used diagram is evicted
+        cache.put("review:1:4", Collections.singletonList("c"), new byte[4]);
+        assertEquals(2, cache.size());
+        assertEquals(8L, cache.getTotalSize());
+        assertNull(cache.get("review:1:4", Collections.singletonList("b")));
+        assertNotNull(cache.get("review:1:4", Collections.singletonList("a")));
+
+        // a diagram larger than the cache isn't cached
+        Diagram large = cache.put("review:1:4", Collections.singletonList("d"), new byte[11]);
+        assertNotNull(large.getETag());
+        assertNull(cache.get("review:1:4", Collections.singletonList("d")));
+        assertEquals(8L, cache.getTotalSize());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0L, cache.getTotalSize());
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        cache.setEnabled(false);
+        cache.put("review:1:4", Collections.singletonList("a"), new byte[4]);
+        assertNull(cache.get("review:1:4", Collections.singletonList("a")));
+        assertEquals(0, cache.size());
+    }
+}
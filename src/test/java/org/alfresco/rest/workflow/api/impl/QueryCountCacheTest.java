@@ -0,0 +1,209 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2016 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.workflow.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.engine.query.Query;
+import org.alfresco.rest.framework.resource.parameters.Paging;
+import org.alfresco.rest.framework.resource.parameters.Parameters;
+import org.alfresco.rest.workflow.api.impl.WorkflowRestImpl.QueryPage;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.extensions.webscripts.WebScriptRequest;
+
+/**
+ * Test the QueryCountCache and the paging of workflow queries without counting all the results
+ */
+public class QueryCountCacheTest
+{
+    private Query<?, String> query;
+    private WorkflowRestImpl workflowRest;
+    private QueryCountCache cache;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp()
+    {
+        query = mock(Query.class);
+        when(query.count()).thenReturn(7L);
+
+        cache = new QueryCountCache();
+        workflowRest = new WorkflowRestImpl();
+        workflowRest.setCountTotalItems(false);
+        workflowRest.setQueryCountCache(cache);
+    }
+
+    @Test
+    public void testCountedByDefault()
+    {
+        workflowRest.setCountTotalItems(true);
+        when(query.listPage(0, 2)).thenReturn(Arrays.asList("a", "b"));
+
+        QueryPage<String> page = workflowRest.listPage(query, parameters(0, 2, null), "tasks");
+        assertEquals(Arrays.asList("a", "b"), page.getResults());
+        assertTrue(page.hasMoreItems());
+        assertEquals(Integer.valueOf(7), page.getTotalItems());
+    }
+
+    @Test
+    public void testMoreItemsWithoutCount()
+    {
+        when(query.listPage(0, 3)).thenReturn(Arrays.asList("a", "b", "c"));
+
+        QueryPage<String> page = workflowRest.listPage(query, parameters(0, 2, null), "tasks");
+        assertEquals(Arrays.asList("a", "b"), page.getResults());
+        assertTrue(page.hasMoreItems());
+        assertNull(page.getTotalItems());
+        verify(query, never()).count();
+    }
+
+    @Test
+    public void testLastPageWithoutCount()
+    {
+        when(query.listPage(4, 3)).thenReturn(Arrays.asList("e", "f"));
+        when(query.listPage(8, 3)).thenReturn(Collections.<String>emptyList());
+
+        QueryPage<String> page = workflowRest.listPage(query, parameters(4, 2, null), "tasks");
+        assertFalse(page.hasMoreItems());
+        assertEquals(Integer.valueOf(6), page.getTotalItems());
+
+        // past the last page the total isn't known
+        page = workflowRest.listPage(query, parameters(8, 2, null), "tasks");
+        assertFalse(page.hasMoreItems());
+        assertNull(page.getTotalItems());
+        verify(query, never()).count();
+    }
+
+    @Test
+    public void testIncludedTotalItemsCached()
+    {
+        when(query.listPage(0, 3)).thenReturn(Arrays.asList("a", "b", "c"));
+
+        QueryPage<String> page = workflowRest.listPage(query, parameters(0, 2, "status='active'"), "tasks");
+        assertEquals(Integer.valueOf(7), page.getTotalItems());
+        page = workflowRest.listPage(query, parameters(0, 2, "status='active'"), "tasks");
+        assertEquals(Integer.valueOf(7), page.getTotalItems());
+        verify(query, times(1)).count();
+        assertEquals(1, cache.size());
+
+        // another where clause is another query
+        workflowRest.listPage(query, parameters(0, 2, "status='any'"), "tasks");
+        verify(query, times(2)).count();
+        assertEquals(2, cache.size());
+
+        cache.clear();
+        workflowRest.listPage(query, parameters(0, 2, "status='active'"), "tasks");
+        verify(query, times(3)).count();
+    }
+
+    @Test
+    public void testIncludedTotalItemsKeyedByRequestParameters()
+    {
+        when(query.listPage(0, 3)).thenReturn(Arrays.asList("a", "b", "c"));
+        when(query.listPage(2, 3)).thenReturn(Arrays.asList("c", "d", "e"));
+
+        workflowRest.listPage(query, parameters(0, 2, null, "completed"), "processHistoricTasks:1");
+        verify(query, times(1)).count();
+
+        // the paging doesn't change the count
+        workflowRest.listPage(query, parameters(2, 2, null, "completed"), "processHistoricTasks:1");
+        verify(query, times(1)).count();
+
+        // another status is another query
+        workflowRest.listPage(query, parameters(0, 2, null, "any"), "processHistoricTasks:1");
+        verify(query, times(2)).count();
+        workflowRest.listPage(query, parameters(0, 2, "status='any'", "any"), "processHistoricTasks:1");
+        verify(query, times(3)).count();
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testCacheDisabled()
+    {
+        cache.setEnabled(false);
+        List<String> key = Arrays.asList("", "user1", "tasks", null);
+        assertEquals(7L, cache.getCount(key, () -> query.count()));
+        assertEquals(7L, cache.getCount(key, () -> query.count()));
+        verify(query, times(2)).count();
+        assertEquals(0, cache.size());
+    }
+
+    private static Parameters parameters(int skipCount, int maxItems, String where)
+    {
+        return parameters(skipCount, maxItems, where, null);
+    }
+
+    private static Parameters parameters(int skipCount, int maxItems, String where, String status)
+    {
+        Parameters parameters = mock(Parameters.class);
+        when(parameters.getPaging()).thenReturn(Paging.valueOf(skipCount, maxItems));
+        if (where == null && status == null)
+        {
+            when(parameters.getInclude()).thenReturn(Collections.<String>emptyList());
+        }
+        else
+        {
+            Map<String, String> requestParameters = new LinkedHashMap<>();
+            requestParameters.put("skipCount", String.valueOf(skipCount));
+            requestParameters.put("maxItems", String.valueOf(maxItems));
+            requestParameters.put("include", "totalItems");
+            if (where != null)
+            {
+                requestParameters.put("where", where);
+            }
+            if (status != null)
+            {
+                requestParameters.put("status", status);
+            }
+
+            WebScriptRequest request = mock(WebScriptRequest.class);
+            when(request.getParameterNames()).thenReturn(requestParameters.keySet().toArray(new String[0]));
+            for (Map.Entry<String, String> requestParameter : requestParameters.entrySet())
+            {
+                when(request.getParameter(requestParameter.getKey())).thenReturn(requestParameter.getValue());
+                when(request.getParameterValues(requestParameter.getKey())).thenReturn(new String[] { requestParameter.getValue() });
+            }
+            when(parameters.getRequest()).thenReturn(request);
+            when(parameters.getInclude()).thenReturn(Arrays.asList("totalItems"));
+        }
+        return parameters;
+    }
+}
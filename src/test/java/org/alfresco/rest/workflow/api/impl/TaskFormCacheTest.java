@@ -0,0 +1,133 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2016 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software. 
+ * If the software was purchased under a paid Alfresco license, the terms of 
+ * the paid license agreement will prevail.  Otherwise, the software is 
+ * provided under the following open source license terms:
+ * 
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.rest.workflow.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.activiti.engine.delegate.event.ActivitiEntityEvent;
+import org.activiti.engine.repository.Deployment;
+import org.activiti.engine.task.Task;
+import org.alfresco.service.cmr.dictionary.TypeDefinition;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the TaskFormCache
+ */
+public class TaskFormCacheTest
+{
+    private TaskFormCache cache;
+    private AtomicInteger loads;
+
+    @Before
+    public void setUp()
+    {
+        cache = new TaskFormCache();
+        cache.setTimeToLive(0);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void testCachedUntilDeploymentChanges()
+    {
+        assertEquals("wf:reviewTask", cache.getFormKey("review:1:4", "reviewTask", loader("wf:reviewTask")));
+        assertEquals("wf:reviewTask", cache.getFormKey("review:1:4", "reviewTask", loader("wf:reviewTask")));
+        assertEquals(1, loads.get());
+
+        // a task without a form key is cached as well
+        assertNull(cache.getFormKey("review:1:4", "approved", loader(null)));
+        assertNull(cache.getFormKey("review:1:4", "approved", loader(null)));
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.size());
+
+        cache.onEvent(entityEvent(mock(Task.class)));
+        assertEquals(2, cache.size());
+
+        cache.onEvent(entityEvent(mock(Deployment.class)));
+        assertEquals(0, cache.size());
+        cache.getFormKey("review:1:4", "reviewTask", loader("wf:reviewTask"));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testClearedWhenDictionaryReloaded()
+    {
+        TypeDefinition before = mock(TypeDefinition.class);
+        TypeDefinition after = mock(TypeDefinition.class);
+        assertSame(before, cache.getTaskTypeDefinition("wf:reviewTask", false, () -> before));
+        assertSame(before, cache.getTaskTypeDefinition("wf:reviewTask", false, () -> after));
+
+        // a content model change reinitialises the dictionary
+        cache.afterDictionaryInit();
+        assertEquals(0, cache.size());
+        assertSame(after, cache.getTaskTypeDefinition("wf:reviewTask", false, () -> after));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction()
+    {
+        cache.setMaxItems(1);
+        cache.getFormKey("review:1:4", "reviewTask", loader("wf:reviewTask"));
+        cache.getFormKey("review:1:4", "approved", loader("wf:approvedTask"));
+        assertEquals(1, cache.size());
+
+        cache.getFormKey("review:1:4", "reviewTask", loader("wf:reviewTask"));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        cache.setEnabled(false);
+        cache.getFormKey("review:1:4", "reviewTask", loader("wf:reviewTask"));
+        cache.getFormKey("review:1:4", "reviewTask", loader("wf:reviewTask"));
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    private Supplier<String> loader(String value)
+    {
+        return () ->
+        {
+            loads.incrementAndGet();
+            return value;
+        };
+    }
+
+    private static ActivitiEntityEvent entityEvent(Object entity)
+    {
+        ActivitiEntityEvent event = mock(ActivitiEntityEvent.class);
+        when(event.getEntity()).thenReturn(entity);
+        return event;
+    }
+}